@@ -0,0 +1,42 @@
+package org.example.benchmark;
+
+import org.example.lib.GeneratedInjector;
+import org.example.service.FileOperationService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * This is a utility class with the setup shared by the benchmarks.
+ */
+public class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Creates a FileOperationService with its dependencies. A new generated injector is used instead of the shared
+     * Injector, so that every call creates new services, which read the current system properties.
+     *
+     * @return The service.
+     */
+    public static FileOperationService createFileOperationService() {
+        return (FileOperationService) new GeneratedInjector().getInstance(FileOperationService.class);
+    }
+
+    /**
+     * Deletes a folder with all its content.
+     *
+     * @param folder The folder to delete.
+     * @throws IOException If a file can't be deleted.
+     */
+    public static void deleteFolder(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.AttributeCounter;
+import org.example.parser.OrderJsonScanner;
+import org.example.service.CalculationService;
+import org.example.service.impl.CalculationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures CalculationServiceImpl.calculateAttributes on a single generated file held in memory,
+ * through the Jackson parser and through the byte scanner, so that file I/O doesn't affect the results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationServiceBenchmark {
+    @Param({"id", "customer", "date", "statusPayment", "description", "totalPrice"})
+    private String attribute;
+    @Param("4096")
+    private int fileSizeKb;
+    @Param("2000")
+    private int customers;
+    private final CalculationService calculationService = new CalculationServiceImpl();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private byte[] content;
+    private OrderJsonScanner scanner;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path folder = Files.createTempDirectory("calculation-benchmark");
+        try {
+            OrderDataGenerator.generate(folder, 1, (long) fileSizeKb << 10, customers, 42);
+            content = Files.readAllBytes(folder.resolve("orders_1.json"));
+        } finally {
+            BenchmarkSupport.deleteFolder(folder);
+        }
+        scanner = new OrderJsonScanner(List.of(attribute));
+    }
+
+    @Benchmark
+    public Map<String, AttributeCounter> jsonParser() throws IOException {
+        Map<String, AttributeCounter> statistics = Map.of(attribute, new AttributeCounter());
+
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            JsonToken jsonToken;
+            while ((jsonToken = parser.nextToken()) != null) {
+                if (jsonToken == JsonToken.FIELD_NAME) {
+                    calculationService.calculateAttributes(parser, statistics);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Benchmark
+    public AttributeCounter byteScanner() {
+        AttributeCounter statistics = new AttributeCounter();
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+
+        scanner.scan(buffer, 0, buffer.limit(), (index, bytes, start, end) ->
+                calculationService.calculateAttributes(bytes, start, end, attribute, statistics));
+        return statistics;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.benchmark;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.service.FileOperationService;
+import org.example.util.SingletonObjectsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.util.PropertiesUtil.*;
+
+/**
+ * Measures FileOperationServiceImpl.readFromFile end-to-end on a folder of generated files for every attribute,
+ * across thread counts, reader modes and execution modes. The settings are passed as system properties before
+ * the shared executor is created, which works because every parameter combination runs in its own fork.
+ * The virtual execution mode requires Java 21: {@code -p execution=pool,virtual}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileOperationServiceBenchmark {
+    @Param({"id", "customer", "date", "statusPayment", "description", "totalPrice"})
+    private String attribute;
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+    @Param({"jackson", "mapped"})
+    private String reader;
+    @Param("pool")
+    private String execution;
+    @Param("8")
+    private int files;
+    @Param("8192")
+    private int fileSizeKb;
+    @Param("2000")
+    private int customers;
+    private Path folder;
+    private FileOperationService fileOperationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty(THREADS_PROPERTY, String.valueOf(threads));
+        System.setProperty(READER_MODE_PROPERTY, reader);
+        System.setProperty(EXECUTION_MODE_PROPERTY, execution);
+        folder = Files.createTempDirectory("read-benchmark");
+        OrderDataGenerator.generate(folder, files, (long) fileSizeKb << 10, customers, 42);
+        fileOperationService = BenchmarkSupport.createFileOperationService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SingletonObjectsUtil.shutdownExecutorService();
+        BenchmarkSupport.deleteFolder(folder);
+    }
+
+    @Benchmark
+    public Map<String, AttributeCounter> readFromFile() {
+        return fileOperationService.readFromFile(folder.toString(), List.of(attribute));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * OrderDataGenerator writes order JSON files of the same shape as the files in the resources folder,
+ * one order per line. The number of files, the size of every file and the number of distinct customers
+ * can be configured, and the same seed always produces the same files.
+ * <p>
+ * Usage: {@code OrderDataGenerator <folder> <files> <file size in KB> <customers> [seed]}
+ */
+public class OrderDataGenerator {
+    private static final String[] PRODUCTS = {"Sneakers", "Socks", "Toothpaste", "Brush", "Jeans", "Umbrella",
+            "Gloves", "Lamp", "Soap", "T-shirt", "Glasses", "Laptop", "Backpack", "Coat", "Towels"};
+    private static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+    private static final int DAYS_NUMBER = 366;
+    private static final int MAX_PRODUCTS_PER_ORDER = 4;
+    private static final long DEFAULT_SEED = 42;
+
+    private OrderDataGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: OrderDataGenerator <folder> <files> <file size in KB> <customers> [seed]");
+            System.exit(1);
+        }
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+        generate(Paths.get(args[0]), Integer.parseInt(args[1]), Long.parseLong(args[2]) << 10,
+                Integer.parseInt(args[3]), seed);
+    }
+
+    /**
+     * Generates the order files orders_1.json to orders_{files}.json in the specified folder.
+     *
+     * @param folder    The folder to write the files to. It is created if it doesn't exist.
+     * @param files     The number of files.
+     * @param fileSize  The approximate size of every file in bytes.
+     * @param customers The number of distinct customers.
+     * @param seed      The seed of the random values.
+     * @throws IOException If a file can't be written.
+     */
+    public static void generate(Path folder, int files, long fileSize, int customers, long seed) throws IOException {
+        Files.createDirectories(folder);
+        long id = 0;
+
+        for (int file = 1; file <= files; file++) {
+            SplittableRandom random = new SplittableRandom(seed + file);
+            try (BufferedWriter writer = Files.newBufferedWriter(
+                    folder.resolve("orders_" + file + ".json"), StandardCharsets.UTF_8)) {
+                StringBuilder order = new StringBuilder(256);
+                long written = 2;
+                writer.write("[\n");
+
+                do {
+                    order.setLength(0);
+                    order.append(written > 2 ? ",\n" : "");
+                    appendOrder(order, ++id, customers, random);
+                    writer.append(order);
+                    written += order.length();
+                } while (written < fileSize);
+                writer.write("\n]\n");
+            }
+        }
+    }
+
+    private static void appendOrder(StringBuilder order, long id, int customers, SplittableRandom random) {
+        order.append("  {\"id\": ").append(id)
+                .append(", \"customer\": \"Customer ").append(random.nextInt(customers))
+                .append("\", \"date\": \"").append(FIRST_DATE.plusDays(random.nextInt(DAYS_NUMBER)))
+                .append("\", \"statusPayment\": ").append(random.nextBoolean())
+                .append(", \"description\": \"");
+        int productsNumber = 1 + random.nextInt(MAX_PRODUCTS_PER_ORDER);
+        for (int i = 0; i < productsNumber; i++) {
+            order.append(i == 0 ? "" : ", ").append(PRODUCTS[random.nextInt(PRODUCTS.length)]);
+        }
+        order.append("\", \"totalPrice\": ")
+                .append(String.format(Locale.ROOT, "%.2f", 1 + random.nextInt(100_000) / 100.0))
+                .append('}');
+    }
+}
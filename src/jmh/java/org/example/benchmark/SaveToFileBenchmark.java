@@ -0,0 +1,67 @@
+package org.example.benchmark;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.service.FileOperationService;
+import org.example.util.SingletonObjectsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.util.FileConstantsUtil.*;
+
+/**
+ * Measures FileOperationServiceImpl.saveToFile for statistics with different numbers of distinct values.
+ * The statistics file is written to the results folder of the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SaveToFileBenchmark {
+    private static final String ATTRIBUTE = "benchmark";
+    @Param({"100", "10000", "1000000"})
+    private int values;
+    private AttributeCounter statistics;
+    private FileOperationService fileOperationService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(Paths.get(DEFAULT_PATH_FOR_RESULTS));
+        SplittableRandom random = new SplittableRandom(42);
+        statistics = new AttributeCounter(values);
+        for (int i = 0; i < values; i++) {
+            statistics.add("Customer " + i, 1 + random.nextInt(1000));
+        }
+        statistics.sortByDescendingCount();
+        fileOperationService = BenchmarkSupport.createFileOperationService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SingletonObjectsUtil.shutdownExecutorService();
+        Files.deleteIfExists(Paths.get(DEFAULT_PATH_FOR_RESULTS, FILE_NAME_PREFIX + ATTRIBUTE + XML_FILE_EXTENSION));
+    }
+
+    @Benchmark
+    public void saveToFile() {
+        fileOperationService.saveToFile(statistics, ATTRIBUTE);
+    }
+}
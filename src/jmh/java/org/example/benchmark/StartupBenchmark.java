@@ -0,0 +1,48 @@
+package org.example.benchmark;
+
+import org.example.lib.Injector;
+import org.example.service.StatisticsProcessorService;
+import org.example.util.SingletonObjectsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to wire the services on startup, as Main does, with the injector generated at build time
+ * and with the reflective Injector, which scans the classes of the package. Every measurement runs
+ * in a new JVM, so that it includes loading the classes, like every run of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+    private static final String MAIN_PACKAGE_NAME = "org.example";
+    @Param({"generated", "reflective"})
+    private String injector;
+
+    @Benchmark
+    public Object getInstance() {
+        Injector instance = "generated".equals(injector)
+                ? Injector.getInstance(MAIN_PACKAGE_NAME)
+                : Injector.getReflectiveInstance(MAIN_PACKAGE_NAME);
+        return instance.getInstance(StatisticsProcessorService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SingletonObjectsUtil.shutdownExecutorService();
+    }
+}
@@ -3,16 +3,36 @@ package org.example;
 import org.example.exception.CustomExceptionHandler;
 import org.example.lib.Injector;
 import org.example.service.StatisticsProcessorService;
+import org.example.util.SingletonObjectsUtil;
 
+import java.util.Arrays;
+
+/**
+ * Calculates the statistics. Without arguments, the folder and the attributes are entered in the console.
+ * With arguments, e.g. from a script, they are taken from the arguments and nothing is asked:
+ * {@code <folder> <attribute>[,<attribute>...]}, where the attributes may also be separate arguments.
+ */
 public class Main {
+    private static final String USAGE = "Usage: <folder> <attribute>[,<attribute>...]";
     private static final Injector injector = Injector.getInstance("org.example");
 
     public static void main(String[] args) {
         Thread.setDefaultUncaughtExceptionHandler(new CustomExceptionHandler());
+        if (args.length == 1) {
+            throw new IllegalArgumentException(USAGE);
+        }
 
         StatisticsProcessorService service =
                 (StatisticsProcessorService) injector.getInstance(StatisticsProcessorService.class);
 
-        service.processStatistics();
+        try {
+            if (args.length == 0) {
+                service.processStatistics();
+            } else {
+                service.processStatistics(args[0], String.join(",", Arrays.copyOfRange(args, 1, args.length)));
+            }
+        } finally {
+            SingletonObjectsUtil.shutdownExecutorService();
+        }
     }
 }
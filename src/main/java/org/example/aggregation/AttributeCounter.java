@@ -0,0 +1,753 @@
+package org.example.aggregation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * AttributeCounter is an open-addressing hash table that counts occurrences of attribute values.
+ * Counts are kept in a primitive long array, so incrementing an existing value doesn't allocate anything,
+ * and a count can't overflow on huge datasets.
+ * Values can also be counted straight from their UTF-8 bytes: the bytes are hashed and compared in place,
+ * and a String is only created the first time a distinct value appears.
+ * Entries are stored densely in insertion order until {@link #sortByDescendingCount()} reorders them.
+ * <p>
+ * A counter can be bounded to a capacity k, which turns it into a Misra-Gries heavy-hitters summary.
+ * The counter grows to 2k values; then the (k+1)-th largest count c is subtracted from every count,
+ * and the values whose count isn't positive anymore are dropped, so that at most k values remain.
+ * Each reduction removes at least (k+1)c from the total N of all counts, therefore:
+ * <ul>
+ *     <li>a kept count is never higher than the real count and at most {@link #getMaxError()} lower,</li>
+ *     <li>the maximal error is never higher than N / (k + 1),</li>
+ *     <li>every value whose real count is higher than the maximal error is kept.</li>
+ * </ul>
+ * Bounded counters can be merged with the same guarantees: the maximal errors of both are added up.
+ * <p>
+ * A counter can also feed an {@link AttributeSketch} with every counted value, which estimates the number of
+ * distinct values and the count of any value in fixed memory. A counter of the capacity 0 keeps no values at all
+ * and only fills its sketch. Merging counters merges their sketches.
+ * <p>
+ * An exact counter can also aggregate the total prices of the orders by value in {@link PriceStatistics},
+ * which are kept in columns parallel to the entries and follow them through merging and sorting.
+ * <p>
+ * The counter isn't thread-safe: every thread is expected to fill its own instance
+ * and the instances are merged afterwards.
+ */
+public class AttributeCounter {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int EMPTY_SLOT = -1;
+    private static final long MALFORMED_UTF8 = -1;
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+    private final int capacity;
+    private long maxError;
+    private AttributeSketch sketch;
+    private PriceStatistics priceStatistics;
+    private int[] slots;
+    private String[] values;
+    private int[] hashes;
+    private long[] counts;
+    private int size;
+
+    public AttributeCounter() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a counter that can hold the expected number of distinct values without resizing.
+     *
+     * @param expectedSize The expected number of distinct values.
+     */
+    public AttributeCounter(int expectedSize) {
+        this(expectedSize, UNBOUNDED);
+    }
+
+    /**
+     * Constructs a counter that keeps approximate counts of at most the specified number of values.
+     *
+     * @param expectedSize The expected number of distinct values.
+     * @param capacity     The number of values the counter is reduced to, {@value #UNBOUNDED} for exact counts,
+     *                     or 0 for a counter that keeps no values and only fills its sketch.
+     */
+    public AttributeCounter(int expectedSize, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity can't be negative");
+        }
+        this.capacity = capacity;
+        int tableCapacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize) - 1) << 1;
+        slots = new int[tableCapacity * 2];
+        Arrays.fill(slots, EMPTY_SLOT);
+        values = new String[tableCapacity];
+        hashes = new int[tableCapacity];
+        counts = new long[tableCapacity];
+    }
+
+    /**
+     * Consumer of the entries of a counter together with their index.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Accepts an entry.
+         *
+         * @param index The index of the entry, valid until the counter is changed.
+         * @param value The attribute value.
+         * @param count The count of the value.
+         */
+        void accept(int index, String value, long count);
+    }
+
+    /**
+     * Increments the count of the specified value by one.
+     *
+     * @param value The attribute value.
+     */
+    public void increment(String value) {
+        add(value, 1);
+    }
+
+    /**
+     * Adds the specified delta to the count of the value, inserting the value if it is absent.
+     *
+     * @param value The attribute value.
+     * @param delta The number to add to the count.
+     */
+    public void add(String value, long delta) {
+        if (sketch != null) {
+            sketch.add(value, delta);
+        }
+        int index = addCount(value, delta);
+        if (priceStatistics != null) {
+            priceStatistics.touch(index);
+        }
+    }
+
+    /**
+     * Adds the delta to the count of the value without updating the sketch.
+     *
+     * @return The index of the entry of the value, or -1 if the counter keeps no values.
+     */
+    private int addCount(String value, long delta) {
+        if (capacity == 0) {
+            return EMPTY_SLOT;
+        }
+        int hash = hash(value);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY_SLOT) {
+            int index = slots[slot];
+            if (hashes[index] == hash && values[index].equals(value)) {
+                counts[index] += delta;
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, value, hash, delta);
+    }
+
+    /**
+     * Increments by one the count of the value encoded by the specified UTF-8 bytes.
+     * The value is looked up without decoding the bytes into a String.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     */
+    public void increment(ByteBuffer buffer, int start, int end) {
+        long utf16HashCode = utf16HashCode(buffer, start, end);
+        if (utf16HashCode == MALFORMED_UTF8) {
+            increment(decode(buffer, start, end));
+            return;
+        }
+        if (sketch != null) {
+            sketch.add(buffer, start, end);
+        }
+        if (capacity == 0) {
+            return;
+        }
+        int hash = spread((int) utf16HashCode);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY_SLOT) {
+            int index = slots[slot];
+            if (hashes[index] == hash && contentEquals(values[index], buffer, start, end)) {
+                counts[index]++;
+                if (priceStatistics != null) {
+                    priceStatistics.touch(index);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int index = insert(slot, decode(buffer, start, end), hash, 1);
+        if (priceStatistics != null) {
+            priceStatistics.touch(index);
+        }
+    }
+
+    /**
+     * Increments by one the count of the value held by the specified range of characters, e.g. the text buffer
+     * of a JSON parser. The value is looked up without creating a String.
+     *
+     * @param chars  The array holding the characters of the value.
+     * @param offset The index of the first character of the value.
+     * @param length The number of characters of the value.
+     */
+    public void increment(char[] chars, int offset, int length) {
+        add(chars, offset, length, 1);
+    }
+
+    /**
+     * Adds the specified delta to the count of the value held by the specified range of characters,
+     * inserting the value if it is absent. The value is looked up without creating a String.
+     *
+     * @param chars  The array holding the characters of the value.
+     * @param offset The index of the first character of the value.
+     * @param length The number of characters of the value.
+     * @param delta  The number to add to the count.
+     */
+    public void add(char[] chars, int offset, int length, long delta) {
+        if (sketch != null || capacity == 0) {
+            add(new String(chars, offset, length), delta);
+            return;
+        }
+        int hashCode = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hashCode = 31 * hashCode + chars[i];
+        }
+        int hash = spread(hashCode);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY_SLOT) {
+            int index = slots[slot];
+            if (hashes[index] == hash && contentEquals(values[index], chars, offset, length)) {
+                counts[index] += delta;
+                if (priceStatistics != null) {
+                    priceStatistics.touch(index);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int index = insert(slot, new String(chars, offset, length), hash, delta);
+        if (priceStatistics != null) {
+            priceStatistics.touch(index);
+        }
+    }
+
+    /**
+     * Returns the count of the specified value.
+     *
+     * @param value The attribute value.
+     * @return The count of the value, or 0 if it hasn't been counted.
+     */
+    public long get(String value) {
+        int index = indexOf(value);
+        return index == EMPTY_SLOT ? 0 : counts[index];
+    }
+
+    /**
+     * Adds all counts of another counter to this one. The maximal error of the other counter is added to the
+     * maximal error of this one, and its sketch is merged into the sketch of this one.
+     *
+     * @param other The counter to merge into this one.
+     */
+    public void mergeFrom(AttributeCounter other) {
+        if (other.priceStatistics != null && priceStatistics == null) {
+            withPriceStatistics(new PriceStatistics());
+        }
+        for (int i = 0; i < other.size; i++) {
+            int index = addCount(other.values[i], other.counts[i]);
+            if (other.priceStatistics != null) {
+                priceStatistics.merge(index, other.priceStatistics, i);
+            }
+        }
+        maxError += other.maxError;
+        if (other.sketch != null) {
+            if (sketch == null) {
+                sketch = other.sketch.copy();
+            } else {
+                sketch.merge(other.sketch);
+            }
+        }
+    }
+
+    /**
+     * Makes the counter feed the specified sketch with every value counted from now on.
+     *
+     * @param sketch The sketch to fill.
+     * @return This counter, for chaining.
+     */
+    public AttributeCounter withSketch(AttributeSketch sketch) {
+        this.sketch = sketch;
+        return this;
+    }
+
+    /**
+     * Makes the counter aggregate the prices of the orders by value. The prices need exact counts,
+     * because the entries of a bounded counter can be dropped before the price of their order is known.
+     *
+     * @param priceStatistics The empty price statistics to fill.
+     * @return This counter, for chaining.
+     * @throws IllegalStateException If the counter is bounded.
+     */
+    public AttributeCounter withPriceStatistics(PriceStatistics priceStatistics) {
+        if (capacity != UNBOUNDED) {
+            throw new IllegalStateException("Price statistics need a counter of exact counts");
+        }
+        priceStatistics.grow(values.length);
+        this.priceStatistics = priceStatistics;
+        return this;
+    }
+
+    /**
+     * Returns the price statistics aggregated by the counter.
+     *
+     * @return The price statistics, or null if the counter doesn't aggregate prices.
+     */
+    public PriceStatistics getPriceStatistics() {
+        return priceStatistics;
+    }
+
+    /**
+     * Adds the price of the order that has just been read to the price statistics of every value
+     * counted for the order since the previous call.
+     *
+     * @param price The price of the order.
+     */
+    public void completeOrder(OrderPrice price) {
+        if (priceStatistics != null) {
+            priceStatistics.completeOrder(price);
+        }
+    }
+
+    /**
+     * Returns the sketch filled by the counter.
+     *
+     * @return The sketch, or null if the counter doesn't fill one.
+     */
+    public AttributeSketch getSketch() {
+        return sketch;
+    }
+
+    /**
+     * Widens the maximal error of the counts, e.g. when the counter is restored from counts
+     * that were already approximate.
+     *
+     * @param error The error to add to the maximal error.
+     */
+    public void addMaxError(long error) {
+        maxError += error;
+    }
+
+    /**
+     * Reorders the entries by count in descending order. Values with equal counts keep their relative order.
+     *
+     * @return This counter, for chaining.
+     */
+    public AttributeCounter sortByDescendingCount() {
+        Integer[] order = new Integer[size];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+        reorder(order);
+        return this;
+    }
+
+    /**
+     * Keeps only the values with the highest counts and reorders them by count in descending order,
+     * with the same result as sorting everything and taking the first values.
+     * The values are selected with a heap of the limit size, so only the kept values are sorted.
+     *
+     * @param limit The number of values to keep.
+     * @return This counter, for chaining.
+     */
+    public AttributeCounter sortByDescendingCount(int limit) {
+        if (limit >= size) {
+            return sortByDescendingCount();
+        }
+        Comparator<Integer> descendingOrder = Comparator.comparingLong((Integer i) -> counts[i]).reversed()
+                .thenComparingInt(i -> i);
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, limit), descendingOrder.reversed());
+
+        for (int i = 0; i < size; i++) {
+            if (top.size() < limit) {
+                top.add(i);
+            } else if (limit > 0 && descendingOrder.compare(i, top.peek()) < 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+        Integer[] order = top.toArray(Integer[]::new);
+        Arrays.sort(order, descendingOrder);
+        reorder(order);
+        return this;
+    }
+
+    /**
+     * Performs the given action for each value and its count in the current order of the entries.
+     *
+     * @param action The action to perform.
+     */
+    public void forEach(ObjLongConsumer<String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(values[i], counts[i]);
+        }
+    }
+
+    /**
+     * Performs the given action for each entry in the current order of the entries, passing its index
+     * for looking up the price statistics of the value.
+     *
+     * @param action The action to perform.
+     */
+    public void forEachEntry(EntryConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(i, values[i], counts[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns how much lower than the real counts the kept counts can be. It is 0 for exact counts.
+     *
+     * @return The maximal error of the counts.
+     */
+    public long getMaxError() {
+        return maxError;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Finds the dense index of the specified value.
+     *
+     * @param value The attribute value.
+     * @return The index of the value, or -1 if it is absent.
+     */
+    private int indexOf(String value) {
+        int hash = hash(value);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY_SLOT) {
+            int index = slots[slot];
+            if (hashes[index] == hash && values[index].equals(value)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY_SLOT;
+    }
+
+    /**
+     * Appends a new entry and points the free slot at it, growing the table when it is half full.
+     * A bounded counter is reduced once it holds twice as many values as its capacity.
+     *
+     * @param slot  The free slot found for the value.
+     * @param value The attribute value.
+     * @param hash  The hash of the value.
+     * @param count The initial count.
+     * @return The index of the new entry, valid unless a bounded counter has just been reduced.
+     */
+    private int insert(int slot, String value, int hash, long count) {
+        int index = size;
+        if (size == values.length) {
+            int length = values.length * 2;
+            values = Arrays.copyOf(values, length);
+            hashes = Arrays.copyOf(hashes, length);
+            counts = Arrays.copyOf(counts, length);
+            if (priceStatistics != null) {
+                priceStatistics.grow(length);
+            }
+            values[size] = value;
+            hashes[size] = hash;
+            counts[size] = count;
+            size++;
+            rehash(length * 2);
+        } else {
+            values[size] = value;
+            hashes[size] = hash;
+            counts[size] = count;
+            slots[slot] = size++;
+        }
+        if (size - capacity > capacity) {
+            reduce();
+        }
+        return index;
+    }
+
+    /**
+     * Moves the entries into the specified order, dropping the entries that are not in it.
+     *
+     * @param order The indexes of the entries to keep, in their new order.
+     */
+    private void reorder(Integer[] order) {
+        String[] sortedValues = new String[values.length];
+        int[] sortedHashes = new int[hashes.length];
+        long[] sortedCounts = new long[counts.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedValues[i] = values[order[i]];
+            sortedHashes[i] = hashes[order[i]];
+            sortedCounts[i] = counts[order[i]];
+        }
+        values = sortedValues;
+        hashes = sortedHashes;
+        counts = sortedCounts;
+        size = order.length;
+        if (priceStatistics != null) {
+            priceStatistics.reorder(order, values.length);
+        }
+        rehash(slots.length);
+    }
+
+    /**
+     * Reduces a bounded counter to its capacity: the (capacity + 1)-th largest count is subtracted
+     * from every count and added to the maximal error, and the values whose count isn't positive anymore
+     * are dropped. The remaining values keep their relative order.
+     */
+    private void reduce() {
+        long[] sortedCounts = Arrays.copyOf(counts, size);
+        Arrays.sort(sortedCounts);
+        long threshold = sortedCounts[size - capacity - 1];
+        int kept = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (counts[i] > threshold) {
+                values[kept] = values[i];
+                hashes[kept] = hashes[i];
+                counts[kept] = counts[i] - threshold;
+                kept++;
+            }
+        }
+        Arrays.fill(values, kept, size, null);
+        size = kept;
+        maxError += threshold;
+        rehash(slots.length);
+    }
+
+    /**
+     * Rebuilds the slot table for the current entries.
+     *
+     * @param slotsNumber The new number of slots, a power of two.
+     */
+    private void rehash(int slotsNumber) {
+        slots = new int[slotsNumber];
+        Arrays.fill(slots, EMPTY_SLOT);
+        int mask = slotsNumber - 1;
+
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i;
+        }
+    }
+
+    /**
+     * Spreads the bits of the string hash code, so that values with similar hash codes
+     * don't cluster in neighbouring slots.
+     *
+     * @param value The attribute value.
+     * @return The spread hash.
+     */
+    private static int hash(String value) {
+        return spread(value.hashCode());
+    }
+
+    private static int spread(int hashCode) {
+        int hash = hashCode * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Computes the same hash code as {@link String#hashCode()} of the value encoded by the UTF-8 bytes,
+     * decoding the characters on the fly.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     * @return The hash code as an unsigned int, or {@value #MALFORMED_UTF8} if the bytes are not valid UTF-8.
+     */
+    private static long utf16HashCode(ByteBuffer buffer, int start, int end) {
+        int hashCode = 0;
+        int position = start;
+
+        while (position < end) {
+            byte lead = buffer.get(position);
+            if (lead >= 0) {
+                hashCode = 31 * hashCode + lead;
+                position++;
+                continue;
+            }
+            int codePoint = decodeCodePoint(buffer, position, end);
+            if (codePoint < 0) {
+                return MALFORMED_UTF8;
+            }
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                hashCode = 31 * hashCode + Character.highSurrogate(codePoint);
+                hashCode = 31 * hashCode + Character.lowSurrogate(codePoint);
+            } else {
+                hashCode = 31 * hashCode + codePoint;
+            }
+            position += sequenceLength(lead);
+        }
+        return hashCode & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Compares a String with the value encoded by well-formed UTF-8 bytes, decoding the characters on the fly.
+     *
+     * @param value  The String to compare.
+     * @param buffer The buffer holding the encoded value.
+     * @param start  The index of the first byte of the encoded value.
+     * @param end    The index after the last byte of the encoded value.
+     * @return True if both represent the same characters, otherwise false.
+     */
+    private static boolean contentEquals(String value, ByteBuffer buffer, int start, int end) {
+        int length = value.length();
+        if (length > end - start) {
+            return false;
+        }
+        int index = 0;
+        int position = start;
+
+        while (position < end) {
+            byte lead = buffer.get(position);
+            if (lead >= 0) {
+                if (index == length || value.charAt(index++) != lead) {
+                    return false;
+                }
+                position++;
+                continue;
+            }
+            int codePoint = decodeCodePoint(buffer, position, end);
+            if (Character.isSupplementaryCodePoint(codePoint)) {
+                if (index + 1 >= length || value.charAt(index++) != Character.highSurrogate(codePoint)
+                        || value.charAt(index++) != Character.lowSurrogate(codePoint)) {
+                    return false;
+                }
+            } else if (index == length || value.charAt(index++) != codePoint) {
+                return false;
+            }
+            position += sequenceLength(lead);
+        }
+        return index == length;
+    }
+
+    private static boolean contentEquals(String value, char[] chars, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a multibyte UTF-8 sequence, rejecting the sequences that the UTF-8 decoder would replace.
+     *
+     * @param buffer   The buffer holding the sequence.
+     * @param position The index of the lead byte.
+     * @param end      The index after the last byte of the value.
+     * @return The decoded code point, or -1 if the sequence is malformed.
+     */
+    private static int decodeCodePoint(ByteBuffer buffer, int position, int end) {
+        int lead = buffer.get(position) & 0xFF;
+        int length = sequenceLength((byte) lead);
+        if (length == 0 || position + length > end) {
+            return -1;
+        }
+        int codePoint = lead & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++) {
+            int continuation = buffer.get(position + i) & 0xFF;
+            if ((continuation & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = codePoint << 6 | continuation & 0x3F;
+        }
+        boolean overlong = length == 2 && codePoint < 0x80 || length == 3 && codePoint < 0x800
+                || length == 4 && codePoint < 0x10000;
+        if (overlong || codePoint > Character.MAX_CODE_POINT
+                || codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            return -1;
+        }
+        return codePoint;
+    }
+
+    /**
+     * Returns the length of a multibyte UTF-8 sequence by its lead byte.
+     *
+     * @param lead The lead byte.
+     * @return The length of the sequence, or 0 if the byte can't start a multibyte sequence.
+     */
+    private static int sequenceLength(byte lead) {
+        int value = lead & 0xFF;
+        if (value >= 0xC0 && value < 0xE0) {
+            return 2;
+        }
+        if (value >= 0xE0 && value < 0xF0) {
+            return 3;
+        }
+        return value >= 0xF0 && value < 0xF8 ? 4 : 0;
+    }
+
+    /**
+     * Decodes UTF-8 bytes like the UTF-8 decoder does, except that a surrogate encoded on its own, as the scanner
+     * writes an unpaired \\u escape, is decoded into that surrogate instead of a replacement character,
+     * the way Jackson keeps it.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     * @return The decoded value.
+     */
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        int surrogate = value.indexOf(REPLACEMENT_CHARACTER) < 0 ? -1 : findEncodedSurrogate(bytes, 0);
+        if (surrogate < 0) {
+            return value;
+        }
+        StringBuilder decoded = new StringBuilder(bytes.length);
+        int position = 0;
+        while (surrogate >= 0) {
+            decoded.append(new String(bytes, position, surrogate - position, StandardCharsets.UTF_8))
+                    .append((char) ((bytes[surrogate] & 0x0F) << 12 | (bytes[surrogate + 1] & 0x3F) << 6
+                            | bytes[surrogate + 2] & 0x3F));
+            position = surrogate + 3;
+            surrogate = findEncodedSurrogate(bytes, position);
+        }
+        return decoded.append(new String(bytes, position, bytes.length - position, StandardCharsets.UTF_8))
+                .toString();
+    }
+
+    private static int findEncodedSurrogate(byte[] bytes, int from) {
+        for (int i = from; i + 2 < bytes.length; i++) {
+            if (bytes[i] == (byte) 0xED && (bytes[i + 1] & 0xE0) == 0xA0 && (bytes[i + 2] & 0xC0) == 0x80) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.aggregation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * AttributeSketch summarizes the values of an attribute in fixed memory of about 12 KB, no matter how many
+ * values and distinct values there are: a {@link HyperLogLog} estimates the number of distinct values and
+ * a {@link CountMinSketch} estimates the count of any value. Values given as Strings and as UTF-8 bytes are
+ * hashed the same way, so sketches filled by different readers can be merged.
+ */
+public class AttributeSketch {
+    private static final int FORMAT_VERSION = 1;
+    private final HyperLogLog distinctValues;
+    private final CountMinSketch frequencies;
+
+    public AttributeSketch() {
+        this(new HyperLogLog(), new CountMinSketch());
+    }
+
+    public AttributeSketch(HyperLogLog distinctValues, CountMinSketch frequencies) {
+        this.distinctValues = distinctValues;
+        this.frequencies = frequencies;
+    }
+
+    /**
+     * Adds a number of occurrences of a value.
+     *
+     * @param value The value.
+     * @param count The number of occurrences.
+     */
+    public void add(String value, long count) {
+        add(ValueHash.hash(value), count);
+    }
+
+    /**
+     * Adds one occurrence of a value held in a buffer as UTF-8 bytes.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     */
+    public void add(ByteBuffer buffer, int start, int end) {
+        add(ValueHash.hash(buffer, start, end), 1);
+    }
+
+    private void add(long hash, long count) {
+        distinctValues.add(hash);
+        frequencies.add(hash, count);
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other The sketch to merge.
+     */
+    public void merge(AttributeSketch other) {
+        distinctValues.merge(other.distinctValues);
+        frequencies.merge(other.frequencies);
+    }
+
+    /**
+     * Estimates the number of distinct values.
+     *
+     * @return The estimated number of distinct values.
+     */
+    public long estimateDistinct() {
+        return distinctValues.estimate();
+    }
+
+    /**
+     * Estimates the count of a value. The estimate is never lower than the real count.
+     *
+     * @param value The value.
+     * @return The estimated count.
+     */
+    public long estimateCount(String value) {
+        return frequencies.estimate(ValueHash.hash(value));
+    }
+
+    /**
+     * Returns the number of all values added to the sketch, counting repeated values every time.
+     *
+     * @return The total of all counts.
+     */
+    public long getTotal() {
+        return frequencies.getTotal();
+    }
+
+    public HyperLogLog getDistinctValues() {
+        return distinctValues;
+    }
+
+    public CountMinSketch getFrequencies() {
+        return frequencies;
+    }
+
+    /**
+     * Writes the sketch preceded by a format version, so that it can be read and merged by a later run.
+     *
+     * @param output The output to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        distinctValues.writeTo(output);
+        frequencies.writeTo(output);
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input The input to read from.
+     * @return The sketch.
+     * @throws IOException If an I/O error occurs or the data isn't a sketch.
+     */
+    public static AttributeSketch readFrom(DataInput input) throws IOException {
+        if (input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported sketch format");
+        }
+        return new AttributeSketch(HyperLogLog.readFrom(input), CountMinSketch.readFrom(input));
+    }
+
+    /**
+     * Creates an independent copy of the sketch.
+     *
+     * @return The copy.
+     */
+    public AttributeSketch copy() {
+        return new AttributeSketch(distinctValues.copy(), frequencies.copy());
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.aggregation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * CountMinSketch estimates how many times a value was added in fixed memory: depth rows of width counters.
+ * Every value is counted in one counter of each row, and its estimate is the smallest of these counters.
+ * An estimate is never lower than the real count, and with the probability of 1 - e^-depth it is higher
+ * by at most e / width of the total of all counts, e.g. 1.1% with the probability of 98% for the default
+ * 4 rows of 256 counters, which take 8 KB. Two sketches of the same dimensions can be merged by adding their counters.
+ */
+public class CountMinSketch {
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 256;
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param depth The number of rows, from 1 to 16.
+     * @param width The number of counters in a row, a power of two from 16 to 2^20.
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || depth > 16) {
+            throw new IllegalArgumentException("The depth must be from 1 to 16");
+        }
+        if (width < 16 || width > 1 << 20 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("The width must be a power of two from 16 to 2^20");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    /**
+     * Adds a number of occurrences of a value by its 64-bit hash.
+     *
+     * @param hash  The hash of the value.
+     * @param count The number of occurrences, not negative.
+     */
+    public void add(long hash, long count) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + ((firstHash + row * secondHash) & (width - 1))] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Estimates the number of occurrences of a value by its 64-bit hash.
+     *
+     * @param hash The hash of the value.
+     * @return The estimated number of occurrences.
+     */
+    public long estimate(long hash) {
+        int firstHash = (int) hash;
+        int secondHash = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + ((firstHash + row * secondHash) & (width - 1))]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other The sketch to merge, of the same dimensions.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Can't merge sketches of different dimensions");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * Returns the total of all added counts, the N that the error of an estimate is relative to.
+     *
+     * @return The total of all counts.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the maximal amount by which an estimate exceeds the real count with the probability of 1 - e^-depth.
+     *
+     * @return The error bound of an estimate.
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E * total / width);
+    }
+
+    /**
+     * Writes the sketch: the depth, the width, the total and the counters.
+     *
+     * @param output The output to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeByte(depth);
+        output.writeInt(width);
+        output.writeLong(total);
+        for (long counter : counters) {
+            output.writeLong(counter);
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input The input to read from.
+     * @return The sketch.
+     * @throws IOException If an I/O error occurs or the data isn't a sketch.
+     */
+    public static CountMinSketch readFrom(DataInput input) throws IOException {
+        CountMinSketch sketch;
+        try {
+            sketch = new CountMinSketch(input.readByte(), input.readInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid Count-Min sketch dimensions", e);
+        }
+        sketch.total = input.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = input.readLong();
+        }
+        return sketch;
+    }
+
+    /**
+     * Creates an independent copy of the sketch.
+     *
+     * @return The copy.
+     */
+    public CountMinSketch copy() {
+        CountMinSketch copy = new CountMinSketch(depth, width);
+        System.arraycopy(counters, 0, copy.counters, 0, counters.length);
+        copy.total = total;
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CountMinSketch sketch && depth == sketch.depth && total == sketch.total
+                && Arrays.equals(counters, sketch.counters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counters);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.aggregation;
+
+import org.example.parser.DateParser;
+
+/**
+ * The time buckets the values of the date attribute can be counted by. A bucket is identified by an ASCII key
+ * that is written into a reusable array, so that a date can be counted by its bucket without creating a String:
+ * <ul>
+ *     <li>NONE - the dates aren't bucketed but counted as they are,</li>
+ *     <li>DAY - the ISO date, e.g. 2024-04-09,</li>
+ *     <li>WEEK - the ISO week-based year and week, e.g. 2024-W15,</li>
+ *     <li>MONTH - the year and month, e.g. 2024-04.</li>
+ * </ul>
+ */
+public enum DateBucket {
+    NONE, DAY, WEEK, MONTH;
+
+    public static final String FIELD_NAME = "date";
+    public static final int MAX_KEY_LENGTH = 10;
+
+    /**
+     * Writes the key of the bucket of a date.
+     *
+     * @param date The packed date, see {@link DateParser}.
+     * @param key  The array to write the key to, at least {@value #MAX_KEY_LENGTH} bytes long.
+     * @return The length of the key.
+     * @throws IllegalStateException If the dates aren't bucketed.
+     */
+    public int writeKey(int date, byte[] key) {
+        int year = DateParser.year(date);
+        return switch (this) {
+            case DAY -> {
+                writeDigits(key, 0, year, 4);
+                key[4] = '-';
+                writeDigits(key, 5, DateParser.month(date), 2);
+                key[7] = '-';
+                writeDigits(key, 8, DateParser.day(date), 2);
+                yield 10;
+            }
+            case WEEK -> {
+                long epochDay = DateParser.toEpochDay(date);
+                long thursday = epochDay - Math.floorMod(epochDay + 3, 7) + 3;
+                int weekYear = year;
+                if (thursday < DateParser.toEpochDay(weekYear * 10_000 + 101)) {
+                    weekYear--;
+                } else if (thursday >= DateParser.toEpochDay((weekYear + 1) * 10_000 + 101)) {
+                    weekYear++;
+                }
+                long week = (thursday - DateParser.toEpochDay(weekYear * 10_000 + 101)) / 7 + 1;
+                writeDigits(key, 0, weekYear, 4);
+                key[4] = '-';
+                key[5] = 'W';
+                writeDigits(key, 6, (int) week, 2);
+                yield 8;
+            }
+            case NONE -> throw new IllegalStateException("The dates aren't bucketed");
+            case MONTH -> {
+                writeDigits(key, 0, year, 4);
+                key[4] = '-';
+                writeDigits(key, 5, DateParser.month(date), 2);
+                yield 7;
+            }
+        };
+    }
+
+    private static void writeDigits(byte[] target, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.aggregation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog estimates the number of distinct values in fixed memory: 2^precision one-byte registers.
+ * The relative standard error of the estimate is about 1.04 / sqrt(2^precision), e.g. 1.6% for the default
+ * precision of 12, which takes 4 KB. Small cardinalities are estimated with linear counting.
+ * Two sketches of the same precision can be merged into the sketch of the union of their values.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 12;
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 18;
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param precision The number of hash bits that select a register, from 4 to 18.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("The precision must be from " + MIN_PRECISION + " to " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a value by its 64-bit hash.
+     *
+     * @param hash The hash of the value.
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other The sketch to merge, of the same precision.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Can't merge sketches of different precisions");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+        }
+    }
+
+    /**
+     * Estimates the number of distinct values added to the sketch.
+     *
+     * @return The estimated number of distinct values.
+     */
+    public long estimate() {
+        int registersNumber = registers.length;
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            zeroRegisters += register == 0 ? 1 : 0;
+        }
+        double alpha = 0.7213 / (1 + 1.079 / registersNumber);
+        double estimate = alpha * registersNumber * registersNumber / sum;
+
+        if (estimate <= 2.5 * registersNumber && zeroRegisters > 0) {
+            estimate = registersNumber * Math.log((double) registersNumber / zeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Writes the sketch: the precision followed by the registers.
+     *
+     * @param output The output to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeByte(precision);
+        output.write(registers);
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input The input to read from.
+     * @return The sketch.
+     * @throws IOException If an I/O error occurs or the data isn't a sketch.
+     */
+    public static HyperLogLog readFrom(DataInput input) throws IOException {
+        int precision = input.readByte();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Invalid HyperLogLog precision " + precision);
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        input.readFully(sketch.registers);
+        return sketch;
+    }
+
+    /**
+     * Creates an independent copy of the sketch.
+     *
+     * @return The copy.
+     */
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HyperLogLog sketch && Arrays.equals(registers, sketch.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.aggregation;
+
+import org.example.model.Order;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MultiValuedAttribute is an attribute whose value lists several values joined by a separator,
+ * e.g. the products of the description {@code Jeans, Umbrella, Sneakers}, each of which is counted on its own.
+ * The values are split the same way as {@code String.split} with the separator does, and trimmed:
+ * trailing empty values are dropped, other empty values are counted as empty.
+ * <p>
+ * The value is scanned in place, from the characters of a JSON parser or the bytes of the scanner,
+ * and every value is counted by its range, so neither the array of values nor a String per value is created:
+ * the counter only creates a String the first time a distinct value appears.
+ */
+public class MultiValuedAttribute {
+    private static final char DEFINITION_SEPARATOR = '=';
+    private final String name;
+    private final char separator;
+
+    /**
+     * Constructs a multi-valued attribute.
+     *
+     * @param name      The name of the attribute.
+     * @param separator The separator of the values, a printable ASCII character other than a space,
+     *                  so that it is found in the UTF-8 bytes of the value as well.
+     * @throws IllegalArgumentException If the separator isn't a printable ASCII character.
+     */
+    public MultiValuedAttribute(String name, char separator) {
+        if (separator <= ' ' || separator > '~') {
+            throw new IllegalArgumentException("The separator of " + name + " must be a printable ASCII character");
+        }
+        this.name = name;
+        this.separator = separator;
+    }
+
+    /**
+     * Parses the definitions of multi-valued attributes separated by whitespace, each given as
+     * {@code attribute=separator}, e.g. {@code description=, tags=|}.
+     *
+     * @param definitions The definitions, may be blank.
+     * @return The multi-valued attributes by name, empty if the definitions are blank.
+     * @throws IllegalArgumentException If a definition is invalid or doesn't name a field of the order.
+     */
+    public static Map<String, MultiValuedAttribute> parseAll(String definitions) {
+        Map<String, MultiValuedAttribute> attributes = new HashMap<>();
+        if (definitions.isBlank()) {
+            return attributes;
+        }
+        for (String definition : definitions.trim().split("\\s+")) {
+            int separatorIndex = definition.indexOf(DEFINITION_SEPARATOR);
+            if (separatorIndex <= 0 || separatorIndex != definition.length() - 2) {
+                throw new IllegalArgumentException("Invalid multi-valued attribute: " + definition);
+            }
+            String name = definition.substring(0, separatorIndex);
+            if (!isOrderField(name)) {
+                throw new IllegalArgumentException("Unknown field in multi-valued attribute: " + definition);
+            }
+            attributes.put(name, new MultiValuedAttribute(name, definition.charAt(separatorIndex + 1)));
+        }
+        return attributes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Returns the definition of the attribute in the form {@link #parseAll(String)} accepts.
+     */
+    @Override
+    public String toString() {
+        return name + DEFINITION_SEPARATOR + separator;
+    }
+
+    /**
+     * Counts every value listed in a String.
+     *
+     * @param value      The value, not null.
+     * @param statistics The statistics to update.
+     */
+    public void count(String value, AttributeCounter statistics) {
+        count(value.toCharArray(), 0, value.length(), 1, statistics);
+    }
+
+    /**
+     * Counts every value listed in a String as many times as the String occurred, e.g. in several orders.
+     *
+     * @param value       The value, not null.
+     * @param occurrences The number of occurrences of the String.
+     * @param statistics  The statistics to update.
+     */
+    public void count(String value, long occurrences, AttributeCounter statistics) {
+        count(value.toCharArray(), 0, value.length(), occurrences, statistics);
+    }
+
+    /**
+     * Counts every value listed in a range of characters.
+     *
+     * @param chars      The array holding the characters of the value.
+     * @param offset     The index of the first character of the value.
+     * @param length     The number of characters of the value.
+     * @param statistics The statistics to update.
+     */
+    public void count(char[] chars, int offset, int length, AttributeCounter statistics) {
+        count(chars, offset, length, 1, statistics);
+    }
+
+    private void count(char[] chars, int offset, int length, long occurrences, AttributeCounter statistics) {
+        int end = offset + length;
+        int valueStart = offset;
+        int pendingEmptyValues = 0;
+        boolean separatorFound = false;
+
+        for (int position = offset; position <= end; position++) {
+            if (position < end && chars[position] != separator) {
+                continue;
+            }
+            boolean lastValue = position == end;
+            separatorFound |= !lastValue;
+            if (position == valueStart && (separatorFound || !lastValue)) {
+                pendingEmptyValues++;
+            } else {
+                pendingEmptyValues = countEmptyValues(pendingEmptyValues, occurrences, statistics);
+                int valueEnd = position;
+                while (valueStart < valueEnd && chars[valueStart] <= ' ') {
+                    valueStart++;
+                }
+                while (valueEnd > valueStart && chars[valueEnd - 1] <= ' ') {
+                    valueEnd--;
+                }
+                statistics.add(chars, valueStart, valueEnd - valueStart, occurrences);
+            }
+            valueStart = position + 1;
+        }
+    }
+
+    /**
+     * Counts every value listed in a range of UTF-8 bytes. The separator is ASCII, so it can't be part
+     * of a multibyte character.
+     *
+     * @param buffer     The buffer holding the value.
+     * @param start      The index of the first byte of the value.
+     * @param end        The index after the last byte of the value.
+     * @param statistics The statistics to update.
+     */
+    public void count(ByteBuffer buffer, int start, int end, AttributeCounter statistics) {
+        int valueStart = start;
+        int pendingEmptyValues = 0;
+        boolean separatorFound = false;
+
+        for (int position = start; position <= end; position++) {
+            if (position < end && buffer.get(position) != separator) {
+                continue;
+            }
+            boolean lastValue = position == end;
+            separatorFound |= !lastValue;
+            if (position == valueStart && (separatorFound || !lastValue)) {
+                pendingEmptyValues++;
+            } else {
+                pendingEmptyValues = countEmptyValues(pendingEmptyValues, 1, statistics);
+                int valueEnd = position;
+                while (valueStart < valueEnd && (buffer.get(valueStart) & 0xFF) <= ' ') {
+                    valueStart++;
+                }
+                while (valueEnd > valueStart && (buffer.get(valueEnd - 1) & 0xFF) <= ' ') {
+                    valueEnd--;
+                }
+                statistics.increment(buffer, valueStart, valueEnd);
+            }
+            valueStart = position + 1;
+        }
+    }
+
+    /**
+     * Counts the empty values met since the last non-empty one, which aren't trailing since a value follows them.
+     *
+     * @return 0, the number of empty values left to count.
+     */
+    private static int countEmptyValues(int emptyValues, long occurrences, AttributeCounter statistics) {
+        for (int i = 0; i < emptyValues; i++) {
+            statistics.add("", occurrences);
+        }
+        return 0;
+    }
+
+    private static boolean isOrderField(String name) {
+        for (Field orderField : Order.class.getDeclaredFields()) {
+            if (orderField.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.aggregation;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+/**
+ * OrderPrice holds the total price of the order being read. Prices with at most two significant fraction digits
+ * that fit into a long number of cents are kept as that number, so reading a price doesn't allocate anything;
+ * other prices fall back to a BigDecimal. An instance is reused for every order read by the same thread.
+ */
+public class OrderPrice {
+    public static final String FIELD_NAME = "totalPrice";
+    public static final int SCALE = 2;
+    private static final long MAX_CENTS_BEFORE_SCALING = Long.MAX_VALUE / 10;
+    private boolean present;
+    private long cents;
+    private BigDecimal exactValue;
+    private char[] characters = new char[32];
+
+    /**
+     * Parses the price from the characters of a JSON number or string.
+     * Text that isn't a number leaves the order without a price.
+     *
+     * @param text   The characters holding the price.
+     * @param offset The index of the first character of the price.
+     * @param length The number of characters of the price.
+     */
+    public void parse(char[] text, int offset, int length) {
+        clear();
+        if (parseCents(text, offset, length)) {
+            present = true;
+            return;
+        }
+        try {
+            exactValue = new BigDecimal(text, offset, length);
+            present = true;
+        } catch (NumberFormatException e) {
+            exactValue = null;
+        }
+    }
+
+    /**
+     * Parses the price from the ASCII bytes of a JSON number or string.
+     *
+     * @param buffer The buffer holding the price.
+     * @param start  The index of the first byte of the price.
+     * @param end    The index after the last byte of the price.
+     */
+    public void parse(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (characters.length < length) {
+            characters = new char[length];
+        }
+        for (int i = 0; i < length; i++) {
+            characters[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        parse(characters, 0, length);
+    }
+
+    /**
+     * Forgets the price, so that the next order starts without one.
+     */
+    public void clear() {
+        present = false;
+        exactValue = null;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * Returns whether the price is kept as a number of cents.
+     *
+     * @return True if {@link #getCents()} holds the price, false if it needs a BigDecimal.
+     */
+    public boolean isCents() {
+        return present && exactValue == null;
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return exactValue != null ? exactValue : BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public double doubleValue() {
+        return exactValue != null ? exactValue.doubleValue() : cents / 100.0;
+    }
+
+    /**
+     * Parses a plain decimal number into cents. Fraction digits after the second one are accepted
+     * only if they are zeros. A number of cents that doesn't fit into a long is left to BigDecimal
+     * before any digit or scaling step can overflow.
+     *
+     * @return True if the price was parsed into {@link #cents}, false if it needs a BigDecimal.
+     */
+    private boolean parseCents(char[] text, int offset, int length) {
+        int position = offset;
+        int end = offset + length;
+        boolean negative = position < end && text[position] == '-';
+        position += negative ? 1 : 0;
+        long value = 0;
+        int fractionDigits = -1;
+        boolean digitFound = false;
+
+        for (; position < end; position++) {
+            char current = text[position];
+            if (current == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (current >= '0' && current <= '9') {
+                digitFound = true;
+                if (fractionDigits >= SCALE) {
+                    if (current != '0') {
+                        return false;
+                    }
+                    continue;
+                }
+                int digit = current - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    return false;
+                }
+                value = value * 10 + digit;
+                fractionDigits += fractionDigits >= 0 ? 1 : 0;
+            } else {
+                return false;
+            }
+        }
+        for (int i = Math.max(fractionDigits, 0); i < SCALE; i++) {
+            if (value > MAX_CENTS_BEFORE_SCALING) {
+                return false;
+            }
+            value *= 10;
+        }
+        cents = negative ? -value : value;
+        return digitFound;
+    }
+}
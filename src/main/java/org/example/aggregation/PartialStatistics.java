@@ -0,0 +1,141 @@
+package org.example.aggregation;
+
+import org.example.exception.CustomFileException;
+import org.example.exception.ExecutorTimeoutException;
+import org.example.metrics.RunMetrics;
+import org.example.util.StatisticsOptions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * PartialStatistics creates the statistics of every file, chunk or slice of orders that is read on its own,
+ * with one counter per attribute, and merges them. Partial statistics are owned by the task that fills them,
+ * and later by exactly one branch of the merge, so they are merged without any locking.
+ */
+public class PartialStatistics {
+    private final int counterCapacity;
+    private final boolean sketchEnabled;
+    private final boolean priceEnabled;
+    private final RunMetrics metrics;
+
+    /**
+     * Constructs the partial statistics of a run.
+     *
+     * @param options The settings of the run, which select the capacity of the counters, the sketches
+     *                and the price statistics.
+     * @param metrics The metrics the merges are recorded to.
+     */
+    public PartialStatistics(StatisticsOptions options, RunMetrics metrics) {
+        this.counterCapacity = options.counterCapacity();
+        this.sketchEnabled = options.sketchEnabled();
+        this.priceEnabled = options.priceEnabled();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates empty partial statistics with one counter per attribute, in the order of the attributes.
+     * In the approximate top mode the counters are bounded to the top capacity.
+     *
+     * @param attributes The attributes to calculate statistics for.
+     * @return The empty statistics by attribute.
+     */
+    public Map<String, AttributeCounter> create(List<String> attributes) {
+        Map<String, AttributeCounter> statistics = new LinkedHashMap<>();
+        attributes.forEach(attribute -> {
+            AttributeCounter counter = counterCapacity == AttributeCounter.UNBOUNDED
+                    ? new AttributeCounter()
+                    : new AttributeCounter(counterCapacity, counterCapacity);
+            if (priceEnabled) {
+                counter.withPriceStatistics(new PriceStatistics());
+            }
+            statistics.put(attribute, sketchEnabled ? counter.withSketch(new AttributeSketch()) : counter);
+        });
+        return statistics;
+    }
+
+    /**
+     * Combines the partial statistics of all files in a fork-join tree reduction.
+     * Each partial is owned by exactly one branch of the tree, so the smaller counter of a pair
+     * can be folded into the larger one without any locking.
+     *
+     * @param partialStatistics The partial statistics of every file by attribute.
+     * @return The combined statistics by attribute, or an empty optional if there are no files.
+     */
+    public Optional<Map<String, AttributeCounter>> mergeAll(List<Map<String, AttributeCounter>> partialStatistics) {
+        return partialStatistics.parallelStream()
+                .reduce(this::merge);
+    }
+
+    /**
+     * Folds the partial statistics of the right side into the left side, attribute by attribute.
+     * The time of the merge is recorded in the metrics of the run.
+     *
+     * @param left  The first partial statistics by attribute.
+     * @param right The second partial statistics by attribute.
+     * @return The left partial statistics that now contain the counts of both.
+     */
+    public Map<String, AttributeCounter> merge(Map<String, AttributeCounter> left,
+                                               Map<String, AttributeCounter> right) {
+        long startTime = metrics.isEnabled() ? System.nanoTime() : 0;
+        left.replaceAll((attribute, counter) -> mergeCounters(counter, right.get(attribute)));
+        if (metrics.isEnabled()) {
+            metrics.recordMerge(System.nanoTime() - startTime);
+        }
+        return left;
+    }
+
+    /**
+     * Creates a copy of partial statistics that keeps the order of the values.
+     *
+     * @param statistics The partial statistics by attribute.
+     * @return The copy of the statistics by attribute.
+     */
+    public static Map<String, AttributeCounter> copy(Map<String, AttributeCounter> statistics) {
+        Map<String, AttributeCounter> copy = new LinkedHashMap<>();
+        statistics.forEach((attribute, counter) -> {
+            AttributeCounter counterCopy = new AttributeCounter(counter.size(), counter.getCapacity());
+            counterCopy.mergeFrom(counter);
+            copy.put(attribute, counterCopy);
+        });
+        return copy;
+    }
+
+    /**
+     * Waits for the partial statistics of a single file.
+     *
+     * @param future The future of the task that reads the file.
+     * @return The partial statistics of the file by attribute.
+     * @throws CustomFileException If the file could not be read.
+     */
+    public static Map<String, AttributeCounter> await(Future<Map<String, AttributeCounter>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorTimeoutException(e.getMessage());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CustomFileException) {
+                throw (CustomFileException) e.getCause();
+            }
+            throw new CustomFileException("An error occurred while reading values from the file.", e.getCause());
+        }
+    }
+
+    /**
+     * Folds the smaller of two counters into the larger one.
+     *
+     * @param left  The first counter.
+     * @param right The second counter.
+     * @return The counter that now contains the counts of both.
+     */
+    private static AttributeCounter mergeCounters(AttributeCounter left, AttributeCounter right) {
+        AttributeCounter target = left.size() >= right.size() ? left : right;
+        target.mergeFrom(target == left ? right : left);
+        return target;
+    }
+}
@@ -0,0 +1,341 @@
+package org.example.aggregation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * PriceStatistics aggregates the total prices of the orders by the entries of an {@link AttributeCounter}:
+ * the number of priced orders, the sum, the minimum, the maximum and a {@link QuantileSketch} of the prices
+ * of every value. The aggregates are kept in columns parallel to the entries of the counter.
+ * <p>
+ * The sum, the minimum and the maximum are kept as numbers of cents in long columns. An entry switches to
+ * BigDecimal aggregates only when one of its prices has more than two significant fraction digits or
+ * doesn't fit into a long, or when its sum overflows, so most entries never allocate a BigDecimal.
+ * <p>
+ * The values of an order can be read before or after its price, so the counter reports the entries counted
+ * for the current order with {@link #touch(int)}, and the price is added to all of them by
+ * {@link #completeOrder(OrderPrice)} once the whole order is read.
+ */
+public class PriceStatistics {
+    private long[] pricedCounts;
+    private long[] sums;
+    private long[] mins;
+    private long[] maxs;
+    private ExactPrices[] exactPrices;
+    private QuantileSketch[] distributions;
+    private int[] pending = new int[8];
+    private int pendingSize;
+
+    public PriceStatistics() {
+        this(0);
+    }
+
+    PriceStatistics(int length) {
+        pricedCounts = new long[length];
+        sums = new long[length];
+        mins = new long[length];
+        maxs = new long[length];
+        distributions = new QuantileSketch[length];
+    }
+
+    /**
+     * Returns the number of orders with a price that contained the value of the entry.
+     *
+     * @param index The index of the entry.
+     * @return The number of priced orders.
+     */
+    public long getPricedCount(int index) {
+        return pricedCounts[index];
+    }
+
+    public BigDecimal getSum(int index) {
+        ExactPrices exact = getExactPrices(index);
+        return exact != null ? exact.sum : BigDecimal.valueOf(sums[index], OrderPrice.SCALE);
+    }
+
+    public BigDecimal getMin(int index) {
+        ExactPrices exact = getExactPrices(index);
+        return exact != null ? exact.min : BigDecimal.valueOf(mins[index], OrderPrice.SCALE);
+    }
+
+    public BigDecimal getMax(int index) {
+        ExactPrices exact = getExactPrices(index);
+        return exact != null ? exact.max : BigDecimal.valueOf(maxs[index], OrderPrice.SCALE);
+    }
+
+    /**
+     * Returns the mean price of the entry, rounded half up to the scale of the sum but at least to cents.
+     *
+     * @param index The index of the entry.
+     * @return The mean price.
+     */
+    public BigDecimal getMean(int index) {
+        BigDecimal sum = getSum(index);
+        return sum.divide(BigDecimal.valueOf(pricedCounts[index]), Math.max(sum.scale(), OrderPrice.SCALE),
+                RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Estimates a percentile of the prices of the entry with a relative error of at most 1%, rounded to cents.
+     *
+     * @param index      The index of the entry.
+     * @param percentile The percentile from 0 to 100.
+     * @return The estimated percentile.
+     */
+    public BigDecimal getPercentile(int index, double percentile) {
+        return BigDecimal.valueOf(distributions[index].quantile(percentile / 100))
+                .setScale(OrderPrice.SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Remembers that the value of the entry was counted for the current order.
+     *
+     * @param index The index of the entry.
+     */
+    void touch(int index) {
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+        }
+        pending[pendingSize++] = index;
+    }
+
+    /**
+     * Adds the price of the order that has just been read to every entry counted for it.
+     *
+     * @param price The price of the order.
+     */
+    void completeOrder(OrderPrice price) {
+        if (price.isPresent()) {
+            for (int i = 0; i < pendingSize; i++) {
+                add(pending[i], price);
+            }
+        }
+        pendingSize = 0;
+    }
+
+    /**
+     * Merges the aggregates of an entry of other statistics into an entry of these ones.
+     *
+     * @param index      The index of the entry in these statistics.
+     * @param other      The other statistics.
+     * @param otherIndex The index of the entry in the other statistics.
+     */
+    void merge(int index, PriceStatistics other, int otherIndex) {
+        long otherCount = other.pricedCounts[otherIndex];
+        if (otherCount == 0) {
+            return;
+        }
+        ExactPrices otherExact = other.getExactPrices(otherIndex);
+        if (pricedCounts[index] == 0) {
+            sums[index] = other.sums[otherIndex];
+            mins[index] = other.mins[otherIndex];
+            maxs[index] = other.maxs[otherIndex];
+            if (otherExact != null) {
+                setExactPrices(index, new ExactPrices(otherExact.sum, otherExact.min, otherExact.max));
+            }
+        } else if (otherExact == null && getExactPrices(index) == null) {
+            addCents(index, other.sums[otherIndex], other.mins[otherIndex], other.maxs[otherIndex]);
+        } else {
+            switchToExact(index).add(other.getSum(otherIndex), other.getMin(otherIndex), other.getMax(otherIndex));
+        }
+        pricedCounts[index] += otherCount;
+        if (distributions[index] == null) {
+            distributions[index] = new QuantileSketch();
+        }
+        distributions[index].merge(other.distributions[otherIndex]);
+    }
+
+    /**
+     * Resizes the columns to the capacity of the entries of the counter.
+     *
+     * @param length The new capacity.
+     */
+    void grow(int length) {
+        pricedCounts = Arrays.copyOf(pricedCounts, length);
+        sums = Arrays.copyOf(sums, length);
+        mins = Arrays.copyOf(mins, length);
+        maxs = Arrays.copyOf(maxs, length);
+        distributions = Arrays.copyOf(distributions, length);
+        if (exactPrices != null) {
+            exactPrices = Arrays.copyOf(exactPrices, length);
+        }
+    }
+
+    /**
+     * Moves the aggregates into the new order of the entries, dropping the entries that are not in it.
+     *
+     * @param order  The indexes of the entries to keep, in their new order.
+     * @param length The capacity of the entries.
+     */
+    void reorder(Integer[] order, int length) {
+        long[] sortedPricedCounts = new long[length];
+        long[] sortedSums = new long[length];
+        long[] sortedMins = new long[length];
+        long[] sortedMaxs = new long[length];
+        QuantileSketch[] sortedDistributions = new QuantileSketch[length];
+        ExactPrices[] sortedExactPrices = exactPrices != null ? new ExactPrices[length] : null;
+        for (int i = 0; i < order.length; i++) {
+            sortedPricedCounts[i] = pricedCounts[order[i]];
+            sortedSums[i] = sums[order[i]];
+            sortedMins[i] = mins[order[i]];
+            sortedMaxs[i] = maxs[order[i]];
+            sortedDistributions[i] = distributions[order[i]];
+            if (sortedExactPrices != null) {
+                sortedExactPrices[i] = exactPrices[order[i]];
+            }
+        }
+        pricedCounts = sortedPricedCounts;
+        sums = sortedSums;
+        mins = sortedMins;
+        maxs = sortedMaxs;
+        distributions = sortedDistributions;
+        exactPrices = sortedExactPrices;
+    }
+
+    /**
+     * Writes the aggregates of the first entries.
+     *
+     * @param output The output to write to.
+     * @param size   The number of entries.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutput output, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            output.writeLong(pricedCounts[i]);
+            if (pricedCounts[i] == 0) {
+                continue;
+            }
+            ExactPrices exact = getExactPrices(i);
+            output.writeBoolean(exact != null);
+            if (exact != null) {
+                output.writeUTF(exact.sum.toString());
+                output.writeUTF(exact.min.toString());
+                output.writeUTF(exact.max.toString());
+            } else {
+                output.writeLong(sums[i]);
+                output.writeLong(mins[i]);
+                output.writeLong(maxs[i]);
+            }
+            distributions[i].writeTo(output);
+        }
+    }
+
+    /**
+     * Reads the aggregates written by {@link #writeTo(DataOutput, int)}.
+     *
+     * @param input The input to read from.
+     * @param size  The number of entries.
+     * @return The statistics.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static PriceStatistics readFrom(DataInput input, int size) throws IOException {
+        PriceStatistics statistics = new PriceStatistics(size);
+        for (int i = 0; i < size; i++) {
+            statistics.pricedCounts[i] = input.readLong();
+            if (statistics.pricedCounts[i] == 0) {
+                continue;
+            }
+            if (input.readBoolean()) {
+                statistics.setExactPrices(i, new ExactPrices(new BigDecimal(input.readUTF()),
+                        new BigDecimal(input.readUTF()), new BigDecimal(input.readUTF())));
+            } else {
+                statistics.sums[i] = input.readLong();
+                statistics.mins[i] = input.readLong();
+                statistics.maxs[i] = input.readLong();
+            }
+            statistics.distributions[i] = QuantileSketch.readFrom(input);
+        }
+        return statistics;
+    }
+
+    private void add(int index, OrderPrice price) {
+        boolean first = pricedCounts[index] == 0;
+        if (price.isCents() && getExactPrices(index) == null) {
+            long cents = price.getCents();
+            if (first) {
+                sums[index] = cents;
+                mins[index] = cents;
+                maxs[index] = cents;
+            } else {
+                addCents(index, cents, cents, cents);
+            }
+        } else if (first) {
+            BigDecimal value = price.toBigDecimal();
+            setExactPrices(index, new ExactPrices(value, value, value));
+        } else {
+            BigDecimal value = price.toBigDecimal();
+            switchToExact(index).add(value, value, value);
+        }
+        pricedCounts[index]++;
+        if (distributions[index] == null) {
+            distributions[index] = new QuantileSketch();
+        }
+        distributions[index].add(price.doubleValue());
+    }
+
+    /**
+     * Adds aggregates in cents to an entry that keeps its aggregates in cents, switching the entry to
+     * BigDecimal aggregates if the sum overflows.
+     */
+    private void addCents(int index, long sum, long min, long max) {
+        long total = sums[index] + sum;
+        if (((sums[index] ^ total) & (sum ^ total)) < 0) {
+            switchToExact(index).add(BigDecimal.valueOf(sum, OrderPrice.SCALE), BigDecimal.valueOf(min, OrderPrice.SCALE),
+                    BigDecimal.valueOf(max, OrderPrice.SCALE));
+            return;
+        }
+        sums[index] = total;
+        mins[index] = Math.min(mins[index], min);
+        maxs[index] = Math.max(maxs[index], max);
+    }
+
+    private ExactPrices getExactPrices(int index) {
+        return exactPrices != null ? exactPrices[index] : null;
+    }
+
+    private void setExactPrices(int index, ExactPrices exact) {
+        if (exactPrices == null) {
+            exactPrices = new ExactPrices[sums.length];
+        }
+        exactPrices[index] = exact;
+    }
+
+    /**
+     * Moves the aggregates of an entry from the cent columns into BigDecimals.
+     *
+     * @param index The index of the entry.
+     * @return The BigDecimal aggregates of the entry.
+     */
+    private ExactPrices switchToExact(int index) {
+        if (getExactPrices(index) == null) {
+            setExactPrices(index, new ExactPrices(BigDecimal.valueOf(sums[index], OrderPrice.SCALE),
+                    BigDecimal.valueOf(mins[index], OrderPrice.SCALE), BigDecimal.valueOf(maxs[index], OrderPrice.SCALE)));
+        }
+        return exactPrices[index];
+    }
+
+    /**
+     * The aggregates of an entry whose prices don't fit into cents.
+     */
+    private static class ExactPrices {
+        private BigDecimal sum;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        ExactPrices(BigDecimal sum, BigDecimal min, BigDecimal max) {
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        void add(BigDecimal otherSum, BigDecimal otherMin, BigDecimal otherMax) {
+            sum = sum.add(otherSum);
+            min = min.min(otherMin);
+            max = max.max(otherMax);
+        }
+    }
+}
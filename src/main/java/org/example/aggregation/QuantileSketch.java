@@ -0,0 +1,197 @@
+package org.example.aggregation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * QuantileSketch estimates the quantiles of a stream of numbers with a relative error of at most 1%,
+ * like DDSketch: every number is counted in a logarithmic bucket (1.0202^(i-1), 1.0202^i], and a quantile is
+ * reported as the middle of the bucket it falls into, clamped to the smallest and the largest number seen,
+ * which are kept exactly and reported for the quantiles 0 and 1.
+ * Only the buckets between the smallest and the largest number are stored, so a group of similar numbers takes
+ * a few hundred bytes. Zeros are counted separately, and negative numbers are counted in mirrored buckets.
+ * Sketches are merged by adding up their buckets.
+ */
+public class QuantileSketch {
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private final Buckets positive = new Buckets();
+    private final Buckets negative = new Buckets();
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a number to the sketch.
+     *
+     * @param value The number to add.
+     */
+    public void add(double value) {
+        if (value > 0) {
+            positive.add(index(value), 1);
+        } else if (value < 0) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other The sketch to merge.
+     */
+    public void merge(QuantileSketch other) {
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Estimates the quantile: the number that the specified share of the added numbers doesn't exceed.
+     *
+     * @param quantile The quantile from 0 to 1, e.g. 0.5 for the median.
+     * @return The estimated quantile, or NaN if the sketch is empty.
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        if (rank == 0 || rank == count - 1) {
+            return rank == 0 ? min : max;
+        }
+        double value;
+        if (rank < negative.total) {
+            value = -bucketValue(negative.indexOfRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            value = 0;
+        } else {
+            value = bucketValue(positive.indexOfRank(rank - negative.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the sketch: the counts, the smallest and the largest number and the stored buckets.
+     *
+     * @param output The output to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeLong(count);
+        output.writeLong(zeroCount);
+        output.writeDouble(min);
+        output.writeDouble(max);
+        positive.writeTo(output);
+        negative.writeTo(output);
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input The input to read from.
+     * @return The sketch.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static QuantileSketch readFrom(DataInput input) throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.count = input.readLong();
+        sketch.zeroCount = input.readLong();
+        sketch.min = input.readDouble();
+        sketch.max = input.readDouble();
+        sketch.positive.readFrom(input);
+        sketch.negative.readFrom(input);
+        return sketch;
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    private static double bucketValue(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    /**
+     * The counts of consecutive buckets, stored from the lowest used bucket index to the highest one.
+     */
+    private static class Buckets {
+        private long[] counts = new long[0];
+        private int offset;
+        private long total;
+
+        void add(int index, long bucketCount) {
+            ensureRange(index);
+            counts[index - offset] += bucketCount;
+            total += bucketCount;
+        }
+
+        void merge(Buckets other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        /**
+         * Finds the bucket holding the number of the specified rank, counting from the lowest bucket.
+         */
+        int indexOfRank(long rank) {
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative > rank) {
+                    return offset + i;
+                }
+            }
+            return offset + counts.length - 1;
+        }
+
+        private void ensureRange(int index) {
+            if (counts.length == 0) {
+                counts = new long[1];
+                offset = index;
+            } else if (index < offset) {
+                long[] grown = new long[counts.length + offset - index];
+                System.arraycopy(counts, 0, grown, offset - index, counts.length);
+                counts = grown;
+                offset = index;
+            } else if (index >= offset + counts.length) {
+                counts = Arrays.copyOf(counts, index - offset + 1);
+            }
+        }
+
+        void writeTo(DataOutput output) throws IOException {
+            output.writeInt(offset);
+            output.writeInt(counts.length);
+            for (long bucketCount : counts) {
+                output.writeLong(bucketCount);
+            }
+        }
+
+        void readFrom(DataInput input) throws IOException {
+            offset = input.readInt();
+            counts = new long[input.readInt()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = input.readLong();
+                total += counts[i];
+            }
+        }
+    }
+}
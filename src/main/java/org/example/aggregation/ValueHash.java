@@ -0,0 +1,78 @@
+package org.example.aggregation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ValueHash computes a 64-bit hash of an attribute value from its UTF-8 bytes. A String is encoded on the fly,
+ * so a value hashed as a String and the same value hashed from its UTF-8 bytes get the same hash.
+ * The bytes are hashed with FNV-1a, and the result is finalized with the MurmurHash3 mixer,
+ * so that all bits of the hash are well distributed as the sketches require.
+ */
+final class ValueHash {
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private ValueHash() {}
+
+    /**
+     * Hashes a String as its UTF-8 bytes. Unpaired surrogates are hashed as '?', like the UTF-8 encoder does.
+     *
+     * @param value The value to hash.
+     * @return The 64-bit hash.
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); i++) {
+            char current = value.charAt(i);
+            if (current < 0x80) {
+                hash = update(hash, current);
+            } else if (current < 0x800) {
+                hash = update(hash, 0xC0 | current >> 6);
+                hash = update(hash, 0x80 | current & 0x3F);
+            } else if (!Character.isSurrogate(current)) {
+                hash = update(hash, 0xE0 | current >> 12);
+                hash = update(hash, 0x80 | current >> 6 & 0x3F);
+                hash = update(hash, 0x80 | current & 0x3F);
+            } else if (Character.isHighSurrogate(current) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(current, value.charAt(++i));
+                hash = update(hash, 0xF0 | codePoint >> 18);
+                hash = update(hash, 0x80 | codePoint >> 12 & 0x3F);
+                hash = update(hash, 0x80 | codePoint >> 6 & 0x3F);
+                hash = update(hash, 0x80 | codePoint & 0x3F);
+            } else {
+                hash = update(hash, '?');
+            }
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of a value.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     * @return The 64-bit hash.
+     */
+    static long hash(ByteBuffer buffer, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash = update(hash, buffer.get(i));
+        }
+        return mix(hash);
+    }
+
+    private static long update(long hash, int value) {
+        return (hash ^ (value & 0xFF)) * FNV_PRIME;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
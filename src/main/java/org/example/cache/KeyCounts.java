@@ -0,0 +1,112 @@
+package org.example.cache;
+
+import java.util.Arrays;
+
+/**
+ * KeyCounts counts the keys of the values of a column. The keys of a dictionary or a boolean column are dense,
+ * so they are counted in an array indexed by the key; other keys are counted in an open-addressing hash table.
+ * Counting a key doesn't allocate anything once the table has grown to the number of distinct keys.
+ * <p>
+ * The counts aren't thread-safe: every thread is expected to count into its own instance.
+ */
+public class KeyCounts {
+    private static final int INITIAL_CAPACITY = 64;
+    private final boolean dense;
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    /**
+     * Constructs the counts of the keys of a column.
+     *
+     * @param column The column whose keys are counted.
+     */
+    public KeyCounts(OrderColumn column) {
+        int denseKeys = column.getDenseKeys();
+        this.dense = denseKeys >= 0;
+        this.counts = new long[dense ? denseKeys : INITIAL_CAPACITY];
+        this.keys = dense ? null : new long[INITIAL_CAPACITY];
+        if (!dense) {
+            Arrays.fill(keys, OrderColumn.NO_VALUE);
+        }
+    }
+
+    /**
+     * Consumer of the counted keys.
+     */
+    @FunctionalInterface
+    public interface KeyConsumer {
+
+        /**
+         * Accepts a counted key.
+         *
+         * @param key   The key.
+         * @param count The count of the key, positive.
+         */
+        void accept(long key, long count);
+    }
+
+    /**
+     * Increments the count of a key by one.
+     *
+     * @param key The key, not {@value OrderColumn#NO_VALUE}.
+     */
+    public void increment(long key) {
+        if (dense) {
+            counts[(int) key]++;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == OrderColumn.NO_VALUE) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    counts[slot]++;
+                    rehash();
+                    return;
+                }
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * Passes every key counted at least once to a consumer.
+     *
+     * @param consumer The consumer of the keys and their counts.
+     */
+    public void forEach(KeyConsumer consumer) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                consumer.accept(dense ? i : keys[i], counts[i]);
+            }
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        Arrays.fill(keys, OrderColumn.NO_VALUE);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != OrderColumn.NO_VALUE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != OrderColumn.NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
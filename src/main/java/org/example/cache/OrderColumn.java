@@ -0,0 +1,252 @@
+package org.example.cache;
+
+import java.math.BigDecimal;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * OrderColumn holds the values of one field of all cached orders in a memory-mapped file, one value per order.
+ * Every value is read as a long key, which identifies the value within the column, and the text of the value,
+ * the same text the JSON reader counts, is only rebuilt from the key when it is needed:
+ * <ul>
+ *     <li>strings are dictionary-encoded: the key is the index of the value in the dictionary of the column,</li>
+ *     <li>numbers are stored as longs,</li>
+ *     <li>dates are stored as epoch-day ints,</li>
+ *     <li>booleans are stored as a bitset of the values and a bitset of the orders that have a value,</li>
+ *     <li>prices are stored as scaled longs: the number of cents shifted left by two bits that keep
+ *     the number of fraction digits of the text, so that {@code 210}, {@code 210.5} and {@code 210.50} stay apart.</li>
+ * </ul>
+ * A column is immutable once it has been mapped, so it can be read by several threads at a time.
+ */
+public class OrderColumn {
+    public static final long NO_VALUE = Long.MIN_VALUE;
+    static final int NO_INT_VALUE = Integer.MIN_VALUE;
+    static final int PRICE_SCALE_BITS = 2;
+    static final int MAX_PRICE_TEXT_LENGTH = 21;
+    private static final int MAX_LONG_TEXT_LENGTH = 20;
+    private static final int DATE_TEXT_LENGTH = 10;
+    private static final char[] TRUE_TEXT = "true".toCharArray();
+    private static final char[] FALSE_TEXT = "false".toCharArray();
+    private final String field;
+    private final Type type;
+    private final int size;
+    private final IntBuffer ints;
+    private final LongBuffer longs;
+    private final String[] dictionary;
+    private final int maxTextLength;
+
+    /**
+     * The types of the columns, chosen by the type of the field of the order.
+     */
+    public enum Type {
+        DICTIONARY, LONG, DATE, BOOLEAN, PRICE;
+
+        /**
+         * Chooses the type of the column of a field.
+         *
+         * @param fieldType The type of the field of the order.
+         * @return The type of the column.
+         * @throws IllegalArgumentException If a field of this type can't be cached.
+         */
+        static Type of(Class<?> fieldType) {
+            if (fieldType == String.class) {
+                return DICTIONARY;
+            }
+            if (fieldType == Long.class || fieldType == long.class) {
+                return LONG;
+            }
+            if (fieldType == LocalDate.class) {
+                return DATE;
+            }
+            if (fieldType == Boolean.class || fieldType == boolean.class) {
+                return BOOLEAN;
+            }
+            if (fieldType == BigDecimal.class) {
+                return PRICE;
+            }
+            throw new IllegalArgumentException("Fields of the type " + fieldType.getSimpleName() + " can't be cached");
+        }
+    }
+
+    OrderColumn(String field, Type type, int size, IntBuffer ints, LongBuffer longs, String[] dictionary) {
+        this.field = field;
+        this.type = type;
+        this.size = size;
+        this.ints = ints;
+        this.longs = longs;
+        this.dictionary = dictionary;
+        this.maxTextLength = switch (type) {
+            case DICTIONARY -> Arrays.stream(dictionary).mapToInt(String::length).max().orElse(0);
+            case LONG -> MAX_LONG_TEXT_LENGTH;
+            case DATE -> DATE_TEXT_LENGTH;
+            case BOOLEAN -> FALSE_TEXT.length;
+            case PRICE -> MAX_PRICE_TEXT_LENGTH;
+        };
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of distinct keys if the keys are dense, i.e. all between 0 and that number,
+     * so that the values can be counted in an array indexed by the key.
+     *
+     * @return The number of distinct keys, or -1 if the keys are sparse.
+     */
+    public int getDenseKeys() {
+        return switch (type) {
+            case DICTIONARY -> dictionary.length;
+            case BOOLEAN -> 2;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Returns the maximal length of the text of a value of this column.
+     *
+     * @return The number of characters a buffer needs to hold the text of any value.
+     */
+    public int getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    /**
+     * Returns the key of the value of an order.
+     *
+     * @param order The index of the order.
+     * @return The key of the value, or {@value #NO_VALUE} if the order has no value or a null value for the field.
+     */
+    public long getKey(int order) {
+        return switch (type) {
+            case DICTIONARY -> {
+                int index = ints.get(order);
+                yield index < 0 ? NO_VALUE : index;
+            }
+            case DATE -> {
+                int epochDay = ints.get(order);
+                yield epochDay == NO_INT_VALUE ? NO_VALUE : epochDay;
+            }
+            case LONG, PRICE -> longs.get(order);
+            case BOOLEAN -> {
+                int wordIndex = order >>> 6;
+                long bit = 1L << order;
+                if ((longs.get(bitsetWords(size) + wordIndex) & bit) == 0) {
+                    yield NO_VALUE;
+                }
+                yield (longs.get(wordIndex) & bit) != 0 ? 1 : 0;
+            }
+        };
+    }
+
+    /**
+     * Returns the text of a value. The String of a dictionary value isn't copied.
+     *
+     * @param key The key of the value.
+     * @return The text of the value.
+     */
+    public String getText(long key) {
+        if (type == Type.DICTIONARY) {
+            return dictionary[(int) key];
+        }
+        char[] text = new char[maxTextLength];
+        return new String(text, 0, writeText(key, text));
+    }
+
+    /**
+     * Writes the text of a value into a buffer, without creating a String.
+     *
+     * @param key    The key of the value.
+     * @param target The buffer, at least {@link #getMaxTextLength()} characters long.
+     * @return The number of characters written.
+     */
+    public int writeText(long key, char[] target) {
+        switch (type) {
+            case DICTIONARY -> {
+                String value = dictionary[(int) key];
+                value.getChars(0, value.length(), target, 0);
+                return value.length();
+            }
+            case LONG -> {
+                return writeLong(key, target, 0);
+            }
+            case DATE -> {
+                LocalDate date = LocalDate.ofEpochDay(key);
+                writeDigits(date.getYear(), 4, target, 0);
+                target[4] = '-';
+                writeDigits(date.getMonthValue(), 2, target, 5);
+                target[7] = '-';
+                writeDigits(date.getDayOfMonth(), 2, target, 8);
+                return DATE_TEXT_LENGTH;
+            }
+            case BOOLEAN -> {
+                char[] text = key != 0 ? TRUE_TEXT : FALSE_TEXT;
+                System.arraycopy(text, 0, target, 0, text.length);
+                return text.length;
+            }
+            default -> {
+                return writePrice(key, target);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of longs a bitset of the specified number of orders takes.
+     */
+    static int bitsetWords(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Writes the text of a price key: the cents with as many fraction digits as the key keeps.
+     */
+    static int writePrice(long key, char[] target) {
+        long cents = key >> PRICE_SCALE_BITS;
+        int fractionDigits = (int) (key & ((1 << PRICE_SCALE_BITS) - 1));
+        int length = 0;
+        if (cents < 0) {
+            target[length++] = '-';
+            cents = -cents;
+        }
+        length = writeLong(cents / 100, target, length);
+        if (fractionDigits > 0) {
+            target[length++] = '.';
+            writeDigits((int) (cents % 100), 2, target, length);
+            length += fractionDigits;
+        }
+        return length;
+    }
+
+    /**
+     * Writes the digits of a number, which isn't {@value #NO_VALUE}.
+     */
+    static int writeLong(long value, char[] target, int offset) {
+        int length = offset;
+        if (value < 0) {
+            target[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return length + digits;
+    }
+
+    private static void writeDigits(int value, int digits, char[] target, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.cache;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OrderColumns is a columnar cache of the orders of a folder: the values of every field of the order
+ * are kept in a column of their own, memory-mapped from a file, so that a query only touches the columns
+ * of the fields it needs, and counting a value doesn't parse anything.
+ * <p>
+ * The cache is a folder that holds a {@code .column} file per field and the metadata file {@code orders.meta},
+ * which is written last: a format version, the folder the orders were read from, the number of orders,
+ * the path, size and modification time of every source file, and the name, the type
+ * and the dictionary of every column.
+ */
+public class OrderColumns {
+    static final int FORMAT_VERSION = 1;
+    static final String META_FILE_NAME = "orders.meta";
+    static final String COLUMN_FILE_EXTENSION = ".column";
+    static final int IO_BUFFER_SIZE = 1 << 16;
+    private final String folderPath;
+    private final int size;
+    private final List<Source> sources;
+    private final Map<String, OrderColumn> columns;
+
+    /**
+     * A file the cached orders were read from.
+     *
+     * @param path         The absolute path of the file.
+     * @param size         The size of the file.
+     * @param lastModified The modification time of the file.
+     */
+    public record Source(String path, long size, long lastModified) {
+    }
+
+    private OrderColumns(String folderPath, int size, List<Source> sources, Map<String, OrderColumn> columns) {
+        this.folderPath = folderPath;
+        this.size = size;
+        this.sources = sources;
+        this.columns = columns;
+    }
+
+    /**
+     * Opens a cache written by {@link OrderColumnsBuilder#write(Path, String, List)}, mapping its columns.
+     *
+     * @param folder The folder of the cache.
+     * @return The cached orders.
+     * @throws IOException If the cache can't be read or has another format version.
+     */
+    public static OrderColumns open(Path folder) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(folder.resolve(META_FILE_NAME))))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported cache format");
+            }
+            String folderPath = input.readUTF();
+            int size = input.readInt();
+            int sourcesNumber = input.readInt();
+            List<Source> sources = new ArrayList<>(sourcesNumber);
+            for (int i = 0; i < sourcesNumber; i++) {
+                sources.add(new Source(input.readUTF(), input.readLong(), input.readLong()));
+            }
+            int columnsNumber = input.readInt();
+            Map<String, OrderColumn> columns = new LinkedHashMap<>();
+            for (int i = 0; i < columnsNumber; i++) {
+                String field = input.readUTF();
+                OrderColumn.Type type = OrderColumn.Type.valueOf(input.readUTF());
+                String[] dictionary = new String[input.readInt()];
+                for (int j = 0; j < dictionary.length; j++) {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readFully(bytes);
+                    dictionary[j] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                columns.put(field, mapColumn(folder, field, type, size, dictionary));
+            }
+            return new OrderColumns(folderPath, size, List.copyOf(sources), columns);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The cache " + folder + " is corrupt", e);
+        }
+    }
+
+    public String getFolderPath() {
+        return folderPath;
+    }
+
+    /**
+     * Returns the number of cached orders.
+     *
+     * @return The number of orders.
+     */
+    public int size() {
+        return size;
+    }
+
+    public List<Source> getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the column of a field.
+     *
+     * @param field The name of the field.
+     * @return The column, or null if the field isn't cached.
+     */
+    public OrderColumn getColumn(String field) {
+        return columns.get(field);
+    }
+
+    private static OrderColumn mapColumn(Path folder, String field, OrderColumn.Type type, int size,
+                                         String[] dictionary) throws IOException {
+        long length = switch (type) {
+            case DICTIONARY, DATE -> (long) size * Integer.BYTES;
+            case LONG, PRICE -> (long) size * Long.BYTES;
+            case BOOLEAN -> 2L * OrderColumn.bitsetWords(size) * Long.BYTES;
+        };
+        try (FileChannel channel = FileChannel.open(folder.resolve(field + COLUMN_FILE_EXTENSION),
+                StandardOpenOption.READ)) {
+            if (channel.size() != length) {
+                throw new IOException("The column " + field + " of the cache " + folder + " is corrupt");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            IntBuffer ints = type == OrderColumn.Type.DICTIONARY || type == OrderColumn.Type.DATE
+                    ? buffer.asIntBuffer()
+                    : null;
+            LongBuffer longs = ints == null ? buffer.asLongBuffer() : null;
+            return new OrderColumn(field, type, size, ints, longs, dictionary);
+        }
+    }
+}
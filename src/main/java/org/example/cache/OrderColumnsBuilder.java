@@ -0,0 +1,327 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.OrderPrice;
+import org.example.model.Order;
+import org.example.parser.DateParser;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OrderColumnsBuilder collects the values of every field of the orders read from JSON into growing columns
+ * and writes them in the format read by {@link OrderColumns}. Every file can be read by its own builder,
+ * and the builders are appended to each other afterwards.
+ * <p>
+ * A value is only cached if its text can be rebuilt exactly from the stored value, so that the statistics
+ * calculated from the cache are the same as the statistics calculated from the JSON files.
+ * Orders with a value that can't be cached, e.g. a date that isn't an ISO date, a nested value of a field
+ * of the order or a field repeated in an order, make the builder fail with an IllegalArgumentException.
+ * <p>
+ * A builder isn't thread-safe.
+ */
+public class OrderColumnsBuilder {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long MAX_PRICE_CENTS = 1L << 60;
+    private final List<Field> fields;
+    private final Map<String, Integer> fieldIndexes = new HashMap<>();
+    private final OrderColumn.Type[] types;
+    private final int[][] ints;
+    private final long[][] longs;
+    private final List<Map<String, Integer>> dictionaryIndexes = new ArrayList<>();
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final boolean[] seenFields;
+    private final OrderPrice orderPrice = new OrderPrice();
+    private final char[] text = new char[OrderColumn.MAX_PRICE_TEXT_LENGTH];
+    private int size;
+
+    public OrderColumnsBuilder() {
+        this.fields = Arrays.stream(Order.class.getDeclaredFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .toList();
+        this.types = new OrderColumn.Type[fields.size()];
+        this.ints = new int[fields.size()][];
+        this.longs = new long[fields.size()][];
+        this.seenFields = new boolean[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            fieldIndexes.put(fields.get(i).getName(), i);
+            types[i] = OrderColumn.Type.of(fields.get(i).getType());
+            if (types[i] == OrderColumn.Type.LONG || types[i] == OrderColumn.Type.PRICE) {
+                longs[i] = new long[INITIAL_CAPACITY];
+            } else {
+                ints[i] = new int[INITIAL_CAPACITY];
+            }
+            dictionaryIndexes.add(new HashMap<>());
+            dictionaries.add(new ArrayList<>());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reads all orders of JSON data, the elements of an array or root-level objects, the same way
+     * as the JSON reader of the statistics does.
+     *
+     * @param parser The JSON parser of the data.
+     * @throws IOException              If an I/O error occurs during JSON parsing.
+     * @throws IllegalArgumentException If an order has a value that can't be cached.
+     */
+    public void read(JsonParser parser) throws IOException {
+        for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            if (token == JsonToken.START_OBJECT) {
+                readOrder(parser);
+            }
+        }
+    }
+
+    /**
+     * Appends the orders of another builder after the orders of this one.
+     *
+     * @param other The builder to append.
+     */
+    public void append(OrderColumnsBuilder other) {
+        ensureCapacity(size + other.size);
+        for (int field = 0; field < types.length; field++) {
+            if (longs[field] != null) {
+                System.arraycopy(other.longs[field], 0, longs[field], size, other.size);
+                continue;
+            }
+            if (types[field] != OrderColumn.Type.DICTIONARY) {
+                System.arraycopy(other.ints[field], 0, ints[field], size, other.size);
+                continue;
+            }
+            List<String> otherDictionary = other.dictionaries.get(field);
+            int[] indexes = new int[otherDictionary.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = indexOf(field, otherDictionary.get(i));
+            }
+            for (int order = 0; order < other.size; order++) {
+                int index = other.ints[field][order];
+                ints[field][size + order] = index < 0 ? index : indexes[index];
+            }
+        }
+        size += other.size;
+    }
+
+    /**
+     * Writes the columns into a folder: a file per column and the metadata file, written last.
+     *
+     * @param folder     The folder to write into, which has to exist.
+     * @param folderPath The folder the orders were read from.
+     * @param sources    The files the orders were read from.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    public void write(Path folder, String folderPath, List<OrderColumns.Source> sources) throws IOException {
+        for (int field = 0; field < types.length; field++) {
+            Path columnPath = folder.resolve(fields.get(field).getName() + OrderColumns.COLUMN_FILE_EXTENSION);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(columnPath), OrderColumns.IO_BUFFER_SIZE))) {
+                writeColumn(field, output);
+            }
+        }
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(folder.resolve(OrderColumns.META_FILE_NAME))))) {
+            output.writeInt(OrderColumns.FORMAT_VERSION);
+            output.writeUTF(folderPath);
+            output.writeInt(size);
+            output.writeInt(sources.size());
+            for (OrderColumns.Source source : sources) {
+                output.writeUTF(source.path());
+                output.writeLong(source.size());
+                output.writeLong(source.lastModified());
+            }
+            output.writeInt(types.length);
+            for (int field = 0; field < types.length; field++) {
+                output.writeUTF(fields.get(field).getName());
+                output.writeUTF(types[field].name());
+                List<String> dictionary = dictionaries.get(field);
+                output.writeInt(dictionary.size());
+                for (String value : dictionary) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+            }
+        }
+    }
+
+    private void writeColumn(int field, DataOutputStream output) throws IOException {
+        switch (types[field]) {
+            case LONG, PRICE -> {
+                for (int order = 0; order < size; order++) {
+                    output.writeLong(longs[field][order]);
+                }
+            }
+            case DICTIONARY, DATE -> {
+                for (int order = 0; order < size; order++) {
+                    output.writeInt(ints[field][order]);
+                }
+            }
+            case BOOLEAN -> {
+                long[] values = new long[OrderColumn.bitsetWords(size)];
+                long[] present = new long[values.length];
+                for (int order = 0; order < size; order++) {
+                    int value = ints[field][order];
+                    if (value != OrderColumn.NO_INT_VALUE) {
+                        present[order >>> 6] |= 1L << order;
+                        values[order >>> 6] |= (long) value << order;
+                    }
+                }
+                for (long word : values) {
+                    output.writeLong(word);
+                }
+                for (long word : present) {
+                    output.writeLong(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the fields of an order, the parser being positioned at its start.
+     */
+    private void readOrder(JsonParser parser) throws IOException {
+        if (size == Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalArgumentException("There are too many orders");
+        }
+        ensureCapacity(size + 1);
+        Arrays.fill(seenFields, false);
+        for (int field = 0; field < types.length; field++) {
+            if (longs[field] != null) {
+                longs[field][size] = OrderColumn.NO_VALUE;
+            } else {
+                ints[field][size] = types[field] == OrderColumn.Type.DICTIONARY ? -1 : OrderColumn.NO_INT_VALUE;
+            }
+        }
+
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            Integer field = fieldIndexes.get(fieldName);
+            if (field == null) {
+                parser.skipChildren();
+                continue;
+            }
+            if (!valueToken.isScalarValue()) {
+                throw new IllegalArgumentException("The field " + fieldName + " has a nested value");
+            }
+            if (seenFields[field]) {
+                throw new IllegalArgumentException("The field " + fieldName + " is repeated in an order");
+            }
+            seenFields[field] = true;
+            if (valueToken != JsonToken.VALUE_NULL) {
+                storeValue(field, parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Stores the text of a value into its column.
+     *
+     * @throws IllegalArgumentException If the text can't be rebuilt from the stored value.
+     */
+    private void storeValue(int field, char[] chars, int offset, int length) {
+        switch (types[field]) {
+            case DICTIONARY -> ints[field][size] = indexOf(field, new String(chars, offset, length));
+            case LONG -> {
+                long value = parseLong(chars, offset, length);
+                if (value == OrderColumn.NO_VALUE
+                        || !textEquals(chars, offset, length, OrderColumn.writeLong(value, text, 0))) {
+                    throw notCacheable(field, chars, offset, length);
+                }
+                longs[field][size] = value;
+            }
+            case DATE -> {
+                int date = DateParser.parse(chars, offset, length);
+                if (date == DateParser.NO_DATE) {
+                    throw notCacheable(field, chars, offset, length);
+                }
+                ints[field][size] = (int) DateParser.toEpochDay(date);
+            }
+            case BOOLEAN -> {
+                String value = new String(chars, offset, length);
+                if (!value.equals(Boolean.TRUE.toString()) && !value.equals(Boolean.FALSE.toString())) {
+                    throw notCacheable(field, chars, offset, length);
+                }
+                ints[field][size] = Boolean.parseBoolean(value) ? 1 : 0;
+            }
+            case PRICE -> {
+                orderPrice.parse(chars, offset, length);
+                int fractionDigits = countFractionDigits(chars, offset, length);
+                if (!orderPrice.isCents() || Math.abs(orderPrice.getCents()) >= MAX_PRICE_CENTS
+                        || fractionDigits > OrderPrice.SCALE) {
+                    throw notCacheable(field, chars, offset, length);
+                }
+                long key = orderPrice.getCents() << OrderColumn.PRICE_SCALE_BITS | fractionDigits;
+                if (!textEquals(chars, offset, length, OrderColumn.writePrice(key, text))) {
+                    throw notCacheable(field, chars, offset, length);
+                }
+                longs[field][size] = key;
+            }
+        }
+    }
+
+    private int indexOf(int field, String value) {
+        return dictionaryIndexes.get(field).computeIfAbsent(value, ignored -> {
+            List<String> dictionary = dictionaries.get(field);
+            dictionary.add(value);
+            return dictionary.size() - 1;
+        });
+    }
+
+    private boolean textEquals(char[] chars, int offset, int length, int textLength) {
+        return Arrays.equals(chars, offset, offset + length, text, 0, textLength);
+    }
+
+    private IllegalArgumentException notCacheable(int field, char[] chars, int offset, int length) {
+        return new IllegalArgumentException("The value " + new String(chars, offset, length) + " of the field "
+                + fields.get(field).getName() + " can't be cached");
+    }
+
+    private void ensureCapacity(int capacity) {
+        for (int field = 0; field < types.length; field++) {
+            int length = longs[field] != null ? longs[field].length : ints[field].length;
+            if (length >= capacity) {
+                continue;
+            }
+            int newLength = (int) Math.min(Math.max((long) length * 2, capacity), Integer.MAX_VALUE - 8);
+            if (longs[field] != null) {
+                longs[field] = Arrays.copyOf(longs[field], newLength);
+            } else {
+                ints[field] = Arrays.copyOf(ints[field], newLength);
+            }
+        }
+    }
+
+    private static long parseLong(char[] chars, int offset, int length) {
+        try {
+            return Long.parseLong(new String(chars, offset, length));
+        } catch (NumberFormatException e) {
+            return OrderColumn.NO_VALUE;
+        }
+    }
+
+    private static int countFractionDigits(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] == '.') {
+                return offset + length - i - 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.cache;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.OrderPrice;
+import org.example.aggregation.PartialStatistics;
+import org.example.exception.CustomFileException;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+import org.example.filter.OrderFilter;
+import org.example.metrics.RunMetrics;
+import org.example.parser.FailureIsolation;
+import org.example.service.CalculationService;
+import org.example.service.OrderCacheService;
+import org.example.util.ErrorPolicy;
+import org.example.util.StatisticsOptions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * OrderColumnsReader answers a query from the columnar cache of the orders of a folder: the cache is loaded,
+ * or built from the files if there is none, and the columns of the attributes, the filter and the price
+ * are counted in parallel slices without parsing anything.
+ */
+public class OrderColumnsReader {
+    private static final int MIN_COLUMN_SLICE_SIZE = 1 << 16;
+    private final int threadsNumber;
+    private final boolean priceEnabled;
+    private final DateRange dateRange;
+    private final List<Condition> filterConditions;
+    private final ErrorPolicy errorPolicy;
+    private final ExecutorService executor;
+    private final OrderCacheService orderCacheService;
+    private final CalculationService calculateService;
+    private final PartialStatistics partialStatistics;
+    private final RunMetrics metrics;
+
+    /**
+     * Constructs the reader of the cached orders of a run.
+     *
+     * @param options           The settings of the run.
+     * @param executor          The executor the slices of the orders are read on.
+     * @param orderCacheService The service the cache is loaded and built by.
+     * @param calculateService  The service the values of the orders are counted by.
+     * @param partialStatistics The partial statistics the slices are counted into.
+     * @param metrics           The metrics the slices and counted orders are recorded to.
+     */
+    public OrderColumnsReader(StatisticsOptions options, ExecutorService executor,
+                              OrderCacheService orderCacheService, CalculationService calculateService,
+                              PartialStatistics partialStatistics, RunMetrics metrics) {
+        this.threadsNumber = options.threadsNumber();
+        this.priceEnabled = options.priceEnabled();
+        this.dateRange = options.dateRange();
+        this.filterConditions = options.filterConditions();
+        this.errorPolicy = options.errorPolicy();
+        this.executor = executor;
+        this.orderCacheService = orderCacheService;
+        this.calculateService = calculateService;
+        this.partialStatistics = partialStatistics;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Loads the cached orders of a folder, building the cache if there is none or it is stale.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files in the folder.
+     * @param attributes The attributes to calculate statistics for.
+     * @return The cached orders, or an empty optional if the folder can't be cached or the cache lacks a field
+     * of the query.
+     */
+    public Optional<OrderColumns> load(String folderPath, List<File> files, List<String> attributes) {
+        return orderCacheService.load(folderPath, files)
+                .or(() -> ingestOrders(folderPath, files))
+                .filter(columns -> coversFields(columns, attributes));
+    }
+
+    /**
+     * Reads the cached orders of a folder in parallel, every task reading its own slice of the orders
+     * into partial statistics owned by that slice. Only the columns of the attributes, the filter
+     * and the price are touched, and nothing is parsed.
+     *
+     * @param columns    The cached orders.
+     * @param attributes The attributes to calculate statistics for.
+     * @return The partial statistics of every slice by attribute, in the order of the slices.
+     */
+    public List<Map<String, AttributeCounter>> read(OrderColumns columns, List<String> attributes) {
+        int slices = Math.max(1, Math.min(threadsNumber, columns.size() / MIN_COLUMN_SLICE_SIZE));
+        List<CompletableFuture<Map<String, AttributeCounter>>> tasks = new ArrayList<>();
+        for (int slice = 0; slice < slices; slice++) {
+            int from = (int) ((long) columns.size() * slice / slices);
+            int to = (int) ((long) columns.size() * (slice + 1) / slices);
+            tasks.add(CompletableFuture.supplyAsync(() -> {
+                long startTime = metrics.isEnabled() ? System.nanoTime() : 0;
+                Map<String, AttributeCounter> statistics = readColumnSlice(columns, attributes, from, to);
+                if (metrics.isEnabled()) {
+                    metrics.recordFile("cached orders " + from + "-" + to, 0, System.nanoTime() - startTime);
+                }
+                return statistics;
+            }, executor));
+        }
+
+        try {
+            return tasks.stream()
+                    .map(PartialStatistics::await)
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a slice of the cached orders. Unless the prices are aggregated, the keys of the values are counted
+     * first, and every distinct value is added to the statistics once with its count. Otherwise, the values
+     * of every order are counted before the price of the order is added to them.
+     * The values of the fields of the filter are tested as the same text the JSON readers test.
+     *
+     * @param columns    The cached orders.
+     * @param attributes The attributes to calculate statistics for.
+     * @param from       The index of the first order of the slice.
+     * @param to         The index after the last order of the slice.
+     * @return The partial statistics of the slice by attribute.
+     */
+    private Map<String, AttributeCounter> readColumnSlice(OrderColumns columns, List<String> attributes,
+                                                          int from, int to) {
+        Map<String, AttributeCounter> statistics = partialStatistics.create(attributes);
+        AttributeCounter[] counters = statistics.values().toArray(AttributeCounter[]::new);
+        OrderColumn[] attributeColumns = attributes.stream().map(columns::getColumn).toArray(OrderColumn[]::new);
+        OrderFilter orderFilter = createOrderFilter();
+        OrderColumn[] filterColumns = orderFilter != null
+                ? orderFilter.getFields().stream().map(columns::getColumn).toArray(OrderColumn[]::new)
+                : new OrderColumn[0];
+        OrderColumn priceColumn = priceEnabled ? columns.getColumn(OrderPrice.FIELD_NAME) : null;
+        char[] text = new char[Stream.concat(Arrays.stream(filterColumns), Stream.ofNullable(priceColumn))
+                .mapToInt(OrderColumn::getMaxTextLength)
+                .max().orElse(0)];
+        metrics.recordParsed(to - from, (long) (to - from)
+                * (attributeColumns.length + filterColumns.length + (priceColumn != null ? 1 : 0)));
+
+        if (!priceEnabled) {
+            KeyCounts[] keyCounts = Arrays.stream(attributeColumns).map(KeyCounts::new).toArray(KeyCounts[]::new);
+            for (int order = from; order < to; order++) {
+                if (orderFilter != null && !acceptColumns(order, filterColumns, orderFilter, text)) {
+                    continue;
+                }
+                for (int attribute = 0; attribute < attributeColumns.length; attribute++) {
+                    long key = attributeColumns[attribute].getKey(order);
+                    if (key != OrderColumn.NO_VALUE) {
+                        keyCounts[attribute].increment(key);
+                    }
+                }
+            }
+            for (int attribute = 0; attribute < attributeColumns.length; attribute++) {
+                OrderColumn column = attributeColumns[attribute];
+                String name = attributes.get(attribute);
+                AttributeCounter counter = counters[attribute];
+                keyCounts[attribute].forEach((key, count) ->
+                        calculateService.calculateAttributes(column.getText(key), count, name, counter));
+            }
+            return statistics;
+        }
+
+        OrderPrice orderPrice = new OrderPrice();
+        for (int order = from; order < to; order++) {
+            if (orderFilter != null && !acceptColumns(order, filterColumns, orderFilter, text)) {
+                continue;
+            }
+            for (int attribute = 0; attribute < attributeColumns.length; attribute++) {
+                long key = attributeColumns[attribute].getKey(order);
+                if (key != OrderColumn.NO_VALUE) {
+                    calculateService.calculateAttributes(attributeColumns[attribute].getText(key),
+                            attributes.get(attribute), counters[attribute]);
+                }
+            }
+            long priceKey = priceColumn.getKey(order);
+            if (priceKey != OrderColumn.NO_VALUE) {
+                orderPrice.parse(text, 0, priceColumn.writeText(priceKey, text));
+            }
+            calculateService.completeOrder(statistics, orderPrice);
+        }
+        return statistics;
+    }
+
+    /**
+     * Checks whether the cache has the columns of all fields a query reads, so that fields that aren't fields
+     * of the order are still read from the JSON files.
+     *
+     * @param columns    The cached orders.
+     * @param attributes The attributes to calculate statistics for.
+     * @return True if all attributes and all fields of the filter are cached, otherwise false.
+     */
+    private boolean coversFields(OrderColumns columns, List<String> attributes) {
+        OrderFilter orderFilter = createOrderFilter();
+        return Stream.concat(attributes.stream(), orderFilter != null ? orderFilter.getFields().stream() : Stream.of())
+                .allMatch(field -> columns.getColumn(field) != null);
+    }
+
+    /**
+     * Decides a cached order by the values of the fields of the filter. A field without a value is left out,
+     * just as a missing field of a JSON order, so the order is rejected.
+     *
+     * @param order         The index of the order.
+     * @param filterColumns The columns of the fields of the filter.
+     * @param orderFilter   The filter of the orders.
+     * @param text          The buffer the text of the values is written to.
+     * @return True if the order was accepted, otherwise false.
+     */
+    private static boolean acceptColumns(int order, OrderColumn[] filterColumns, OrderFilter orderFilter,
+                                         char[] text) {
+        for (int field = 0; field < filterColumns.length && !orderFilter.isRejected(); field++) {
+            long key = filterColumns[field].getKey(order);
+            if (key != OrderColumn.NO_VALUE) {
+                orderFilter.testField(field, text, 0, filterColumns[field].writeText(key, text));
+            }
+        }
+        return orderFilter.completeOrder();
+    }
+
+    /**
+     * Builds the cache of the orders of a folder. Unless the run fails fast, a folder with a file that can't be read
+     * isn't cached, and its files are read with the error policy instead.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files in the folder.
+     * @return The cached orders, or an empty optional if the folder can't be cached.
+     */
+    private Optional<OrderColumns> ingestOrders(String folderPath, List<File> files) {
+        if (errorPolicy == ErrorPolicy.FAIL_FAST) {
+            return orderCacheService.ingest(folderPath, files);
+        }
+        try {
+            return orderCacheService.ingest(folderPath, files);
+        } catch (CustomFileException e) {
+            System.out.println("The orders of " + folderPath + " can't be cached, the files are read instead: "
+                    + FailureIsolation.describeFailure(e));
+            return Optional.empty();
+        }
+    }
+
+    private OrderFilter createOrderFilter() {
+        return OrderFilter.of(dateRange, filterConditions);
+    }
+}
@@ -0,0 +1,263 @@
+package org.example.filter;
+
+import org.example.model.Order;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Condition compares a field of an order with a literal, e.g. {@code statusPayment == true} or
+ * {@code totalPrice > 100}. It is tested against the raw text of the value, either the characters of a JSON parser
+ * or the bytes of the scanner, without creating a String:
+ * <ul>
+ *     <li>if the literal is a number, the value is compared as a decimal number, and a value that isn't a number
+ *     never matches,</li>
+ *     <li>otherwise the text of the value is compared with the literal, lexicographically for the ordering operators,
+ *     which compares ISO dates chronologically.</li>
+ * </ul>
+ * An order that has no value for the field, or has a null value, doesn't match any condition on it.
+ */
+public class Condition {
+    private static final Pattern CONDITION_PATTERN =
+            Pattern.compile("\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*(==|!=|>=|<=|>|<)\\s*(\"[^\"]*\"|'[^']*'|[^\\s\"']+)\\s*");
+    private static final String CONJUNCTION = "&&";
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_FAST_DIGITS + 1];
+    private final String field;
+    private final Operator operator;
+    private final String literal;
+    private final char[] literalChars;
+    private final byte[] literalBytes;
+    private final BigDecimal number;
+    private final long unscaledNumber;
+    private final int numberScale;
+    private final boolean fastNumber;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * The comparison operators of a condition.
+     */
+    public enum Operator {
+        EQUAL("=="), NOT_EQUAL("!="), GREATER(">"), GREATER_OR_EQUAL(">="), LESS("<"), LESS_OR_EQUAL("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean test(int comparison) {
+            return switch (this) {
+                case EQUAL -> comparison == 0;
+                case NOT_EQUAL -> comparison != 0;
+                case GREATER -> comparison > 0;
+                case GREATER_OR_EQUAL -> comparison >= 0;
+                case LESS -> comparison < 0;
+                case LESS_OR_EQUAL -> comparison <= 0;
+            };
+        }
+
+        static Operator of(String symbol) {
+            return Arrays.stream(values())
+                    .filter(operator -> operator.symbol.equals(symbol))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    /**
+     * Constructs a condition.
+     *
+     * @param field    The field of the order.
+     * @param operator The comparison operator.
+     * @param literal  The literal the value is compared with; a number is compared numerically.
+     */
+    public Condition(String field, Operator operator, String literal) {
+        this(field, operator, literal, parseNumber(literal));
+    }
+
+    private Condition(String field, Operator operator, String literal, BigDecimal number) {
+        this.field = field;
+        this.operator = operator;
+        this.literal = literal;
+        this.literalChars = literal.toCharArray();
+        this.literalBytes = literal.getBytes(StandardCharsets.UTF_8);
+        this.number = number;
+        this.fastNumber = number != null && number.precision() <= MAX_FAST_DIGITS
+                && number.scale() >= 0 && number.scale() <= MAX_FAST_DIGITS;
+        this.unscaledNumber = fastNumber ? number.unscaledValue().longValueExact() : 0;
+        this.numberScale = fastNumber ? number.scale() : 0;
+    }
+
+    /**
+     * Parses conditions joined by {@code &&}, e.g. {@code statusPayment == true && totalPrice > 100}.
+     * A literal can be quoted with double or single quotes, e.g. {@code customer == "John Doe"},
+     * which is needed for literals with spaces; a quoted literal is always compared as text.
+     *
+     * @param expression The expression, may be empty.
+     * @return The conditions, all of which an order has to match.
+     * @throws IllegalArgumentException If a condition can't be parsed or its field isn't a field of an order.
+     */
+    public static List<Condition> parseAll(String expression) {
+        List<Condition> conditions = new ArrayList<>();
+        if (expression.isBlank()) {
+            return conditions;
+        }
+        for (String condition : expression.split(CONJUNCTION)) {
+            Matcher matcher = CONDITION_PATTERN.matcher(condition);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid condition: " + condition.trim());
+            }
+            if (!isOrderField(matcher.group(1))) {
+                throw new IllegalArgumentException("Unknown field in condition: " + condition.trim());
+            }
+            String literal = matcher.group(3);
+            Operator operator = Operator.of(matcher.group(2));
+            conditions.add(isQuoted(literal)
+                    ? new Condition(matcher.group(1), operator, literal.substring(1, literal.length() - 1), null)
+                    : new Condition(matcher.group(1), operator, literal));
+        }
+        return conditions;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Tests the characters of a value.
+     *
+     * @param chars  The array holding the characters of the value.
+     * @param offset The index of the first character of the value.
+     * @param length The number of characters of the value.
+     * @return True if the value matches the condition, otherwise false.
+     */
+    public boolean test(char[] chars, int offset, int length) {
+        if (number == null) {
+            return operator.test(Arrays.compare(chars, offset, offset + length, literalChars, 0, literalChars.length));
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = length > 0 && chars[offset] == '-';
+        for (int i = negative ? offset + 1 : offset; i < offset + length; i++) {
+            char current = chars[i];
+            if (current == '.' && scale < 0) {
+                scale = 0;
+            } else if (current >= '0' && current <= '9' && ++digits <= MAX_FAST_DIGITS) {
+                unscaled = unscaled * 10 + (current - '0');
+                scale += scale >= 0 ? 1 : 0;
+            } else {
+                return testSlow(new String(chars, offset, length));
+            }
+        }
+        return testNumber(negative ? -unscaled : unscaled, Math.max(scale, 0), digits);
+    }
+
+    /**
+     * Tests the UTF-8 bytes of a value.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     * @return True if the value matches the condition, otherwise false.
+     */
+    public boolean test(ByteBuffer buffer, int start, int end) {
+        if (number == null) {
+            int length = end - start;
+            for (int i = 0; i < Math.min(length, literalBytes.length); i++) {
+                int comparison = Integer.compare(buffer.get(start + i) & 0xFF, literalBytes[i] & 0xFF);
+                if (comparison != 0) {
+                    return operator.test(comparison);
+                }
+            }
+            return operator.test(Integer.compare(length, literalBytes.length));
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = end > start && buffer.get(start) == '-';
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            byte current = buffer.get(i);
+            if (current == '.' && scale < 0) {
+                scale = 0;
+            } else if (current >= '0' && current <= '9' && ++digits <= MAX_FAST_DIGITS) {
+                unscaled = unscaled * 10 + (current - '0');
+                scale += scale >= 0 ? 1 : 0;
+            } else {
+                byte[] bytes = new byte[end - start];
+                buffer.get(start, bytes);
+                return testSlow(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return testNumber(negative ? -unscaled : unscaled, Math.max(scale, 0), digits);
+    }
+
+    @Override
+    public String toString() {
+        return field + " " + operator.symbol + " " + literal;
+    }
+
+    /**
+     * Compares a number read by the fast path with the literal, bringing both to the same scale.
+     * Numbers that can't be brought to the same scale within the long range are compared as BigDecimal.
+     */
+    private boolean testNumber(long unscaled, int scale, int digits) {
+        if (digits == 0) {
+            return false;
+        }
+        if (fastNumber) {
+            int commonScale = Math.max(scale, numberScale);
+            if (commonScale <= MAX_FAST_DIGITS) {
+                try {
+                    long value = Math.multiplyExact(unscaled, POWERS_OF_TEN[commonScale - scale]);
+                    long literalValue = Math.multiplyExact(unscaledNumber, POWERS_OF_TEN[commonScale - numberScale]);
+                    return operator.test(Long.compare(value, literalValue));
+                } catch (ArithmeticException e) {
+                    // compared as BigDecimal below
+                }
+            }
+        }
+        return operator.test(BigDecimal.valueOf(unscaled, scale).compareTo(number));
+    }
+
+    private boolean testSlow(String value) {
+        BigDecimal decimal = parseNumber(value);
+        return decimal != null && operator.test(decimal.compareTo(number));
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isQuoted(String literal) {
+        return literal.length() >= 2 && (literal.charAt(0) == '"' || literal.charAt(0) == '\'')
+                && literal.charAt(literal.length() - 1) == literal.charAt(0);
+    }
+
+    private static boolean isOrderField(String name) {
+        for (Field orderField : Order.class.getDeclaredFields()) {
+            if (orderField.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
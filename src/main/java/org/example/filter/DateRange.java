@@ -0,0 +1,72 @@
+package org.example.filter;
+
+import org.example.parser.DateParser;
+
+import java.time.LocalDate;
+
+/**
+ * DateRange is the window of order dates the statistics are calculated for. Both bounds are inclusive,
+ * and either of them can be open. Dates are compared in the packed form of {@link DateParser}.
+ */
+public class DateRange {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final int packedFrom;
+    private final int packedTo;
+
+    /**
+     * Constructs a range of dates.
+     *
+     * @param from The first date of the range, or null if the range has no lower bound.
+     * @param to   The last date of the range, or null if the range has no upper bound.
+     * @throws IllegalArgumentException If the first date is after the last date.
+     */
+    public DateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the date range " + from + " is after its end " + to);
+        }
+        this.from = from;
+        this.to = to;
+        this.packedFrom = from != null ? pack(from) : Integer.MIN_VALUE;
+        this.packedTo = to != null ? pack(to) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks whether the range has a bound. Orders are only filtered by a range with a bound.
+     *
+     * @return True if the range has a first or a last date, otherwise false.
+     */
+    public boolean isBounded() {
+        return from != null || to != null;
+    }
+
+    /**
+     * Checks whether a date is in the range. An order without a valid date is never in a range.
+     *
+     * @param date The packed date, or {@value DateParser#NO_DATE}.
+     * @return True if the date is in the range, otherwise false.
+     */
+    public boolean contains(int date) {
+        return date != DateParser.NO_DATE && date >= packedFrom && date <= packedTo;
+    }
+
+    /**
+     * Checks whether the range has common dates with the dates from the minimal to the maximal one.
+     *
+     * @param minDate The minimal packed date, or {@value DateParser#NO_DATE} if there are no dates.
+     * @param maxDate The maximal packed date.
+     * @return True if some of the dates can be in the range, otherwise false.
+     */
+    public boolean overlaps(int minDate, int maxDate) {
+        return minDate != DateParser.NO_DATE && minDate <= packedTo && maxDate >= packedFrom;
+    }
+
+    @Override
+    public String toString() {
+        return "date from " + (from != null ? from : "any") + " to " + (to != null ? to : "any");
+    }
+
+    private static int pack(LocalDate date) {
+        return date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
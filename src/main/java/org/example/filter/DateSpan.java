@@ -0,0 +1,53 @@
+package org.example.filter;
+
+import org.example.parser.DateParser;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * DateSpan collects the minimal and the maximal order date of a file while its chunks are read.
+ * The chunks of a file can be read concurrently, so the span is updated under a lock once per chunk.
+ */
+public class DateSpan {
+    private int minDate = DateParser.NO_DATE;
+    private int maxDate = DateParser.NO_DATE;
+
+    /**
+     * Returns the span of a file, creating it when the first chunk of the file is read.
+     *
+     * @param dateSpans The spans of the files read so far, or null if orders aren't filtered by date.
+     * @param file      The file.
+     * @return The span of the file, or null if orders aren't filtered by date.
+     */
+    public static DateSpan forFile(Map<File, DateSpan> dateSpans, File file) {
+        return dateSpans != null ? dateSpans.computeIfAbsent(file, ignored -> new DateSpan()) : null;
+    }
+
+    /**
+     * Widens the span to include the dates from the minimal to the maximal one.
+     *
+     * @param otherMinDate The minimal packed date, or {@value DateParser#NO_DATE} if there were no dates.
+     * @param otherMaxDate The maximal packed date.
+     */
+    public synchronized void include(int otherMinDate, int otherMaxDate) {
+        if (otherMinDate == DateParser.NO_DATE) {
+            return;
+        }
+        if (minDate == DateParser.NO_DATE) {
+            minDate = otherMinDate;
+            maxDate = otherMaxDate;
+        } else {
+            minDate = Math.min(minDate, otherMinDate);
+            maxDate = Math.max(maxDate, otherMaxDate);
+        }
+    }
+
+    public synchronized int getMinDate() {
+        return minDate;
+    }
+
+    public synchronized int getMaxDate() {
+        return maxDate;
+    }
+}
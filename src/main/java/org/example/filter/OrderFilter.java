@@ -0,0 +1,312 @@
+package org.example.filter;
+
+import org.example.aggregation.DateBucket;
+import org.example.parser.DateParser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * OrderFilter decides, order by order, whether an order is in the requested date range and matches
+ * the conditions of the filter expression. The fields the decision depends on may come after the values
+ * that have to be counted, so until the order is decided the values of the requested attributes are held,
+ * either as Strings or as copies of their bytes, and then either replayed or dropped. Once an order is decided,
+ * the values of an accepted order are counted directly and the rest of a rejected order can be skipped.
+ * The filter also keeps the minimal and the maximal valid date it has seen, for the date index of the file,
+ * so the date of every order is read while there is a date range, even if the order was rejected by a condition.
+ * It is owned by a single reading task and isn't thread-safe.
+ */
+public class OrderFilter {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int UNDECIDED = 0;
+    private static final int ACCEPTED = 1;
+    private static final int REJECTED = 2;
+    private final DateRange range;
+    private final List<String> fields;
+    private final Condition[] conditions;
+    private final int[] conditionFields;
+    private final int dateField;
+    private final int requiredMatches;
+    private final boolean[] seenFields;
+    private int decision = UNDECIDED;
+    private int matches;
+    private int minDate = DateParser.NO_DATE;
+    private int maxDate = DateParser.NO_DATE;
+    private int pendingCount;
+    private int[] pendingIndexes = new int[INITIAL_CAPACITY];
+    private String[] pendingAttributes = new String[INITIAL_CAPACITY];
+    private String[] pendingValues = new String[INITIAL_CAPACITY];
+    private int[] pendingEnds = new int[INITIAL_CAPACITY];
+    private byte[] pendingBytes = new byte[INITIAL_CAPACITY * 16];
+
+    /**
+     * Consumer of the held bytes of a value, see {@link #replay(BytesConsumer)}.
+     */
+    public interface BytesConsumer {
+
+        /**
+         * Accepts the held bytes of a value. The bytes are only valid during the call.
+         *
+         * @param attributeIndex The index of the attribute the value was held for.
+         * @param buffer         The buffer holding the value.
+         * @param start          The index of the first byte of the value.
+         * @param end            The index after the last byte of the value.
+         */
+        void accept(int attributeIndex, ByteBuffer buffer, int start, int end);
+    }
+
+    /**
+     * Creates the filter of a reading task, unless all orders are counted.
+     *
+     * @param range      The range the date of an order has to be in, unbounded if orders aren't filtered by date.
+     * @param conditions The conditions an order has to match.
+     * @return The filter, or null if there is neither a date range nor a condition.
+     */
+    public static OrderFilter of(DateRange range, List<Condition> conditions) {
+        return range.isBounded() || !conditions.isEmpty() ? new OrderFilter(range, conditions) : null;
+    }
+
+    /**
+     * Constructs a filter.
+     *
+     * @param range      The range the date of an order has to be in, unbounded if orders aren't filtered by date.
+     * @param conditions The conditions an order has to match.
+     */
+    public OrderFilter(DateRange range, List<Condition> conditions) {
+        List<String> filterFields = new ArrayList<>();
+        if (range.isBounded()) {
+            filterFields.add(DateBucket.FIELD_NAME);
+        }
+        this.conditions = conditions.toArray(Condition[]::new);
+        this.conditionFields = new int[this.conditions.length];
+        for (int i = 0; i < this.conditions.length; i++) {
+            String field = this.conditions[i].getField();
+            if (!filterFields.contains(field)) {
+                filterFields.add(field);
+            }
+            conditionFields[i] = filterFields.indexOf(field);
+        }
+        this.range = range;
+        this.fields = List.copyOf(filterFields);
+        this.dateField = range.isBounded() ? 0 : -1;
+        this.requiredMatches = this.conditions.length + (range.isBounded() ? 1 : 0);
+        this.seenFields = new boolean[fields.size()];
+    }
+
+    /**
+     * Returns the fields the decision depends on.
+     *
+     * @return The fields, in the order of their indexes.
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Finds the index of a field the decision depends on.
+     *
+     * @param field The name of the field.
+     * @return The index of the field, or -1 if the decision doesn't depend on it.
+     */
+    public int indexOf(String field) {
+        return fields.indexOf(field);
+    }
+
+    /**
+     * Tests the characters of the value of a field of the current order.
+     * Only the first value of a field in an order is taken into account.
+     *
+     * @param fieldIndex The index of the field.
+     * @param chars      The array holding the characters of the value, or null if the value is null or not a scalar.
+     * @param offset     The index of the first character of the value.
+     * @param length     The number of characters of the value.
+     */
+    public void testField(int fieldIndex, char[] chars, int offset, int length) {
+        if (!startField(fieldIndex)) {
+            return;
+        }
+        if (fieldIndex == dateField) {
+            testDate(chars != null ? DateParser.parse(chars, offset, length) : DateParser.NO_DATE);
+        }
+        for (int i = 0; i < conditions.length && decision == UNDECIDED; i++) {
+            if (conditionFields[i] == fieldIndex) {
+                decide(chars != null && conditions[i].test(chars, offset, length));
+            }
+        }
+    }
+
+    /**
+     * Tests the bytes of the value of a field of the current order.
+     * Only the first value of a field in an order is taken into account.
+     *
+     * @param fieldIndex The index of the field.
+     * @param buffer     The buffer holding the value.
+     * @param start      The index of the first byte of the value.
+     * @param end        The index after the last byte of the value.
+     */
+    public void testField(int fieldIndex, ByteBuffer buffer, int start, int end) {
+        if (!startField(fieldIndex)) {
+            return;
+        }
+        if (fieldIndex == dateField) {
+            testDate(DateParser.parse(buffer, start, end));
+        }
+        for (int i = 0; i < conditions.length && decision == UNDECIDED; i++) {
+            if (conditionFields[i] == fieldIndex) {
+                decide(conditions[i].test(buffer, start, end));
+            }
+        }
+    }
+
+    public boolean isAccepted() {
+        return decision == ACCEPTED;
+    }
+
+    public boolean isRejected() {
+        return decision == REJECTED;
+    }
+
+    /**
+     * Holds a value read as a String until the date of the order is known.
+     *
+     * @param attribute The attribute of the value.
+     * @param value     The value.
+     */
+    public void hold(String attribute, String value) {
+        ensureCapacity();
+        pendingAttributes[pendingCount] = attribute;
+        pendingValues[pendingCount++] = value;
+    }
+
+    /**
+     * Holds a copy of the bytes of a value until the date of the order is known.
+     *
+     * @param attributeIndex The index of the attribute of the value.
+     * @param buffer         The buffer holding the value.
+     * @param start          The index of the first byte of the value.
+     * @param end            The index after the last byte of the value.
+     */
+    public void hold(int attributeIndex, ByteBuffer buffer, int start, int end) {
+        ensureCapacity();
+        int offset = pendingCount == 0 ? 0 : pendingEnds[pendingCount - 1];
+        int length = end - start;
+        if (offset + length > pendingBytes.length) {
+            pendingBytes = Arrays.copyOf(pendingBytes, Math.max(pendingBytes.length * 2, offset + length));
+        }
+        buffer.get(start, pendingBytes, offset, length);
+        pendingIndexes[pendingCount] = attributeIndex;
+        pendingEnds[pendingCount++] = offset + length;
+    }
+
+    /**
+     * Passes the values held as Strings to a consumer and forgets them.
+     *
+     * @param consumer The consumer of the attribute and the value.
+     */
+    public void replay(BiConsumer<String, String> consumer) {
+        for (int i = 0; i < pendingCount; i++) {
+            consumer.accept(pendingAttributes[i], pendingValues[i]);
+        }
+        clearPending();
+    }
+
+    /**
+     * Passes the values held as bytes to a consumer and forgets them.
+     *
+     * @param consumer The consumer of the bytes of the values.
+     */
+    public void replay(BytesConsumer consumer) {
+        ByteBuffer buffer = ByteBuffer.wrap(pendingBytes);
+        int start = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            consumer.accept(pendingIndexes[i], buffer, start, pendingEnds[i]);
+            start = pendingEnds[i];
+        }
+        clearPending();
+    }
+
+    /**
+     * Completes the current order and prepares the filter for the next one.
+     * An order that lacks a field the decision depends on is rejected, and the values held for it are dropped.
+     *
+     * @return True if the order was accepted, otherwise false.
+     */
+    public boolean completeOrder() {
+        boolean accepted = decision == ACCEPTED || requiredMatches == 0;
+        decision = UNDECIDED;
+        matches = 0;
+        Arrays.fill(seenFields, false);
+        clearPending();
+        return accepted;
+    }
+
+    /**
+     * Returns the minimal valid date of the orders seen by the filter, whether they were accepted or not.
+     *
+     * @return The packed date, or {@value DateParser#NO_DATE} if there was none.
+     */
+    public int getMinDate() {
+        return minDate;
+    }
+
+    /**
+     * Returns the maximal valid date of the orders seen by the filter, whether they were accepted or not.
+     *
+     * @return The packed date, or {@value DateParser#NO_DATE} if there was none.
+     */
+    public int getMaxDate() {
+        return maxDate;
+    }
+
+    /**
+     * Marks a field as seen in the current order.
+     *
+     * @param fieldIndex The index of the field.
+     * @return True if the value of the field has to be tested, false if it has been seen already
+     * or the order has been decided and the field isn't needed for the date index.
+     */
+    private boolean startField(int fieldIndex) {
+        if (seenFields[fieldIndex] || (decision != UNDECIDED && fieldIndex != dateField)) {
+            return false;
+        }
+        seenFields[fieldIndex] = true;
+        return true;
+    }
+
+    private void testDate(int date) {
+        if (date != DateParser.NO_DATE) {
+            minDate = minDate == DateParser.NO_DATE ? date : Math.min(minDate, date);
+            maxDate = Math.max(maxDate, date);
+        }
+        if (decision == UNDECIDED) {
+            decide(range.contains(date));
+        }
+    }
+
+    private void decide(boolean matched) {
+        if (!matched) {
+            decision = REJECTED;
+            clearPending();
+        } else if (++matches == requiredMatches) {
+            decision = ACCEPTED;
+        }
+    }
+
+    private void ensureCapacity() {
+        if (pendingCount == pendingIndexes.length) {
+            int capacity = pendingCount * 2;
+            pendingIndexes = Arrays.copyOf(pendingIndexes, capacity);
+            pendingAttributes = Arrays.copyOf(pendingAttributes, capacity);
+            pendingValues = Arrays.copyOf(pendingValues, capacity);
+            pendingEnds = Arrays.copyOf(pendingEnds, capacity);
+        }
+    }
+
+    private void clearPending() {
+        Arrays.fill(pendingValues, 0, pendingCount, null);
+        pendingCount = 0;
+    }
+}
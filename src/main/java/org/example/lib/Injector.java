@@ -4,30 +4,44 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Injector is a class responsible for dependency injection.
- * It scans the specified package for classes annotated with @Service and
- * automatically injects dependencies annotated with @Inject.
+ * The services annotated with @Service are wired at build time by the ServiceProcessor, which generates
+ * the class GeneratedInjector, and the Injector only delegates to it. If that class is missing,
+ * e.g. when the sources were compiled without annotation processing, the Injector falls back to
+ * scanning the specified package for classes annotated with @Service and
+ * injecting dependencies annotated with @Inject by reflection.
  */
 public class Injector {
+    private static final String GENERATED_INJECTOR_NAME = "org.example.lib.GeneratedInjector";
+    private static final String CLASS_FILE_EXTENSION = ".class";
     private static final Map<String, Injector> injectors = new HashMap<>();
     private final Map<Class<?>, Object> instanceOfClasses = new HashMap<>();
     private final List<Class<?>> classes = new ArrayList<>();
+    private final ServiceLocator generatedInjector;
 
     /**
      * Constructs an Injector object with the specified main package name.
-     * It scans the package for classes upon instantiation.
+     * Without a generated injector, it scans the package for classes upon instantiation.
      *
-     * @param mainPackageName The main package name to scan for classes.
+     * @param mainPackageName  The main package name to scan for classes.
+     * @param generatedAllowed Whether the generated injector is used when it exists.
      */
-    private Injector(String mainPackageName) {
+    private Injector(String mainPackageName, boolean generatedAllowed) {
+        this.generatedInjector = generatedAllowed ? loadGeneratedInjector() : null;
+        if (generatedInjector != null) {
+            return;
+        }
         try {
             classes.addAll(getClasses(mainPackageName));
         } catch (IOException | ClassNotFoundException e) {
@@ -47,40 +61,75 @@ public class Injector {
         if (injectors.containsKey(mainPackageName)) {
             return injectors.get(mainPackageName);
         }
-        Injector injector = new Injector(mainPackageName);
+        Injector injector = new Injector(mainPackageName, true);
         injectors.put(mainPackageName, injector);
         return injector;
     }
 
+    /**
+     * Creates an Injector that scans the specified main package and injects dependencies by reflection,
+     * even if a generated injector exists. It is meant for comparing both ways of injection.
+     *
+     * @param mainPackageName The main package name to scan for classes.
+     * @return A new instance of the Injector.
+     */
+    public static Injector getReflectiveInstance(String mainPackageName) {
+        return new Injector(mainPackageName, false);
+    }
+
     /**
      * Retrieves an instance of a class that implements a certain interface.
      * It automatically resolves dependencies annotated with @Inject.
+     * Every class is instantiated once, and its instance is shared by all classes that depend on it.
      *
      * @param certainInterface The interface that the class must implement.
      * @return An instance of a class implementing the specified interface.
      */
     public Object getInstance(Class<?> certainInterface) {
-        Object newInstanceOfClass = null;
+        if (generatedInjector != null) {
+            Object instance = generatedInjector.getInstance(certainInterface);
+            if (instance == null) {
+                throw new RuntimeException("Can't find class which implements "
+                        + certainInterface.getName()
+                        + " interface and has valid annotation (Service)");
+            }
+            return instance;
+        }
         Class<?> clazz = findClassExtendingInterface(certainInterface);
+        if (instanceOfClasses.containsKey(clazz)) {
+            return instanceOfClasses.get(clazz);
+        }
         Object instanceOfCurrentClass = createInstance(clazz);
+        instanceOfClasses.put(clazz, instanceOfCurrentClass);
         Field[] declaredFields = clazz.getDeclaredFields();
         for (Field field : declaredFields) {
             if (isFieldInitialized(field, instanceOfCurrentClass)) {
                 continue;
             }
             if (field.getDeclaredAnnotation(Inject.class) != null) {
-                Object classToInject = getInstance(field.getType());
-                newInstanceOfClass = getNewInstance(clazz);
-                setValueToField(field, newInstanceOfClass, classToInject);
+                setValueToField(field, instanceOfCurrentClass, getInstance(field.getType()));
             } else {
+                instanceOfClasses.remove(clazz);
                 throw new RuntimeException("Class " + field.getName() + " in class "
                         + clazz.getName() + " hasn't annotation Inject");
             }
         }
-        if (newInstanceOfClass == null) {
-            return getNewInstance(clazz);
+        return instanceOfCurrentClass;
+    }
+
+    /**
+     * Loads the injector generated by the ServiceProcessor.
+     *
+     * @return The generated injector, or null if the class doesn't exist.
+     */
+    private static ServiceLocator loadGeneratedInjector() {
+        try {
+            return (ServiceLocator) Class.forName(GENERATED_INJECTOR_NAME).getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Can't create object of the class " + GENERATED_INJECTOR_NAME, e);
         }
-        return newInstanceOfClass;
     }
 
     /**
@@ -105,22 +154,6 @@ public class Injector {
                 + " interface and has valid annotation (Service)");
     }
 
-    /**
-     * Retrieves a new instance of a certain class. If an instance of the class already exists,
-     * it returns the existing instance, otherwise, it creates a new one.
-     *
-     * @param certainClass The class for which to retrieve an instance.
-     * @return An instance of the specified class.
-     */
-    private Object getNewInstance(Class<?> certainClass) {
-        if (instanceOfClasses.containsKey(certainClass)) {
-            return instanceOfClasses.get(certainClass);
-        }
-        Object newInstance = createInstance(certainClass);
-        instanceOfClasses.put(certainClass, newInstance);
-        return newInstance;
-    }
-
     /**
      * Checks if a field in an object instance is initialized.
      *
@@ -175,7 +208,7 @@ public class Injector {
 
     /**
      * Scans all classes accessible from the context class loader which
-     * belong to the given package and subpackages.
+     * belong to the given package and subpackages, both from directories and from jar files.
      *
      * @param packageName The base package
      * @return The classes
@@ -191,11 +224,15 @@ public class Injector {
         String path = packageName.replace('.', '/');
         Enumeration<URL> resources = classLoader.getResources(path);
         List<File> dirs = new ArrayList<>();
+        ArrayList<Class<?>> classes = new ArrayList<>();
         while (resources.hasMoreElements()) {
             URL resource = resources.nextElement();
-            dirs.add(new File(resource.getFile()));
+            if ("jar".equals(resource.getProtocol())) {
+                classes.addAll(findClasses((JarURLConnection) resource.openConnection(), path));
+            } else {
+                dirs.add(new File(resource.getFile()));
+            }
         }
-        ArrayList<Class<?>> classes = new ArrayList<>();
         for (File directory : dirs) {
             classes.addAll(findClasses(directory, packageName));
         }
@@ -233,4 +270,31 @@ public class Injector {
         }
         return classes;
     }
+
+    /**
+     * Finds all classes in a given package and its subpackages inside a jar file.
+     *
+     * @param connection The connection to the package inside the jar file
+     * @param path       The path of the package inside the jar file
+     * @return The classes
+     * @throws ClassNotFoundException if the class cannot be located
+     * @throws IOException            if the jar file cannot be read
+     */
+    private static List<Class<?>> findClasses(JarURLConnection connection, String path)
+            throws IOException, ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        connection.setUseCaches(false);
+        try (JarFile jarFile = connection.getJarFile()) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (name.startsWith(path + "/") && name.endsWith(CLASS_FILE_EXTENSION)
+                        && !name.endsWith("-info" + CLASS_FILE_EXTENSION)) {
+                    classes.add(Class.forName(name.substring(0, name.length() - CLASS_FILE_EXTENSION.length())
+                            .replace('/', '.')));
+                }
+            }
+        }
+        return classes;
+    }
 }
@@ -0,0 +1,17 @@
+package org.example.lib;
+
+/**
+ * ServiceLocator provides the instances of the services annotated with @Service by the interfaces they implement.
+ * It is implemented by the class GeneratedInjector, which the ServiceProcessor generates at build time.
+ */
+public interface ServiceLocator {
+
+    /**
+     * Retrieves the instance of the service implementing a certain interface, with its dependencies injected.
+     * Every service is created once.
+     *
+     * @param certainInterface The interface that the service must implement.
+     * @return The instance of the service, or null if no service implements the interface.
+     */
+    Object getInstance(Class<?> certainInterface);
+}
@@ -0,0 +1,271 @@
+package org.example.lib.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ServiceProcessor is an annotation processor that wires the classes annotated with @Service at build time,
+ * so that the Injector doesn't have to scan the classpath and use reflection at startup.
+ * For every service with fields annotated with @Inject it generates a class {Service}_MembersInjector
+ * in the package of the service that sets these fields, and it generates the class org.example.lib.GeneratedInjector,
+ * which creates every service once, when it is first requested, and finds it by the interfaces it implements.
+ * <p>
+ * A service has to be a public top-level class with a public constructor without parameters, and an injected field
+ * can't be private, static or final, and its type has to be an interface implemented by exactly one service.
+ * Otherwise, the compilation fails.
+ */
+@SupportedAnnotationTypes({ServiceProcessor.SERVICE_ANNOTATION, ServiceProcessor.INJECT_ANNOTATION})
+public class ServiceProcessor extends AbstractProcessor {
+    static final String SERVICE_ANNOTATION = "org.example.lib.Service";
+    static final String INJECT_ANNOTATION = "org.example.lib.Inject";
+    private static final String LOCATOR_PACKAGE = "org.example.lib";
+    private static final String LOCATOR_NAME = "GeneratedInjector";
+    private static final String MEMBERS_INJECTOR_SUFFIX = "_MembersInjector";
+    private static final String GENERATED_ANNOTATION =
+            "@javax.annotation.processing.Generated(\"" + ServiceProcessor.class.getName() + "\")";
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement serviceAnnotation = processingEnv.getElementUtils().getTypeElement(SERVICE_ANNOTATION);
+        TypeElement injectAnnotation = processingEnv.getElementUtils().getTypeElement(INJECT_ANNOTATION);
+        if (generated || serviceAnnotation == null) {
+            return false;
+        }
+        List<TypeElement> services = new ArrayList<>(
+                ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(serviceAnnotation)));
+        if (services.isEmpty()) {
+            return false;
+        }
+        generated = true;
+        services.sort(Comparator.comparing(service -> service.getQualifiedName().toString()));
+
+        boolean valid = services.stream().allMatch(this::isValidService);
+        Map<String, TypeElement> servicesByInterface = findServicesByInterface(services);
+        Map<TypeElement, List<VariableElement>> injectedFields = new LinkedHashMap<>();
+        for (TypeElement service : services) {
+            List<VariableElement> fields = new ArrayList<>();
+            for (VariableElement field : ElementFilter.fieldsIn(service.getEnclosedElements())) {
+                if (isAnnotatedWith(field, injectAnnotation)) {
+                    valid &= isValidInjectedField(field, servicesByInterface);
+                    fields.add(field);
+                }
+            }
+            injectedFields.put(service, fields);
+        }
+        if (!valid || servicesByInterface == null) {
+            return false;
+        }
+
+        try {
+            for (Map.Entry<TypeElement, List<VariableElement>> entry : injectedFields.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    writeMembersInjector(entry.getKey(), entry.getValue());
+                }
+            }
+            writeLocator(services, injectedFields, servicesByInterface);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Can't generate " + LOCATOR_PACKAGE + "." + LOCATOR_NAME + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    private boolean isValidService(TypeElement service) {
+        if (service.getKind() != ElementKind.CLASS || service.getNestingKind() != NestingKind.TOP_LEVEL
+                || !service.getModifiers().contains(Modifier.PUBLIC)
+                || service.getModifiers().contains(Modifier.ABSTRACT)) {
+            return error(service, "A service has to be a public top-level class that isn't abstract");
+        }
+        boolean hasConstructor = ElementFilter.constructorsIn(service.getEnclosedElements()).stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                        && constructor.getModifiers().contains(Modifier.PUBLIC));
+        if (!hasConstructor) {
+            return error(service, "A service has to have a public constructor without parameters");
+        }
+        if (service.getInterfaces().isEmpty()) {
+            return error(service, "A service has to implement an interface");
+        }
+        return true;
+    }
+
+    private boolean isValidInjectedField(VariableElement field, Map<String, TypeElement> servicesByInterface) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)
+                || modifiers.contains(Modifier.FINAL)) {
+            return error(field, "An injected field can't be private, static or final");
+        }
+        if (servicesByInterface != null && !servicesByInterface.containsKey(getTypeName(field.asType()))) {
+            return error(field, "Can't find class which implements " + field.asType()
+                    + " interface and has valid annotation (Service)");
+        }
+        return true;
+    }
+
+    /**
+     * Maps every interface implemented by a service to the service.
+     *
+     * @return The services by the qualified names of the interfaces, or null if an interface has several services.
+     */
+    private Map<String, TypeElement> findServicesByInterface(List<TypeElement> services) {
+        Map<String, TypeElement> servicesByInterface = new LinkedHashMap<>();
+        boolean valid = true;
+        for (TypeElement service : services) {
+            for (TypeMirror serviceInterface : service.getInterfaces()) {
+                TypeElement previous = servicesByInterface.put(getTypeName(serviceInterface), service);
+                if (previous != null) {
+                    valid = error(service, "The interface " + serviceInterface + " is already implemented by the service "
+                            + previous.getQualifiedName());
+                }
+            }
+        }
+        return valid ? servicesByInterface : null;
+    }
+
+    private void writeMembersInjector(TypeElement service, List<VariableElement> fields) throws IOException {
+        String packageName = getPackageName(service);
+        String simpleName = service.getSimpleName() + MEMBERS_INJECTOR_SUFFIX;
+        try (PrintWriter writer = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + simpleName, service).openWriter())) {
+            writer.println("package " + packageName + ";");
+            writer.println();
+            writer.println(GENERATED_ANNOTATION);
+            writer.println("public final class " + simpleName + " {");
+            writer.println();
+            writer.println("    private " + simpleName + "() {}");
+            writer.println();
+            List<String> parameters = new ArrayList<>();
+            parameters.add(service.getQualifiedName() + " instance");
+            for (VariableElement field : fields) {
+                parameters.add(getTypeName(field.asType()) + " " + field.getSimpleName());
+            }
+            writer.println("    public static void injectMembers(" + String.join(", ", parameters) + ") {");
+            for (VariableElement field : fields) {
+                writer.println("        instance." + field.getSimpleName() + " = " + field.getSimpleName() + ";");
+            }
+            writer.println("    }");
+            writer.println("}");
+        }
+    }
+
+    private void writeLocator(List<TypeElement> services, Map<TypeElement, List<VariableElement>> injectedFields,
+                              Map<String, TypeElement> servicesByInterface) throws IOException {
+        Map<TypeElement, String> names = getVariableNames(services);
+        try (PrintWriter writer = new PrintWriter(processingEnv.getFiler().createSourceFile(
+                LOCATOR_PACKAGE + "." + LOCATOR_NAME, services.toArray(new Element[0])).openWriter())) {
+            writer.println("package " + LOCATOR_PACKAGE + ";");
+            writer.println();
+            writer.println(GENERATED_ANNOTATION);
+            writer.println("public final class " + LOCATOR_NAME + " implements ServiceLocator {");
+            for (TypeElement service : services) {
+                writer.println("    private " + service.getQualifiedName() + " " + names.get(service) + ";");
+            }
+            writer.println();
+            writer.println("    @Override");
+            writer.println("    public synchronized Object getInstance(Class<?> certainInterface) {");
+            for (Map.Entry<String, TypeElement> entry : servicesByInterface.entrySet()) {
+                writer.println("        if (certainInterface == " + entry.getKey() + ".class) {");
+                writer.println("            return " + getterName(names.get(entry.getValue())) + "();");
+                writer.println("        }");
+            }
+            writer.println("        return null;");
+            writer.println("    }");
+
+            for (TypeElement service : services) {
+                String name = names.get(service);
+                List<VariableElement> fields = injectedFields.get(service);
+                writer.println();
+                writer.println("    private " + service.getQualifiedName() + " " + getterName(name) + "() {");
+                writer.println("        if (" + name + " == null) {");
+                writer.println("            " + name + " = new " + service.getQualifiedName() + "();");
+                if (!fields.isEmpty()) {
+                    List<String> arguments = new ArrayList<>();
+                    arguments.add(name);
+                    for (VariableElement field : fields) {
+                        TypeElement dependency = servicesByInterface.get(getTypeName(field.asType()));
+                        arguments.add(getterName(names.get(dependency)) + "()");
+                    }
+                    writer.println("            " + getPackageName(service) + "." + service.getSimpleName()
+                            + MEMBERS_INJECTOR_SUFFIX + ".injectMembers(" + String.join(", ", arguments) + ");");
+                }
+                writer.println("        }");
+                writer.println("        return " + name + ";");
+                writer.println("    }");
+            }
+            writer.println("}");
+        }
+    }
+
+    /**
+     * Names the fields holding the services after their simple names, adding a number to repeated names.
+     */
+    private static Map<TypeElement, String> getVariableNames(List<TypeElement> services) {
+        Map<TypeElement, String> names = new LinkedHashMap<>();
+        Set<String> usedNames = new HashSet<>();
+        for (TypeElement service : services) {
+            String simpleName = service.getSimpleName().toString();
+            String name = Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+            String uniqueName = name;
+            for (int i = 2; !usedNames.add(uniqueName); i++) {
+                uniqueName = name + i;
+            }
+            names.put(service, uniqueName);
+        }
+        return names;
+    }
+
+    private static String getterName(String variableName) {
+        return "get" + Character.toUpperCase(variableName.charAt(0)) + variableName.substring(1);
+    }
+
+    private String getPackageName(TypeElement service) {
+        return processingEnv.getElementUtils().getPackageOf(service).getQualifiedName().toString();
+    }
+
+    /**
+     * Returns the qualified name of a type without its type arguments.
+     */
+    private static String getTypeName(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private static boolean isAnnotatedWith(Element element, TypeElement annotation) {
+        return annotation != null && element.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().asElement().equals(annotation));
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+}
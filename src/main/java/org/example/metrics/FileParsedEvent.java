@@ -0,0 +1,37 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a file, a chunk of a file or a slice of the cached orders that has been parsed.
+ */
+@Name("org.example.statistics.FileParsed")
+@Label("File Parsed")
+@Category({"Statistics", "Reading"})
+@Description("A file, a chunk of a file or a slice of the cached orders has been parsed")
+@StackTrace(false)
+class FileParsedEvent extends Event {
+    @Label("Source")
+    String source;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Orders")
+    long orders;
+
+    @Label("Fields")
+    long fields;
+
+    @Label("Parse Time")
+    @Timespan
+    long parseTime;
+}
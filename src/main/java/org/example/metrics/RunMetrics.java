@@ -0,0 +1,257 @@
+package org.example.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RunMetrics collects the metrics of a run: the bytes read, the orders parsed and the fields scanned,
+ * the time spent parsing every file, merging partial statistics and writing every XML file,
+ * in total and for every thread. The metrics are recorded once per file, chunk, merge or write,
+ * never per order, so the parsing loops only count in local variables; the counters are LongAdders
+ * and the durations are kept in {@link LatencyHistogram}s, so threads don't contend for them.
+ * <p>
+ * The numbers of orders and fields are recorded by the parser with {@link #recordParsed(long, long)}
+ * and attributed to the file read by the same thread when {@link #recordFile(String, long, long)} is called.
+ * When the metrics are disabled, nothing is recorded; when events are enabled, every recorded file, merge
+ * and write is also committed as a Java Flight Recorder event if a recording is running.
+ */
+public class RunMetrics {
+    private static final String VIRTUAL_THREADS = "virtual threads";
+    private static final double BYTES_IN_MEGABYTE = 1 << 20;
+    private final boolean summaryEnabled;
+    private final boolean eventsEnabled;
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder ordersParsed = new LongAdder();
+    private final LongAdder fieldsScanned = new LongAdder();
+    private final LatencyHistogram parseTimes = new LatencyHistogram();
+    private final LatencyHistogram mergeTimes = new LatencyHistogram();
+    private final LatencyHistogram writeTimes = new LatencyHistogram();
+    private final Map<String, ThreadMetrics> threads = new ConcurrentHashMap<>();
+    private final ThreadLocal<long[]> pendingCounts = ThreadLocal.withInitial(() -> new long[2]);
+    private volatile long startTime = System.nanoTime();
+
+    /**
+     * The metrics of the files read by the threads of a name.
+     */
+    private static class ThreadMetrics {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder fields = new LongAdder();
+        private final LongAdder parseNanos = new LongAdder();
+    }
+
+    /**
+     * Constructs the metrics of a run.
+     *
+     * @param summaryEnabled Whether the metrics are collected for the summary.
+     * @param eventsEnabled  Whether the metrics are emitted as Flight Recorder events.
+     */
+    public RunMetrics(boolean summaryEnabled, boolean eventsEnabled) {
+        this.summaryEnabled = summaryEnabled;
+        this.eventsEnabled = eventsEnabled;
+    }
+
+    /**
+     * Returns whether anything is recorded, so that the callers can skip measuring the time when nothing is.
+     *
+     * @return True if the summary or the events are enabled.
+     */
+    public boolean isEnabled() {
+        return summaryEnabled || eventsEnabled;
+    }
+
+    public boolean isSummaryEnabled() {
+        return summaryEnabled;
+    }
+
+    /**
+     * Forgets all recorded metrics and starts measuring the duration of a new run.
+     */
+    public void reset() {
+        files.reset();
+        bytesRead.reset();
+        ordersParsed.reset();
+        fieldsScanned.reset();
+        parseTimes.reset();
+        mergeTimes.reset();
+        writeTimes.reset();
+        threads.clear();
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Records the orders and fields the calling thread has parsed, which are attributed to the file
+     * the thread records next.
+     *
+     * @param orders The number of orders.
+     * @param fields The number of fields of the orders.
+     */
+    public void recordParsed(long orders, long fields) {
+        if (!isEnabled()) {
+            return;
+        }
+        long[] counts = pendingCounts.get();
+        counts[0] += orders;
+        counts[1] += fields;
+    }
+
+    /**
+     * Records a file, a chunk of a file or a slice of the cached orders the calling thread has parsed,
+     * together with the orders and fields it has recorded since its previous file.
+     *
+     * @param source The name of the file, chunk or slice.
+     * @param bytes  The number of bytes read.
+     * @param nanos  The time spent reading and parsing in nanoseconds.
+     */
+    public void recordFile(String source, long bytes, long nanos) {
+        if (!isEnabled()) {
+            return;
+        }
+        long[] counts = pendingCounts.get();
+        long orders = counts[0];
+        long fields = counts[1];
+        counts[0] = 0;
+        counts[1] = 0;
+        if (summaryEnabled) {
+            files.increment();
+            bytesRead.add(bytes);
+            ordersParsed.add(orders);
+            fieldsScanned.add(fields);
+            parseTimes.record(nanos);
+            ThreadMetrics thread = threads.computeIfAbsent(getThreadName(), name -> new ThreadMetrics());
+            thread.files.increment();
+            thread.bytes.add(bytes);
+            thread.orders.add(orders);
+            thread.fields.add(fields);
+            thread.parseNanos.add(nanos);
+        }
+        if (eventsEnabled) {
+            FileParsedEvent event = new FileParsedEvent();
+            if (event.shouldCommit()) {
+                event.source = source;
+                event.bytes = bytes;
+                event.orders = orders;
+                event.fields = fields;
+                event.parseTime = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records the merge of two partial statistics.
+     *
+     * @param nanos The time spent merging in nanoseconds.
+     */
+    public void recordMerge(long nanos) {
+        if (summaryEnabled) {
+            mergeTimes.record(nanos);
+        }
+        if (eventsEnabled) {
+            StatisticsMergedEvent event = new StatisticsMergedEvent();
+            if (event.shouldCommit()) {
+                event.mergeTime = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records the statistics of an attribute written to their XML file.
+     *
+     * @param attribute The attribute.
+     * @param nanos     The time spent writing in nanoseconds.
+     */
+    public void recordWrite(String attribute, long nanos) {
+        if (summaryEnabled) {
+            writeTimes.record(nanos);
+        }
+        if (eventsEnabled) {
+            StatisticsWrittenEvent event = new StatisticsWrittenEvent();
+            if (event.shouldCommit()) {
+                event.attribute = attribute;
+                event.writeTime = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    public long getFiles() {
+        return files.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getOrdersParsed() {
+        return ordersParsed.sum();
+    }
+
+    public long getFieldsScanned() {
+        return fieldsScanned.sum();
+    }
+
+    public LatencyHistogram getParseTimes() {
+        return parseTimes;
+    }
+
+    public LatencyHistogram getMergeTimes() {
+        return mergeTimes;
+    }
+
+    public LatencyHistogram getWriteTimes() {
+        return writeTimes;
+    }
+
+    /**
+     * Describes the metrics recorded since the start of the run: the totals and the throughput,
+     * the distribution of every kind of duration and the share of every thread, one line each.
+     *
+     * @return The lines of the summary.
+     */
+    public List<String> summarize() {
+        List<String> lines = new ArrayList<>();
+        double seconds = (System.nanoTime() - startTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        double megabytes = getBytesRead() / BYTES_IN_MEGABYTE;
+        lines.add(String.format(Locale.ROOT, "Run: %d files, %.1f MB read, %d orders parsed, %d fields scanned"
+                        + " in %.2f s (%.1f MB/s, %.0f orders/s)", getFiles(), megabytes, getOrdersParsed(),
+                getFieldsScanned(), seconds, megabytes / seconds, getOrdersParsed() / seconds));
+        lines.add(describe("Parse time per file", parseTimes));
+        lines.add(describe("Merge time", mergeTimes));
+        lines.add(describe("XML write time", writeTimes));
+        new TreeMap<>(threads).forEach((name, thread) -> lines.add(String.format(Locale.ROOT,
+                "Thread %s: %d files, %.1f MB, %d orders, %d fields, %d ms parsing", name, thread.files.sum(),
+                thread.bytes.sum() / BYTES_IN_MEGABYTE, thread.orders.sum(), thread.fields.sum(),
+                TimeUnit.NANOSECONDS.toMillis(thread.parseNanos.sum()))));
+        return lines;
+    }
+
+    private static String describe(String name, LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%s: count %d, mean %.2f ms, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms,"
+                        + " max %.2f ms", name, histogram.getCount(), toMillis(histogram.getMean()),
+                toMillis(histogram.getPercentile(50)), toMillis(histogram.getPercentile(90)),
+                toMillis(histogram.getPercentile(99)), toMillis(histogram.getMax()));
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the name the metrics of the calling thread are kept under. Virtual threads have no names
+     * and are short-lived, so they share one entry.
+     */
+    private static String getThreadName() {
+        String name = Thread.currentThread().getName();
+        return name.isEmpty() ? VIRTUAL_THREADS : name;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of two partial statistics that have been merged.
+ */
+@Name("org.example.statistics.StatisticsMerged")
+@Label("Statistics Merged")
+@Category({"Statistics", "Merging"})
+@Description("The partial statistics of two files or chunks have been merged")
+@StackTrace(false)
+class StatisticsMergedEvent extends Event {
+    @Label("Merge Time")
+    @Timespan
+    long mergeTime;
+}
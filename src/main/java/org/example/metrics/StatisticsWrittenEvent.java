@@ -0,0 +1,26 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of the statistics of an attribute that have been written to their XML file.
+ */
+@Name("org.example.statistics.StatisticsWritten")
+@Label("Statistics Written")
+@Category({"Statistics", "Writing"})
+@Description("The statistics of an attribute have been written to their XML file")
+@StackTrace(false)
+class StatisticsWrittenEvent extends Event {
+    @Label("Attribute")
+    String attribute;
+
+    @Label("Write Time")
+    @Timespan
+    long writeTime;
+}
@@ -0,0 +1,13 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FileDates {
+    private long size;
+    private long lastModified;
+    private int minDate;
+    private int maxDate;
+}
@@ -0,0 +1,16 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.aggregation.AttributeCounter;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FileSnapshot {
+    private long size;
+    private long lastModified;
+    private long contentHash;
+    private Map<String, AttributeCounter> statistics;
+}
@@ -1,5 +1,6 @@
 package org.example.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import lombok.AllArgsConstructor;
 
@@ -8,5 +9,12 @@ public class Item {
     @JacksonXmlProperty(localName = "value")
     private String value;
     @JacksonXmlProperty(localName = "count")
-    private Integer count;
+    private Long count;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "totalPrice")
+    private PriceSummary totalPrice;
+
+    public Item(String value, Long count) {
+        this(value, count, null);
+    }
 }
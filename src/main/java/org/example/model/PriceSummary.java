@@ -0,0 +1,28 @@
+package org.example.model;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@AllArgsConstructor
+@JsonPropertyOrder({"sum", "min", "max", "mean"})
+public class PriceSummary {
+    @JacksonXmlProperty(localName = "sum")
+    private BigDecimal sum;
+    @JacksonXmlProperty(localName = "min")
+    private BigDecimal min;
+    @JacksonXmlProperty(localName = "max")
+    private BigDecimal max;
+    @JacksonXmlProperty(localName = "mean")
+    private BigDecimal mean;
+    private Map<String, BigDecimal> percentiles;
+
+    @JsonAnyGetter
+    public Map<String, BigDecimal> getPercentiles() {
+        return percentiles;
+    }
+}
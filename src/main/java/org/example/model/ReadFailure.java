@@ -0,0 +1,28 @@
+package org.example.model;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A byte range of a file that couldn't be read and was left out of the statistics: either a whole file or chunk,
+ * or a single malformed order. The offsets of an order of a compressed file are offsets into its decompressed content.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadFailure {
+    public static final String SKIPPED_FILE = "file";
+    public static final String SKIPPED_ORDER = "order";
+    @JacksonXmlProperty(localName = "file")
+    private String file;
+    @JacksonXmlProperty(localName = "skipped")
+    private String skipped;
+    @JacksonXmlProperty(localName = "start")
+    private long start;
+    @JacksonXmlProperty(localName = "end")
+    private long end;
+    @JacksonXmlProperty(localName = "error")
+    private String error;
+}
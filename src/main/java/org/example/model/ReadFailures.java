@@ -0,0 +1,23 @@
+package org.example.model;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The manifest of the files and orders a run left out because they couldn't be read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JacksonXmlRootElement(localName = "failures")
+public class ReadFailures {
+    @JacksonXmlProperty(localName = "failure")
+    @JacksonXmlElementWrapper(useWrapping = false)
+    private List<ReadFailure> failures;
+}
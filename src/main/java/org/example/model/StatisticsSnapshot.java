@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class StatisticsSnapshot {
+    private String folderPath;
+    private List<String> attributes;
+    private int counterCapacity;
+    private boolean sketchEnabled;
+    private boolean priceEnabled;
+    private String options;
+    private Map<String, FileSnapshot> files;
+}
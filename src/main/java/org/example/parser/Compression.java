@@ -0,0 +1,76 @@
+package org.example.parser;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.example.util.FileConstantsUtil.GZIP_FILE_EXTENSION;
+import static org.example.util.FileConstantsUtil.ZSTD_FILE_EXTENSION;
+
+/**
+ * The compressions of the order files, recognized by the extension that follows the extension of the content,
+ * e.g. {@code orders.json.gz}. Compressed files are decompressed while they are read, so they are never
+ * written to disk decompressed.
+ */
+public enum Compression {
+    /**
+     * The file isn't compressed.
+     */
+    NONE(""),
+    /**
+     * The file is compressed with gzip; files of several concatenated gzip members are read as a whole.
+     */
+    GZIP(GZIP_FILE_EXTENSION),
+    /**
+     * The file is compressed with Zstandard, decoded by a pure-Java decoder.
+     */
+    ZSTD(ZSTD_FILE_EXTENSION);
+
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Recognizes the compression of a file by its name.
+     *
+     * @param fileName The name of the file.
+     * @return The compression, NONE if the name doesn't end with the extension of a compression.
+     */
+    public static Compression of(String fileName) {
+        if (fileName.endsWith(GZIP_FILE_EXTENSION)) {
+            return GZIP;
+        }
+        return fileName.endsWith(ZSTD_FILE_EXTENSION) ? ZSTD : NONE;
+    }
+
+    /**
+     * Removes the extension of this compression from a file name, e.g. {@code orders.json.gz} becomes
+     * {@code orders.json}.
+     *
+     * @param fileName The name of the file.
+     * @return The name of the file without the extension of the compression.
+     */
+    public String stripExtension(String fileName) {
+        return fileName.substring(0, fileName.length() - extension.length());
+    }
+
+    /**
+     * Wraps a stream of compressed bytes into a stream of the decompressed bytes.
+     *
+     * @param input The stream of compressed bytes.
+     * @return The stream of decompressed bytes, the same stream for NONE.
+     * @throws IOException If the header of the compressed data can't be read.
+     */
+    public InputStream decompress(InputStream input) throws IOException {
+        return switch (this) {
+            case NONE -> input;
+            case GZIP -> new GZIPInputStream(input, GZIP_BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(input);
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * DateParser parses ISO dates (yyyy-MM-dd) straight from the bytes or the characters of a value
+ * without creating a String or a LocalDate. A date is returned packed into an int as yyyyMMdd,
+ * so that packed dates compare the same way as the dates themselves.
+ */
+public final class DateParser {
+    public static final int NO_DATE = -1;
+    private static final int DATE_LENGTH = 10;
+
+    private DateParser() {}
+
+    /**
+     * Parses a date from its ASCII bytes.
+     *
+     * @param buffer The buffer holding the value.
+     * @param start  The index of the first byte of the value.
+     * @param end    The index after the last byte of the value.
+     * @return The packed date, or {@value #NO_DATE} if the value isn't a valid ISO date.
+     */
+    public static int parse(ByteBuffer buffer, int start, int end) {
+        if (end - start != DATE_LENGTH || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            return NO_DATE;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            if (i == 4 || i == 7) {
+                continue;
+            }
+            int digit = buffer.get(start + i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_DATE;
+            }
+            if (i < 4) {
+                year = year * 10 + digit;
+            } else if (i < 7) {
+                month = month * 10 + digit;
+            } else {
+                day = day * 10 + digit;
+            }
+        }
+        return pack(year, month, day);
+    }
+
+    /**
+     * Parses a date from its characters, e.g. from the text buffer of a JSON parser.
+     *
+     * @param chars  The array holding the characters of the value.
+     * @param offset The index of the first character of the value.
+     * @param length The number of characters of the value.
+     * @return The packed date, or {@value #NO_DATE} if the value isn't a valid ISO date.
+     */
+    public static int parse(char[] chars, int offset, int length) {
+        if (length != DATE_LENGTH || chars[offset + 4] != '-' || chars[offset + 7] != '-') {
+            return NO_DATE;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < DATE_LENGTH; i++) {
+            if (i == 4 || i == 7) {
+                continue;
+            }
+            int digit = chars[offset + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_DATE;
+            }
+            if (i < 4) {
+                year = year * 10 + digit;
+            } else if (i < 7) {
+                month = month * 10 + digit;
+            } else {
+                day = day * 10 + digit;
+            }
+        }
+        return pack(year, month, day);
+    }
+
+    /**
+     * Parses a date from a value that has already been read as a String.
+     *
+     * @param value The value.
+     * @return The packed date, or {@value #NO_DATE} if the value isn't a valid ISO date.
+     */
+    public static int parse(String value) {
+        return value.length() == DATE_LENGTH ? parse(value.toCharArray(), 0, DATE_LENGTH) : NO_DATE;
+    }
+
+    public static int year(int date) {
+        return date / 10_000;
+    }
+
+    public static int month(int date) {
+        return date / 100 % 100;
+    }
+
+    public static int day(int date) {
+        return date % 100;
+    }
+
+    /**
+     * Converts a packed date into the number of days since 1970-01-01, like {@code LocalDate.toEpochDay()}.
+     *
+     * @param date The packed date.
+     * @return The epoch day.
+     */
+    public static long toEpochDay(int date) {
+        return toEpochDay(year(date), month(date), day(date));
+    }
+
+    static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += year >= 0 ? (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400 : 0;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total -= isLeapYear(year) ? 1 : 2;
+        }
+        return total - 719_528;
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int pack(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NO_DATE;
+        }
+        return year * 10_000 + month * 100 + day;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
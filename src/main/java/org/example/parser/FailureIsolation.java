@@ -0,0 +1,304 @@
+package org.example.parser;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.example.aggregation.AttributeCounter;
+import org.example.exception.CustomFileException;
+import org.example.filter.DateSpan;
+import org.example.metrics.RunMetrics;
+import org.example.model.ReadFailure;
+import org.example.model.ReadFailures;
+import org.example.util.ErrorPolicy;
+import org.example.util.StatisticsOptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.example.util.FileConstantsUtil.FAILURES_FILE_NAME;
+import static org.example.util.SingletonObjectsUtil.getJsonFactory;
+
+/**
+ * FailureIsolation applies the error policy of a run to the files and chunks that are read: unless the run fails
+ * fast, a file or chunk that can't be read is left out, or with the SKIP_RECORD policy read again order by order,
+ * and every file and order that was left out is collected. Once the files are read, the collected failures are saved
+ * as the manifest next to the statistics files.
+ * <p>
+ * The failures are collected by the reading tasks concurrently, so one isolation serves exactly one run.
+ */
+public class FailureIsolation {
+    private final ErrorPolicy errorPolicy;
+    private final String resultsFolder;
+    private final OrderFileReader reader;
+    private final XmlMapper xmlMapper;
+    private final RunMetrics metrics;
+    private final Queue<ReadFailure> failures = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs the failure isolation of a run.
+     *
+     * @param options   The settings of the run, which select the error policy and the folder of the manifest.
+     * @param reader    The reader the files and chunks that couldn't be read are read again by, order by order.
+     * @param xmlMapper The mapper the manifest is written with.
+     * @param metrics   The metrics the files read order by order are recorded to.
+     */
+    public FailureIsolation(StatisticsOptions options, OrderFileReader reader, XmlMapper xmlMapper,
+                            RunMetrics metrics) {
+        this.errorPolicy = options.errorPolicy();
+        this.resultsFolder = options.resultsFolder();
+        this.reader = reader;
+        this.xmlMapper = xmlMapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Checks whether the run stops at the first file or order that can't be read.
+     *
+     * @return True if the run fails fast, otherwise false.
+     */
+    public boolean isFailFast() {
+        return errorPolicy == ErrorPolicy.FAIL_FAST;
+    }
+
+    /**
+     * Reads a file or a chunk of a file with the error policy of the run. Unless the run fails fast,
+     * a file or chunk that can't be read is put to the failures; with the SKIP_RECORD policy it is first read again
+     * order by order, see {@link #readOrders(FileChunk, List, DateSpan)}, and only put to the failures
+     * as a whole if that fails too.
+     *
+     * @param range      The file or chunk.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @param read       The reading of the file or chunk.
+     * @return The partial statistics of the file or chunk by attribute.
+     * @throws CustomFileException If the file or chunk can't be read.
+     */
+    public Map<String, AttributeCounter> read(FileChunk range, List<String> attributes, DateSpan dateSpan,
+                                              Supplier<Map<String, AttributeCounter>> read) {
+        if (isFailFast()) {
+            return read.get();
+        }
+        try {
+            return read.get();
+        } catch (CustomFileException e) {
+            CustomFileException failure = e;
+            if (errorPolicy == ErrorPolicy.SKIP_RECORD) {
+                try {
+                    return readOrders(range, attributes, dateSpan);
+                } catch (CustomFileException recoveryFailure) {
+                    failure = recoveryFailure;
+                }
+            }
+            failures.add(new ReadFailure(range.file().getPath(), ReadFailure.SKIPPED_FILE, range.start(), range.end(),
+                    describeFailure(failure)));
+            throw failure;
+        }
+    }
+
+    /**
+     * Leaves out a file that couldn't be read, unless the run fails fast. Only the failures of reading a file
+     * are handled, so that e.g. an interrupted run still stops.
+     *
+     * @param file    The JSON file.
+     * @param task    The future of the partial statistics of the file.
+     * @param skipped The empty partial statistics of a file that is left out.
+     * @return The future of the partial statistics of the file, which are empty if the file couldn't be read.
+     */
+    public CompletableFuture<Map<String, AttributeCounter>> skipOnFailure(
+            File file, CompletableFuture<Map<String, AttributeCounter>> task,
+            Supplier<Map<String, AttributeCounter>> skipped) {
+        if (isFailFast()) {
+            return task;
+        }
+        return task.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof CustomFileException)) {
+                throw e instanceof CompletionException completionException
+                        ? completionException
+                        : new CompletionException(cause);
+            }
+            System.err.printf("File %s skipped: %s%n", file.getName(), describeFailure(cause));
+            return skipped.get();
+        });
+    }
+
+    /**
+     * Leaves out a file that couldn't be opened or split, unless the run fails fast.
+     *
+     * @param file    The JSON file.
+     * @param failure The error.
+     * @throws IOException The error, if the run fails fast.
+     */
+    public void skipFile(File file, IOException failure) throws IOException {
+        if (isFailFast()) {
+            throw failure;
+        }
+        failures.add(new ReadFailure(file.getPath(), ReadFailure.SKIPPED_FILE, 0, file.length(),
+                describeFailure(failure)));
+    }
+
+    /**
+     * Returns the files that were left out as a whole or in part so far.
+     *
+     * @return The paths of the files.
+     */
+    public Set<String> getFailedFiles() {
+        return failures.stream().map(ReadFailure::getFile).collect(Collectors.toSet());
+    }
+
+    /**
+     * Saves the manifest of the files and orders that were left out next to the statistics files,
+     * sorted by file and offset, or deletes the manifest of a previous run if nothing was left out.
+     *
+     * @throws CustomFileException If an error occurs while saving the manifest.
+     */
+    public void saveManifest() {
+        Path path = Paths.get(resultsFolder, FAILURES_FILE_NAME);
+        try {
+            if (failures.isEmpty()) {
+                Files.deleteIfExists(path);
+                return;
+            }
+            List<ReadFailure> sortedFailures = failures.stream()
+                    .sorted(Comparator.comparing(ReadFailure::getFile).thenComparingLong(ReadFailure::getStart))
+                    .collect(Collectors.toList());
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            xmlMapper.writeValue(path.toFile(), new ReadFailures(sortedFailures));
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while saving the failures to file.", e);
+        }
+        long skippedFiles = failures.stream()
+                .filter(failure -> failure.getSkipped().equals(ReadFailure.SKIPPED_FILE))
+                .map(ReadFailure::getFile)
+                .distinct()
+                .count();
+        long skippedOrders = failures.stream()
+                .filter(failure -> failure.getSkipped().equals(ReadFailure.SKIPPED_ORDER))
+                .count();
+        System.err.printf("%d files and %d orders were left out because they couldn't be read, see %s%n",
+                skippedFiles, skippedOrders, path);
+    }
+
+    /**
+     * Describes why a file or order couldn't be read by the first line of the message of the underlying error.
+     *
+     * @param failure The error.
+     * @return The description.
+     */
+    public static String describeFailure(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CustomFileException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        return message.lines().findFirst().orElse(message);
+    }
+
+    /**
+     * Reads a file or a chunk of a file that couldn't be read, order by order: its bytes are cut into single orders,
+     * see {@link OrderFileSplitter#findOrders(ByteBuffer, int, int, boolean)}, every order is parsed on its own,
+     * and only the orders that are well-formed are counted, so that a malformed order can't leave a part of its
+     * values in the statistics. Every malformed order is put to the failures with its offsets, but only once
+     * the other orders were read, so that a range that can't be read at all is only put to the failures as a whole.
+     * A compressed file is decompressed into memory as a whole.
+     *
+     * @param range      The file or chunk.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The partial statistics of the well-formed orders by attribute.
+     * @throws CustomFileException If the file or chunk can't be read at all.
+     */
+    private Map<String, AttributeCounter> readOrders(FileChunk range, List<String> attributes, DateSpan dateSpan) {
+        long startTime = System.nanoTime();
+        File file = range.file();
+        ByteBuffer content = reader.readContent(range);
+        boolean delimitedByLines = range.delimitedByLines() || range.start() == 0 && startsWithObject(content);
+        int[] orders = OrderFileSplitter.findOrders(content, 0, content.limit(), delimitedByLines);
+        ByteArrayOutputStream wellFormedOrders = new ByteArrayOutputStream(content.limit());
+        byte[] order = new byte[0];
+        List<ReadFailure> malformedOrders = new ArrayList<>();
+
+        for (int i = 0; i < orders.length; i += 2) {
+            int length = orders[i + 1] - orders[i];
+            if (order.length < length) {
+                order = new byte[Math.max(length, order.length * 2)];
+            }
+            content.get(orders[i], order, 0, length);
+            try {
+                validateOrder(order, length);
+                wellFormedOrders.write(order, 0, length);
+                wellFormedOrders.write('\n');
+            } catch (IOException e) {
+                malformedOrders.add(new ReadFailure(file.getPath(), ReadFailure.SKIPPED_ORDER,
+                        range.start() + orders[i], range.start() + orders[i + 1], describeFailure(e)));
+            }
+        }
+
+        Map<String, AttributeCounter> statistics = reader.readOrders(wellFormedOrders.toByteArray(), attributes,
+                dateSpan);
+        failures.addAll(malformedOrders);
+        metrics.recordFile(file.getName(), range.length(), System.nanoTime() - startTime);
+        System.err.printf("File %s (bytes %d-%d) read order by order, %d malformed orders skipped%n",
+                file.getName(), range.start(), range.end(), malformedOrders.size());
+        return statistics;
+    }
+
+    private static boolean startsWithObject(ByteBuffer content) {
+        for (int i = 0; i < content.limit(); i++) {
+            byte current = content.get(i);
+            if (current != ' ' && current != '\n' && current != '\r' && current != '\t') {
+                return current == '{';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a single order to find out whether it is well-formed: an object, properly closed, whose strings
+     * are valid UTF-8, and that isn't followed by anything else.
+     *
+     * @param order  The bytes of the order.
+     * @param length The number of bytes of the order.
+     * @throws IOException If the order is malformed.
+     */
+    private static void validateOrder(byte[] order, int length) throws IOException {
+        try (JsonParser parser = getJsonFactory().createParser(order, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "The order isn't an object");
+            }
+            for (int depth = 1; depth > 0; ) {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    throw new JsonParseException(parser, "The order ends before its closing brace");
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                } else if (token == JsonToken.VALUE_STRING) {
+                    parser.getTextLength();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "The order is followed by other values");
+            }
+        }
+    }
+}
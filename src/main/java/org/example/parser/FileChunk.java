@@ -0,0 +1,30 @@
+package org.example.parser;
+
+import java.io.File;
+
+/**
+ * A byte range of an orders file that holds whole order objects, either separated by commas,
+ * without the brackets of the enclosing array, or on separate lines of a newline-delimited file.
+ *
+ * @param file             The file the chunk belongs to.
+ * @param start            The index of the first byte of the first order object.
+ * @param end              The index after the last byte of the last order object.
+ * @param delimitedByLines True if the orders are on separate lines, false if they are separated by commas.
+ */
+public record FileChunk(File file, long start, long end, boolean delimitedByLines) {
+
+    /**
+     * Constructs a chunk of the orders of a JSON array.
+     *
+     * @param file  The file the chunk belongs to.
+     * @param start The index of the first byte of the first order object.
+     * @param end   The index after the last byte of the last order object.
+     */
+    public FileChunk(File file, long start, long end) {
+        this(file, start, end, false);
+    }
+
+    public long length() {
+        return end - start;
+    }
+}
@@ -0,0 +1,605 @@
+package org.example.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.OrderPrice;
+import org.example.aggregation.PartialStatistics;
+import org.example.exception.CustomFileException;
+import org.example.exception.ExecutorTimeoutException;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+import org.example.filter.DateSpan;
+import org.example.filter.OrderFilter;
+import org.example.metrics.RunMetrics;
+import org.example.service.CalculationService;
+import org.example.util.ExecutionMode;
+import org.example.util.ReaderMode;
+import org.example.util.StatisticsOptions;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import static org.example.util.SingletonObjectsUtil.getDecompressionExecutorService;
+import static org.example.util.SingletonObjectsUtil.getJsonFactory;
+
+/**
+ * OrderFileReader reads the orders of a file or of a chunk of a file into partial statistics owned by that file
+ * or chunk, with the reader mode and the execution mode of the run: Jackson or the byte scanner, memory-mapped,
+ * preloaded or streamed, and decompressed on the fly. The orders are filtered by the date range and the conditions
+ * of the run, and the dates of the read orders are collected into the span of the file.
+ * <p>
+ * In the virtual execution mode the parsing is bounded by a permit per pool thread, and the files read into memory
+ * ahead of the parsing by the read buffer.
+ */
+public class OrderFileReader {
+    private static final int COMPRESSED_INPUT_BUFFER_SIZE = 1 << 16;
+    private static final int READ_AHEAD_BLOCK_SIZE = 1 << 18;
+    private static final int READ_AHEAD_BLOCKS = 4;
+    private static final ThreadLocal<Map<List<String>, OrderJsonScanner>> ORDER_SCANNERS =
+            ThreadLocal.withInitial(HashMap::new);
+    private final ReaderMode readerMode;
+    private final long chunkSize;
+    private final boolean priceEnabled;
+    private final DateRange dateRange;
+    private final List<Condition> filterConditions;
+    private final ExecutionMode executionMode;
+    private final long readBufferSize;
+    private final Semaphore parsingPermits;
+    private final Semaphore readBufferPermits;
+    private final boolean decompressionPipelined;
+    private final CalculationService calculateService;
+    private final PartialStatistics partialStatistics;
+    private final RunMetrics metrics;
+
+    /**
+     * Constructs a reader.
+     *
+     * @param options           The settings of the run.
+     * @param calculateService  The service the values of the orders are counted by.
+     * @param partialStatistics The partial statistics the orders are counted into.
+     * @param metrics           The metrics the read files and parsed orders are recorded to.
+     */
+    public OrderFileReader(StatisticsOptions options, CalculationService calculateService,
+                           PartialStatistics partialStatistics, RunMetrics metrics) {
+        this.readerMode = options.readerMode();
+        this.chunkSize = options.chunkSize();
+        this.priceEnabled = options.priceEnabled();
+        this.dateRange = options.dateRange();
+        this.filterConditions = options.filterConditions();
+        this.executionMode = options.executionMode();
+        this.readBufferSize = options.readBufferSize();
+        this.parsingPermits = new Semaphore(options.threadsNumber());
+        this.readBufferPermits = new Semaphore((int) Math.max(1, readBufferSize >> 10));
+        this.decompressionPipelined = options.decompressionPipelined();
+        this.calculateService = calculateService;
+        this.partialStatistics = partialStatistics;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reads a JSON file with the selected reader mode into statistics owned by this file only.
+     * Files that are too large to be mapped at once and compressed files are read with Jackson.
+     * In the virtual execution mode an uncompressed file is read into memory first,
+     * see {@link #readPreloaded(File, List, OrderFilter)}.
+     *
+     * @param file      The JSON file to read.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The partial statistics of the file by attribute.
+     */
+    public Map<String, AttributeCounter> readFile(File file, List<String> attributes, DateSpan dateSpan) {
+        long startTime = System.nanoTime();
+        Map<String, AttributeCounter> statistics;
+        OrderFilter orderFilter = createOrderFilter();
+
+        Compression compression = Compression.of(file.getName());
+
+        if (compression != Compression.NONE) {
+            statistics = executionMode == ExecutionMode.VIRTUAL
+                    ? withParsingPermit(() -> readCompressed(file, compression, attributes, orderFilter))
+                    : readCompressed(file, compression, attributes, orderFilter);
+        } else if (executionMode == ExecutionMode.VIRTUAL) {
+            statistics = file.length() <= readBufferSize
+                    ? readPreloaded(file, attributes, orderFilter)
+                    : withParsingPermit(() -> readStreamed(file, attributes, orderFilter));
+        } else {
+            statistics = readStreamed(file, attributes, orderFilter);
+        }
+        includeDates(dateSpan, orderFilter);
+        metrics.recordFile(file.getName(), file.length(), System.nanoTime() - startTime);
+        return statistics;
+    }
+
+    /**
+     * Reads a chunk of a large JSON file with the selected reader mode into statistics owned by this chunk only.
+     * For Jackson the orders of a chunk of an array are wrapped into brackets, so that they form a JSON array again,
+     * while the lines of a newline-delimited chunk are read as they are, as a sequence of root-level orders.
+     * In the virtual execution mode the chunk is read while holding a parsing permit.
+     *
+     * @param chunk      The chunk of whole orders to read.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The partial statistics of the chunk by attribute.
+     */
+    public Map<String, AttributeCounter> readChunk(FileChunk chunk, List<String> attributes, DateSpan dateSpan) {
+        return executionMode == ExecutionMode.VIRTUAL
+                ? withParsingPermit(() -> readMappedChunk(chunk, attributes, dateSpan))
+                : readMappedChunk(chunk, attributes, dateSpan);
+    }
+
+    private Map<String, AttributeCounter> readMappedChunk(FileChunk chunk, List<String> attributes,
+                                                          DateSpan dateSpan) {
+        try (FileChannel channel = FileChannel.open(chunk.file().toPath(), StandardOpenOption.READ)) {
+            return readChunk(chunk, channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length()),
+                    attributes, dateSpan);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    /**
+     * Reads a chunk of a large JSON file that is held in a buffer, see {@link #readChunk(FileChunk, List, DateSpan)}.
+     *
+     * @param chunk      The chunk of whole orders to read.
+     * @param orders     The buffer holding the bytes of the chunk, from its position to its limit.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The partial statistics of the chunk by attribute.
+     */
+    public Map<String, AttributeCounter> readChunk(FileChunk chunk, ByteBuffer orders, List<String> attributes,
+                                                   DateSpan dateSpan) {
+        long startTime = System.nanoTime();
+        Map<String, AttributeCounter> statistics;
+        OrderFilter orderFilter = createOrderFilter();
+
+        if (readerMode == ReaderMode.MAPPED) {
+            statistics = scan(orders, attributes, orderFilter);
+        } else {
+            try (JsonParser parser = getJsonFactory().createParser(toInputStream(chunk, orders))) {
+                statistics = readByLine(parser, attributes, orderFilter);
+            } catch (IOException e) {
+                throw new CustomFileException("An error occurred while reading values from the file.", e);
+            }
+        }
+        includeDates(dateSpan, orderFilter);
+        if (metrics.isEnabled()) {
+            metrics.recordFile(String.format("%s (bytes %d-%d)", chunk.file().getName(), chunk.start(), chunk.end()),
+                    chunk.length(), System.nanoTime() - startTime);
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads orders that are held in memory one per line with Jackson, e.g. the well-formed orders of a file
+     * that is read order by order.
+     *
+     * @param orders     The bytes of the orders.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The partial statistics of the orders by attribute.
+     * @throws CustomFileException If the orders can't be parsed.
+     */
+    public Map<String, AttributeCounter> readOrders(byte[] orders, List<String> attributes, DateSpan dateSpan) {
+        OrderFilter orderFilter = createOrderFilter();
+        Map<String, AttributeCounter> statistics;
+        try (JsonParser parser = getJsonFactory().createParser(orders)) {
+            statistics = readByLine(parser, attributes, orderFilter);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+        includeDates(dateSpan, orderFilter);
+        return statistics;
+    }
+
+    /**
+     * Reads the bytes of a file or chunk into memory, decompressing a compressed file.
+     *
+     * @param range The file or chunk.
+     * @return The buffer holding the bytes.
+     * @throws CustomFileException If the bytes can't be read or don't fit into a buffer.
+     */
+    public ByteBuffer readContent(FileChunk range) {
+        Compression compression = Compression.of(range.file().getName());
+        try {
+            if (compression != Compression.NONE) {
+                try (InputStream input = openDecompressed(range.file(), compression)) {
+                    return ByteBuffer.wrap(input.readAllBytes());
+                }
+            }
+            if (range.length() > StatisticsOptions.MAX_READ_BUFFER_SIZE) {
+                throw new IOException("The file " + range.file().getName() + " is too large to be read order by order");
+            }
+            try (FileChannel channel = FileChannel.open(range.file().toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, range.start(), range.length());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    /**
+     * Splits a large JSON file into chunks of whole orders.
+     *
+     * @param file The JSON file to split.
+     * @return The chunks of the file, or an empty list if the file isn't a JSON array of orders.
+     * @throws CustomFileException If an error occurs while reading the file.
+     */
+    public List<FileChunk> splitFile(File file) {
+        try {
+            return OrderFileSplitter.split(file, chunkSize);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while splitting the file " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Reads a JSON file from disk while parsing it, memory-mapping it for the mapped reader mode.
+     *
+     * @param file        The JSON file to read.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the file by attribute.
+     */
+    private Map<String, AttributeCounter> readStreamed(File file, List<String> attributes, OrderFilter orderFilter) {
+        if (readerMode == ReaderMode.MAPPED && file.length() <= Integer.MAX_VALUE) {
+            return readMapped(new FileChunk(file, 0, file.length()), attributes, orderFilter);
+        }
+        try (JsonParser parser = getJsonFactory().createParser(file)) {
+            return readByLine(parser, attributes, orderFilter);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    /**
+     * Reads a compressed JSON file with Jackson while it is decompressed. Unless it is disabled, the file is
+     * decompressed on a separate thread into a few blocks ahead of the parsing, so that decompressing and parsing
+     * run at the same time, and the decompression waits when the parsing falls behind.
+     *
+     * @param file        The compressed JSON file to read.
+     * @param compression The compression of the file.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the file by attribute.
+     */
+    private Map<String, AttributeCounter> readCompressed(File file, Compression compression, List<String> attributes,
+                                                         OrderFilter orderFilter) {
+        try (InputStream input = openDecompressed(file, compression);
+             JsonParser parser = getJsonFactory().createParser(input)) {
+            return readByLine(parser, attributes, orderFilter);
+        } catch (IOException | UncheckedIOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    private InputStream openDecompressed(File file, Compression compression) throws IOException {
+        InputStream compressed = new BufferedInputStream(Files.newInputStream(file.toPath()),
+                COMPRESSED_INPUT_BUFFER_SIZE);
+        try {
+            InputStream decompressed = compression.decompress(compressed);
+            return decompressionPipelined
+                    ? new ReadAheadInputStream(decompressed, getDecompressionExecutorService(),
+                    READ_AHEAD_BLOCK_SIZE, READ_AHEAD_BLOCKS)
+                    : decompressed;
+        } catch (IOException | RuntimeException e) {
+            compressed.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a whole JSON file into memory and then parses it while holding a parsing permit.
+     * Blocking in open and read only parks the virtual thread, so many files can be read at once,
+     * while at most as many files as there are pool threads are parsed at a time.
+     * The total size of the files waiting in memory is limited by the read buffer.
+     *
+     * @param file        The JSON file to read.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the file by attribute.
+     */
+    private Map<String, AttributeCounter> readPreloaded(File file, List<String> attributes, OrderFilter orderFilter) {
+        int bufferPermits = (int) Math.max(1, file.length() >> 10);
+        acquire(readBufferPermits, bufferPermits);
+
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            return withParsingPermit(() -> {
+                if (readerMode == ReaderMode.MAPPED) {
+                    return scan(ByteBuffer.wrap(content), attributes, orderFilter);
+                }
+                try (JsonParser parser = getJsonFactory().createParser(content)) {
+                    return readByLine(parser, attributes, orderFilter);
+                } catch (IOException e) {
+                    throw new CustomFileException("An error occurred while reading values from the file.", e);
+                }
+            });
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        } finally {
+            readBufferPermits.release(bufferPermits);
+        }
+    }
+
+    /**
+     * Runs a parsing action while holding one of the parsing permits.
+     *
+     * @param action The parsing action.
+     * @return The result of the action.
+     */
+    private <T> T withParsingPermit(Supplier<T> action) {
+        acquire(parsingPermits, 1);
+        try {
+            return action.get();
+        } finally {
+            parsingPermits.release();
+        }
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorTimeoutException(e.getMessage());
+        }
+    }
+
+    private static InputStream toInputStream(FileChunk chunk, ByteBuffer orders) {
+        if (chunk.delimitedByLines()) {
+            return new ByteBufferBackedInputStream(orders);
+        }
+        return new SequenceInputStream(Collections.enumeration(List.of(new ByteArrayInputStream(new byte[]{'['}),
+                new ByteBufferBackedInputStream(orders), new ByteArrayInputStream(new byte[]{']'}))));
+    }
+
+    /**
+     * Reads JSON data line by line, extracting attribute values into statistics owned by the caller only.
+     * The orders may be the elements of an array or root-level objects, e.g. the lines of a newline-delimited file.
+     *
+     * @param parser      The JSON parser of the data.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the data by attribute.
+     * @throws IOException If an I/O error occurs during JSON parsing.
+     */
+    private Map<String, AttributeCounter> readByLine(JsonParser parser, List<String> attributes,
+                                                     OrderFilter orderFilter) throws IOException {
+        Map<String, AttributeCounter> statistics = partialStatistics.create(attributes);
+        OrderPrice orderPrice = priceEnabled ? new OrderPrice() : null;
+        long orders = 0;
+        long fields = 0;
+
+        while (!parser.isClosed()) {
+            JsonToken jsonToken = parser.nextToken();
+
+            if (jsonToken == null) {
+                break;
+            }
+
+            if (JsonToken.START_OBJECT.equals(jsonToken)) {
+                while (!JsonToken.END_OBJECT.equals(parser.nextToken())) {
+                    if (parser.getCurrentToken() != JsonToken.FIELD_NAME) {
+                        continue;
+                    }
+                    fields++;
+                    if (orderFilter == null) {
+                        calculateService.calculateAttributes(parser, statistics, orderPrice);
+                    } else {
+                        calculateFiltered(parser, statistics, orderPrice, orderFilter);
+                    }
+                }
+                completeOrder(statistics, orderPrice, orderFilter);
+                orders++;
+            }
+        }
+        metrics.recordParsed(orders, fields);
+        return statistics;
+    }
+
+    /**
+     * Handles the current field of an order that is filtered. The values of the attributes are held
+     * until the order is decided by the fields the filter depends on, and then either counted or dropped with the order.
+     * Once an order is rejected, the values of its remaining fields are skipped without being read,
+     * except for the date that the date index needs.
+     *
+     * @param parser      The JSON parser, positioned at a field name.
+     * @param statistics  The partial statistics by attribute, updated in place.
+     * @param orderPrice  The price of the current order, or null if prices are not aggregated.
+     * @param orderFilter The filter of the orders.
+     * @throws IOException If an I/O error occurs during JSON parsing.
+     */
+    private void calculateFiltered(JsonParser parser, Map<String, AttributeCounter> statistics,
+                                   OrderPrice orderPrice, OrderFilter orderFilter) throws IOException {
+        String fieldName = parser.getCurrentName();
+        JsonToken valueToken = parser.nextToken();
+        int filterField = orderFilter.indexOf(fieldName);
+        if (filterField >= 0) {
+            boolean scalar = valueToken.isScalarValue() && valueToken != JsonToken.VALUE_NULL;
+            orderFilter.testField(filterField, scalar ? parser.getTextCharacters() : null,
+                    scalar ? parser.getTextOffset() : 0, scalar ? parser.getTextLength() : 0);
+            if (orderFilter.isAccepted()) {
+                orderFilter.replay((attribute, value) ->
+                        calculateService.calculateAttributes(value, attribute, statistics.get(attribute)));
+            }
+        }
+        AttributeCounter attributeStatistics = statistics.get(fieldName);
+        boolean priceField = orderPrice != null && fieldName.equals(OrderPrice.FIELD_NAME);
+        if (orderFilter.isRejected() || !valueToken.isScalarValue() || (attributeStatistics == null && !priceField)) {
+            parser.skipChildren();
+            return;
+        }
+        if (priceField && valueToken != JsonToken.VALUE_NULL) {
+            orderPrice.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        String attributeValue = attributeStatistics != null ? parser.getValueAsString() : null;
+        if (attributeValue == null) {
+            return;
+        }
+        if (orderFilter.isAccepted()) {
+            calculateService.calculateAttributes(attributeValue, fieldName, attributeStatistics);
+        } else {
+            orderFilter.hold(fieldName, attributeValue);
+        }
+    }
+
+    /**
+     * Memory-maps a byte range of a JSON file and scans its bytes for the attribute values,
+     * counting them without creating a String for every value.
+     *
+     * @param chunk       The byte range to read.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the byte range by attribute.
+     */
+    private Map<String, AttributeCounter> readMapped(FileChunk chunk, List<String> attributes,
+                                                     OrderFilter orderFilter) {
+        try (FileChannel channel = FileChannel.open(chunk.file().toPath(), StandardOpenOption.READ)) {
+            return scan(channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.length()), attributes,
+                    orderFilter);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    /**
+     * Scans the bytes of JSON data for the attribute values, counting them without creating a String for every value.
+     * The total price and the date are scanned as well when they are needed for the price statistics
+     * or the filter of the orders; the bytes of the values of an order whose date hasn't been read yet are held.
+     *
+     * @param buffer      The buffer holding the JSON data.
+     * @param attributes  The attributes to calculate statistics for.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     * @return The partial statistics of the data by attribute.
+     */
+    private Map<String, AttributeCounter> scan(ByteBuffer buffer, List<String> attributes, OrderFilter orderFilter) {
+        Map<String, AttributeCounter> statistics = partialStatistics.create(attributes);
+        AttributeCounter[] counters = statistics.values().toArray(AttributeCounter[]::new);
+        if (!priceEnabled && orderFilter == null) {
+            OrderJsonScanner scanner = getOrderScanner(attributes);
+            try {
+                scanner.scan(buffer, 0, buffer.limit(), (index, bytes, start, end) -> calculateService
+                        .calculateAttributes(bytes, start, end, attributes.get(index), counters[index]));
+                metrics.recordParsed(scanner.getScannedOrders(), scanner.getScannedFields());
+            } catch (IllegalStateException e) {
+                throw new CustomFileException("An error occurred while reading values from the file.", e);
+            }
+            return statistics;
+        }
+
+        List<String> scannedFields = new ArrayList<>(attributes);
+        int priceIndex = priceEnabled ? addScannedField(scannedFields, OrderPrice.FIELD_NAME) : -1;
+        List<String> filterFieldNames = orderFilter != null ? orderFilter.getFields() : List.of();
+        filterFieldNames.forEach(field -> addScannedField(scannedFields, field));
+        int[] filterFields = new int[scannedFields.size()];
+        for (int i = 0; i < filterFields.length; i++) {
+            filterFields[i] = orderFilter != null ? orderFilter.indexOf(scannedFields.get(i)) : -1;
+        }
+        OrderPrice orderPrice = priceEnabled ? new OrderPrice() : null;
+        OrderFilter.BytesConsumer counting = (index, bytes, start, end) ->
+                calculateService.calculateAttributes(bytes, start, end, attributes.get(index), counters[index]);
+        OrderJsonScanner scanner = getOrderScanner(scannedFields);
+
+        try {
+            scanner.scan(buffer, 0, buffer.limit(), (index, bytes, start, end) -> {
+                if (filterFields[index] >= 0) {
+                    orderFilter.testField(filterFields[index], bytes, start, end);
+                    if (orderFilter.isAccepted()) {
+                        orderFilter.replay(counting);
+                    }
+                }
+                if (orderFilter != null && orderFilter.isRejected()) {
+                    return;
+                }
+                if (index == priceIndex) {
+                    calculateService.calculatePrice(bytes, start, end, orderPrice);
+                }
+                if (index < counters.length) {
+                    if (orderFilter == null || orderFilter.isAccepted()) {
+                        counting.accept(index, bytes, start, end);
+                    } else {
+                        orderFilter.hold(index, bytes, start, end);
+                    }
+                }
+            }, () -> completeOrder(statistics, orderPrice, orderFilter));
+            metrics.recordParsed(scanner.getScannedOrders(), scanner.getScannedFields());
+        } catch (IllegalStateException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the scanner of this thread for the specified fields, so that the chunks and files read by a thread
+     * reuse one scanner and its buffers.
+     *
+     * @param fields The fields the scanner looks for.
+     * @return The scanner of the fields.
+     */
+    private static OrderJsonScanner getOrderScanner(List<String> fields) {
+        return ORDER_SCANNERS.get().computeIfAbsent(List.copyOf(fields), OrderJsonScanner::new);
+    }
+
+    /**
+     * Completes an order: the price of an accepted order is added to the price statistics of its values,
+     * while a rejected order is forgotten.
+     *
+     * @param statistics  The partial statistics by attribute, updated in place.
+     * @param orderPrice  The price of the order, or null if prices are not aggregated.
+     * @param orderFilter The filter of the orders, or null if all orders are counted.
+     */
+    private void completeOrder(Map<String, AttributeCounter> statistics, OrderPrice orderPrice,
+                               OrderFilter orderFilter) {
+        boolean accepted = orderFilter == null || orderFilter.completeOrder();
+        if (orderPrice == null) {
+            return;
+        }
+        if (accepted) {
+            calculateService.completeOrder(statistics, orderPrice);
+        } else {
+            orderPrice.clear();
+        }
+    }
+
+    /**
+     * Adds a field to the scanned fields unless it is one of them already.
+     *
+     * @param scannedFields The fields the scanner looks for.
+     * @param field         The field to add.
+     * @return The index of the field.
+     */
+    private static int addScannedField(List<String> scannedFields, String field) {
+        if (!scannedFields.contains(field)) {
+            scannedFields.add(field);
+        }
+        return scannedFields.indexOf(field);
+    }
+
+    private OrderFilter createOrderFilter() {
+        return OrderFilter.of(dateRange, filterConditions);
+    }
+
+    private static void includeDates(DateSpan dateSpan, OrderFilter orderFilter) {
+        if (dateSpan != null) {
+            dateSpan.include(orderFilter.getMinDate(), orderFilter.getMaxDate());
+        }
+    }
+}
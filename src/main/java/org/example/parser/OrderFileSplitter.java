@@ -0,0 +1,269 @@
+package org.example.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OrderFileSplitter cuts a file holding a JSON array of orders into chunks of roughly the same size,
+ * so that the chunks of one large file can be parsed in parallel.
+ * The chunks are cut between two order objects: at the first "}", ",", "{" sequence (whitespace allowed)
+ * found after the desired chunk size. The orders are flat objects, so such a sequence can only appear
+ * inside a string value by accident, which the format of the orders doesn't produce.
+ * A file that starts with an object instead of an array is taken as newline-delimited JSON, with one order per line,
+ * and is cut at the first "}", newline, "{" sequence instead. A JSON string can't contain a raw newline,
+ * so these cuts are always between two orders.
+ * Only a few kilobytes around every cut are read, not the whole file.
+ * <p>
+ * The bytes of a file or chunk that can't be parsed can also be cut into single orders,
+ * see {@link #findOrders(ByteBuffer, int, int, boolean)}, so that the orders can be parsed one by one.
+ */
+public class OrderFileSplitter {
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private OrderFileSplitter() {}
+
+    /**
+     * Splits the file into chunks of whole order objects.
+     *
+     * @param file      The file holding a JSON array of orders or newline-delimited orders.
+     * @param chunkSize The desired size of a chunk in bytes, at most 1 GB so that a chunk can be memory-mapped.
+     * @return The chunks in file order, or an empty list if the file holds neither a non-empty JSON array
+     *         nor orders on separate lines.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    public static List<FileChunk> split(File file, long chunkSize) throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        long desiredSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long firstLineStart = findFirstLineStart(channel);
+            boolean delimitedByLines = firstLineStart >= 0;
+            long firstOrderStart = delimitedByLines ? firstLineStart : findFirstOrderStart(channel);
+            long lastOrderEnd = findLastOrderEnd(channel, !delimitedByLines);
+            if (firstOrderStart < 0 || lastOrderEnd < 0 || firstOrderStart >= lastOrderEnd) {
+                return chunks;
+            }
+            byte separator = delimitedByLines ? (byte) '\n' : (byte) ',';
+            long start = firstOrderStart;
+
+            while (lastOrderEnd - start > desiredSize) {
+                long[] boundary = findBoundary(channel, start + desiredSize, lastOrderEnd, separator);
+                if (boundary.length == 0) {
+                    break;
+                }
+                chunks.add(new FileChunk(file, start, boundary[0], delimitedByLines));
+                start = boundary[1];
+            }
+            chunks.add(new FileChunk(file, start, lastOrderEnd, delimitedByLines));
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the opening brace of the first order of a newline-delimited file, which starts with that brace.
+     *
+     * @param channel The channel of the file.
+     * @return The index of the brace, or -1 if the file doesn't start with an object.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    private static long findFirstLineStart(FileChannel channel) throws IOException {
+        ByteBuffer window = readWindow(channel, 0);
+
+        while (window.hasRemaining()) {
+            byte current = window.get();
+            if (isWhitespace(current) || isByteOrderMark(current)) {
+                continue;
+            }
+            return current == '{' ? window.position() - 1 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the opening brace of the first order, which must follow the opening bracket of the array.
+     *
+     * @param channel The channel of the file.
+     * @return The index of the brace, or -1 if the file doesn't start with an array of objects.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    private static long findFirstOrderStart(FileChannel channel) throws IOException {
+        ByteBuffer window = readWindow(channel, 0);
+        boolean arrayStarted = false;
+
+        while (window.hasRemaining()) {
+            byte current = window.get();
+            if (isWhitespace(current) || isByteOrderMark(current)) {
+                continue;
+            }
+            if (!arrayStarted && current == '[') {
+                arrayStarted = true;
+                continue;
+            }
+            return arrayStarted && current == '{' ? window.position() - 1 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of the last order, which must precede the closing bracket of the array if there is one.
+     *
+     * @param channel The channel of the file.
+     * @param array   True if the orders are enclosed in an array.
+     * @return The index after the closing brace of the last order, or -1 if it isn't found.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    private static long findLastOrderEnd(FileChannel channel, boolean array) throws IOException {
+        long windowStart = Math.max(0, channel.size() - WINDOW_SIZE);
+        ByteBuffer window = readWindow(channel, windowStart);
+        boolean arrayEnded = !array;
+
+        for (int i = window.limit() - 1; i >= 0; i--) {
+            byte current = window.get(i);
+            if (isWhitespace(current)) {
+                continue;
+            }
+            if (!arrayEnded && current == ']') {
+                arrayEnded = true;
+                continue;
+            }
+            return arrayEnded && current == '}' ? windowStart + i + 1 : -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first place between two order objects at or after the specified position.
+     *
+     * @param channel   The channel of the file.
+     * @param from      The position to start searching from.
+     * @param limit     The position to stop searching at.
+     * @param separator The byte between two orders, a comma or a newline.
+     * @return The index after the closing brace of the previous order and the index of the opening brace
+     *         of the next one, or an empty array if there is no such place before the limit.
+     * @throws IOException If an I/O error occurs while reading the file.
+     */
+    private static long[] findBoundary(FileChannel channel, long from, long limit, byte separator)
+            throws IOException {
+        long objectEnd = -1;
+        boolean separatorFound = false;
+        long position = from;
+
+        while (position < limit) {
+            ByteBuffer window = readWindow(channel, position);
+            if (!window.hasRemaining()) {
+                break;
+            }
+            while (window.hasRemaining() && position < limit) {
+                byte current = window.get();
+                if (current == '}') {
+                    objectEnd = position + 1;
+                    separatorFound = false;
+                } else if (objectEnd >= 0 && !separatorFound && current == separator) {
+                    separatorFound = true;
+                } else if (objectEnd >= 0 && separatorFound && current == '{') {
+                    return new long[]{objectEnd, position};
+                } else if (!isWhitespace(current)) {
+                    objectEnd = -1;
+                }
+                position++;
+            }
+        }
+        return new long[0];
+    }
+
+    /**
+     * Cuts the bytes of orders into single order objects, before every opening brace that follows a comma
+     * of the array, or a newline of a newline-delimited file. Unlike the cuts between chunks, the cuts don't need
+     * a closing brace before the separator, so that an order that is cut off or misses its closing brace
+     * only spoils itself and the reading goes on with the next order. The opening bracket and the closing bracket
+     * of an array are left out, as well as the whitespace around every order.
+     *
+     * @param buffer           The buffer holding the orders.
+     * @param start            The index of the first byte of the orders.
+     * @param end              The index after the last byte of the orders.
+     * @param delimitedByLines True if the orders are on separate lines, false if they are separated by commas.
+     * @return The index of the first byte and the index after the last byte of every order, one pair after another.
+     */
+    public static int[] findOrders(ByteBuffer buffer, int start, int end, boolean delimitedByLines) {
+        byte separator = delimitedByLines ? (byte) '\n' : (byte) ',';
+        int position = skipWhitespace(buffer, start, end);
+        if (!delimitedByLines && position < end && buffer.get(position) == '[') {
+            position = skipWhitespace(buffer, position + 1, end);
+        }
+        int last = trimWhitespace(buffer, position, end);
+        if (!delimitedByLines && last > position && buffer.get(last - 1) == ']') {
+            last = trimWhitespace(buffer, position, last - 1);
+        }
+        int[] orders = new int[16];
+        int count = 0;
+        int orderStart = position;
+        int separatorIndex = -1;
+
+        for (int i = position; i < last; i++) {
+            byte current = buffer.get(i);
+            if (current == separator) {
+                separatorIndex = i;
+            } else if (separatorIndex >= 0 && current == '{') {
+                int orderEnd = trimWhitespace(buffer, orderStart, separatorIndex);
+                if (orderEnd > orderStart) {
+                    if (count + 2 > orders.length) {
+                        orders = Arrays.copyOf(orders, orders.length * 2);
+                    }
+                    orders[count++] = orderStart;
+                    orders[count++] = orderEnd;
+                }
+                orderStart = i;
+                separatorIndex = -1;
+            } else if (!isWhitespace(current)) {
+                separatorIndex = -1;
+            }
+        }
+        if (last > orderStart) {
+            if (count + 2 > orders.length) {
+                orders = Arrays.copyOf(orders, orders.length * 2);
+            }
+            orders[count++] = orderStart;
+            orders[count++] = last;
+        }
+        return Arrays.copyOf(orders, count);
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        while (position < end && (isWhitespace(buffer.get(position)) || isByteOrderMark(buffer.get(position)))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int trimWhitespace(ByteBuffer buffer, int start, int end) {
+        int position = end;
+        while (position > start && isWhitespace(buffer.get(position - 1))) {
+            position--;
+        }
+        return position;
+    }
+
+    private static ByteBuffer readWindow(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+        while (window.hasRemaining() && channel.read(window, position + window.position()) > 0) {
+            // keep reading until the window is full or the end of the file is reached
+        }
+        return window.flip();
+    }
+
+    private static boolean isWhitespace(byte value) {
+        return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+
+    private static boolean isByteOrderMark(byte value) {
+        return value == (byte) 0xEF || value == (byte) 0xBB || value == (byte) 0xBF;
+    }
+}
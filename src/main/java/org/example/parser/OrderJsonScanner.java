@@ -0,0 +1,393 @@
+package org.example.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OrderJsonScanner scans the raw UTF-8 bytes of an orders file and reports the values of the requested attributes.
+ * Unlike a general-purpose parser it doesn't create Strings for field names or values: keys are compared
+ * with the attributes byte by byte, and the bytes of a matching value are handed to a consumer as they are.
+ * Only the fields of order objects (objects that are not nested into another object) are taken into account.
+ * Escaped string values are unescaped into a reusable buffer before they are reported,
+ * and JSON null values as well as nested objects and arrays are skipped.
+ * The scanner doesn't validate the JSON, but it fails on the structural errors that would shift the values
+ * of the following orders out of place: a value where a field name is expected, a closing bracket
+ * that doesn't match its opening one, and data that ends inside an order.
+ * A scanner keeps internal buffers, so an instance must not be shared between threads.
+ * The numbers of orders and fields of the last scan are kept for the metrics of the run.
+ */
+public class OrderJsonScanner {
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+    private static final byte[] NULL_LITERAL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final int NO_ATTRIBUTE = -1;
+    private final byte[][] attributeNames;
+    private byte[] containers = new byte[16];
+    private byte[] unescaped = new byte[64];
+    private ByteBuffer unescapedBuffer = ByteBuffer.wrap(unescaped);
+    private long scannedOrders;
+    private long scannedFields;
+
+    /**
+     * Consumer of the attribute values found by the scanner.
+     */
+    @FunctionalInterface
+    public interface ValueConsumer {
+
+        /**
+         * Accepts the UTF-8 bytes of a single attribute value. The bytes are only valid during the call.
+         *
+         * @param attributeIndex The index of the attribute in the list the scanner was constructed with.
+         * @param buffer         The buffer holding the value.
+         * @param start          The index of the first byte of the value.
+         * @param end            The index after the last byte of the value.
+         */
+        void accept(int attributeIndex, ByteBuffer buffer, int start, int end);
+    }
+
+    /**
+     * Constructs a scanner for the specified attributes.
+     *
+     * @param attributes The names of the attributes whose values are reported.
+     */
+    public OrderJsonScanner(List<String> attributes) {
+        this.attributeNames = attributes.stream()
+                .map(attribute -> attribute.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+    }
+
+    /**
+     * Scans the bytes between the specified indexes and reports every value of the attributes.
+     *
+     * @param buffer   The buffer holding the JSON data.
+     * @param start    The index of the first byte to scan.
+     * @param end      The index after the last byte to scan.
+     * @param consumer The consumer of the attribute values.
+     * @throws IllegalStateException If a string is not terminated before the end of the data,
+     *                               or the structure of the data is broken.
+     */
+    public void scan(ByteBuffer buffer, int start, int end, ValueConsumer consumer) {
+        scan(buffer, start, end, consumer, () -> {});
+    }
+
+    /**
+     * Scans the bytes between the specified indexes, reports every value of the attributes
+     * and signals the end of every order object after all of its values have been reported.
+     *
+     * @param buffer         The buffer holding the JSON data.
+     * @param start          The index of the first byte to scan.
+     * @param end            The index after the last byte to scan.
+     * @param consumer       The consumer of the attribute values.
+     * @param orderCompleted The action run at the end of every order.
+     * @throws IllegalStateException If a string is not terminated before the end of the data,
+     *                               or the structure of the data is broken.
+     */
+    public void scan(ByteBuffer buffer, int start, int end, ValueConsumer consumer, Runnable orderCompleted) {
+        int depth = 0;
+        int objectDepth = 0;
+        boolean keyExpected = false;
+        int matchedAttribute = NO_ATTRIBUTE;
+        int position = start;
+        long orders = 0;
+        long fields = 0;
+        scannedOrders = 0;
+        scannedFields = 0;
+
+        while (position < end) {
+            byte current = buffer.get(position);
+            switch (current) {
+                case ' ', '\n', '\r', '\t', ':' -> position++;
+                case '{', '[' -> {
+                    if (keyExpected) {
+                        throw new IllegalStateException("Expected a field name at byte " + position);
+                    }
+                    if (depth == containers.length) {
+                        containers = Arrays.copyOf(containers, depth * 2);
+                    }
+                    containers[depth++] = current == '{' ? OBJECT : ARRAY;
+                    objectDepth += current == '{' ? 1 : 0;
+                    keyExpected = current == '{';
+                    matchedAttribute = NO_ATTRIBUTE;
+                    position++;
+                }
+                case '}', ']' -> {
+                    if (depth == 0 || containers[depth - 1] != (current == '}' ? OBJECT : ARRAY)) {
+                        throw new IllegalStateException("Unmatched closing bracket at byte " + position);
+                    }
+                    if (containers[--depth] == OBJECT && --objectDepth == 0) {
+                        orders++;
+                        orderCompleted.run();
+                    }
+                    keyExpected = false;
+                    position++;
+                }
+                case ',' -> {
+                    keyExpected = depth > 0 && containers[depth - 1] == OBJECT;
+                    position++;
+                }
+                case '"' -> {
+                    int stringEnd = findStringEnd(buffer, position + 1, end);
+                    if (keyExpected) {
+                        fields += objectDepth == 1 ? 1 : 0;
+                        matchedAttribute = objectDepth == 1
+                                ? findAttribute(buffer, position + 1, stringEnd)
+                                : NO_ATTRIBUTE;
+                        keyExpected = false;
+                    } else if (matchedAttribute != NO_ATTRIBUTE) {
+                        acceptString(matchedAttribute, buffer, position + 1, stringEnd, consumer);
+                        matchedAttribute = NO_ATTRIBUTE;
+                    }
+                    position = stringEnd + 1;
+                }
+                default -> {
+                    if (keyExpected) {
+                        throw new IllegalStateException("Expected a field name at byte " + position);
+                    }
+                    int literalEnd = findLiteralEnd(buffer, position, end);
+                    if (matchedAttribute != NO_ATTRIBUTE && !isNullLiteral(buffer, position, literalEnd)) {
+                        consumer.accept(matchedAttribute, buffer, position, literalEnd);
+                    }
+                    matchedAttribute = NO_ATTRIBUTE;
+                    position = literalEnd;
+                }
+            }
+        }
+        if (depth > 0) {
+            throw new IllegalStateException("The data ends inside an order at byte " + end);
+        }
+        scannedOrders = orders;
+        scannedFields = fields;
+    }
+
+    /**
+     * Returns the number of order objects completed by the last scan.
+     *
+     * @return The number of orders.
+     */
+    public long getScannedOrders() {
+        return scannedOrders;
+    }
+
+    /**
+     * Returns the number of fields of order objects found by the last scan, whether they were requested or not.
+     *
+     * @return The number of fields.
+     */
+    public long getScannedFields() {
+        return scannedFields;
+    }
+
+    /**
+     * Finds the closing quote of a string, skipping escaped characters.
+     *
+     * @param buffer The buffer holding the JSON data.
+     * @param start  The index after the opening quote.
+     * @param end    The index after the last byte to scan.
+     * @return The index of the closing quote.
+     */
+    private static int findStringEnd(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        while (position < end) {
+            byte current = buffer.get(position);
+            if (current == '"') {
+                return position;
+            }
+            position += current == '\\' ? 2 : 1;
+        }
+        throw new IllegalStateException("Unterminated string starting at byte " + (start - 1));
+    }
+
+    /**
+     * Finds the end of a number or a literal such as true, false or null.
+     *
+     * @param buffer The buffer holding the JSON data.
+     * @param start  The index of the first byte of the literal.
+     * @param end    The index after the last byte to scan.
+     * @return The index after the last byte of the literal.
+     */
+    private static int findLiteralEnd(ByteBuffer buffer, int start, int end) {
+        int position = start;
+        while (position < end) {
+            byte current = buffer.get(position);
+            if (current == ',' || current == '}' || current == ']' || current == ':'
+                    || current == ' ' || current == '\n' || current == '\r' || current == '\t') {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Finds the requested attribute with the specified name.
+     *
+     * @param buffer The buffer holding the JSON data.
+     * @param start  The index after the opening quote of the name.
+     * @param end    The index of the closing quote of the name.
+     * @return The index of the attribute, or -1 if the name isn't requested.
+     */
+    private int findAttribute(ByteBuffer buffer, int start, int end) {
+        if (containsEscape(buffer, start, end)) {
+            int length = unescape(buffer, start, end);
+            for (int i = 0; i < attributeNames.length; i++) {
+                if (Arrays.equals(unescaped, 0, length, attributeNames[i], 0, attributeNames[i].length)) {
+                    return i;
+                }
+            }
+            return NO_ATTRIBUTE;
+        }
+        for (int i = 0; i < attributeNames.length; i++) {
+            if (isAttributeName(attributeNames[i], buffer, start, end)) {
+                return i;
+            }
+        }
+        return NO_ATTRIBUTE;
+    }
+
+    private static boolean isAttributeName(byte[] attributeName, ByteBuffer buffer, int start, int end) {
+        if (end - start != attributeName.length) {
+            return false;
+        }
+        for (int i = 0; i < attributeName.length; i++) {
+            if (buffer.get(start + i) != attributeName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsEscape(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNullLiteral(ByteBuffer buffer, int start, int end) {
+        if (end - start != NULL_LITERAL.length) {
+            return false;
+        }
+        for (int i = 0; i < NULL_LITERAL.length; i++) {
+            if (buffer.get(start + i) != NULL_LITERAL[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reports a string value, unescaping it first if it contains escape sequences.
+     *
+     * @param attributeIndex The index of the attribute the value belongs to.
+     * @param buffer         The buffer holding the JSON data.
+     * @param start          The index after the opening quote.
+     * @param end            The index of the closing quote.
+     * @param consumer       The consumer of the value.
+     */
+    private void acceptString(int attributeIndex, ByteBuffer buffer, int start, int end, ValueConsumer consumer) {
+        if (containsEscape(buffer, start, end)) {
+            int length = unescape(buffer, start, end);
+            consumer.accept(attributeIndex, unescapedBuffer, 0, length);
+        } else {
+            consumer.accept(attributeIndex, buffer, start, end);
+        }
+    }
+
+    /**
+     * Decodes the escape sequences of a string into the reusable buffer as UTF-8 bytes. An unpaired surrogate
+     * escape is written as the three bytes of the surrogate on its own, which
+     * {@link org.example.aggregation.AttributeCounter} decodes back into the surrogate, so that the value
+     * is counted the same as by Jackson, which keeps it.
+     *
+     * @param buffer The buffer holding the JSON data.
+     * @param start  The index after the opening quote.
+     * @param end    The index of the closing quote.
+     * @return The number of unescaped bytes.
+     */
+    private int unescape(ByteBuffer buffer, int start, int end) {
+        ensureUnescapedCapacity(end - start);
+        int length = 0;
+        int position = start;
+
+        while (position < end) {
+            byte current = buffer.get(position++);
+            if (current != '\\') {
+                unescaped[length++] = current;
+                continue;
+            }
+            byte escaped = buffer.get(position++);
+            switch (escaped) {
+                case 'b' -> unescaped[length++] = '\b';
+                case 'f' -> unescaped[length++] = '\f';
+                case 'n' -> unescaped[length++] = '\n';
+                case 'r' -> unescaped[length++] = '\r';
+                case 't' -> unescaped[length++] = '\t';
+                case 'u' -> {
+                    int codePoint = parseHex(buffer, position);
+                    position += 4;
+                    if (Character.isHighSurrogate((char) codePoint) && position + 6 <= end
+                            && buffer.get(position) == '\\' && buffer.get(position + 1) == 'u') {
+                        int lowSurrogate = parseHex(buffer, position + 2);
+                        if (Character.isLowSurrogate((char) lowSurrogate)) {
+                            codePoint = Character.toCodePoint((char) codePoint, (char) lowSurrogate);
+                            position += 6;
+                        }
+                    }
+                    length = writeUtf8(codePoint, length);
+                }
+                default -> unescaped[length++] = escaped;
+            }
+        }
+        return length;
+    }
+
+    private void ensureUnescapedCapacity(int length) {
+        if (unescaped.length < length) {
+            unescaped = new byte[Math.max(length, unescaped.length * 2)];
+            unescapedBuffer = ByteBuffer.wrap(unescaped);
+        }
+    }
+
+    private static int parseHex(ByteBuffer buffer, int start) {
+        int value = 0;
+        for (int i = start; i < start + 4; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                throw new IllegalStateException("Invalid unicode escape at byte " + (start - 2));
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a code point as UTF-8 into the reusable buffer. The UTF-8 encoding of a code point is never
+     * longer than its \\u escape, so the buffer always has enough room.
+     *
+     * @param codePoint The code point to write.
+     * @param length    The current number of bytes in the buffer.
+     * @return The new number of bytes in the buffer.
+     */
+    private int writeUtf8(int codePoint, int length) {
+        if (codePoint < 0x80) {
+            unescaped[length++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            unescaped[length++] = (byte) (0xC0 | codePoint >> 6);
+            unescaped[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            unescaped[length++] = (byte) (0xE0 | codePoint >> 12);
+            unescaped[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            unescaped[length++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            unescaped[length++] = (byte) (0xF0 | codePoint >> 18);
+            unescaped[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            unescaped[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            unescaped[length++] = (byte) (0x80 | codePoint & 0x3F);
+        }
+        return length;
+    }
+}
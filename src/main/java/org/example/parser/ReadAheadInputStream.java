@@ -0,0 +1,160 @@
+package org.example.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * ReadAheadInputStream reads another stream on a separate thread into a bounded number of blocks,
+ * so that the reading, e.g. the decompression of a file, overlaps with the processing of the bytes already read.
+ * When all blocks are full, the reading thread waits until the reader of this stream has consumed one,
+ * so the memory used is at most the number of blocks times their size.
+ * An exception of the reading thread is thrown by this stream after the bytes read before it.
+ * <p>
+ * This stream is meant to be read by a single thread.
+ */
+public class ReadAheadInputStream extends InputStream {
+    private static final Block END = new Block(new byte[0]);
+    private final InputStream source;
+    private final BlockingQueue<Block> freeBlocks;
+    private final BlockingQueue<Block> fullBlocks;
+    private final Future<?> reading;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private Block block;
+    private int position;
+
+    /**
+     * Starts reading a stream ahead.
+     *
+     * @param source    The stream to read, closed by the reading thread once it has been read.
+     * @param executor  The executor that runs the reading thread, which shouldn't wait for the reader of this stream.
+     * @param blockSize The size of a block in bytes.
+     * @param blocks    The number of blocks.
+     */
+    public ReadAheadInputStream(InputStream source, ExecutorService executor, int blockSize, int blocks) {
+        this.source = source;
+        this.freeBlocks = new ArrayBlockingQueue<>(blocks);
+        this.fullBlocks = new ArrayBlockingQueue<>(blocks + 1);
+        for (int i = 0; i < blocks; i++) {
+            freeBlocks.add(new Block(new byte[blockSize]));
+        }
+        this.reading = executor.submit(this::readAhead);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return block.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, block.length - position);
+        System.arraycopy(block.data, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return block != null && block != END ? block.length - position : 0;
+    }
+
+    /**
+     * Stops the reading thread and closes the source stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        reading.cancel(true);
+        source.close();
+    }
+
+    /**
+     * Makes sure the current block has bytes left to read, waiting for the next block if needed.
+     *
+     * @return True if there are bytes to read, false at the end of the stream.
+     * @throws IOException If the stream is closed or the reading thread failed.
+     */
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed");
+        }
+        if (block != null && position < block.length) {
+            return true;
+        }
+        if (block == END) {
+            return false;
+        }
+        if (block != null) {
+            freeBlocks.add(block);
+        }
+        try {
+            block = fullBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the stream to be read");
+        }
+        position = 0;
+        if (block == END && failure != null) {
+            throw new IOException("An error occurred while reading ahead: " + failure.getMessage(), failure);
+        }
+        return block != END;
+    }
+
+    /**
+     * Fills the free blocks with the bytes of the source stream until its end, then adds the end marker.
+     */
+    private void readAhead() {
+        try (InputStream input = source) {
+            while (!closed) {
+                Block next = freeBlocks.take();
+                next.length = input.readNBytes(next.data, 0, next.data.length);
+                if (next.length > 0) {
+                    fullBlocks.add(next);
+                }
+                if (next.length < next.data.length) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new IOException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        fullBlocks.add(END);
+    }
+
+    /**
+     * A block of bytes read ahead.
+     */
+    private static class Block {
+        private final byte[] data;
+        private int length;
+
+        Block(byte[] data) {
+            this.data = data;
+        }
+    }
+}
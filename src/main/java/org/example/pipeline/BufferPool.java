@@ -0,0 +1,56 @@
+package org.example.pipeline;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * BufferPool lends a fixed number of direct buffers, so that the data in flight in a {@link Pipeline}
+ * is bounded and the buffers aren't allocated again for every item. A stage that needs a buffer while all of them
+ * are lent waits until one is returned, which counts as a wait for output of the stage.
+ * A buffer that is too small for the requested length is replaced by a larger one, which then stays in the pool.
+ */
+public class BufferPool {
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final int initialSize;
+
+    /**
+     * Constructs a pool.
+     *
+     * @param buffers    The number of buffers.
+     * @param bufferSize The initial size of every buffer in bytes, allocated when a buffer is first lent.
+     */
+    public BufferPool(int buffers, int bufferSize) {
+        this.buffers = new ArrayBlockingQueue<>(buffers);
+        for (int i = 0; i < buffers; i++) {
+            this.buffers.add(ByteBuffer.allocateDirect(0));
+        }
+        this.initialSize = bufferSize;
+    }
+
+    /**
+     * Borrows a buffer, waiting while all buffers are lent.
+     *
+     * @param length The number of bytes the buffer has to hold.
+     * @return A cleared buffer with a capacity of at least the length.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public ByteBuffer acquire(int length) throws InterruptedException {
+        long startTime = System.nanoTime();
+        ByteBuffer buffer = buffers.take();
+        Stage.recordOutputWait(startTime);
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocateDirect(Math.max(length, initialSize));
+        }
+        return buffer.clear();
+    }
+
+    /**
+     * Returns a borrowed buffer to the pool.
+     *
+     * @param buffer The buffer.
+     */
+    public void release(ByteBuffer buffer) {
+        buffers.add(buffer);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.pipeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipeline runs stages connected by bounded queues, every stage on threads of its own, so that e.g. reading files
+ * and parsing them overlap, and a stage that falls behind holds back the stages in front of it
+ * instead of letting the data pile up. The threads are started by {@link #run()} and end with it.
+ * <p>
+ * If a stage fails, the threads of all stages are interrupted and the first failure is thrown by {@link #run()}.
+ * After a run, the metrics of the stages and queues tell which stage limited the throughput.
+ */
+public class Pipeline {
+    private final String name;
+    private final List<Stage<?>> stages = new ArrayList<>();
+    private final List<StageQueue<?>> queues = new ArrayList<>();
+
+    /**
+     * Constructs an empty pipeline.
+     *
+     * @param name The name of the pipeline, the prefix of the names of its threads.
+     */
+    public Pipeline(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a queue that holds all items of the first stage and is already closed.
+     *
+     * @param name  The name of the queue.
+     * @param items The items.
+     * @return The queue.
+     */
+    public <T> StageQueue<T> createSource(String name, List<T> items) {
+        StageQueue<T> queue = createQueue(name, Math.max(1, items.size()));
+        for (T item : items) {
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException("A queue with free space can't wait", e);
+            }
+        }
+        queue.close();
+        return queue;
+    }
+
+    /**
+     * Creates a queue between two stages.
+     *
+     * @param name     The name of the queue.
+     * @param capacity The maximal number of waiting items.
+     * @return The queue.
+     */
+    public <T> StageQueue<T> createQueue(String name, int capacity) {
+        StageQueue<T> queue = new StageQueue<>(name, capacity);
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * Adds a stage.
+     *
+     * @param name    The name of the stage.
+     * @param threads The number of threads that run the stage.
+     * @param input   The queue the stage takes its items from.
+     * @param handler The handler of the items.
+     * @param outputs The queues the stage puts items into, which are closed when the stage has ended.
+     */
+    public <T> void addStage(String name, int threads, StageQueue<T> input, Stage.Handler<T> handler,
+                             StageQueue<?>... outputs) {
+        stages.add(new Stage<>(name, threads, input, handler, List.of(outputs)));
+    }
+
+    /**
+     * Runs all stages until the last stage has taken all its items.
+     *
+     * @throws Exception The first failure of a stage, or an InterruptedException
+     *                   if the calling thread is interrupted while waiting.
+     */
+    public void run() throws Exception {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (Stage<?> stage : stages) {
+            for (int i = 0; i < stage.getThreads(); i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        stage.run();
+                    } catch (Throwable e) {
+                        if (failure.compareAndSet(null, e)) {
+                            threads.forEach(Thread::interrupt);
+                        }
+                    }
+                }, name + "-" + stage.getName() + "-" + (i + 1));
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+        threads.forEach(Thread::start);
+
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            throw e;
+        }
+        if (failure.get() instanceof Error error) {
+            throw error;
+        }
+        if (failure.get() != null) {
+            throw (Exception) failure.get();
+        }
+    }
+
+    /**
+     * Returns the stage that was busy for the largest share of its time, i.e. the stage that limited the throughput.
+     *
+     * @return The stage, or null if there are no stages.
+     */
+    public Stage<?> getBottleneck() {
+        return stages.stream().max(Comparator.comparingDouble(Stage::getUtilization)).orElse(null);
+    }
+
+    /**
+     * Describes the metrics of the stages and of the queues between them, one line each.
+     *
+     * @return The lines of the summary.
+     */
+    public List<String> summarize() {
+        List<String> lines = new ArrayList<>();
+        for (Stage<?> stage : stages) {
+            lines.add(String.format(Locale.ROOT, "Stage %s: %d threads, busy %.0f%%, waiting for input %.0f%%,"
+                            + " waiting for output %.0f%%", stage.getName(), stage.getThreads(),
+                    stage.getUtilization() * 100, stage.getInputWait() * 100, stage.getOutputWait() * 100));
+        }
+        for (StageQueue<?> queue : queues) {
+            lines.add(String.format(Locale.ROOT, "Queue %s: capacity %d, average depth %.1f, maximal depth %d",
+                    queue.getName(), queue.getCapacity(), queue.getAverageDepth(), queue.getMaxDepth()));
+        }
+        return lines;
+    }
+}
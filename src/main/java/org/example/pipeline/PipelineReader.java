@@ -0,0 +1,253 @@
+package org.example.pipeline;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.PartialStatistics;
+import org.example.exception.CustomFileException;
+import org.example.exception.ExecutorTimeoutException;
+import org.example.filter.DateSpan;
+import org.example.parser.Compression;
+import org.example.parser.FailureIsolation;
+import org.example.parser.FileChunk;
+import org.example.parser.OrderFileReader;
+import org.example.util.StatisticsOptions;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * PipelineReader reads the order files of a run in a {@link Pipeline} of three stages: reading the files
+ * into pooled buffers, parsing the buffers into partial statistics and aggregating the partial statistics
+ * into a shard of statistics per aggregator thread.
+ */
+public class PipelineReader {
+    private static final String PIPELINE_NAME = "statistics-pipeline";
+    private final long chunkSize;
+    private final int pipelineReaders;
+    private final int pipelineParsers;
+    private final int pipelineAggregators;
+    private final int pipelineBuffers;
+    private final OrderFileReader reader;
+    private final FailureIsolation isolation;
+    private final PartialStatistics partialStatistics;
+
+    /**
+     * A chunk of orders on its way from the readers of the pipeline to the parsers.
+     *
+     * @param chunk  The chunk of whole orders, or the whole file if the file is read as a stream.
+     * @param orders The pooled buffer holding the bytes of the chunk, or null if the file is read as a stream.
+     * @param chunks The number of chunks of the file.
+     */
+    private record PipelineChunk(FileChunk chunk, ByteBuffer orders, int chunks) {
+    }
+
+    /**
+     * The statistics of a chunk on their way from the parsers of the pipeline to the aggregators.
+     *
+     * @param file       The file the chunk belongs to.
+     * @param chunks     The number of chunks of the file.
+     * @param statistics The partial statistics of the chunk, or null if the chunk couldn't be read.
+     */
+    private record ParsedChunk(File file, int chunks, Map<String, AttributeCounter> statistics) {
+    }
+
+    /**
+     * The statistics of the chunks of a file that have been parsed so far, which the aggregators of the pipeline
+     * hold back until all chunks of the file are parsed, unless the run fails fast, so that a file that is skipped
+     * is left out as a whole.
+     */
+    private static class PendingFile {
+        private int remainingChunks;
+        private boolean failed;
+        private Map<String, AttributeCounter> statistics;
+
+        private PendingFile(int chunks) {
+            this.remainingChunks = chunks;
+        }
+    }
+
+
+    /**
+     * Constructs the pipeline reader of a run.
+     *
+     * @param options           The settings of the run, which select the number of threads of every stage
+     *                          and the number and size of the buffers.
+     * @param reader            The reader the chunks and files are parsed by.
+     * @param isolation         The failure isolation of the run.
+     * @param partialStatistics The partial statistics the shards are created and merged by.
+     */
+    public PipelineReader(StatisticsOptions options, OrderFileReader reader, FailureIsolation isolation,
+                          PartialStatistics partialStatistics) {
+        this.chunkSize = options.chunkSize();
+        this.pipelineReaders = options.pipelineReaders();
+        this.pipelineParsers = options.pipelineParsers();
+        this.pipelineAggregators = options.pipelineAggregators();
+        this.pipelineBuffers = options.pipelineBuffers();
+        this.reader = reader;
+        this.isolation = isolation;
+        this.partialStatistics = partialStatistics;
+    }
+
+    /**
+     * Reads the files in a pipeline of three stages connected by bounded queues, each stage on threads of its own:
+     * readers split the uncompressed files into chunks of whole orders and read every chunk into a pooled direct
+     * buffer, parsers count the orders of the buffers into partial statistics and return the buffers to the pool,
+     * and aggregators fold the partial statistics into the shard of statistics owned by each aggregator thread.
+     * Compressed files and files that can't be split are handed to the parsers as they are and read as a stream.
+     * As the number of buffers is fixed, the readers wait when the parsers fall behind, and the parsers wait
+     * when the aggregators do. The metrics of the stages and queues are printed once the files have been read.
+     * Unless the run fails fast, the chunks of a split file are only aggregated once all of them are parsed,
+     * so that a file that is skipped is left out as a whole.
+     *
+     * @param files      The JSON files to read.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpans  The map the date spans of the read files are put to, or null if orders aren't filtered by date.
+     * @return The partial statistics of every aggregator shard by attribute.
+     */
+    public List<Map<String, AttributeCounter>> read(List<File> files, List<String> attributes,
+                                                    Map<File, DateSpan> dateSpans) {
+        files.forEach(file -> DateSpan.forFile(dateSpans, file));
+        BufferPool bufferPool = new BufferPool(pipelineBuffers,
+                (int) Math.min(chunkSize, StatisticsOptions.MAX_READ_BUFFER_SIZE));
+        Queue<Map<String, AttributeCounter>> shards = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Map<String, AttributeCounter>> shard = ThreadLocal.withInitial(() -> {
+            Map<String, AttributeCounter> statistics = partialStatistics.create(attributes);
+            shards.add(statistics);
+            return statistics;
+        });
+        Pipeline pipeline = new Pipeline(PIPELINE_NAME);
+        StageQueue<File> filesQueue = pipeline.createSource("files", files);
+        StageQueue<PipelineChunk> chunksQueue = pipeline.createQueue("chunks", pipelineBuffers);
+        StageQueue<ParsedChunk> statisticsQueue = pipeline.createQueue("statistics", pipelineParsers);
+        Map<File, PendingFile> pendingFiles = new ConcurrentHashMap<>();
+        pipeline.addStage("read", pipelineReaders, filesQueue, file -> {
+            try {
+                readIntoBuffers(file, bufferPool, chunksQueue);
+            } catch (IOException e) {
+                isolation.skipFile(file, e);
+            }
+        }, chunksQueue);
+        pipeline.addStage("parse", pipelineParsers, chunksQueue, chunk -> {
+            File file = chunk.chunk().file();
+            DateSpan dateSpan = DateSpan.forFile(dateSpans, file);
+            Map<String, AttributeCounter> statistics;
+            try {
+                statistics = isolation.read(chunk.chunk(), attributes, dateSpan, () -> chunk.orders() == null
+                        ? reader.readFile(file, attributes, dateSpan)
+                        : reader.readChunk(chunk.chunk(), chunk.orders(), attributes, dateSpan));
+            } catch (CustomFileException e) {
+                if (isolation.isFailFast()) {
+                    throw e;
+                }
+                statistics = null;
+            } finally {
+                if (chunk.orders() != null) {
+                    bufferPool.release(chunk.orders());
+                }
+            }
+            statisticsQueue.put(new ParsedChunk(file, chunk.chunks(), statistics));
+        }, statisticsQueue);
+        pipeline.addStage("aggregate", pipelineAggregators, statisticsQueue, parsed -> {
+            Map<String, AttributeCounter> statistics = isolation.isFailFast() || parsed.chunks() == 1
+                    ? parsed.statistics()
+                    : collectChunk(pendingFiles, parsed);
+            if (statistics != null) {
+                partialStatistics.merge(shard.get(), statistics);
+            }
+        });
+
+        try {
+            pipeline.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorTimeoutException(e.getMessage());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+        pipeline.summarize().forEach(line -> System.out.println(PIPELINE_NAME + " " + line));
+        Stage<?> bottleneck = pipeline.getBottleneck();
+        if (bottleneck != null) {
+            System.out.printf("The %s stage limited the pipeline, the run was %s%n", bottleneck.getName(),
+                    bottleneck.getName().equals("read") ? "I/O-bound" : "CPU-bound");
+        }
+        return new ArrayList<>(shards);
+    }
+
+    /**
+     * Holds back the statistics of a chunk of a split file until all chunks of the file are parsed.
+     *
+     * @param pendingFiles The files whose chunks are being parsed.
+     * @param parsed       The parsed chunk.
+     * @return The statistics of all chunks of the file if this was its last chunk and none of them failed,
+     * otherwise null.
+     */
+    private Map<String, AttributeCounter> collectChunk(Map<File, PendingFile> pendingFiles, ParsedChunk parsed) {
+        PendingFile pendingFile = pendingFiles.computeIfAbsent(parsed.file(), file -> new PendingFile(parsed.chunks()));
+        synchronized (pendingFile) {
+            pendingFile.remainingChunks--;
+            pendingFile.failed |= parsed.statistics() == null;
+            if (pendingFile.failed) {
+                pendingFile.statistics = null;
+            } else {
+                pendingFile.statistics = pendingFile.statistics == null
+                        ? parsed.statistics()
+                        : partialStatistics.merge(pendingFile.statistics, parsed.statistics());
+            }
+            if (pendingFile.remainingChunks > 0) {
+                return null;
+            }
+            pendingFiles.remove(parsed.file());
+            return pendingFile.statistics;
+        }
+    }
+
+    /**
+     * Reads a file for the parsers of the pipeline: every chunk of an uncompressed file is read into a buffer
+     * of the pool, while a compressed file or a file that can't be split is passed on without being read.
+     *
+     * @param file        The JSON file to read.
+     * @param bufferPool  The pool of buffers.
+     * @param chunksQueue The queue of the parsers.
+     * @throws IOException          If an error occurs while reading the file.
+     * @throws InterruptedException If the thread is interrupted while waiting for a buffer or the queue.
+     */
+    private void readIntoBuffers(File file, BufferPool bufferPool, StageQueue<PipelineChunk> chunksQueue)
+            throws IOException, InterruptedException {
+        List<FileChunk> chunks = Compression.of(file.getName()) == Compression.NONE ? reader.splitFile(file)
+                : List.of();
+        if (chunks.isEmpty()) {
+            chunksQueue.put(new PipelineChunk(new FileChunk(file, 0, file.length()), null, 1));
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (FileChunk chunk : chunks) {
+                ByteBuffer orders = bufferPool.acquire((int) chunk.length());
+                try {
+                    orders.limit((int) chunk.length());
+                    for (long position = chunk.start(); orders.hasRemaining(); ) {
+                        int count = channel.read(orders, position);
+                        if (count < 0) {
+                            throw new EOFException("The file " + file.getName() + " ended while it was read");
+                        }
+                        position += count;
+                    }
+                    chunksQueue.put(new PipelineChunk(chunk, orders.flip(), chunks.size()));
+                } catch (IOException | InterruptedException | RuntimeException e) {
+                    bufferPool.release(orders);
+                    throw e;
+                }
+            }
+        }
+    }
+}
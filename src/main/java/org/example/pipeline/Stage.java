@@ -0,0 +1,140 @@
+package org.example.pipeline;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stage is a step of a {@link Pipeline} run by a fixed number of threads that take the items of an input queue,
+ * handle them and usually put the results into the queue of the next stage. When the last thread of a stage
+ * has ended, the queues the stage feeds are closed.
+ * <p>
+ * The stage measures the time its threads spend, the time they wait for input, i.e. for an item of the input queue,
+ * and the time they wait for output, i.e. for space in the next queue or for a pooled buffer. The rest of the time
+ * is the time the stage is busy. A stage that is busy nearly all the time while the stages around it wait
+ * is the one that limits the throughput of the pipeline.
+ *
+ * @param <T> The type of the items the stage takes.
+ */
+public class Stage<T> {
+    private static final ThreadLocal<Stage<?>> CURRENT = new ThreadLocal<>();
+    private final String name;
+    private final int threads;
+    private final StageQueue<T> input;
+    private final Handler<T> handler;
+    private final List<StageQueue<?>> outputs;
+    private final AtomicInteger runningThreads;
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder inputWaitNanos = new LongAdder();
+    private final LongAdder outputWaitNanos = new LongAdder();
+
+    /**
+     * Handler of the items of a stage.
+     *
+     * @param <T> The type of the items.
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+
+        /**
+         * Handles an item.
+         *
+         * @param item The item taken from the input queue.
+         * @throws Exception If the item can't be handled, which stops the pipeline.
+         */
+        void handle(T item) throws Exception;
+    }
+
+    Stage(String name, int threads, StageQueue<T> input, Handler<T> handler, List<StageQueue<?>> outputs) {
+        this.name = name;
+        this.threads = threads;
+        this.input = input;
+        this.handler = handler;
+        this.outputs = List.copyOf(outputs);
+        this.runningThreads = new AtomicInteger(threads);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the share of the time of the threads of the stage they were busy handling items.
+     *
+     * @return The share from 0 to 1.
+     */
+    public double getUtilization() {
+        long total = totalNanos.sum();
+        return total == 0 ? 0 : Math.max(0, (double) (total - inputWaitNanos.sum() - outputWaitNanos.sum()) / total);
+    }
+
+    /**
+     * Returns the share of the time of the threads of the stage they waited for an item of the input queue.
+     *
+     * @return The share from 0 to 1.
+     */
+    public double getInputWait() {
+        long total = totalNanos.sum();
+        return total == 0 ? 0 : (double) inputWaitNanos.sum() / total;
+    }
+
+    /**
+     * Returns the share of the time of the threads of the stage they waited for space in the next queue
+     * or for a pooled buffer.
+     *
+     * @return The share from 0 to 1.
+     */
+    public double getOutputWait() {
+        long total = totalNanos.sum();
+        return total == 0 ? 0 : (double) outputWaitNanos.sum() / total;
+    }
+
+    /**
+     * Runs one thread of the stage until the input queue is closed and empty.
+     *
+     * @throws Exception If an item can't be handled or the thread is interrupted.
+     */
+    void run() throws Exception {
+        long startTime = System.nanoTime();
+        CURRENT.set(this);
+        try {
+            for (T item = input.take(); item != null; item = input.take()) {
+                handler.handle(item);
+            }
+        } finally {
+            CURRENT.remove();
+            totalNanos.add(System.nanoTime() - startTime);
+            if (runningThreads.decrementAndGet() == 0) {
+                outputs.forEach(StageQueue::close);
+            }
+        }
+    }
+
+    /**
+     * Counts the time since the start of a wait as a wait for input of the stage of the calling thread.
+     *
+     * @param startTime The time the wait started, from {@link System#nanoTime()}.
+     */
+    static void recordInputWait(long startTime) {
+        Stage<?> stage = CURRENT.get();
+        if (stage != null) {
+            stage.inputWaitNanos.add(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Counts the time since the start of a wait as a wait for output of the stage of the calling thread.
+     *
+     * @param startTime The time the wait started, from {@link System#nanoTime()}.
+     */
+    static void recordOutputWait(long startTime) {
+        Stage<?> stage = CURRENT.get();
+        if (stage != null) {
+            stage.outputWaitNanos.add(System.nanoTime() - startTime);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StageQueue is a bounded queue between two stages of a {@link Pipeline}. A producer that finds the queue full
+ * waits until a consumer has taken an item, so a slow stage holds back the stages in front of it.
+ * The queue records its depth after every operation, so that the average and the maximal number of waiting items
+ * show which side of the queue is the slower one: a queue that is mostly full waits for its consumers,
+ * a queue that is mostly empty for its producers.
+ * <p>
+ * Once the stage that feeds the queue has ended, the queue is closed, and every consumer gets null
+ * after the remaining items.
+ *
+ * @param <T> The type of the items.
+ */
+public class StageQueue<T> {
+    private static final Object END = new Object();
+    private final String name;
+    private final int capacity;
+    private final BlockingQueue<Object> items;
+    private final Semaphore freeSlots;
+    private final LongAdder depthSum = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private volatile int maxDepth;
+
+    /**
+     * Constructs a queue.
+     *
+     * @param name     The name of the queue, used in the summary of the pipeline.
+     * @param capacity The maximal number of waiting items.
+     */
+    public StageQueue(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+        this.items = new ArrayBlockingQueue<>(capacity + 1);
+        this.freeSlots = new Semaphore(capacity);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds an item, waiting while the queue is full. The time spent waiting is counted as a wait for output
+     * of the stage of the calling thread.
+     *
+     * @param item The item, not null.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public void put(T item) throws InterruptedException {
+        long startTime = System.nanoTime();
+        freeSlots.acquire();
+        Stage.recordOutputWait(startTime);
+        items.add(item);
+        recordDepth();
+    }
+
+    /**
+     * Takes the next item, waiting while the queue is empty. The time spent waiting is counted
+     * as a wait for input of the stage of the calling thread.
+     *
+     * @return The item, or null if the queue is closed and all items have been taken.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    @SuppressWarnings("unchecked")
+    public T take() throws InterruptedException {
+        long startTime = System.nanoTime();
+        Object item = items.take();
+        Stage.recordInputWait(startTime);
+        if (item == END) {
+            items.add(END);
+            return null;
+        }
+        freeSlots.release();
+        recordDepth();
+        return (T) item;
+    }
+
+    /**
+     * Closes the queue after the items that have been added. The end marker takes the place the queue keeps
+     * beyond its capacity, so closing never waits.
+     */
+    void close() {
+        items.add(END);
+    }
+
+    /**
+     * Returns the average number of waiting items seen by the operations on the queue.
+     *
+     * @return The average depth, 0 if no item has been added.
+     */
+    public double getAverageDepth() {
+        long count = operations.sum();
+        return count == 0 ? 0 : (double) depthSum.sum() / count;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    private void recordDepth() {
+        int depth = Math.min(items.size(), capacity);
+        depthSum.add(depth);
+        operations.increment();
+        if (depth > maxDepth) {
+            synchronized (this) {
+                maxDepth = Math.max(maxDepth, depth);
+            }
+        }
+    }
+}
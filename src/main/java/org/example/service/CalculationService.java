@@ -1,9 +1,11 @@
 package org.example.service;
 
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.OrderPrice;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -13,13 +15,108 @@ import java.util.Map;
 public interface CalculationService {
 
     /**
-     * Calculates the occurrences of a specific attribute from JSON data.
+     * Accumulates the occurrences of the current field from JSON data into the statistics of its attribute.
+     * Fields whose name is not one of the requested attributes are ignored.
+     * This method only updates the counts and doesn't sort them, so it is cheap enough
+     * to be called for every field of every order.
      *
-     * @param parser      The JSON parser object.
-     * @param attribute   The attribute to calculate occurrences for.
-     * @param jsonToken   The current JSON token being processed.
-     * @return A map containing the calculated statistics, sorted by values in descending order.
+     * @param parser     The JSON parser object, positioned at a field name.
+     * @param statistics The partial statistics owned by the caller by requested attribute, updated in place.
      * @throws IOException If an I/O error occurs during JSON parsing.
      */
-    Map<String, Integer> calculateAttributes(JsonParser parser, String attribute, JsonToken jsonToken) throws IOException;
+    void calculateAttributes(JsonParser parser, Map<String, AttributeCounter> statistics) throws IOException;
+
+    /**
+     * Accumulates the occurrences of the current field like {@link #calculateAttributes(JsonParser, Map)}
+     * and, if the field is the total price, keeps the price of the order until the order is completed.
+     *
+     * @param parser     The JSON parser object, positioned at a field name.
+     * @param statistics The partial statistics owned by the caller by requested attribute, updated in place.
+     * @param orderPrice The price of the current order owned by the caller, or null if prices are not aggregated.
+     * @throws IOException If an I/O error occurs during JSON parsing.
+     */
+    void calculateAttributes(JsonParser parser, Map<String, AttributeCounter> statistics, OrderPrice orderPrice)
+            throws IOException;
+
+    /**
+     * Accumulates one occurrence of a specific attribute from the raw UTF-8 bytes of its value.
+     * It produces the same counts as {@link #calculateAttributes(JsonParser, Map)}
+     * without creating a String for values that have already been counted.
+     *
+     * @param buffer     The buffer holding the value.
+     * @param start      The index of the first byte of the value.
+     * @param end        The index after the last byte of the value.
+     * @param attribute  The attribute the value belongs to.
+     * @param statistics The partial statistics owned by the caller, updated in place.
+     */
+    void calculateAttributes(ByteBuffer buffer, int start, int end, String attribute, AttributeCounter statistics);
+
+    /**
+     * Accumulates one occurrence of a specific attribute from a value that has already been read,
+     * e.g. a value held until the order it belongs to was accepted by a filter.
+     * It produces the same counts as {@link #calculateAttributes(JsonParser, Map)}.
+     *
+     * @param value      The value, not null.
+     * @param attribute  The attribute the value belongs to.
+     * @param statistics The partial statistics owned by the caller, updated in place.
+     */
+    void calculateAttributes(String value, String attribute, AttributeCounter statistics);
+
+    /**
+     * Accumulates several occurrences of a specific attribute from a value that has already been read,
+     * e.g. a value shared by several cached orders, with a single lookup per counted value.
+     * It produces the same counts as calling {@link #calculateAttributes(String, String, AttributeCounter)}
+     * as many times, but counts the value only once towards the price statistics, so it isn't meant for
+     * statistics that aggregate prices.
+     *
+     * @param value       The value, not null.
+     * @param occurrences The number of occurrences of the value.
+     * @param attribute   The attribute the value belongs to.
+     * @param statistics  The partial statistics owned by the caller, updated in place.
+     */
+    void calculateAttributes(String value, long occurrences, String attribute, AttributeCounter statistics);
+
+    /**
+     * Keeps the total price of the current order from the raw bytes of its value until the order is completed.
+     *
+     * @param buffer     The buffer holding the value.
+     * @param start      The index of the first byte of the value.
+     * @param end        The index after the last byte of the value.
+     * @param orderPrice The price of the current order owned by the caller.
+     */
+    void calculatePrice(ByteBuffer buffer, int start, int end, OrderPrice orderPrice);
+
+    /**
+     * Adds the price of the order that has just been read to the price statistics of every value counted
+     * for the order, and forgets the price.
+     *
+     * @param statistics The partial statistics owned by the caller by requested attribute, updated in place.
+     * @param orderPrice The price of the order.
+     */
+    void completeOrder(Map<String, AttributeCounter> statistics, OrderPrice orderPrice);
+
+    /**
+     * Finalizes the accumulated statistics by sorting them once.
+     *
+     * @param statistics The accumulated statistics.
+     * @return The calculated statistics, sorted by values in descending order.
+     */
+    AttributeCounter sortByDescendingValues(AttributeCounter statistics);
+
+    /**
+     * Finalizes the accumulated statistics by keeping only the values with the highest counts, sorted once.
+     *
+     * @param statistics The accumulated statistics.
+     * @param limit      The number of values to keep.
+     * @return The calculated statistics of the top values, sorted by values in descending order.
+     */
+    AttributeCounter sortByDescendingValues(AttributeCounter statistics, int limit);
+
+    /**
+     * Describes the options that change which values are counted for a field, e.g. the separators
+     * of multi-valued attributes, so that statistics counted with other options aren't reused.
+     *
+     * @return The options in a stable order, empty if values are counted as they are.
+     */
+    String describeCountingOptions();
 }
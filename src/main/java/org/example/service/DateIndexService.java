@@ -0,0 +1,26 @@
+package org.example.service;
+
+import org.example.model.FileDates;
+
+import java.util.Map;
+
+/**
+ * This service interface defines methods for storing the minimal and the maximal order date of every file
+ * between runs, so that the files whose orders are all outside the requested date range don't have to be opened.
+ */
+public interface DateIndexService {
+
+    /**
+     * Loads the date index saved by previous runs.
+     *
+     * @return The dates of every indexed file by its absolute path, or an empty map if there is no usable index.
+     */
+    Map<String, FileDates> load();
+
+    /**
+     * Saves the date index next to the statistics files, replacing the previous one.
+     *
+     * @param index The dates of every indexed file by its absolute path.
+     */
+    void save(Map<String, FileDates> index);
+}
@@ -1,5 +1,8 @@
 package org.example.service;
 
+import org.example.aggregation.AttributeCounter;
+
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,19 +12,23 @@ import java.util.Map;
 public interface FileOperationService {
 
     /**
-     * Reads statistics from JSON files within a specified folder for a given attribute.
+     * Reads statistics from JSON files within a specified folder for the given attributes.
+     * Every file is parsed once, no matter how many attributes are requested.
+     * Files or orders that can't be read either stop the reading or are left out, depending on the error policy;
+     * the ones that are left out are listed in a manifest next to the statistics files.
      *
      * @param folderPath The path to the folder containing JSON files.
-     * @param attribute  The attribute to calculate statistics for.
-     * @return A map containing attribute values and their corresponding counts.
+     * @param attributes The attributes to calculate statistics for.
+     * @return The values of every attribute and their corresponding counts, sorted by counts in descending order,
+     *         in the order of the requested attributes.
      */
-    Map<String, Integer> readFromFile(String folderPath, String attribute);
+    Map<String, AttributeCounter> readFromFile(String folderPath, List<String> attributes);
 
     /**
-     * Saves statistics to an XML file based on the provided map of attribute counts.
+     * Saves statistics to an XML file based on the provided attribute counts.
      *
-     * @param statistics A map containing attribute values and their corresponding counts.
+     * @param statistics The attribute values and their corresponding counts.
      * @param attribute  The attribute being analyzed.
      */
-    void saveToFile(Map<String, Integer> statistics, String attribute);
+    void saveToFile(AttributeCounter statistics, String attribute);
 }
@@ -0,0 +1,33 @@
+package org.example.service;
+
+import org.example.cache.OrderColumns;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This service interface defines methods for keeping the orders of a folder in a columnar cache between runs,
+ * so that repeated queries over the same folder don't parse the JSON files again.
+ */
+public interface OrderCacheService {
+
+    /**
+     * Opens the cache of a folder if it is up to date: it was built from exactly the specified files,
+     * none of which has changed since.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files currently in the folder.
+     * @return The cached orders, or an empty optional if there is no up-to-date cache.
+     */
+    Optional<OrderColumns> load(String folderPath, List<File> files);
+
+    /**
+     * Reads all orders of the files into a new cache of the folder, replacing the previous one.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files currently in the folder.
+     * @return The cached orders, or an empty optional if the orders have values that can't be cached.
+     */
+    Optional<OrderColumns> ingest(String folderPath, List<File> files);
+}
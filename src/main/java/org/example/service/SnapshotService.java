@@ -0,0 +1,38 @@
+package org.example.service;
+
+import org.example.model.StatisticsSnapshot;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This service interface defines methods for storing the partial statistics of every file between runs,
+ * so that a later run only has to read the files that were added or changed.
+ */
+public interface SnapshotService {
+
+    /**
+     * Loads the snapshot of a previous run over the same folder and attributes.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param attributes The attributes the statistics are calculated for.
+     * @return The snapshot, or an empty optional if there is no usable snapshot.
+     */
+    Optional<StatisticsSnapshot> load(String folderPath, List<String> attributes);
+
+    /**
+     * Saves the snapshot next to the statistics files, replacing the previous one.
+     *
+     * @param snapshot The snapshot to save.
+     */
+    void save(StatisticsSnapshot snapshot);
+
+    /**
+     * Calculates the hash of the file content, used to recognize files that were touched but not changed.
+     *
+     * @param file The file to hash.
+     * @return The hash of the file content.
+     */
+    long calculateContentHash(File file);
+}
@@ -1,7 +1,7 @@
 package org.example.service;
 
 /**
- * This service interface defines a method for processing statistics.
+ * This service interface defines methods for processing statistics.
  */
 public interface StatisticsProcessorService {
 
@@ -10,4 +10,13 @@ public interface StatisticsProcessorService {
      * and saving them to files.
      */
     void processStatistics();
+
+    /**
+     * Processes statistics without asking the user, for the folder and attributes given as arguments.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param attributes The attribute names, several attributes can be separated by comma.
+     * @throws IllegalArgumentException If the folder doesn't exist or an attribute isn't a field of an order.
+     */
+    void processStatistics(String folderPath, String attributes);
 }
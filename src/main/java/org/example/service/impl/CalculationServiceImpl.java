@@ -2,66 +2,190 @@ package org.example.service.impl;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.DateBucket;
+import org.example.aggregation.MultiValuedAttribute;
+import org.example.aggregation.OrderPrice;
 import org.example.lib.Service;
+import org.example.parser.DateParser;
 import org.example.service.CalculationService;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.example.util.PropertiesUtil.getDateBucket;
+import static org.example.util.PropertiesUtil.getMultiValuedAttributes;
 
 /**
  * Implementation of the CalculationService interface for performing attribute calculations.
+ * The service is stateless: counts are accumulated into the statistics passed by the caller,
+ * so every file can be processed into its own partial statistics without sharing a map between threads.
+ * JSON null values are not counted.
+ * The values of multi-valued attributes, e.g. the products of the description, are split by their separator
+ * in place and counted one by one.
+ * If a date bucket is selected, valid dates are counted by the key of their bucket, which is written
+ * into a buffer of the calling thread, so no String is created for a date; other values of the date attribute
+ * are counted as they are.
  */
 @Service
 public class CalculationServiceImpl implements CalculationService {
-    private final static String ATTRIBUTE_WITH_SEVERAL_VALUES = "description";
-    private final Map<String, Integer> statistics;
+    private static final ThreadLocal<ByteBuffer> BUCKET_KEYS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(DateBucket.MAX_KEY_LENGTH));
+    private final DateBucket dateBucket;
+    private final Map<String, MultiValuedAttribute> multiValuedAttributes;
 
     public CalculationServiceImpl() {
-        statistics = new ConcurrentHashMap<>();
+        this(getDateBucket(), getMultiValuedAttributes());
+    }
+
+    CalculationServiceImpl(DateBucket dateBucket, Map<String, MultiValuedAttribute> multiValuedAttributes) {
+        this.dateBucket = dateBucket;
+        this.multiValuedAttributes = multiValuedAttributes;
+    }
+
+    @Override
+    public void calculateAttributes(JsonParser parser, Map<String, AttributeCounter> statistics)
+            throws IOException {
+        calculateAttributes(parser, statistics, null);
     }
 
     @Override
-    public Map<String, Integer> calculateAttributes(JsonParser parser, String attribute, JsonToken jsonToken) throws IOException {
+    public void calculateAttributes(JsonParser parser, Map<String, AttributeCounter> statistics,
+                                    OrderPrice orderPrice) throws IOException {
         String fieldName = parser.getCurrentName();
-        jsonToken = parser.nextToken();
+        JsonToken valueToken = parser.nextToken();
+        if (orderPrice != null && fieldName.equals(OrderPrice.FIELD_NAME) && valueToken.isScalarValue()
+                && valueToken != JsonToken.VALUE_NULL) {
+            orderPrice.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        AttributeCounter attributeStatistics = statistics.get(fieldName);
 
-        if (fieldName.equals(attribute)) {
-           if (attribute.equals(ATTRIBUTE_WITH_SEVERAL_VALUES)) {
-               divideAttribute(parser);
-           } else {
+        if (attributeStatistics != null) {
+           MultiValuedAttribute multiValuedAttribute = multiValuedAttributes.get(fieldName);
+           if (multiValuedAttribute != null) {
+               divideAttribute(parser, valueToken, multiValuedAttribute, attributeStatistics);
+           } else if (!isBucketed(fieldName) || valueToken != JsonToken.VALUE_STRING
+                   || !incrementBucket(DateParser.parse(parser.getTextCharacters(), parser.getTextOffset(),
+                   parser.getTextLength()), attributeStatistics)) {
                String attributeValue = parser.getValueAsString();
-               statistics.merge(attributeValue, 1, Integer::sum);
+               if (attributeValue != null) {
+                   attributeStatistics.increment(attributeValue);
+               }
            }
         }
-        return sortByDescendingValues();
+    }
+
+    @Override
+    public void calculateAttributes(ByteBuffer buffer, int start, int end, String attribute,
+                                    AttributeCounter statistics) {
+        MultiValuedAttribute multiValuedAttribute = multiValuedAttributes.get(attribute);
+        if (multiValuedAttribute != null) {
+            multiValuedAttribute.count(buffer, start, end, statistics);
+        } else if (!isBucketed(attribute) || !incrementBucket(DateParser.parse(buffer, start, end), statistics)) {
+            statistics.increment(buffer, start, end);
+        }
+    }
+
+    @Override
+    public void calculateAttributes(String value, String attribute, AttributeCounter statistics) {
+        MultiValuedAttribute multiValuedAttribute = multiValuedAttributes.get(attribute);
+        if (multiValuedAttribute != null) {
+            multiValuedAttribute.count(value, statistics);
+        } else if (!isBucketed(attribute) || !incrementBucket(DateParser.parse(value), statistics)) {
+            statistics.increment(value);
+        }
+    }
+
+    @Override
+    public void calculateAttributes(String value, long occurrences, String attribute, AttributeCounter statistics) {
+        MultiValuedAttribute multiValuedAttribute = multiValuedAttributes.get(attribute);
+        if (multiValuedAttribute != null) {
+            multiValuedAttribute.count(value, occurrences, statistics);
+            return;
+        }
+        int date = isBucketed(attribute) ? DateParser.parse(value) : DateParser.NO_DATE;
+        if (date == DateParser.NO_DATE) {
+            statistics.add(value, occurrences);
+            return;
+        }
+        byte[] key = BUCKET_KEYS.get().array();
+        statistics.add(new String(key, 0, dateBucket.writeKey(date, key), StandardCharsets.US_ASCII), occurrences);
+    }
+
+    @Override
+    public void calculatePrice(ByteBuffer buffer, int start, int end, OrderPrice orderPrice) {
+        orderPrice.parse(buffer, start, end);
+    }
+
+    @Override
+    public void completeOrder(Map<String, AttributeCounter> statistics, OrderPrice orderPrice) {
+        for (AttributeCounter attributeStatistics : statistics.values()) {
+            attributeStatistics.completeOrder(orderPrice);
+        }
+        orderPrice.clear();
+    }
+
+    @Override
+    public AttributeCounter sortByDescendingValues(AttributeCounter statistics) {
+        return statistics.sortByDescendingCount();
+    }
+
+    @Override
+    public AttributeCounter sortByDescendingValues(AttributeCounter statistics, int limit) {
+        return statistics.sortByDescendingCount(limit);
+    }
+
+    @Override
+    public String describeCountingOptions() {
+        return multiValuedAttributes.values().stream()
+                .map(MultiValuedAttribute::toString)
+                .sorted()
+                .collect(Collectors.joining(" "));
+    }
+
+    private boolean isBucketed(String attribute) {
+        return dateBucket != DateBucket.NONE && attribute.equals(DateBucket.FIELD_NAME);
     }
 
     /**
-     * Divides the attribute value obtained from the JSON parser by comma and updates
-     * the statistics map with the count of each value.
+     * Counts a date by the key of its bucket.
      *
-     * @param parser The JSON parser used to extract attribute values.
-     * @throws IOException If an I/O error occurs while parsing the JSON.
+     * @param date       The packed date, or {@value DateParser#NO_DATE} if the value isn't a valid date.
+     * @param statistics The statistics to update.
+     * @return True if the date was counted, false if it isn't a valid date.
      */
-    private void divideAttribute(JsonParser parser) throws IOException {
-        String attributeValue = parser.getValueAsString();
-        Arrays.stream(attributeValue.split(","))
-                .map(String::trim)
-                .forEach(value -> statistics.merge(value, 1, Integer::sum));
+    private boolean incrementBucket(int date, AttributeCounter statistics) {
+        if (date == DateParser.NO_DATE) {
+            return false;
+        }
+        ByteBuffer key = BUCKET_KEYS.get();
+        statistics.increment(key, 0, dateBucket.writeKey(date, key.array()));
+        return true;
     }
 
     /**
-     * Sorts the statistics map by values in descending order.
+     * Divides the attribute value obtained from the JSON parser by the separator of the attribute and updates
+     * the statistics with the count of each value. A string value is divided in the text buffer of the parser.
      *
-     * @return A sorted map with entries sorted by values in descending order.
+     * @param parser               The JSON parser used to extract attribute values.
+     * @param valueToken           The token of the value.
+     * @param multiValuedAttribute The attribute the value belongs to.
+     * @param statistics           The statistics to update.
+     * @throws IOException If an I/O error occurs while parsing the JSON.
      */
-    private Map<String, Integer> sortByDescendingValues() {
-        return statistics.entrySet().stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()), Map::putAll);
+    private void divideAttribute(JsonParser parser, JsonToken valueToken, MultiValuedAttribute multiValuedAttribute,
+                                 AttributeCounter statistics) throws IOException {
+        if (valueToken == JsonToken.VALUE_STRING) {
+            multiValuedAttribute.count(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength(),
+                    statistics);
+            return;
+        }
+        String attributeValue = parser.getValueAsString();
+        if (attributeValue != null) {
+            multiValuedAttribute.count(attributeValue, statistics);
+        }
     }
 }
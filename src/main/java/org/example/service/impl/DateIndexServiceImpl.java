@@ -0,0 +1,90 @@
+package org.example.service.impl;
+
+import org.example.exception.CustomFileException;
+import org.example.lib.Service;
+import org.example.model.FileDates;
+import org.example.service.DateIndexService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.util.FileConstantsUtil.*;
+
+/**
+ * Implementation of the DateIndexService interface that keeps the index in a binary sidecar file
+ * named date_index.bin in the results folder. The file starts with a format version, followed by the path,
+ * size, modification time and the minimal and maximal packed date of every indexed file.
+ */
+@Service
+public class DateIndexServiceImpl implements DateIndexService {
+    private static final int FORMAT_VERSION = 1;
+    private final String indexFolder;
+
+    public DateIndexServiceImpl() {
+        this(DEFAULT_PATH_FOR_RESULTS);
+    }
+
+    DateIndexServiceImpl(String indexFolder) {
+        this.indexFolder = indexFolder;
+    }
+
+    @Override
+    public Map<String, FileDates> load() {
+        Path indexPath = Paths.get(indexFolder, DATE_INDEX_FILE_NAME);
+        Map<String, FileDates> index = new HashMap<>();
+        if (!Files.isRegularFile(indexPath)) {
+            return index;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported date index format");
+            }
+            int filesNumber = input.readInt();
+            for (int i = 0; i < filesNumber; i++) {
+                index.put(input.readUTF(), new FileDates(input.readLong(), input.readLong(),
+                        input.readInt(), input.readInt()));
+            }
+            return index;
+        } catch (IOException e) {
+            System.err.println("The date index " + indexPath + " can't be read, all files will be read");
+            return new HashMap<>();
+        }
+    }
+
+    @Override
+    public void save(Map<String, FileDates> index) {
+        Path indexPath = Paths.get(indexFolder, DATE_INDEX_FILE_NAME);
+
+        try {
+            Files.createDirectories(indexPath.toAbsolutePath().getParent());
+            Path temporaryPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(),
+                    indexPath.getFileName().toString(), null);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporaryPath)))) {
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(index.size());
+                for (Map.Entry<String, FileDates> entry : index.entrySet()) {
+                    FileDates dates = entry.getValue();
+                    output.writeUTF(entry.getKey());
+                    output.writeLong(dates.getSize());
+                    output.writeLong(dates.getLastModified());
+                    output.writeInt(dates.getMinDate());
+                    output.writeInt(dates.getMaxDate());
+                }
+            }
+            Files.move(temporaryPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while saving the date index " + indexPath, e);
+        }
+    }
+}
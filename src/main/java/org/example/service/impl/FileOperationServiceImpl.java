@@ -1,17 +1,28 @@
 package org.example.service.impl;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.AttributeSketch;
+import org.example.aggregation.PartialStatistics;
+import org.example.cache.OrderColumns;
+import org.example.cache.OrderColumnsReader;
 import org.example.exception.CustomFileException;
-import org.example.exception.ExecutorTimeoutException;
+import org.example.filter.DateSpan;
 import org.example.lib.Inject;
 import org.example.lib.Service;
-import org.example.model.Item;
-import org.example.model.Statistics;
+import org.example.metrics.RunMetrics;
+import org.example.model.FileDates;
+import org.example.parser.Compression;
+import org.example.parser.FailureIsolation;
+import org.example.parser.OrderFileReader;
+import org.example.pipeline.PipelineReader;
 import org.example.service.CalculationService;
+import org.example.service.DateIndexService;
 import org.example.service.FileOperationService;
+import org.example.service.OrderCacheService;
+import org.example.service.SnapshotService;
+import org.example.util.ExecutionMode;
+import org.example.util.StatisticsOptions;
 
 import java.io.File;
 import java.io.IOException;
@@ -20,10 +31,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.example.util.FileConstantsUtil.*;
@@ -31,87 +44,158 @@ import static org.example.util.SingletonObjectsUtil.*;
 
 /**
  * Implementation of the FileOperationService interface for reading statistics from files
- * and saving statistics to files.
+ * and saving statistics to files. The orders are read from the columnar cache, by the pool of the shared executor,
+ * incrementally against the snapshot of the previous run or by a pipeline, depending on the settings of the run.
  */
 @Service
 public class FileOperationServiceImpl implements FileOperationService {
-    private Map<String, Integer> statistics;
+    private final StatisticsOptions options;
     private final XmlMapper xmlMapper;
     private final ExecutorService executor;
+    private final RunMetrics metrics;
+    private final PartialStatistics partialStatistics;
+    private final StatisticsWriter statisticsWriter;
     @Inject
-    private CalculationService calculateService;
+    CalculationService calculateService;
+    @Inject
+    SnapshotService snapshotService;
+    @Inject
+    DateIndexService dateIndexService;
+    @Inject
+    OrderCacheService orderCacheService;
 
     public FileOperationServiceImpl() {
-        this.executor = getExecutorService();
-        this.xmlMapper = getXmlMapper();
-        statistics = new HashMap<>();
+        this(StatisticsOptions.fromProperties(), getXmlMapper(), getExecutorService(), getRunMetrics());
     }
 
-    @Override
-    public Map<String, Integer> readFromFile(String folderPath, String attribute) {
-        getFilesFromFolder(folderPath).forEach(file -> executor.submit(() -> readFileByLine(file, attribute)));
-        executor.shutdown();
+    FileOperationServiceImpl(StatisticsOptions options, XmlMapper xmlMapper, ExecutorService executor,
+                             RunMetrics metrics) {
+        this.options = options;
+        this.xmlMapper = xmlMapper;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.partialStatistics = new PartialStatistics(options, metrics);
+        this.statisticsWriter = new StatisticsWriter(options, xmlMapper, metrics);
+    }
 
-        try {
-            if (!executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
-                throw new RuntimeException("Executor did not terminate within the specified time limit.");
+    @Override
+    public Map<String, AttributeCounter> readFromFile(String folderPath, List<String> requestedAttributes) {
+        List<String> attributes = List.copyOf(new LinkedHashSet<>(requestedAttributes));
+        List<File> files = getFilesFromFolder(folderPath);
+        OrderColumnsReader columnsReader = new OrderColumnsReader(options, executor, orderCacheService,
+                calculateService, partialStatistics, metrics);
+        Optional<OrderColumns> cachedOrders = options.cacheEnabled()
+                ? columnsReader.load(folderPath, files, attributes)
+                : Optional.empty();
+        OrderFileReader reader = new OrderFileReader(options, calculateService, partialStatistics, metrics);
+        FailureIsolation isolation = new FailureIsolation(options, reader, xmlMapper, metrics);
+        List<Map<String, AttributeCounter>> fileStatistics = cachedOrders.isPresent()
+                ? columnsReader.read(cachedOrders.get(), attributes)
+                : readFolder(folderPath, files, attributes, reader, isolation);
+        isolation.saveManifest();
+
+        Map<String, AttributeCounter> statistics = partialStatistics.mergeAll(fileStatistics)
+                .orElseGet(() -> partialStatistics.create(attributes));
+        int topLimit = options.topLimit();
+        statistics.replaceAll((attribute, counter) -> topLimit > 0
+                ? calculateService.sortByDescendingValues(counter, topLimit)
+                : calculateService.sortByDescendingValues(counter));
+        statistics.forEach((attribute, counter) -> {
+            if (counter.getMaxError() > 0) {
+                System.out.printf("Statistics by %s are approximate: every count may be lower than the real one"
+                        + " by at most %d%n", attribute, counter.getMaxError());
             }
-        } catch (Exception e) {
-            throw new ExecutorTimeoutException(e.getMessage());
-        }
+            AttributeSketch sketch = counter.getSketch();
+            if (sketch != null) {
+                System.out.printf("Statistics by %s: about %d distinct values among %d values%n",
+                        attribute, sketch.estimateDistinct(), sketch.getTotal());
+            }
+        });
         return statistics;
     }
 
     @Override
-    public void saveToFile(Map<String, Integer> statistics, String attribute) {
-        List<Item> itemList = statistics.entrySet().stream()
-                .map(entry -> new Item(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
-
-        if (!itemList.isEmpty()) {
-            Statistics stats = new Statistics(itemList);
-
-            try {
-                xmlMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    public void saveToFile(AttributeCounter statistics, String attribute) {
+        statisticsWriter.save(statistics, attribute);
+    }
 
-                xmlMapper.writeValue(new File(String.format(
-                        "%s%s%s%s", DEFAULT_PATH_FOR_RESULTS, FILE_NAME_PREFIX, attribute, XML_FILE_EXTENSION)), stats);
-            } catch (IOException e) {
-                throw new CustomFileException("An error occurred while saving statistics to file.", e);
-            }
+    /**
+     * Reads the JSON files of a folder, skipping the files the date index rules out and, in the incremental mode,
+     * the files that are unchanged since the previous run. The files are read incrementally, by a pipeline
+     * or by the pool, in this order of precedence.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files in the folder.
+     * @param attributes The attributes to calculate statistics for.
+     * @param reader     The reader of the files and chunks.
+     * @param isolation  The failure isolation of the run.
+     * @return The partial statistics of every file by attribute.
+     */
+    private List<Map<String, AttributeCounter>> readFolder(String folderPath, List<File> files,
+                                                           List<String> attributes, OrderFileReader reader,
+                                                           FailureIsolation isolation) {
+        boolean bounded = options.dateRange().isBounded();
+        Map<String, FileDates> dateIndex = bounded ? dateIndexService.load() : null;
+        Map<File, DateSpan> dateSpans = bounded ? new HashMap<>() : null;
+        List<File> remainingFiles = bounded ? pruneFiles(files, dateIndex) : files;
+        PooledReader pooledReader = new PooledReader(options, executor, reader, isolation, partialStatistics);
+        List<Map<String, AttributeCounter>> fileStatistics = options.incremental()
+                ? new IncrementalReader(options, snapshotService, calculateService, pooledReader, isolation)
+                .read(folderPath, remainingFiles, attributes, dateSpans)
+                : options.executionMode() == ExecutionMode.PIPELINE
+                ? new PipelineReader(options, reader, isolation, partialStatistics)
+                .read(remainingFiles, attributes, dateSpans)
+                : pooledReader.read(remainingFiles, attributes, dateSpans);
+        if (bounded) {
+            Set<String> failedFiles = isolation.getFailedFiles();
+            dateSpans.keySet().removeIf(file -> failedFiles.contains(file.getPath()));
+            updateDateIndex(dateIndex, dateSpans);
         }
+        return fileStatistics;
     }
 
     /**
-     * Reads a JSON file line by line, extracting attribute values and updating statistics.
+     * Drops the files whose orders are all outside the date range according to the date index.
+     * Only index entries of files with an unchanged size and modification time are trusted.
      *
-     * @param file      The JSON file to read.
-     * @param attribute The attribute to calculate statistics for.
+     * @param files     The JSON files in the folder.
+     * @param dateIndex The dates of the indexed files by their absolute paths.
+     * @return The files that may contain orders in the date range.
      */
-    private void readFileByLine(File file, String attribute) {
-        try (JsonParser parser = getJsonFactory().createParser(file)) {
-            while (!parser.isClosed()) {
-                JsonToken jsonToken = parser.nextToken();
-
-                if (jsonToken == null) {
-                    break;
-                }
-
-                if (JsonToken.START_OBJECT.equals(jsonToken)) {
-                    while (!JsonToken.END_OBJECT.equals(parser.nextToken())) {
-                        if (parser.getCurrentToken() == JsonToken.FIELD_NAME) {
-                            statistics = calculateService.calculateAttributes(parser, attribute, jsonToken);
-                        }
-                    }
-                }
-            }
-        } catch (IOException e) {
-            throw new CustomFileException("An error occurred while reading values from the file.", e);
+    private List<File> pruneFiles(List<File> files, Map<String, FileDates> dateIndex) {
+        List<File> remainingFiles = files.stream()
+                .filter(file -> {
+                    FileDates dates = dateIndex.get(IncrementalReader.getSnapshotKey(file));
+                    return dates == null || dates.getSize() != file.length()
+                            || dates.getLastModified() != file.lastModified()
+                            || options.dateRange().overlaps(dates.getMinDate(), dates.getMaxDate());
+                })
+                .collect(Collectors.toList());
+        if (remainingFiles.size() < files.size()) {
+            System.out.printf("%d of %d files skipped, none of their orders has a %s%n",
+                    files.size() - remainingFiles.size(), files.size(), options.dateRange());
         }
+        return remainingFiles;
     }
 
     /**
-     * Retrieves a list of files from the specified folder path that have the JSON file extension.
+     * Puts the dates of the files read by this call into the date index, drops the entries of files
+     * that no longer exist and saves the index.
+     *
+     * @param dateIndex The dates of the indexed files by their absolute paths.
+     * @param dateSpans The date spans of the read files.
+     */
+    private void updateDateIndex(Map<String, FileDates> dateIndex, Map<File, DateSpan> dateSpans) {
+        dateSpans.forEach((file, dateSpan) -> dateIndex.put(IncrementalReader.getSnapshotKey(file),
+                new FileDates(file.length(), file.lastModified(), dateSpan.getMinDate(), dateSpan.getMaxDate())));
+        dateIndex.keySet().removeIf(path -> !Files.isRegularFile(Paths.get(path)));
+        dateIndexService.save(dateIndex);
+    }
+
+    /**
+     * Retrieves a list of files from the specified folder path that have the JSON file extension
+     * or the extension of newline-delimited JSON, optionally followed by the extension of a compression,
+     * e.g. {@code .json.gz}.
      *
      * @param folderPath The path to the folder containing JSON files.
      * @return A list of File objects representing JSON files in the folder.
@@ -124,7 +208,7 @@ public class FileOperationServiceImpl implements FileOperationService {
         try (var stream = Files.walk(directory)) {
             stream
                     .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().endsWith(JSON_FILE_EXTENSION))
+                    .filter(FileOperationServiceImpl::isJsonFile)
                     .forEach(path -> files.add(path.toFile()));
         } catch (IOException e) {
             throw new CustomFileException("An error occurred while searching for files." +
@@ -132,4 +216,11 @@ public class FileOperationServiceImpl implements FileOperationService {
         }
         return files;
     }
+
+    private static boolean isJsonFile(Path path) {
+        String fileName = path.getFileName().toString();
+        String contentName = Compression.of(fileName).stripExtension(fileName);
+        return contentName.endsWith(JSON_FILE_EXTENSION) || contentName.endsWith(NDJSON_FILE_EXTENSION)
+                || contentName.endsWith(JSON_LINES_FILE_EXTENSION);
+    }
 }
@@ -0,0 +1,153 @@
+package org.example.service.impl;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.DateBucket;
+import org.example.aggregation.PartialStatistics;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+import org.example.filter.DateSpan;
+import org.example.model.FileSnapshot;
+import org.example.model.StatisticsSnapshot;
+import org.example.parser.FailureIsolation;
+import org.example.service.CalculationService;
+import org.example.service.SnapshotService;
+import org.example.util.StatisticsOptions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * IncrementalReader reads only the order files that changed since the previous run, with a {@link PooledReader},
+ * and takes the partial statistics of the other files from the snapshot of that run.
+ */
+class IncrementalReader {
+    private final int counterCapacity;
+    private final boolean sketchEnabled;
+    private final boolean priceEnabled;
+    private final DateBucket dateBucket;
+    private final DateRange dateRange;
+    private final List<Condition> filterConditions;
+    private final SnapshotService snapshotService;
+    private final CalculationService calculateService;
+    private final PooledReader pooledReader;
+    private final FailureIsolation isolation;
+
+    IncrementalReader(StatisticsOptions options, SnapshotService snapshotService, CalculationService calculateService,
+                      PooledReader pooledReader, FailureIsolation isolation) {
+        this.counterCapacity = options.counterCapacity();
+        this.sketchEnabled = options.sketchEnabled();
+        this.priceEnabled = options.priceEnabled();
+        this.dateBucket = options.dateBucket();
+        this.dateRange = options.dateRange();
+        this.filterConditions = options.filterConditions();
+        this.snapshotService = snapshotService;
+        this.calculateService = calculateService;
+        this.pooledReader = pooledReader;
+        this.isolation = isolation;
+    }
+
+    /**
+     * Reads only the files that were added or changed since the previous run and takes the partial statistics
+     * of the other files from the snapshot of that run. A file whose size and modification time are unchanged
+     * is not opened at all; a file that was only touched is recognized by its content hash and is not parsed.
+     * Files that were removed from the folder are dropped from the snapshot, and the updated snapshot is saved.
+     * The returned partial statistics are copies, so merging them doesn't change the saved snapshot.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param files      The JSON files currently in the folder.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpans  The map the date spans of the read files are put to, or null if orders aren't filtered by date.
+     * @return The partial statistics of every file by attribute, in the order of the files. Files that couldn't
+     * be read are left out of the snapshot, so that they are read again by the next run.
+     */
+    List<Map<String, AttributeCounter>> read(String folderPath, List<File> files, List<String> attributes,
+                                             Map<File, DateSpan> dateSpans) {
+        Map<String, FileSnapshot> previousFiles = snapshotService.load(folderPath, attributes)
+                .filter(snapshot -> snapshot.getCounterCapacity() == counterCapacity
+                        && snapshot.isSketchEnabled() == sketchEnabled
+                        && snapshot.isPriceEnabled() == priceEnabled
+                        && snapshot.getOptions().equals(getSnapshotOptions()))
+                .map(StatisticsSnapshot::getFiles)
+                .orElseGet(Map::of);
+        Map<String, FileSnapshot> currentFiles = new LinkedHashMap<>();
+        Map<File, Long> contentHashes = files.parallelStream()
+                .filter(file -> !isUnchanged(file, previousFiles.get(getSnapshotKey(file))))
+                .collect(Collectors.toConcurrentMap(file -> file, snapshotService::calculateContentHash));
+        List<File> changedFiles = new ArrayList<>();
+
+        for (File file : files) {
+            String key = getSnapshotKey(file);
+            FileSnapshot previous = previousFiles.get(key);
+            Long contentHash = contentHashes.get(file);
+            if (contentHash == null) {
+                currentFiles.put(key, previous);
+            } else if (previous != null && previous.getSize() == file.length()
+                    && previous.getContentHash() == contentHash) {
+                currentFiles.put(key, new FileSnapshot(file.length(), file.lastModified(), contentHash,
+                        previous.getStatistics()));
+            } else {
+                currentFiles.put(key, null);
+                changedFiles.add(file);
+            }
+        }
+
+        List<Map<String, AttributeCounter>> changedStatistics = pooledReader.read(changedFiles, attributes, dateSpans);
+        for (int i = 0; i < changedFiles.size(); i++) {
+            File file = changedFiles.get(i);
+            currentFiles.put(getSnapshotKey(file), new FileSnapshot(file.length(), file.lastModified(),
+                    contentHashes.get(file), changedStatistics.get(i)));
+        }
+        System.out.printf("%d of %d files read, %d files taken from the snapshot%n",
+                changedFiles.size(), files.size(), files.size() - changedFiles.size());
+        Map<String, FileSnapshot> snapshotFiles = new LinkedHashMap<>(currentFiles);
+        Set<String> failedFiles = isolation.getFailedFiles();
+        changedFiles.stream()
+                .filter(file -> failedFiles.contains(file.getPath()))
+                .forEach(file -> snapshotFiles.remove(getSnapshotKey(file)));
+        snapshotService.save(new StatisticsSnapshot(folderPath, attributes, counterCapacity, sketchEnabled,
+                priceEnabled, getSnapshotOptions(), snapshotFiles));
+
+        return currentFiles.values().stream()
+                .map(fileSnapshot -> PartialStatistics.copy(fileSnapshot.getStatistics()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Describes the options that change which values are counted, so that a snapshot taken with other options
+     * isn't used.
+     *
+     * @return The description of the date bucket, the date range, the filter conditions and the multi-valued
+     * attributes.
+     */
+    private String getSnapshotOptions() {
+        return "bucket=" + dateBucket + ";range=" + dateRange + ";filter=" + filterConditions
+                + ";multi-valued=" + calculateService.describeCountingOptions();
+    }
+
+    /**
+     * Checks whether a file has the same size and modification time as in the snapshot of the previous run.
+     *
+     * @param file     The JSON file.
+     * @param previous The snapshot of the file, or null if the file is new.
+     * @return True if the file can be taken from the snapshot without opening it, otherwise false.
+     */
+    private static boolean isUnchanged(File file, FileSnapshot previous) {
+        return previous != null && previous.getSize() == file.length()
+                && previous.getLastModified() == file.lastModified();
+    }
+
+    /**
+     * Returns the key of a file in the snapshot and the date index.
+     *
+     * @param file The JSON file.
+     * @return The absolute, normalized path of the file.
+     */
+    static String getSnapshotKey(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+}
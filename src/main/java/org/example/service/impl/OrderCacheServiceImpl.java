@@ -0,0 +1,181 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.example.cache.OrderColumns;
+import org.example.cache.OrderColumnsBuilder;
+import org.example.exception.CustomFileException;
+import org.example.exception.ExecutorTimeoutException;
+import org.example.lib.Service;
+import org.example.parser.Compression;
+import org.example.service.OrderCacheService;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.example.util.FileConstantsUtil.CACHE_FOLDER_NAME;
+import static org.example.util.FileConstantsUtil.DEFAULT_PATH_FOR_RESULTS;
+import static org.example.util.SingletonObjectsUtil.getExecutorService;
+import static org.example.util.SingletonObjectsUtil.getJsonFactory;
+
+/**
+ * Implementation of the OrderCacheService interface that keeps the cache of every folder in a folder
+ * of its own under results/cache, named by the hash of the absolute path of the source folder.
+ * The files are read in parallel, each into its own columns, which are appended in the order of the files.
+ * A new cache is written into a temporary folder that replaces the previous cache once it is complete.
+ */
+@Service
+public class OrderCacheServiceImpl implements OrderCacheService {
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+    private final String cacheFolder;
+    private final ExecutorService executor;
+
+    public OrderCacheServiceImpl() {
+        this(DEFAULT_PATH_FOR_RESULTS + CACHE_FOLDER_NAME);
+    }
+
+    OrderCacheServiceImpl(String cacheFolder) {
+        this.cacheFolder = cacheFolder;
+        this.executor = getExecutorService();
+    }
+
+    @Override
+    public Optional<OrderColumns> load(String folderPath, List<File> files) {
+        Path folder = getCachePath(folderPath);
+        if (!Files.isDirectory(folder)) {
+            return Optional.empty();
+        }
+        try {
+            OrderColumns columns = OrderColumns.open(folder);
+            boolean upToDate = columns.getFolderPath().equals(getKey(folderPath))
+                    && new HashSet<>(columns.getSources()).equals(new HashSet<>(getSources(files)));
+            return upToDate ? Optional.of(columns) : Optional.empty();
+        } catch (IOException e) {
+            System.err.println("The cache " + folder + " can't be read, it will be built again");
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<OrderColumns> ingest(String folderPath, List<File> files) {
+        long startTime = System.nanoTime();
+        List<OrderColumns.Source> sources = getSources(files);
+        List<CompletableFuture<OrderColumnsBuilder>> tasks = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> readFile(file), executor))
+                .collect(Collectors.toList());
+        OrderColumnsBuilder builder = new OrderColumnsBuilder();
+
+        try {
+            for (CompletableFuture<OrderColumnsBuilder> task : tasks) {
+                builder.append(getColumns(task));
+            }
+        } catch (IllegalArgumentException e) {
+            tasks.forEach(task -> task.cancel(false));
+            System.out.println("The orders of " + folderPath + " can't be cached, the files are read instead: "
+                    + e.getMessage());
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+
+        Path folder = getCachePath(folderPath);
+        try {
+            Files.createDirectories(folder.getParent());
+            Path temporaryFolder = Files.createTempDirectory(folder.getParent(), folder.getFileName().toString());
+            builder.write(temporaryFolder, getKey(folderPath), sources);
+            delete(folder);
+            Files.move(temporaryFolder, folder, StandardCopyOption.ATOMIC_MOVE);
+            OrderColumns columns = OrderColumns.open(folder);
+            System.out.printf("%d orders of %d files cached in %d ms%n", columns.size(), files.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            return Optional.of(columns);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while saving the cache " + folder, e);
+        }
+    }
+
+    /**
+     * Reads all orders of a file into columns of their own.
+     *
+     * @param file The JSON file to read, possibly compressed.
+     * @return The columns of the orders of the file.
+     * @throws CustomFileException      If an error occurs while reading the file.
+     * @throws IllegalArgumentException If an order has a value that can't be cached.
+     */
+    private static OrderColumnsBuilder readFile(File file) {
+        OrderColumnsBuilder builder = new OrderColumnsBuilder();
+        try (InputStream input = Compression.of(file.getName()).decompress(
+                new BufferedInputStream(Files.newInputStream(file.toPath()), INPUT_BUFFER_SIZE));
+             JsonParser parser = getJsonFactory().createParser(input)) {
+            builder.read(parser);
+            return builder;
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while reading values from the file.", e);
+        }
+    }
+
+    /**
+     * Waits for the columns of a single file.
+     *
+     * @param task The task that reads the file.
+     * @return The columns of the orders of the file.
+     */
+    private static OrderColumnsBuilder getColumns(CompletableFuture<OrderColumnsBuilder> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutorTimeoutException(e.getMessage());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CustomFileException("An error occurred while reading values from the file.", e.getCause());
+        }
+    }
+
+    private Path getCachePath(String folderPath) {
+        return Paths.get(cacheFolder, String.format("%08x", getKey(folderPath).hashCode())).toAbsolutePath();
+    }
+
+    private static String getKey(String folderPath) {
+        return Paths.get(folderPath).toAbsolutePath().normalize().toString();
+    }
+
+    private static List<OrderColumns.Source> getSources(List<File> files) {
+        List<OrderColumns.Source> sources = new ArrayList<>();
+        for (File file : files) {
+            sources.add(new OrderColumns.Source(file.toPath().toAbsolutePath().normalize().toString(),
+                    file.length(), file.lastModified()));
+        }
+        return sources;
+    }
+
+    private static void delete(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.service.impl;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.PartialStatistics;
+import org.example.filter.DateSpan;
+import org.example.parser.Compression;
+import org.example.parser.FailureIsolation;
+import org.example.parser.FileChunk;
+import org.example.parser.OrderFileReader;
+import org.example.util.StatisticsOptions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * PooledReader reads the order files of a run on the shared executor, every file, or every chunk of a large file,
+ * by a task of its own.
+ */
+class PooledReader {
+    private final long splitThreshold;
+    private final ExecutorService executor;
+    private final OrderFileReader reader;
+    private final FailureIsolation isolation;
+    private final PartialStatistics partialStatistics;
+
+    PooledReader(StatisticsOptions options, ExecutorService executor, OrderFileReader reader,
+                 FailureIsolation isolation, PartialStatistics partialStatistics) {
+        this.splitThreshold = options.splitThreshold();
+        this.executor = executor;
+        this.reader = reader;
+        this.isolation = isolation;
+        this.partialStatistics = partialStatistics;
+    }
+
+    /**
+     * Reads the files in parallel into partial statistics owned by each file.
+     * The chunks of a split file are merged into the statistics of that file.
+     * Only the tasks submitted by this call are waited for, so the shared executor stays usable
+     * for later calls. If a file can't be read, the tasks of this call that haven't started yet are cancelled.
+     *
+     * @param files      The JSON files to read.
+     * @param attributes The attributes to calculate statistics for.
+     * @param dateSpans  The map the date spans of the read files are put to, or null if orders aren't filtered by date.
+     * @return The partial statistics of every file by attribute, in the order of the files.
+     */
+    List<Map<String, AttributeCounter>> read(List<File> files, List<String> attributes,
+                                             Map<File, DateSpan> dateSpans) {
+        List<CompletableFuture<Map<String, AttributeCounter>>> tasks = new ArrayList<>();
+        List<CompletableFuture<Map<String, AttributeCounter>>> fileTasks = files.stream()
+                .map(file -> submitReading(file, attributes, tasks, DateSpan.forFile(dateSpans, file)))
+                .collect(Collectors.toList());
+
+        try {
+            return fileTasks.stream()
+                    .map(PartialStatistics::await)
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> task.cancel(false));
+            throw e;
+        }
+    }
+
+    /**
+     * Submits the reading of a file. Uncompressed files larger than the split threshold are cut into chunks
+     * of whole orders, and every chunk is read by its own task.
+     *
+     * @param file       The JSON file to read.
+     * @param attributes The attributes to calculate statistics for.
+     * @param tasks      The tasks of the current call, to which the submitted tasks are added.
+     * @param dateSpan   The span the dates of the file are collected into, or null if orders aren't filtered by date.
+     * @return The future of the partial statistics of the file, merged from its chunks; unless the run fails fast,
+     * the statistics are empty if the file or one of its chunks couldn't be read.
+     */
+    private CompletableFuture<Map<String, AttributeCounter>> submitReading(
+            File file, List<String> attributes, List<CompletableFuture<Map<String, AttributeCounter>>> tasks,
+            DateSpan dateSpan) {
+        List<FileChunk> chunks = file.length() > splitThreshold && Compression.of(file.getName()) == Compression.NONE
+                ? reader.splitFile(file)
+                : List.of();
+
+        if (chunks.size() < 2) {
+            CompletableFuture<Map<String, AttributeCounter>> task = CompletableFuture.supplyAsync(
+                    () -> isolation.read(new FileChunk(file, 0, file.length()), attributes, dateSpan,
+                            () -> reader.readFile(file, attributes, dateSpan)), executor);
+            tasks.add(task);
+            return isolation.skipOnFailure(file, task, () -> partialStatistics.create(attributes));
+        }
+        List<CompletableFuture<Map<String, AttributeCounter>>> chunkTasks = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> isolation.read(chunk, attributes, dateSpan,
+                        () -> reader.readChunk(chunk, attributes, dateSpan)), executor))
+                .collect(Collectors.toList());
+        tasks.addAll(chunkTasks);
+        return isolation.skipOnFailure(file, CompletableFuture.allOf(chunkTasks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> partialStatistics.mergeAll(chunkTasks.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()))
+                        .orElseGet(() -> partialStatistics.create(attributes))),
+                () -> partialStatistics.create(attributes));
+    }
+}
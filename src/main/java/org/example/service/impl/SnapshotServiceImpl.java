@@ -0,0 +1,240 @@
+package org.example.service.impl;
+
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.AttributeSketch;
+import org.example.aggregation.PriceStatistics;
+import org.example.exception.CustomFileException;
+import org.example.lib.Service;
+import org.example.model.FileSnapshot;
+import org.example.model.StatisticsSnapshot;
+import org.example.service.SnapshotService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.example.util.FileConstantsUtil.*;
+
+/**
+ * Implementation of the SnapshotService interface that keeps the snapshot in a compressed binary file
+ * named statistics_by_{attributes}.snapshot in the results folder.
+ * The file starts with a format version, followed by the folder path, the attributes, the capacity of the counters,
+ * whether they have sketches and price statistics, the options that change the counted values, and the partial
+ * statistics of every file together with its path, size, modification time and content hash.
+ */
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+    private static final int FORMAT_VERSION = 5;
+    private static final int HASH_BUFFER_SIZE = 1 << 20;
+    private final String snapshotFolder;
+
+    public SnapshotServiceImpl() {
+        this(DEFAULT_PATH_FOR_RESULTS);
+    }
+
+    SnapshotServiceImpl(String snapshotFolder) {
+        this.snapshotFolder = snapshotFolder;
+    }
+
+    @Override
+    public Optional<StatisticsSnapshot> load(String folderPath, List<String> attributes) {
+        Path snapshotPath = getSnapshotPath(attributes);
+        if (!Files.isRegularFile(snapshotPath)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotPath))))) {
+            StatisticsSnapshot snapshot = readSnapshot(input);
+            if (!snapshot.getFolderPath().equals(normalize(folderPath))
+                    || !snapshot.getAttributes().equals(attributes)) {
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            System.err.println("The snapshot " + snapshotPath + " can't be read, all files will be read again");
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void save(StatisticsSnapshot snapshot) {
+        Path snapshotPath = getSnapshotPath(snapshot.getAttributes());
+
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            Path temporaryPath = Files.createTempFile(snapshotPath.toAbsolutePath().getParent(),
+                    snapshotPath.getFileName().toString(), null);
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporaryPath))))) {
+                writeSnapshot(output, snapshot);
+            }
+            Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while saving the snapshot " + snapshotPath, e);
+        }
+    }
+
+    @Override
+    public long calculateContentHash(File file) {
+        CRC32C checksum = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                checksum.update(buffer.flip());
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while hashing the file " + file.getName(), e);
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Converts a folder path into the absolute, normalized form stored in the snapshot.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @return The normalized path.
+     */
+    private static String normalize(String folderPath) {
+        return Paths.get(folderPath).toAbsolutePath().normalize().toString();
+    }
+
+    private Path getSnapshotPath(List<String> attributes) {
+        return Paths.get(snapshotFolder, FILE_NAME_PREFIX + String.join("_", attributes) + SNAPSHOT_FILE_EXTENSION);
+    }
+
+    private static StatisticsSnapshot readSnapshot(DataInputStream input) throws IOException {
+        if (input.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format");
+        }
+        String folderPath = readString(input);
+        int attributesNumber = input.readInt();
+        List<String> attributes = new ArrayList<>(attributesNumber);
+        for (int i = 0; i < attributesNumber; i++) {
+            attributes.add(readString(input));
+        }
+        int counterCapacity = input.readInt();
+        boolean sketchEnabled = input.readBoolean();
+        boolean priceEnabled = input.readBoolean();
+        String options = readString(input);
+
+        int filesNumber = input.readInt();
+        Map<String, FileSnapshot> files = new LinkedHashMap<>();
+        for (int i = 0; i < filesNumber; i++) {
+            String path = readString(input);
+            long size = input.readLong();
+            long lastModified = input.readLong();
+            long contentHash = input.readLong();
+            files.put(path, new FileSnapshot(size, lastModified, contentHash,
+                    readStatistics(input, attributes, counterCapacity, sketchEnabled, priceEnabled)));
+        }
+        return new StatisticsSnapshot(folderPath, attributes, counterCapacity, sketchEnabled, priceEnabled, options,
+                files);
+    }
+
+    private static void writeSnapshot(DataOutputStream output, StatisticsSnapshot snapshot) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        writeString(output, normalize(snapshot.getFolderPath()));
+        output.writeInt(snapshot.getAttributes().size());
+        for (String attribute : snapshot.getAttributes()) {
+            writeString(output, attribute);
+        }
+        output.writeInt(snapshot.getCounterCapacity());
+        output.writeBoolean(snapshot.isSketchEnabled());
+        output.writeBoolean(snapshot.isPriceEnabled());
+        writeString(output, snapshot.getOptions());
+
+        output.writeInt(snapshot.getFiles().size());
+        for (Map.Entry<String, FileSnapshot> entry : snapshot.getFiles().entrySet()) {
+            FileSnapshot fileSnapshot = entry.getValue();
+            writeString(output, entry.getKey());
+            output.writeLong(fileSnapshot.getSize());
+            output.writeLong(fileSnapshot.getLastModified());
+            output.writeLong(fileSnapshot.getContentHash());
+            writeStatistics(output, fileSnapshot.getStatistics(), snapshot.getAttributes());
+        }
+    }
+
+    private static Map<String, AttributeCounter> readStatistics(DataInputStream input, List<String> attributes,
+                                                                int counterCapacity, boolean sketchEnabled,
+                                                                boolean priceEnabled) throws IOException {
+        Map<String, AttributeCounter> statistics = new LinkedHashMap<>();
+        for (String attribute : attributes) {
+            int size = input.readInt();
+            AttributeCounter counter = new AttributeCounter(size, counterCapacity);
+            counter.addMaxError(input.readLong());
+            for (int i = 0; i < size; i++) {
+                String value = readString(input);
+                counter.add(value, input.readLong());
+            }
+            if (sketchEnabled) {
+                counter.withSketch(AttributeSketch.readFrom(input));
+            }
+            if (priceEnabled) {
+                counter.withPriceStatistics(PriceStatistics.readFrom(input, size));
+            }
+            statistics.put(attribute, counter);
+        }
+        return statistics;
+    }
+
+    private static void writeStatistics(DataOutputStream output, Map<String, AttributeCounter> statistics,
+                                        List<String> attributes) throws IOException {
+        for (String attribute : attributes) {
+            AttributeCounter counter = statistics.get(attribute);
+            output.writeInt(counter.size());
+            output.writeLong(counter.getMaxError());
+            List<IOException> errors = new ArrayList<>(1);
+            counter.forEach((value, count) -> {
+                try {
+                    writeString(output, value);
+                    output.writeLong(count);
+                } catch (IOException e) {
+                    errors.add(e);
+                }
+            });
+            if (!errors.isEmpty()) {
+                throw errors.get(0);
+            }
+            if (counter.getSketch() != null) {
+                counter.getSketch().writeTo(output);
+            }
+            if (counter.getPriceStatistics() != null) {
+                counter.getPriceStatistics().writeTo(output, counter.size());
+            }
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
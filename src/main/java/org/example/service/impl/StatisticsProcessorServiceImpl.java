@@ -1,16 +1,22 @@
 package org.example.service.impl;
 
+import org.example.aggregation.AttributeCounter;
 import org.example.lib.Inject;
 import org.example.lib.Service;
+import org.example.metrics.RunMetrics;
 import org.example.model.Order;
 import org.example.service.FileOperationService;
 import org.example.service.StatisticsProcessorService;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
+import static org.example.util.SingletonObjectsUtil.getRunMetrics;
 import static org.example.util.SingletonObjectsUtil.getScanner;
 
 /**
@@ -18,25 +24,59 @@ import static org.example.util.SingletonObjectsUtil.getScanner;
  */
 @Service
 public class StatisticsProcessorServiceImpl implements StatisticsProcessorService {
+    private static final String METRICS_PREFIX = "statistics-metrics ";
     private final Scanner scanner;
+    private final RunMetrics metrics;
     @Inject
-    private FileOperationService operationService;
+    FileOperationService operationService;
 
     public StatisticsProcessorServiceImpl() {
         this.scanner = getScanner();
+        this.metrics = getRunMetrics();
     }
 
     public void processStatistics() {
         String folderPath = readFolderPath(scanner);
-        String attribute = readAttribute(scanner);
+        List<String> attributes = readAttributes(scanner);
 
-        Map<String, Integer> statistics = operationService.readFromFile(folderPath, attribute);
-
-        operationService.saveToFile(statistics, attribute);
+        calculateAndSave(folderPath, attributes);
 
         scanner.close();
     }
 
+    public void processStatistics(String folderPath, String attributes) {
+        if (!isFolderPathExists(folderPath)) {
+            throw new IllegalArgumentException("The folder " + folderPath + " doesn't exist");
+        }
+        List<String> attributeNames = splitAttributes(attributes);
+        for (String attribute : attributeNames) {
+            if (!isAttributeValid(attribute)) {
+                throw new IllegalArgumentException("The attribute " + attribute
+                        + " doesn't match the fields of the object");
+            }
+        }
+
+        calculateAndSave(folderPath, attributeNames);
+    }
+
+    /**
+     * Reads the statistics from the files of the folder and saves a statistics file for each attribute.
+     * If the metrics are enabled, their summary is printed once the files are saved.
+     *
+     * @param folderPath The path to the folder containing JSON files.
+     * @param attributes The validated attribute names.
+     */
+    private void calculateAndSave(String folderPath, List<String> attributes) {
+        metrics.reset();
+        Map<String, AttributeCounter> statistics = operationService.readFromFile(folderPath, attributes);
+
+        statistics.forEach((attribute, attributeStatistics) ->
+                operationService.saveToFile(attributeStatistics, attribute));
+        if (metrics.isSummaryEnabled()) {
+            metrics.summarize().forEach(line -> System.out.println(METRICS_PREFIX + line));
+        }
+    }
+
     /**
      * Reads and validates a folder path entered by the user via the provided Scanner object.
      *
@@ -56,21 +96,35 @@ public class StatisticsProcessorServiceImpl implements StatisticsProcessorServic
     }
 
     /**
-     * Reads and validates an attribute name entered by the user via the provided Scanner object.
+     * Reads and validates the comma-separated attribute names entered by the user via the provided Scanner object.
+     * Repeated attribute names are only taken once.
      *
      * @param scanner The Scanner object used to read input from the user.
-     * @return The validated attribute name entered by the user.
+     * @return The validated attribute names entered by the user.
      */
-    private static String readAttribute(Scanner scanner) {
-        System.out.println("Enter attribute:");
-        String attribute = scanner.nextLine();
+    private static List<String> readAttributes(Scanner scanner) {
+        System.out.println("Enter attribute (several attributes can be separated by comma):");
+        List<String> attributes = splitAttributes(scanner.nextLine());
 
-        while (!isAttributeValid(attribute)) {
+        while (!attributes.stream().allMatch(StatisticsProcessorServiceImpl::isAttributeValid)) {
             System.err.println("The entered attribute doesn't match the fields of the object. Please enter another one");
-            attribute = scanner.nextLine();
+            attributes = splitAttributes(scanner.nextLine());
         }
 
-        return attribute;
+        return attributes;
+    }
+
+    /**
+     * Splits the entered line into distinct attribute names.
+     *
+     * @param line The line entered by the user.
+     * @return The distinct attribute names in the order they were entered.
+     */
+    private static List<String> splitAttributes(String line) {
+        return Arrays.stream(line.split(","))
+                .map(String::trim)
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     /**
@@ -0,0 +1,159 @@
+package org.example.service.impl;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.dataformat.xml.util.DefaultXmlPrettyPrinter;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.AttributeSketch;
+import org.example.aggregation.PriceStatistics;
+import org.example.exception.CustomFileException;
+import org.example.metrics.RunMetrics;
+import org.example.model.Statistics;
+import org.example.util.StatisticsOptions;
+
+import javax.xml.namespace.QName;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.example.util.FileConstantsUtil.*;
+
+/**
+ * StatisticsWriter saves the statistics of an attribute as XML, and its sketch in binary form, to the results folder.
+ */
+class StatisticsWriter {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final String STATISTICS_ELEMENT = "statistics";
+    private static final String ITEM_ELEMENT = "item";
+    private static final String VALUE_ELEMENT = "value";
+    private static final String COUNT_ELEMENT = "count";
+    private static final String PRICE_ELEMENT = "totalPrice";
+    private static final String SUM_ELEMENT = "sum";
+    private static final String MIN_ELEMENT = "min";
+    private static final String MAX_ELEMENT = "max";
+    private static final String MEAN_ELEMENT = "mean";
+    private static final String PERCENTILE_ELEMENT_PREFIX = "p";
+    private final String resultsFolder;
+    private final List<BigDecimal> pricePercentiles;
+    private final XmlMapper xmlMapper;
+    private final RunMetrics metrics;
+
+    StatisticsWriter(StatisticsOptions options, XmlMapper xmlMapper, RunMetrics metrics) {
+        this.resultsFolder = options.resultsFolder();
+        this.pricePercentiles = options.pricePercentiles();
+        this.xmlMapper = xmlMapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Saves the statistics of an attribute, and its sketch if the values were summarized by one.
+     * Nothing but the sketch is saved if the statistics are empty.
+     *
+     * @param statistics The attribute values and their corresponding counts.
+     * @param attribute  The attribute name.
+     * @throws CustomFileException If an error occurs while saving the statistics.
+     */
+    void save(AttributeCounter statistics, String attribute) {
+        if (statistics.getSketch() != null) {
+            saveSketch(statistics.getSketch(), attribute);
+        }
+        if (statistics.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(resultsFolder, FILE_NAME_PREFIX + attribute + XML_FILE_EXTENSION);
+        long startTime = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             ToXmlGenerator generator = xmlMapper.getFactory().createGenerator(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_SIZE))) {
+            writeStatistics(generator, statistics);
+        } catch (IOException | UncheckedIOException e) {
+            throw new CustomFileException("An error occurred while saving statistics to file.", e);
+        }
+        metrics.recordWrite(attribute, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Saves the sketch of an attribute in the binary form of {@link AttributeSketch#writeTo(java.io.DataOutput)},
+     * so that it can be read and merged with the sketches of other runs.
+     *
+     * @param sketch    The sketch of the attribute.
+     * @param attribute The attribute name.
+     * @throws CustomFileException If an error occurs while saving the sketch.
+     */
+    private void saveSketch(AttributeSketch sketch, String attribute) {
+        Path path = Paths.get(resultsFolder, FILE_NAME_PREFIX + attribute + SKETCH_FILE_EXTENSION);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            sketch.writeTo(output);
+        } catch (IOException e) {
+            throw new CustomFileException("An error occurred while saving the sketch to file.", e);
+        }
+    }
+
+    /**
+     * Streams the statistics as XML of the same schema as {@link Statistics} with indented output:
+     * an {@code <item>} element with the value and the count is written for every entry,
+     * in the order of the entries, without building a list of items first.
+     * If the prices are aggregated, a {@code <totalPrice>} element is added to the items of the values
+     * that had priced orders.
+     *
+     * @param generator  The XML generator to write to.
+     * @param statistics The attribute values and their corresponding counts.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    private void writeStatistics(ToXmlGenerator generator, AttributeCounter statistics) throws IOException {
+        generator.setPrettyPrinter(new DefaultXmlPrettyPrinter());
+        generator.setNextName(new QName(STATISTICS_ELEMENT));
+        generator.writeStartObject();
+        PriceStatistics priceStatistics = statistics.getPriceStatistics();
+        statistics.forEachEntry((index, value, count) -> {
+            try {
+                generator.writeFieldName(ITEM_ELEMENT);
+                generator.writeStartObject();
+                generator.writeStringField(VALUE_ELEMENT, value);
+                generator.writeNumberField(COUNT_ELEMENT, count);
+                if (priceStatistics != null && priceStatistics.getPricedCount(index) > 0) {
+                    writePriceStatistics(generator, priceStatistics, index);
+                }
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the {@code <totalPrice>} element with the price statistics of a value.
+     *
+     * @param generator       The XML generator to write to.
+     * @param priceStatistics The price statistics of the attribute.
+     * @param index           The index of the entry of the value.
+     * @throws IOException If an I/O error occurs while writing.
+     */
+    private void writePriceStatistics(ToXmlGenerator generator, PriceStatistics priceStatistics, int index)
+            throws IOException {
+        generator.writeFieldName(PRICE_ELEMENT);
+        generator.writeStartObject();
+        generator.writeNumberField(SUM_ELEMENT, priceStatistics.getSum(index));
+        generator.writeNumberField(MIN_ELEMENT, priceStatistics.getMin(index));
+        generator.writeNumberField(MAX_ELEMENT, priceStatistics.getMax(index));
+        generator.writeNumberField(MEAN_ELEMENT, priceStatistics.getMean(index));
+        for (BigDecimal percentile : pricePercentiles) {
+            generator.writeNumberField(PERCENTILE_ELEMENT_PREFIX + percentile.toPlainString(),
+                    priceStatistics.getPercentile(index, percentile.doubleValue()));
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.util;
+
+/**
+ * The ways a file that can't be read, e.g. because it holds malformed JSON, is handled.
+ */
+public enum ErrorPolicy {
+    /**
+     * Stops the run with the error of the first file that can't be read.
+     */
+    FAIL_FAST,
+    /**
+     * Leaves out every order of a file that can't be read and goes on with the other files.
+     */
+    SKIP_FILE,
+    /**
+     * Reads a file that can't be read again order by order, leaving out only the orders that are malformed.
+     * After a malformed order the reading goes on at the next place between two orders.
+     */
+    SKIP_RECORD
+}
@@ -0,0 +1,23 @@
+package org.example.util;
+
+/**
+ * The ways the reading tasks can be executed.
+ */
+public enum ExecutionMode {
+    /**
+     * Runs the tasks on a fixed pool of platform threads.
+     */
+    POOL,
+    /**
+     * Runs every task on its own virtual thread. The files are read into memory outside of any limit,
+     * and only their parsing is limited to as many tasks at a time as there are pool threads.
+     * Requires Java 21 or later.
+     */
+    VIRTUAL,
+    /**
+     * Runs the reading of the files, their parsing and the aggregation of the statistics as stages of a pipeline,
+     * each on threads of its own, connected by bounded queues. The files are read into a fixed number
+     * of pooled buffers, so a slow stage holds back the stages in front of it.
+     */
+    PIPELINE
+}
@@ -8,5 +8,14 @@ public class FileConstantsUtil {
     public static final String FILE_NAME_PREFIX = "statistics_by_";
     public static final String XML_FILE_EXTENSION = ".xml";
     public static final String JSON_FILE_EXTENSION = ".json";
+    public static final String NDJSON_FILE_EXTENSION = ".ndjson";
+    public static final String JSON_LINES_FILE_EXTENSION = ".jsonl";
+    public static final String GZIP_FILE_EXTENSION = ".gz";
+    public static final String ZSTD_FILE_EXTENSION = ".zst";
+    public static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+    public static final String SKETCH_FILE_EXTENSION = ".sketch";
+    public static final String DATE_INDEX_FILE_NAME = "date_index.bin";
+    public static final String CACHE_FOLDER_NAME = "cache";
+    public static final String FAILURES_FILE_NAME = "read_failures.xml";
     public static final String DEFAULT_PATH_FOR_RESULTS = "results/";
 }
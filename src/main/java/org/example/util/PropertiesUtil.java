@@ -0,0 +1,448 @@
+package org.example.util;
+
+import org.example.aggregation.DateBucket;
+import org.example.aggregation.MultiValuedAttribute;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This is a utility class that provides the settings which can be selected at launch.
+ * The settings are read from system properties, e.g. {@code -Dstatistics.reader=mapped}.
+ */
+public class PropertiesUtil {
+    public static final String READER_MODE_PROPERTY = "statistics.reader";
+    public static final String SPLIT_THRESHOLD_PROPERTY = "statistics.split.threshold";
+    public static final String SPLIT_CHUNK_SIZE_PROPERTY = "statistics.split.chunk-size";
+    public static final String INCREMENTAL_PROPERTY = "statistics.incremental";
+    public static final String THREADS_PROPERTY = "statistics.threads";
+    public static final String EXECUTION_MODE_PROPERTY = "statistics.execution";
+    public static final String READ_BUFFER_PROPERTY = "statistics.virtual.read-buffer";
+    public static final String TOP_PROPERTY = "statistics.top";
+    public static final String TOP_MODE_PROPERTY = "statistics.top.mode";
+    public static final String TOP_CAPACITY_PROPERTY = "statistics.top.capacity";
+    public static final String SKETCH_PROPERTY = "statistics.sketch";
+    public static final String PRICE_PROPERTY = "statistics.price";
+    public static final String PRICE_PERCENTILES_PROPERTY = "statistics.price.percentiles";
+    public static final String DATE_BUCKET_PROPERTY = "statistics.date.bucket";
+    public static final String DATE_FROM_PROPERTY = "statistics.date.from";
+    public static final String DATE_TO_PROPERTY = "statistics.date.to";
+    public static final String FILTER_PROPERTY = "statistics.filter";
+    public static final String DECOMPRESSION_PIPELINE_PROPERTY = "statistics.decompression.pipeline";
+    public static final String MULTI_VALUED_PROPERTY = "statistics.multi-valued";
+    public static final String CACHE_PROPERTY = "statistics.cache";
+    public static final String PIPELINE_READERS_PROPERTY = "statistics.pipeline.readers";
+    public static final String PIPELINE_PARSERS_PROPERTY = "statistics.pipeline.parsers";
+    public static final String PIPELINE_AGGREGATORS_PROPERTY = "statistics.pipeline.aggregators";
+    public static final String PIPELINE_BUFFERS_PROPERTY = "statistics.pipeline.buffers";
+    public static final String METRICS_PROPERTY = "statistics.metrics";
+    public static final String METRICS_EVENTS_PROPERTY = "statistics.metrics.jfr";
+    public static final String ERROR_POLICY_PROPERTY = "statistics.errors";
+    private static final String DEFAULT_SPLIT_THRESHOLD = "64MB";
+    private static final String DEFAULT_SPLIT_CHUNK_SIZE = "16MB";
+    private static final String DEFAULT_READ_BUFFER = "256MB";
+    private static final int DEFAULT_TOP_CAPACITY_FACTOR = 10;
+    private static final String DEFAULT_PRICE_PERCENTILES = "50,90,99";
+    private static final String DEFAULT_MULTI_VALUED_ATTRIBUTES = "description=,";
+
+    private PropertiesUtil() {}
+
+    /**
+     * Returns the reader mode selected with the {@value #READER_MODE_PROPERTY} property.
+     *
+     * @return The selected reader mode, JACKSON by default.
+     * @throws IllegalArgumentException If the property doesn't name a reader mode.
+     */
+    public static ReaderMode getReaderMode() {
+        String readerMode = System.getProperty(READER_MODE_PROPERTY, ReaderMode.JACKSON.name());
+        return ReaderMode.valueOf(readerMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the file size above which a file is split into chunks that are parsed in parallel,
+     * selected with the {@value #SPLIT_THRESHOLD_PROPERTY} property.
+     *
+     * @return The threshold in bytes, 64 MB by default.
+     */
+    public static long getSplitThreshold() {
+        return parseSize(SPLIT_THRESHOLD_PROPERTY, DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    /**
+     * Returns the size of the chunks a large file is split into,
+     * selected with the {@value #SPLIT_CHUNK_SIZE_PROPERTY} property.
+     *
+     * @return The chunk size in bytes, 16 MB by default.
+     */
+    public static long getSplitChunkSize() {
+        return parseSize(SPLIT_CHUNK_SIZE_PROPERTY, DEFAULT_SPLIT_CHUNK_SIZE);
+    }
+
+    /**
+     * Returns whether the statistics are calculated incrementally, selected with the {@value #INCREMENTAL_PROPERTY}
+     * property. In this mode the partial statistics of every file are kept in a snapshot next to the results,
+     * and only the files that were added or changed since the previous run are read again.
+     *
+     * @return True if the incremental mode is enabled, false by default.
+     */
+    public static boolean isIncremental() {
+        return Boolean.parseBoolean(System.getProperty(INCREMENTAL_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Returns the number of threads that read the files, selected with the {@value #THREADS_PROPERTY} property.
+     *
+     * @return The number of threads, the number of available processors by default.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getThreadsNumber() {
+        return parseNumber(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns how many values with the highest counts are saved, selected with the {@value #TOP_PROPERTY} property.
+     *
+     * @return The number of values, or 0 if all values are saved, which is the default.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getTopLimit() {
+        return parseNumber(TOP_PROPERTY, 0);
+    }
+
+    /**
+     * Returns how the top values are selected, selected with the {@value #TOP_MODE_PROPERTY} property.
+     *
+     * @return The selected top mode, EXACT by default.
+     * @throws IllegalArgumentException If the property doesn't name a top mode.
+     */
+    public static TopMode getTopMode() {
+        String topMode = System.getProperty(TOP_MODE_PROPERTY, TopMode.EXACT.name());
+        return TopMode.valueOf(topMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns how many approximate counts are kept per attribute in the APPROXIMATE top mode,
+     * selected with the {@value #TOP_CAPACITY_PROPERTY} property. The more counts are kept,
+     * the lower the error: a count is at most N / (capacity + 1) lower than the real one,
+     * where N is the total of all counts of the attribute.
+     *
+     * @param topLimit The number of values that are saved.
+     * @return The number of counts, ten times the top limit by default, but never less than the top limit.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getTopCapacity(int topLimit) {
+        int defaultCapacity = (int) Math.min(Integer.MAX_VALUE / 2, (long) topLimit * DEFAULT_TOP_CAPACITY_FACTOR);
+        return Math.max(topLimit, parseNumber(TOP_CAPACITY_PROPERTY, defaultCapacity));
+    }
+
+    /**
+     * Returns whether every attribute is also summarized by a sketch, selected with the {@value #SKETCH_PROPERTY}
+     * property. A sketch estimates the number of distinct values and the count of any value in a few KB of memory.
+     * Unless a top limit is set, the counts of the values aren't kept at all in this mode, only the sketches.
+     *
+     * @return True if the sketches are enabled, false by default.
+     */
+    public static boolean isSketchEnabled() {
+        return Boolean.parseBoolean(System.getProperty(SKETCH_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Returns whether compressed files are decompressed on a separate thread ahead of the parsing,
+     * selected with the {@value #DECOMPRESSION_PIPELINE_PROPERTY} property. Otherwise, the thread that parses
+     * a compressed file also decompresses it.
+     *
+     * @return True if the decompression is pipelined, true by default.
+     */
+    public static boolean isDecompressionPipelined() {
+        return Boolean.parseBoolean(System.getProperty(DECOMPRESSION_PIPELINE_PROPERTY, Boolean.TRUE.toString()).trim());
+    }
+
+    /**
+     * Returns whether the total prices of the orders are aggregated by every value of the attributes,
+     * selected with the {@value #PRICE_PROPERTY} property.
+     *
+     * @return True if the price statistics are enabled, false by default.
+     */
+    public static boolean isPriceEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PRICE_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Returns the percentiles of the total prices that are saved for every value,
+     * selected with the {@value #PRICE_PERCENTILES_PROPERTY} property as a comma-separated list.
+     *
+     * @return The percentiles from 0 to 100, 50, 90 and 99 by default, or an empty list if the property is empty.
+     * @throws IllegalArgumentException If a percentile isn't a number from 0 to 100.
+     */
+    public static List<BigDecimal> getPricePercentiles() {
+        String percentiles = System.getProperty(PRICE_PERCENTILES_PROPERTY, DEFAULT_PRICE_PERCENTILES);
+        List<BigDecimal> result = new ArrayList<>();
+        for (String percentile : percentiles.split(",")) {
+            if (percentile.isBlank()) {
+                continue;
+            }
+            BigDecimal value;
+            try {
+                value = new BigDecimal(percentile.trim()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid percentile in property " + PRICE_PERCENTILES_PROPERTY
+                        + ": " + percentile, e);
+            }
+            if (value.signum() < 0 || value.compareTo(BigDecimal.valueOf(100)) > 0) {
+                throw new IllegalArgumentException("Invalid percentile in property " + PRICE_PERCENTILES_PROPERTY
+                        + ": " + percentile + ", it must be from 0 to 100");
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the time bucket the values of the date attribute are counted by,
+     * selected with the {@value #DATE_BUCKET_PROPERTY} property.
+     *
+     * @return The selected bucket, NONE by default, in which case the dates are counted as they are.
+     * @throws IllegalArgumentException If the property doesn't name a date bucket.
+     */
+    public static DateBucket getDateBucket() {
+        String dateBucket = System.getProperty(DATE_BUCKET_PROPERTY, DateBucket.NONE.name());
+        return DateBucket.valueOf(dateBucket.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the range of order dates the statistics are calculated for, selected with the inclusive
+     * {@value #DATE_FROM_PROPERTY} and {@value #DATE_TO_PROPERTY} properties given as ISO dates.
+     * Either of the bounds can be left out.
+     *
+     * @return The date range, unbounded if neither property is set, in which case all orders are counted.
+     * @throws IllegalArgumentException If a property isn't an ISO date or the range is empty.
+     */
+    public static DateRange getDateRange() {
+        return new DateRange(parseDate(DATE_FROM_PROPERTY), parseDate(DATE_TO_PROPERTY));
+    }
+
+    /**
+     * Returns the conditions the orders have to match to be counted, selected with the {@value #FILTER_PROPERTY}
+     * property as conditions joined by {@code &&}, e.g. {@code statusPayment == true && totalPrice > 100}.
+     *
+     * @return The conditions, or an empty list if all orders are counted, which is the default.
+     * @throws IllegalArgumentException If the property isn't a valid filter expression.
+     */
+    public static List<Condition> getFilterConditions() {
+        String expression = System.getProperty(FILTER_PROPERTY, "");
+        try {
+            return Condition.parseAll(expression);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid filter in property " + FILTER_PROPERTY + ": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the attributes whose value lists several values, each of which is counted on its own,
+     * selected with the {@value #MULTI_VALUED_PROPERTY} property as definitions {@code attribute=separator}
+     * separated by spaces, e.g. {@code description=, tags=|}.
+     *
+     * @return The multi-valued attributes by name, only the description separated by commas by default.
+     * @throws IllegalArgumentException If the property isn't a valid list of definitions.
+     */
+    public static Map<String, MultiValuedAttribute> getMultiValuedAttributes() {
+        String definitions = System.getProperty(MULTI_VALUED_PROPERTY, DEFAULT_MULTI_VALUED_ATTRIBUTES);
+        try {
+            return MultiValuedAttribute.parseAll(definitions);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid multi-valued attributes in property " + MULTI_VALUED_PROPERTY
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns whether the orders are read from a columnar cache of the folder, selected with the
+     * {@value #CACHE_PROPERTY} property. The cache is built by the first run and again whenever a file
+     * of the folder was added, removed or changed; later runs read the columns they need instead of the JSON files.
+     * The cache takes the place of the date index and of the incremental mode.
+     *
+     * @return True if the cache is enabled, false by default.
+     */
+    public static boolean isCacheEnabled() {
+        return Boolean.parseBoolean(System.getProperty(CACHE_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Returns the execution mode selected with the {@value #EXECUTION_MODE_PROPERTY} property.
+     *
+     * @return The selected execution mode, POOL by default.
+     * @throws IllegalArgumentException If the property doesn't name an execution mode.
+     */
+    public static ExecutionMode getExecutionMode() {
+        String executionMode = System.getProperty(EXECUTION_MODE_PROPERTY, ExecutionMode.POOL.name());
+        return ExecutionMode.valueOf(executionMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the error policy selected with the {@value #ERROR_POLICY_PROPERTY} property, written as
+     * {@code fail-fast}, {@code skip-file} or {@code skip-record}.
+     *
+     * @return The selected error policy, FAIL_FAST by default.
+     * @throws IllegalArgumentException If the property doesn't name an error policy.
+     */
+    public static ErrorPolicy getErrorPolicy() {
+        String errorPolicy = System.getProperty(ERROR_POLICY_PROPERTY, ErrorPolicy.FAIL_FAST.name());
+        return ErrorPolicy.valueOf(errorPolicy.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns how many bytes of files may be held in memory at a time, waiting to be parsed,
+     * in the virtual execution mode. It is selected with the {@value #READ_BUFFER_PROPERTY} property.
+     *
+     * @return The size in bytes, 256 MB by default.
+     */
+    public static long getReadBufferSize() {
+        return parseSize(READ_BUFFER_PROPERTY, DEFAULT_READ_BUFFER);
+    }
+
+    /**
+     * Returns the number of threads that read the files into buffers in the pipeline execution mode,
+     * selected with the {@value #PIPELINE_READERS_PROPERTY} property.
+     *
+     * @return The number of threads, 1 by default.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getPipelineReaders() {
+        return parseNumber(PIPELINE_READERS_PROPERTY, 1);
+    }
+
+    /**
+     * Returns the number of threads that parse the buffers in the pipeline execution mode,
+     * selected with the {@value #PIPELINE_PARSERS_PROPERTY} property.
+     *
+     * @return The number of threads, the number of threads that read the files in the other modes by default.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getPipelineParsers() {
+        return parseNumber(PIPELINE_PARSERS_PROPERTY, getThreadsNumber());
+    }
+
+    /**
+     * Returns the number of threads that aggregate the parsed statistics in the pipeline execution mode,
+     * each into a shard of its own, selected with the {@value #PIPELINE_AGGREGATORS_PROPERTY} property.
+     *
+     * @return The number of threads, 1 by default.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getPipelineAggregators() {
+        return parseNumber(PIPELINE_AGGREGATORS_PROPERTY, 1);
+    }
+
+    /**
+     * Returns the number of pooled buffers the files are read into in the pipeline execution mode,
+     * selected with the {@value #PIPELINE_BUFFERS_PROPERTY} property. Every buffer holds a chunk of the size
+     * selected with the {@value #SPLIT_CHUNK_SIZE_PROPERTY} property.
+     *
+     * @param defaultBuffers The number of buffers used when the property isn't set.
+     * @return The number of buffers.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    public static int getPipelineBuffers(int defaultBuffers) {
+        return parseNumber(PIPELINE_BUFFERS_PROPERTY, defaultBuffers);
+    }
+
+    /**
+     * Returns whether the metrics of the run, such as the bytes read, the orders parsed and the time spent
+     * on every file, are collected and printed at the end of the run. They are selected with the
+     * {@value #METRICS_PROPERTY} property.
+     *
+     * @return True if the metrics are enabled, false by default.
+     */
+    public static boolean isMetricsEnabled() {
+        return Boolean.parseBoolean(System.getProperty(METRICS_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Returns whether the metrics of the run are also emitted as Java Flight Recorder events, selected with the
+     * {@value #METRICS_EVENTS_PROPERTY} property. The events are only written while a recording is running.
+     *
+     * @return True if the events are enabled, false by default.
+     */
+    public static boolean isMetricsEventsEnabled() {
+        return Boolean.parseBoolean(System.getProperty(METRICS_EVENTS_PROPERTY, Boolean.FALSE.toString()).trim());
+    }
+
+    /**
+     * Parses a property given as a positive number.
+     *
+     * @param property     The name of the property.
+     * @param defaultValue The value used when the property isn't set.
+     * @return The number.
+     * @throws IllegalArgumentException If the property isn't a positive number.
+     */
+    private static int parseNumber(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number <= 0) {
+                throw new NumberFormatException("The number must be positive");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in property " + property + ": " + value, e);
+        }
+    }
+
+    /**
+     * Parses a property given as an ISO date, e.g. 2024-04-09.
+     *
+     * @param property The name of the property.
+     * @return The date, or null if the property isn't set.
+     * @throws IllegalArgumentException If the property isn't an ISO date.
+     */
+    private static LocalDate parseDate(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date in property " + property + ": " + value, e);
+        }
+    }
+
+    /**
+     * Parses a size property given in bytes or with a KB, MB or GB suffix.
+     *
+     * @param property     The name of the property.
+     * @param defaultValue The value used when the property isn't set.
+     * @return The size in bytes.
+     * @throws IllegalArgumentException If the property isn't a positive size.
+     */
+    private static long parseSize(String property, String defaultValue) {
+        String value = System.getProperty(property, defaultValue).trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+
+        if (value.endsWith("KB") || value.endsWith("MB") || value.endsWith("GB")) {
+            multiplier = value.endsWith("KB") ? 1L << 10 : value.endsWith("MB") ? 1L << 20 : 1L << 30;
+            value = value.substring(0, value.length() - 2).trim();
+        }
+        try {
+            long size = Long.parseLong(value) * multiplier;
+            if (size <= 0) {
+                throw new NumberFormatException("The size must be positive");
+            }
+            return size;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size in property " + property + ": "
+                    + System.getProperty(property), e);
+        }
+    }
+}
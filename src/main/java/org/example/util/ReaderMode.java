@@ -0,0 +1,15 @@
+package org.example.util;
+
+/**
+ * The ways the order files can be read.
+ */
+public enum ReaderMode {
+    /**
+     * Streams every token of the file through Jackson's JsonParser.
+     */
+    JACKSON,
+    /**
+     * Memory-maps the file and scans its bytes for the requested attribute only.
+     */
+    MAPPED
+}
@@ -2,20 +2,43 @@ package org.example.util;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import org.example.metrics.RunMetrics;
 
 import java.util.Scanner;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.util.PropertiesUtil.getExecutionMode;
+import static org.example.util.PropertiesUtil.getThreadsNumber;
+import static org.example.util.PropertiesUtil.isMetricsEnabled;
+import static org.example.util.PropertiesUtil.isMetricsEventsEnabled;
 
 /**
  * This is a utility class that provides singleton instances of commonly used objects.
- * It includes instances of ExecutorService, JsonFactory, XmlMapper, and Scanner.
+ * It includes instances of ExecutorService, JsonFactory, XmlMapper, Scanner, and the RunMetrics of the application.
+ * The executor is shared by all calls made during the lifetime of the application,
+ * so it must only be shut down with {@link #shutdownExecutorService()} when the application closes.
+ * Compressed files are decompressed by the threads of a separate executor, because they feed the tasks
+ * of the shared executor and mustn't wait behind them. Its threads are daemon threads that end when they are idle.
  */
 public class SingletonObjectsUtil {
-    private static final ExecutorService EXECUTOR_SERVICE = Executors.newFixedThreadPool(8);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final AtomicInteger THREADS_COUNTER = new AtomicInteger();
+    private static final AtomicInteger DECOMPRESSION_THREADS_COUNTER = new AtomicInteger();
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+    private static final ExecutionMode EXECUTION_MODE = resolveExecutionMode(getExecutionMode());
+    private static final ExecutorService EXECUTOR_SERVICE = createExecutorService(EXECUTION_MODE);
+    private static final ExecutorService DECOMPRESSION_EXECUTOR_SERVICE = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "statistics-decompressor-" + DECOMPRESSION_THREADS_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private static final XmlMapper XML_MAPPER = new XmlMapper();
     private static final Scanner SCANNER = new Scanner(System.in);
+    private static final RunMetrics RUN_METRICS = new RunMetrics(isMetricsEnabled(), isMetricsEventsEnabled());
 
     private SingletonObjectsUtil() {}
 
@@ -23,6 +46,70 @@ public class SingletonObjectsUtil {
         return EXECUTOR_SERVICE;
     }
 
+    public static ExecutorService getDecompressionExecutorService() {
+        return DECOMPRESSION_EXECUTOR_SERVICE;
+    }
+
+    /**
+     * Returns the execution mode the shared executor was created for.
+     *
+     * @return The selected execution mode, or POOL if virtual threads aren't supported by the runtime.
+     */
+    public static ExecutionMode getActiveExecutionMode() {
+        return EXECUTION_MODE;
+    }
+
+    /**
+     * Shuts the shared executor down, letting the tasks that were already submitted finish.
+     * Tasks that are still running after the timeout are interrupted.
+     */
+    public static void shutdownExecutorService() {
+        EXECUTOR_SERVICE.shutdown();
+        try {
+            if (!EXECUTOR_SERVICE.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                EXECUTOR_SERVICE.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            EXECUTOR_SERVICE.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks that the selected execution mode is supported by the runtime.
+     * Virtual threads are only available since Java 21, so on an older runtime the pool is used instead.
+     *
+     * @param executionMode The selected execution mode.
+     * @return The execution mode to use.
+     */
+    private static ExecutionMode resolveExecutionMode(ExecutionMode executionMode) {
+        if (executionMode == ExecutionMode.VIRTUAL && Runtime.version().feature() < VIRTUAL_THREADS_JAVA_VERSION) {
+            System.err.println("Virtual threads require Java " + VIRTUAL_THREADS_JAVA_VERSION
+                    + ", the thread pool is used instead");
+            return ExecutionMode.POOL;
+        }
+        return executionMode;
+    }
+
+    /**
+     * Creates the executor for the selected execution mode. The virtual thread executor is looked up reflectively,
+     * so that the project still compiles for Java 17.
+     *
+     * @param executionMode The selected execution mode.
+     * @return A fixed thread pool, or an executor that starts a virtual thread for every task.
+     */
+    private static ExecutorService createExecutorService(ExecutionMode executionMode) {
+        if (executionMode == ExecutionMode.VIRTUAL) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Can't create the virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(getThreadsNumber(),
+                runnable -> new Thread(runnable, "statistics-worker-" + THREADS_COUNTER.incrementAndGet()));
+    }
+
     public static JsonFactory getJsonFactory() {
         return JSON_FACTORY;
     }
@@ -34,4 +121,8 @@ public class SingletonObjectsUtil {
     public static Scanner getScanner() {
         return SCANNER;
     }
+
+    public static RunMetrics getRunMetrics() {
+        return RUN_METRICS;
+    }
 }
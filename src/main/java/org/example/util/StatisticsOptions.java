@@ -0,0 +1,113 @@
+package org.example.util;
+
+import lombok.Builder;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.DateBucket;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.example.util.FileConstantsUtil.DEFAULT_PATH_FOR_RESULTS;
+import static org.example.util.PropertiesUtil.*;
+import static org.example.util.SingletonObjectsUtil.getActiveExecutionMode;
+
+/**
+ * The settings of reading statistics from order files and saving them, taken together
+ * so that they can be read from the system properties once and passed on as a whole.
+ *
+ * @param readerMode             The reader mode of the order files.
+ * @param splitThreshold         The size in bytes from which a file is split into chunks.
+ * @param chunkSize              The size in bytes of the chunks a file is split into.
+ * @param incremental            True if files unchanged since the last run are taken from the snapshot.
+ * @param resultsFolder          The folder the statistics, snapshots and failure manifest are written to.
+ * @param topLimit               The number of most frequent values kept, or 0 to keep all of them.
+ * @param counterCapacity        The capacity of the counters, see {@link AttributeCounter}.
+ * @param sketchEnabled          True if the counters keep sketches of the values.
+ * @param priceEnabled           True if the total price of the orders is aggregated by value.
+ * @param pricePercentiles       The percentiles of the total price written with the statistics.
+ * @param dateBucket             The bucket dates are counted by, or NONE to count them as they are.
+ * @param dateRange              The range of dates of the orders that are counted.
+ * @param filterConditions       The conditions the orders that are counted must meet.
+ * @param executionMode          The execution mode of the reading.
+ * @param threadsNumber          The number of threads that parse at a time.
+ * @param readBufferSize         The number of bytes held in memory at a time in the virtual execution mode.
+ * @param decompressionPipelined True if compressed files are decompressed by a separate thread.
+ * @param cacheEnabled           True if the orders are read from a columnar cache.
+ * @param pipelineReaders        The number of reader threads of the pipeline.
+ * @param pipelineParsers        The number of parser threads of the pipeline.
+ * @param pipelineAggregators    The number of aggregator threads of the pipeline.
+ * @param pipelineBuffers        The number of pooled buffers of the pipeline.
+ * @param errorPolicy            What happens to a file or an order that can't be read.
+ */
+@Builder(toBuilder = true)
+public record StatisticsOptions(ReaderMode readerMode, long splitThreshold, long chunkSize, boolean incremental,
+                                String resultsFolder, int topLimit, int counterCapacity, boolean sketchEnabled,
+                                boolean priceEnabled, List<BigDecimal> pricePercentiles, DateBucket dateBucket,
+                                DateRange dateRange, List<Condition> filterConditions, ExecutionMode executionMode,
+                                int threadsNumber, long readBufferSize, boolean decompressionPipelined,
+                                boolean cacheEnabled, int pipelineReaders, int pipelineParsers,
+                                int pipelineAggregators, int pipelineBuffers, ErrorPolicy errorPolicy) {
+    public static final long MAX_READ_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * Reads the settings selected at launch.
+     *
+     * @return The settings, with the execution mode the shared executor was created for.
+     * @throws IllegalArgumentException If a property has an invalid value.
+     */
+    public static StatisticsOptions fromProperties() {
+        int topLimit = getTopLimit();
+        boolean sketchEnabled = isSketchEnabled();
+        boolean priceEnabled = isPriceEnabled();
+        int pipelineReaders = getPipelineReaders();
+        int pipelineParsers = getPipelineParsers();
+        return builder()
+                .readerMode(getReaderMode())
+                .splitThreshold(getSplitThreshold())
+                .chunkSize(getSplitChunkSize())
+                .incremental(isIncremental())
+                .resultsFolder(DEFAULT_PATH_FOR_RESULTS)
+                .topLimit(topLimit)
+                .counterCapacity(getCounterCapacity(topLimit, sketchEnabled, priceEnabled))
+                .sketchEnabled(sketchEnabled)
+                .priceEnabled(priceEnabled)
+                .pricePercentiles(getPricePercentiles())
+                .dateBucket(getDateBucket())
+                .dateRange(getDateRange())
+                .filterConditions(getFilterConditions())
+                .executionMode(getActiveExecutionMode())
+                .threadsNumber(getThreadsNumber())
+                .readBufferSize(Math.min(getReadBufferSize(), MAX_READ_BUFFER_SIZE))
+                .decompressionPipelined(isDecompressionPipelined())
+                .cacheEnabled(isCacheEnabled())
+                .pipelineReaders(pipelineReaders)
+                .pipelineParsers(pipelineParsers)
+                .pipelineAggregators(getPipelineAggregators())
+                .pipelineBuffers(getPipelineBuffers(pipelineReaders + pipelineParsers))
+                .errorPolicy(getErrorPolicy())
+                .build();
+    }
+
+    /**
+     * Chooses the capacity of the counters: approximate counts are bounded by the top capacity, and when only
+     * sketches are needed no counts are kept at all. Price statistics need exact counts.
+     *
+     * @param topLimit      The number of values that are saved, or 0 for all values.
+     * @param sketchEnabled Whether the attributes are summarized by sketches.
+     * @param priceEnabled  Whether the prices are aggregated by value.
+     * @return The capacity of the counters.
+     * @throws IllegalArgumentException If the prices are aggregated in the approximate top mode.
+     */
+    private static int getCounterCapacity(int topLimit, boolean sketchEnabled, boolean priceEnabled) {
+        if (topLimit > 0 && getTopMode() == TopMode.APPROXIMATE) {
+            if (priceEnabled) {
+                throw new IllegalArgumentException("The property " + PRICE_PROPERTY
+                        + " can't be combined with the approximate top mode");
+            }
+            return getTopCapacity(topLimit);
+        }
+        return sketchEnabled && topLimit == 0 && !priceEnabled ? 0 : AttributeCounter.UNBOUNDED;
+    }
+}
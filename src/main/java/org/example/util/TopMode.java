@@ -0,0 +1,16 @@
+package org.example.util;
+
+/**
+ * The ways the values with the highest counts are selected when only the top values are saved.
+ */
+public enum TopMode {
+    /**
+     * Counts every distinct value exactly and selects the top values with a heap of the top size.
+     */
+    EXACT,
+    /**
+     * Keeps a bounded number of approximate counts in a Misra-Gries summary, so memory doesn't grow
+     * with the number of distinct values.
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,161 @@
+package org.example.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeCounterTest {
+
+    @Test
+    @DisplayName("givenAdd_whenManyDistinctValues_thenAllCountsKeptAfterResizing")
+    public void add_manyDistinctValues_ok() {
+        AttributeCounter counter = new AttributeCounter();
+
+        for (int i = 0; i < 10_000; i++) {
+            counter.add("value" + (i % 2_500), 1);
+        }
+
+        assertEquals(2_500, counter.size());
+        for (int i = 0; i < 2_500; i++) {
+            assertEquals(4, counter.get("value" + i));
+        }
+        assertEquals(0, counter.get("absent"));
+    }
+
+    @Test
+    @DisplayName("givenIncrement_whenCharacterRanges_thenCountedLikeStrings")
+    public void increment_characterRanges_ok() {
+        AttributeCounter counter = new AttributeCounter();
+        char[] chars = "[Socks][Zoë][][Socks]".toCharArray();
+
+        for (int i = 0; i < 1_000; i++) {
+            counter.increment(chars, 1, 5);
+            counter.increment(chars, 8, 3);
+            counter.increment(chars, 13, 0);
+            counter.increment(chars, 15, 5);
+            counter.increment("value" + i);
+        }
+
+        assertEquals(1_003, counter.size());
+        assertEquals(2_000, counter.get("Socks"));
+        assertEquals(1_000, counter.get("Zoë"));
+        assertEquals(1_000, counter.get(""));
+    }
+
+    @Test
+    @DisplayName("givenAdd_whenCountExceedsIntegerRange_thenNoOverflow")
+    public void add_countExceedsIntegerRange_ok() {
+        AttributeCounter counter = new AttributeCounter();
+
+        counter.add("value", Integer.MAX_VALUE);
+        counter.add("value", Integer.MAX_VALUE);
+
+        assertEquals(2L * Integer.MAX_VALUE, counter.get("value"));
+    }
+
+    @Test
+    @DisplayName("givenMergeFrom_whenCountersOverlap_thenCountsAreSummed")
+    public void mergeFrom_overlappingCounters_ok() {
+        AttributeCounter left = new AttributeCounter();
+        left.add("a", 2);
+        left.add("b", 1);
+        AttributeCounter right = new AttributeCounter();
+        right.add("b", 3);
+        right.add("c", 5);
+
+        left.mergeFrom(right);
+
+        assertEquals(3, left.size());
+        assertEquals(2, left.get("a"));
+        assertEquals(4, left.get("b"));
+        assertEquals(5, left.get("c"));
+    }
+
+    @Test
+    @DisplayName("givenSortByDescendingCount_whenEqualCounts_thenInsertionOrderKeptAndLookupWorks")
+    public void sortByDescendingCount_ok() {
+        AttributeCounter counter = new AttributeCounter();
+        counter.add("first", 1);
+        counter.add("second", 3);
+        counter.add("third", 1);
+        counter.add("fourth", 2);
+
+        counter.sortByDescendingCount();
+
+        List<String> values = new ArrayList<>();
+        counter.forEach((value, count) -> values.add(value));
+        assertEquals(List.of("second", "fourth", "first", "third"), values);
+        assertEquals(3, counter.get("second"));
+        counter.increment("first");
+        assertEquals(2, counter.get("first"));
+        assertEquals(4, counter.size());
+    }
+
+    @Test
+    @DisplayName("givenSortByDescendingCount_whenLimited_thenSameAsFirstValuesOfFullSort")
+    public void sortByDescendingCount_limit_ok() {
+        Random random = new Random(7);
+        AttributeCounter limited = new AttributeCounter();
+        AttributeCounter full = new AttributeCounter();
+        for (int i = 0; i < 5_000; i++) {
+            String value = "value" + random.nextInt(700);
+            limited.increment(value);
+            full.increment(value);
+        }
+
+        for (int limit : List.of(0, 1, 50, 699, 700, 1_000)) {
+            List<String> expected = toList(copy(full).sortByDescendingCount());
+            List<String> result = toList(copy(limited).sortByDescendingCount(limit));
+
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())), result);
+        }
+    }
+
+    @Test
+    @DisplayName("givenBoundedCounter_whenSkewedValues_thenCountsWithinErrorBound")
+    public void boundedCounter_skewedValues_ok() {
+        int capacity = 50;
+        int total = 100_000;
+        Random random = new Random(11);
+        Map<String, Long> exactCounts = new HashMap<>();
+        AttributeCounter left = new AttributeCounter(16, capacity);
+        AttributeCounter right = new AttributeCounter(16, capacity);
+        for (int i = 0; i < total; i++) {
+            String value = "value" + (int) Math.pow(10_000, random.nextDouble());
+            exactCounts.merge(value, 1L, Long::sum);
+            (i % 3 == 0 ? left : right).increment(value);
+        }
+
+        left.mergeFrom(right);
+
+        assertTrue(left.size() <= 2 * capacity);
+        assertTrue(left.getMaxError() > 0);
+        assertTrue(left.getMaxError() <= total / (capacity + 1), "error " + left.getMaxError());
+        exactCounts.forEach((value, count) -> {
+            long estimate = left.get(value);
+            assertTrue(estimate <= count && count <= estimate + left.getMaxError(), value);
+            if (count > left.getMaxError()) {
+                assertTrue(estimate > 0, value);
+            }
+        });
+    }
+
+    private static AttributeCounter copy(AttributeCounter counter) {
+        AttributeCounter copy = new AttributeCounter();
+        copy.mergeFrom(counter);
+        return copy;
+    }
+
+    private static List<String> toList(AttributeCounter counter) {
+        List<String> entries = new ArrayList<>();
+        counter.forEach((value, count) -> entries.add(value + "=" + count));
+        return entries;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeSketchTest {
+
+    @Test
+    @DisplayName("givenEstimateDistinct_whenSmallAndLargeCardinalities_thenWithinStandardError")
+    public void estimateDistinct_ok() {
+        for (int distinct : new int[] {10, 1_000, 200_000}) {
+            AttributeSketch sketch = new AttributeSketch();
+            for (int i = 0; i < distinct * 3; i++) {
+                sketch.add("customer" + (i % distinct), 1);
+            }
+
+            double relativeError = Math.abs(sketch.estimateDistinct() - distinct) / (double) distinct;
+            assertTrue(relativeError < 0.05, distinct + " estimated as " + sketch.estimateDistinct());
+            assertEquals(distinct * 3L, sketch.getTotal());
+        }
+    }
+
+    @Test
+    @DisplayName("givenEstimateCount_whenSkewedValues_thenNeverLowerAndWithinErrorBound")
+    public void estimateCount_skewedValues_ok() {
+        Random random = new Random(7);
+        Map<String, Long> exactCounts = new HashMap<>();
+        AttributeSketch sketch = new AttributeSketch();
+        for (int i = 0; i < 100_000; i++) {
+            String value = "value" + (int) Math.pow(10_000, random.nextDouble());
+            exactCounts.merge(value, 1L, Long::sum);
+            sketch.add(value, 1);
+        }
+
+        long errorBound = sketch.getFrequencies().getErrorBound();
+        long withinBound = exactCounts.entrySet().stream()
+                .peek(entry -> assertTrue(sketch.estimateCount(entry.getKey()) >= entry.getValue()))
+                .filter(entry -> sketch.estimateCount(entry.getKey()) <= entry.getValue() + errorBound)
+                .count();
+        assertTrue(withinBound >= exactCounts.size() * 0.95, withinBound + " of " + exactCounts.size());
+    }
+
+    @Test
+    @DisplayName("givenMergeAndSerialize_whenSplitAcrossSketches_thenSameAsSingleSketch")
+    public void mergeAndSerialize_ok() throws IOException {
+        AttributeSketch whole = new AttributeSketch();
+        AttributeSketch left = new AttributeSketch();
+        AttributeSketch right = new AttributeSketch();
+        for (int i = 0; i < 50_000; i++) {
+            String value = "value" + i % 7_000;
+            whole.add(value, 1);
+            (i % 2 == 0 ? left : right).add(value, 1);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        right.writeTo(new DataOutputStream(bytes));
+        AttributeSketch restored = AttributeSketch.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        left.merge(restored);
+
+        assertEquals(whole.getDistinctValues(), left.getDistinctValues());
+        assertEquals(whole.getFrequencies(), left.getFrequencies());
+        assertEquals(whole.estimateDistinct(), left.estimateDistinct());
+    }
+
+    @Test
+    @DisplayName("givenAdd_whenValueGivenAsStringOrUtf8Bytes_thenSameSketch")
+    public void add_stringAndUtf8Bytes_ok() {
+        AttributeSketch fromStrings = new AttributeSketch();
+        AttributeSketch fromBytes = new AttributeSketch();
+
+        for (String value : new String[] {"Adam", "Øresund", "日本語", "emoji 😀", ""}) {
+            fromStrings.add(value, 1);
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            fromBytes.add(ByteBuffer.wrap(encoded), 0, encoded.length);
+        }
+
+        assertEquals(fromStrings.getDistinctValues(), fromBytes.getDistinctValues());
+        assertEquals(fromStrings.getFrequencies(), fromBytes.getFrequencies());
+    }
+
+    @Test
+    @DisplayName("givenSketchOnlyCounter_whenMerged_thenNoValuesKeptAndSketchesMerged")
+    public void sketchOnlyCounter_ok() {
+        AttributeCounter left = new AttributeCounter(0, 0).withSketch(new AttributeSketch());
+        AttributeCounter right = new AttributeCounter(0, 0).withSketch(new AttributeSketch());
+        byte[] encoded = "b".getBytes(StandardCharsets.UTF_8);
+        left.increment("a");
+        right.increment(ByteBuffer.wrap(encoded), 0, encoded.length);
+        right.increment("a");
+
+        AttributeCounter copy = new AttributeCounter(0, 0);
+        copy.mergeFrom(left);
+        copy.mergeFrom(right);
+
+        assertTrue(copy.isEmpty());
+        assertNotSame(left.getSketch(), copy.getSketch());
+        assertEquals(2, copy.getSketch().estimateDistinct());
+        assertEquals(2, copy.getSketch().estimateCount("a"));
+        assertEquals(1, left.getSketch().getTotal());
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.aggregation;
+
+import org.example.parser.DateParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateBucketTest {
+
+    @Test
+    @DisplayName("givenWriteKey_whenEveryDayOfSeveralYears_thenSameAsIsoFields")
+    public void writeKey_everyDay_ok() {
+        byte[] key = new byte[DateBucket.MAX_KEY_LENGTH];
+
+        for (LocalDate date = LocalDate.of(2015, 12, 20); date.getYear() < 2027; date = date.plusDays(1)) {
+            int packed = DateParser.parse(date.toString());
+
+            assertEquals(date.toString(), toString(key, DateBucket.DAY.writeKey(packed, key)));
+            assertEquals(String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR),
+                    date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)), toString(key, DateBucket.WEEK.writeKey(packed, key)));
+            assertEquals(date.toString().substring(0, 7), toString(key, DateBucket.MONTH.writeKey(packed, key)));
+        }
+    }
+
+    @Test
+    @DisplayName("givenWriteKey_whenWeekCrossesYear_thenWeekBasedYear")
+    public void writeKey_weekCrossesYear_ok() {
+        byte[] key = new byte[DateBucket.MAX_KEY_LENGTH];
+
+        assertEquals("2020-W53", toString(key, DateBucket.WEEK.writeKey(DateParser.parse("2020-12-31"), key)));
+        assertEquals("2020-W53", toString(key, DateBucket.WEEK.writeKey(DateParser.parse("2021-01-03"), key)));
+        assertEquals("2021-W01", toString(key, DateBucket.WEEK.writeKey(DateParser.parse("2021-01-04"), key)));
+        assertEquals("2025-W01", toString(key, DateBucket.WEEK.writeKey(DateParser.parse("2024-12-30"), key)));
+    }
+
+    private static String toString(byte[] key, int length) {
+        return new String(key, 0, length, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiValuedAttributeTest {
+
+    @Test
+    @DisplayName("givenParseAll_whenValidDefinitions_thenAttributesBySeparator")
+    public void parseAll_validDefinitions_ok() {
+        Map<String, MultiValuedAttribute> attributes = MultiValuedAttribute.parseAll(" description=,  customer=| ");
+
+        assertEquals(2, attributes.size());
+        assertEquals(',', attributes.get("description").getSeparator());
+        assertEquals('|', attributes.get("customer").getSeparator());
+        assertTrue(MultiValuedAttribute.parseAll(" ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenParseAll_whenInvalidDefinitions_thenGetException")
+    public void parseAll_invalidDefinitions_notOk() {
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("description"));
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("description="));
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("description=,;"));
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("=,"));
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("unknown=,"));
+        assertThrows(IllegalArgumentException.class, () -> MultiValuedAttribute.parseAll("description=é"));
+    }
+}
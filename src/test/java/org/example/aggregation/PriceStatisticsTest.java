@@ -0,0 +1,150 @@
+package org.example.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceStatisticsTest {
+
+    @Test
+    @DisplayName("givenParse_whenPlainAndUnusualPrices_thenCentsOrBigDecimal")
+    public void parse_ok() {
+        OrderPrice price = new OrderPrice();
+
+        assertCents(price, "210.00", 21_000);
+        assertCents(price, "-3.5", -350);
+        assertCents(price, "7", 700);
+        assertCents(price, "1.2500", 125);
+        assertCents(price, "92233720368547758.07", Long.MAX_VALUE);
+
+        for (String text : new String[] {"1.234", "1e3", "92233720368547758.08",
+                "9223372036854775809", "92233720368547758090", "922337203685477580.9"}) {
+            price.parse(text.toCharArray(), 0, text.length());
+            assertTrue(price.isPresent() && !price.isCents(), text);
+            assertEquals(new BigDecimal(text), price.toBigDecimal());
+        }
+        byte[] bytes = "x135.50".getBytes(StandardCharsets.US_ASCII);
+        price.parse(ByteBuffer.wrap(bytes), 1, bytes.length);
+        assertEquals(13_550, price.getCents());
+        price.parse("abc".toCharArray(), 0, 3);
+        assertFalse(price.isPresent());
+    }
+
+    @Test
+    @DisplayName("givenCompleteOrder_whenValuesBeforeAndAfterPrice_thenPriceAddedToValuesOfTheOrder")
+    public void completeOrder_ok() {
+        AttributeCounter counter = new AttributeCounter().withPriceStatistics(new PriceStatistics());
+        OrderPrice price = new OrderPrice();
+        order(counter, price, "10.00", "a", "b");
+        order(counter, price, "1.005", "a");
+        order(counter, price, null, "b");
+        order(counter, price, "2.50", "b", "c");
+
+        PriceStatistics statistics = counter.getPriceStatistics();
+        counter.forEachEntry((index, value, count) -> {
+            switch (value) {
+                case "a" -> {
+                    assertEquals(2, statistics.getPricedCount(index));
+                    assertEquals(new BigDecimal("11.005"), statistics.getSum(index));
+                    assertEquals(new BigDecimal("1.005"), statistics.getMin(index));
+                    assertEquals(new BigDecimal("5.503"), statistics.getMean(index));
+                }
+                case "b" -> {
+                    assertEquals(3, count);
+                    assertEquals(2, statistics.getPricedCount(index));
+                    assertEquals(new BigDecimal("12.50"), statistics.getSum(index));
+                    assertEquals(new BigDecimal("2.50"), statistics.getMin(index));
+                    assertEquals(new BigDecimal("10.00"), statistics.getMax(index));
+                    assertEquals(new BigDecimal("6.25"), statistics.getMean(index));
+                }
+                default -> assertEquals(new BigDecimal("2.50"), statistics.getSum(index));
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("givenMergeSortAndSerialize_whenSplitAcrossCounters_thenSameAsSingleCounter")
+    public void mergeSortAndSerialize_ok() throws IOException {
+        AttributeCounter whole = new AttributeCounter().withPriceStatistics(new PriceStatistics());
+        AttributeCounter left = new AttributeCounter().withPriceStatistics(new PriceStatistics());
+        AttributeCounter right = new AttributeCounter().withPriceStatistics(new PriceStatistics());
+        OrderPrice price = new OrderPrice();
+        Random random = new Random(3);
+        for (int i = 0; i < 5_000; i++) {
+            String value = "customer" + random.nextInt(40);
+            String text = i == 77 ? "0.001" : (random.nextInt(100_000) / 100.0) + "";
+            order(whole, price, text, value);
+            order(i % 2 == 0 ? left : right, price, text, value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        right.getPriceStatistics().writeTo(new DataOutputStream(bytes), right.size());
+        AttributeCounter restored = new AttributeCounter(right.size());
+        right.forEach(restored::add);
+        restored.withPriceStatistics(PriceStatistics.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), right.size()));
+        left.mergeFrom(restored);
+        left.sortByDescendingCount();
+
+        assertEquals(describe(whole), describe(left));
+    }
+
+    @Test
+    @DisplayName("givenQuantile_whenManyPrices_thenWithinRelativeAccuracy")
+    public void quantile_ok() {
+        QuantileSketch sketch = new QuantileSketch();
+        double[] prices = new Random(5).doubles(20_000, -50, 1_000).toArray();
+        Arrays.stream(prices).forEach(sketch::add);
+        sketch.add(0);
+        Arrays.sort(prices);
+
+        for (double quantile : new double[] {0.01, 0.5, 0.9, 0.99}) {
+            double exact = prices[(int) (quantile * prices.length)];
+            assertEquals(exact, sketch.quantile(quantile), Math.abs(exact) * 0.02 + 0.5, "quantile " + quantile);
+        }
+        assertEquals(prices[0], sketch.quantile(0));
+        assertEquals(prices[prices.length - 1], sketch.quantile(1));
+    }
+
+    private static void assertCents(OrderPrice price, String text, long cents) {
+        price.parse(text.toCharArray(), 0, text.length());
+        assertTrue(price.isCents(), text);
+        assertEquals(cents, price.getCents());
+    }
+
+    private static void order(AttributeCounter counter, OrderPrice price, String text, String... values) {
+        for (String value : values) {
+            counter.increment(value);
+        }
+        if (text != null) {
+            price.parse(text.toCharArray(), 0, text.length());
+        }
+        counter.completeOrder(price);
+        price.clear();
+    }
+
+    private static List<String> describe(AttributeCounter counter) {
+        List<String> description = new ArrayList<>();
+        PriceStatistics statistics = counter.getPriceStatistics();
+        counter.forEachEntry((index, value, count) -> description.add(value + "=" + count + " "
+                + statistics.getSum(index) + " " + statistics.getMin(index) + " " + statistics.getMax(index)
+                + " " + statistics.getPercentile(index, 50)));
+        Collections.sort(description);
+        return description;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.cache;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderColumnsBuilderTest {
+    private static final String FIRST_ORDERS = "[{\"id\":1,\"date\":\"2024-04-09\",\"customer\":\"Customer 1\","
+            + "\"statusPayment\":true,\"description\":\"book, pen\",\"totalPrice\":210.50},"
+            + "{\"id\":-2,\"customer\":\"Customer 2\",\"statusPayment\":false,\"totalPrice\":7.5,\"unknown\":[1]},"
+            + "{\"id\":null,\"customer\":\"\",\"date\":\"1999-12-31\",\"totalPrice\":-3}]";
+    private static final String SECOND_ORDERS = "{\"customer\":\"Customer 2\",\"totalPrice\":\"0.05\"}\n"
+            + "{\"customer\":\"Customer 3\",\"statusPayment\":null,\"date\":\"2024-02-29\"}\n";
+
+    @Test
+    @DisplayName("givenWriteAndOpen_whenOrdersOfSeveralFiles_thenSameTextForEveryValue")
+    public void writeAndOpen_severalFiles_ok(@TempDir Path folder) throws IOException {
+        OrderColumnsBuilder builder = read(FIRST_ORDERS);
+        builder.append(read(SECOND_ORDERS));
+        List<OrderColumns.Source> sources = List.of(new OrderColumns.Source("/orders/1.json", 10, 20));
+        builder.write(folder, "/orders", sources);
+
+        OrderColumns columns = OrderColumns.open(folder);
+
+        assertEquals("/orders", columns.getFolderPath());
+        assertEquals(sources, columns.getSources());
+        assertEquals(5, columns.size());
+        assertEquals(Arrays.asList("1", "-2", null, null, null), texts(columns.getColumn("id")));
+        assertEquals(Arrays.asList("Customer 1", "Customer 2", "", "Customer 2", "Customer 3"),
+                texts(columns.getColumn("customer")));
+        assertEquals(Arrays.asList("2024-04-09", null, "1999-12-31", null, "2024-02-29"),
+                texts(columns.getColumn("date")));
+        assertEquals(Arrays.asList("true", "false", null, null, null), texts(columns.getColumn("statusPayment")));
+        assertEquals(Arrays.asList("book, pen", null, null, null, null), texts(columns.getColumn("description")));
+        assertEquals(Arrays.asList("210.50", "7.5", "-3", "0.05", null), texts(columns.getColumn("totalPrice")));
+        assertEquals(4, columns.getColumn("customer").getDenseKeys());
+        assertNull(columns.getColumn("unknown"));
+    }
+
+    @Test
+    @DisplayName("givenRead_whenValuesThatCantBeRebuilt_thenGetException")
+    public void read_notCacheableValues_notOk() {
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"id\":1.0}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"date\":\"2024-4-9\"}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"statusPayment\":\"yes\"}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"totalPrice\":1.005}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"totalPrice\":1e3}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"customer\":{\"name\":\"A\"}}]"));
+        assertThrows(IllegalArgumentException.class, () -> read("[{\"customer\":\"A\",\"customer\":\"B\"}]"));
+    }
+
+    @Test
+    @DisplayName("givenKeyCounts_whenSparseKeys_thenEveryKeyCounted")
+    public void keyCounts_sparseKeys_ok(@TempDir Path folder) throws IOException {
+        StringBuilder orders = new StringBuilder("[");
+        for (int order = 0; order < 1000; order++) {
+            orders.append(order == 0 ? "" : ",").append("{\"id\":").append(order % 300 * 1_000_003L).append('}');
+        }
+        OrderColumnsBuilder builder = read(orders.append(']').toString());
+        builder.write(folder, "/orders", List.of());
+        OrderColumn column = OrderColumns.open(folder).getColumn("id");
+        KeyCounts keyCounts = new KeyCounts(column);
+
+        for (int order = 0; order < 1000; order++) {
+            keyCounts.increment(column.getKey(order));
+        }
+
+        long[] total = new long[2];
+        keyCounts.forEach((key, count) -> {
+            assertEquals(0, key % 1_000_003L);
+            assertEquals(key / 1_000_003L < 100 ? 4 : 3, count);
+            total[0]++;
+            total[1] += count;
+        });
+        assertArrayEquals(new long[]{300, 1000}, total);
+    }
+
+    private static OrderColumnsBuilder read(String orders) throws IOException {
+        OrderColumnsBuilder builder = new OrderColumnsBuilder();
+        try (JsonParser parser = new JsonFactory().createParser(orders)) {
+            builder.read(parser);
+        }
+        return builder;
+    }
+
+    private static List<String> texts(OrderColumn column) {
+        return IntStream.range(0, 5)
+                .mapToObj(order -> column.getKey(order) == OrderColumn.NO_VALUE
+                        ? null
+                        : column.getText(column.getKey(order)))
+                .toList();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionTest {
+
+    @Test
+    @DisplayName("givenParseAll_whenValidExpression_thenConditionsParsed")
+    public void parseAll_validExpression_ok() {
+        List<Condition> conditions = Condition.parseAll(" statusPayment==true && customer != 'John Doe'&&totalPrice>=1e2 ");
+
+        assertEquals(3, conditions.size());
+        assertEquals("statusPayment == true", conditions.get(0).toString());
+        assertEquals("customer != John Doe", conditions.get(1).toString());
+        assertEquals("totalPrice >= 1e2", conditions.get(2).toString());
+        assertTrue(Condition.parseAll(" ").isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenParseAll_whenInvalidExpression_thenGetException")
+    public void parseAll_invalidExpression_notOk() {
+        for (String expression : List.of("totalPrice", "totalPrice >", "price > 100", "statusPayment = true",
+                "customer == a ||customer == b")) {
+            assertThrows(IllegalArgumentException.class, () -> Condition.parseAll(expression), expression);
+        }
+    }
+
+    @Test
+    @DisplayName("givenTest_whenNumberLiteral_thenValuesComparedAsNumbers")
+    public void test_numberLiteral_ok() {
+        Condition greater = Condition.parseAll("totalPrice > 100").get(0);
+        Condition equal = Condition.parseAll("totalPrice == 100.5").get(0);
+
+        assertMatches(greater, true, "100.01", "1000", "100.000000000000000000001", "2e2");
+        assertMatches(greater, false, "100", "100.00", "99.99", "-101", "abc", "", "-", "1e1");
+        assertMatches(equal, true, "100.5", "100.50", "100.500000000000000000000");
+        assertMatches(equal, false, "100.05", "1005", "100.49");
+    }
+
+    @Test
+    @DisplayName("givenTest_whenTextLiteral_thenValuesComparedAsText")
+    public void test_textLiteral_ok() {
+        assertMatches(Condition.parseAll("statusPayment == true").get(0), true, "true");
+        assertMatches(Condition.parseAll("statusPayment == true").get(0), false, "false", "True", "truee");
+        assertMatches(Condition.parseAll("date >= 2024-05-01").get(0), true, "2024-05-01", "2024-12-31", "2025-01-01");
+        assertMatches(Condition.parseAll("date >= 2024-05-01").get(0), false, "2024-04-30", "2024-05-0", "");
+        assertMatches(Condition.parseAll("id == \"7\"").get(0), false, "7.0");
+        assertMatches(Condition.parseAll("customer == Zoë").get(0), true, "Zoë");
+    }
+
+    private static void assertMatches(Condition condition, boolean expected, String... values) {
+        for (String value : values) {
+            byte[] bytes = ("\"" + value + "\"").getBytes(StandardCharsets.UTF_8);
+            char[] chars = (" " + value + " ").toCharArray();
+
+            assertEquals(expected, condition.test(ByteBuffer.wrap(bytes), 1, bytes.length - 1), condition + ": " + value);
+            assertEquals(expected, condition.test(chars, 1, value.length()), condition + ": " + value);
+        }
+    }
+}
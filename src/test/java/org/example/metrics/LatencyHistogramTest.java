@@ -0,0 +1,62 @@
+package org.example.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("givenPercentile_whenDurationsRecorded_thenWithinBucketError")
+    public void getPercentile_recordedDurations_ok() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 100_000).forEach(value -> histogram.record(value * 1000));
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_000_500.0, histogram.getMean(), 0.001);
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double exact = percentile * 1_000_000;
+            long reported = histogram.getPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * (1 + 1.0 / 32), percentile + ": " + reported);
+        }
+        assertEquals(histogram.getMax(), histogram.getPercentile(100));
+    }
+
+    @Test
+    @DisplayName("givenIndexOf_whenValuesGrow_thenBucketsContiguousAndBounded")
+    public void indexOf_growingValues_ok() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(index), "value " + value);
+            assertTrue(index == 0 || value > LatencyHistogram.upperBoundOf(index - 1), "value " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("givenRecord_whenSeveralThreads_thenNothingLostAndResetForgetsAll")
+    public void record_severalThreads_ok() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> LongStream.range(0, 10_000).forEach(histogram::record));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(4 * LongStream.range(0, 10_000).sum(), histogram.getTotal());
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(0));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateParserTest {
+
+    @Test
+    @DisplayName("givenParse_whenValidDates_thenSameAsLocalDate")
+    public void parse_validDates_ok() {
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.getYear() < 2030; date = date.plusDays(13)) {
+            String text = date.toString();
+            byte[] bytes = ("\"" + text + "\"").getBytes(StandardCharsets.US_ASCII);
+
+            int packed = DateParser.parse(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+
+            assertEquals(packed, DateParser.parse(text));
+            assertEquals(date.getYear(), DateParser.year(packed));
+            assertEquals(date.getMonthValue(), DateParser.month(packed));
+            assertEquals(date.getDayOfMonth(), DateParser.day(packed));
+            assertEquals(date.toEpochDay(), DateParser.toEpochDay(packed), text);
+        }
+    }
+
+    @Test
+    @DisplayName("givenParse_whenInvalidDates_thenNoDate")
+    public void parse_invalidDates_notOk() {
+        for (String text : new String[]{"", "2024-4-09", "2024/04/09", "2024-13-01", "2024-00-10", "2023-02-29",
+                "2024-04-31", "2024-04-0a", "20240409xx", "2024-04-091"}) {
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+            assertEquals(DateParser.NO_DATE, DateParser.parse(text), text);
+            assertEquals(DateParser.NO_DATE, DateParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length), text);
+        }
+        assertNotEquals(DateParser.NO_DATE, DateParser.parse("2024-02-29"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderFileSplitterTest {
+    @TempDir
+    private Path folder;
+
+    @Test
+    @DisplayName("givenSplit_whenLargeArray_thenChunksHoldWholeOrders")
+    public void split_largeArray_ok() throws IOException {
+        StringBuilder json = new StringBuilder("\n[\n");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : " ,\n").append("  {\"id\": ").append(i).append(", \"customer\": \"C").append(i)
+                    .append("\"}");
+        }
+        File file = write(json.append("\n]\n").toString());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        List<FileChunk> chunks = OrderFileSplitter.split(file, 200);
+
+        assertTrue(chunks.size() > 1);
+        int ordersNumber = 0;
+        for (FileChunk chunk : chunks) {
+            String content = new String(bytes, (int) chunk.start(), (int) chunk.length(), StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("{"), content);
+            assertTrue(content.endsWith("}"), content);
+            ordersNumber += content.split("\"id\"").length - 1;
+        }
+        assertEquals(100, ordersNumber);
+    }
+
+    @Test
+    @DisplayName("givenSplit_whenSmallArray_thenSingleChunk")
+    public void split_smallArray_ok() throws IOException {
+        File file = write("[{\"id\": 1}, {\"id\": 2}]");
+
+        List<FileChunk> chunks = OrderFileSplitter.split(file, 1024);
+
+        assertEquals(List.of(new FileChunk(file, 1, 21)), chunks);
+    }
+
+    @Test
+    @DisplayName("givenSplit_whenNotArrayOfOrders_thenNoChunks")
+    public void split_notArrayOfOrders_notOk() throws IOException {
+        assertTrue(OrderFileSplitter.split(write("\"orders\""), 4).isEmpty());
+        assertTrue(OrderFileSplitter.split(write("{\"id\": 1} 2"), 4).isEmpty());
+        assertTrue(OrderFileSplitter.split(write("[ ]"), 4).isEmpty());
+    }
+
+    @Test
+    @DisplayName("givenSplit_whenNewlineDelimitedOrders_thenChunksHoldWholeLines")
+    public void split_newlineDelimited_ok() throws IOException {
+        StringBuilder json = new StringBuilder("\n");
+        for (int i = 0; i < 100; i++) {
+            json.append("{\"id\": ").append(i).append(", \"customer\": \"C, {").append(i).append("}\"}\r\n");
+        }
+        File file = write(json.append("\n").toString());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        List<FileChunk> chunks = OrderFileSplitter.split(file, 200);
+
+        assertTrue(chunks.size() > 1);
+        int ordersNumber = 0;
+        for (FileChunk chunk : chunks) {
+            String content = new String(bytes, (int) chunk.start(), (int) chunk.length(), StandardCharsets.UTF_8);
+            assertTrue(chunk.delimitedByLines());
+            assertTrue(content.startsWith("{\"id\""), content);
+            assertTrue(content.endsWith("\"}"), content);
+            ordersNumber += content.split("\n").length;
+        }
+        assertEquals(100, ordersNumber);
+        File singleOrder = write("{\"id\": 1}\n");
+        assertEquals(List.of(new FileChunk(singleOrder, 0, 9, true)), OrderFileSplitter.split(singleOrder, 4));
+    }
+
+    @Test
+    @DisplayName("givenFindOrders_whenMalformedOrders_thenCutBetweenOpeningBraces")
+    public void findOrders_malformedOrders_ok() {
+        String json = " [ {\"id\": 1}, {\"id\": 2,\n{\"id\": 3, \"tags\": [{\"a\": 1}, {\"b\": 2}]} ,{\"id\": 4} ]\n";
+        ByteBuffer buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+
+        int[] orders = OrderFileSplitter.findOrders(buffer, 0, buffer.limit(), false);
+
+        List<String> found = new ArrayList<>();
+        for (int i = 0; i < orders.length; i += 2) {
+            found.add(json.substring(orders[i], orders[i + 1]));
+        }
+        assertEquals(List.of("{\"id\": 1}", "{\"id\": 2", "{\"id\": 3, \"tags\": [{\"a\": 1}", "{\"b\": 2}]}",
+                "{\"id\": 4}"), found);
+        int[] lines = OrderFileSplitter.findOrders(buffer, 0, buffer.limit(), true);
+        assertEquals(4, lines.length);
+        assertEquals("{\"id\": 3, \"tags\": [{\"a\": 1}, {\"b\": 2}]} ,{\"id\": 4} ]", json.substring(lines[2], lines[3]));
+    }
+
+    private File write(String content) throws IOException {
+        Path file = Files.createTempFile(folder, "orders", ".json");
+        return Files.writeString(file, content).toFile();
+    }
+}
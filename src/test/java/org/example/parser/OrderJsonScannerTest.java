@@ -0,0 +1,147 @@
+package org.example.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.AttributeCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderJsonScannerTest {
+
+    @Test
+    @DisplayName("givenScan_whenOrdersWithDifferentValueTypes_thenReportRawValues")
+    public void scan_differentValueTypes_ok() {
+        String json = "[{\"id\": 1, \"customer\": \"John\"}, {\"id\": 2.50, \"customer\": null},"
+                + " {\"customer\": true, \"id\": -3e2}]";
+
+        assertEquals(List.of("1", "2.50", "-3e2"), scan(json, "id"));
+        assertEquals(List.of("John", "true"), scan(json, "customer"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenNestedValues_thenOnlyOrderFieldsReported")
+    public void scan_nestedValues_ok() {
+        String json = "[{\"customer\": {\"customer\": \"Inner\"}, \"tags\": [\"customer\", {\"customer\": \"x\"}]},"
+                + " {\"note\": \"customer\", \"customer\": \"Outer\"}]";
+
+        assertEquals(List.of("Outer"), scan(json, "customer"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenEscapedKeysAndValues_thenReportUnescapedValues")
+    public void scan_escapedKeysAndValues_ok() {
+        String json = "[{\"cust\\u006fmer\": \"Jos\\u00e9 \\\"Pepe\\\" \\ud83d\\ude00\"}, {\"customer\": \"Zoë\"}]";
+
+        assertEquals(List.of("José \"Pepe\" 😀", "Zoë"), scan(json, "customer"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenSeveralAttributes_thenReportValuesWithTheirAttribute")
+    public void scan_severalAttributes_ok() {
+        String json = "[{\"id\": 1, \"customer\": \"John\", \"date\": \"2024-04-09\"}, {\"customer\": \"Alice\"}]";
+
+        assertEquals(List.of("1=1", "0=John", "0=Alice"), scan(json, "customer", "id"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenOrdersCompleted_thenEndReportedAfterTheirValues")
+    public void scan_orderCompleted_ok() {
+        String json = "[{\"customer\": \"John\", \"items\": {\"customer\": \"x\"}}, {\"customer\": \"Alice\"}, {}]";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<String> events = new ArrayList<>();
+
+        new OrderJsonScanner(List.of("customer")).scan(ByteBuffer.wrap(bytes), 0, bytes.length,
+                (index, buffer, start, end) -> events.add(StandardCharsets.UTF_8.decode(buffer.slice(start, end - start)).toString()),
+                () -> events.add("end"));
+
+        assertEquals(List.of("John", "end", "Alice", "end", "end"), events);
+    }
+
+    @Test
+    @DisplayName("givenScan_whenNestedFields_thenOnlyOrdersAndTheirFieldsCounted")
+    public void scan_scannedCounts_ok() {
+        String json = "[{\"customer\": \"John\", \"items\": {\"customer\": \"x\"}}, {\"customer\": \"Alice\"}, {}]";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        OrderJsonScanner scanner = new OrderJsonScanner(List.of("customer"));
+
+        scanner.scan(ByteBuffer.wrap(bytes), 0, bytes.length, (index, buffer, start, end) -> {});
+
+        assertEquals(3, scanner.getScannedOrders());
+        assertEquals(3, scanner.getScannedFields());
+        scanner.scan(ByteBuffer.wrap(bytes), 0, 0, (index, buffer, start, end) -> {});
+        assertEquals(0, scanner.getScannedOrders());
+    }
+
+    @Test
+    @DisplayName("givenScan_whenUnterminatedString_thenGetException")
+    public void scan_unterminatedString_notOk() {
+        assertThrows(IllegalStateException.class, () -> scan("[{\"customer\": \"John}]", "customer"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenStructureIsBroken_thenGetException")
+    public void scan_brokenStructure_notOk() {
+        assertThrows(IllegalStateException.class, () -> scan("[{\"customer\": \"A\",\n{\"customer\": \"B\"}]", "customer"));
+        assertThrows(IllegalStateException.class, () -> scan("[{\"id\": 1, customer\": \"A\"}]", "customer"));
+        assertThrows(IllegalStateException.class, () -> scan("[{\"customer\": [\"A\"}]", "customer"));
+        assertThrows(IllegalStateException.class, () -> scan("[{\"customer\": \"A\"}, {\"id\": 2", "customer"));
+        assertEquals(List.of("A"), scan("[{}, {\"customer\": \"A\",}]", "customer"));
+    }
+
+    @Test
+    @DisplayName("givenScan_whenUnpairedSurrogateEscapes_thenSameValuesCountedAsByJackson")
+    public void scan_unpairedSurrogates_ok() throws IOException {
+        String json = "[{\"customer\": \"\\ud800\"}, {\"customer\": \"a\\udc00b\"}, {\"customer\": \"\\ud83dx\"},"
+                + " {\"customer\": \"\\ud800\\ud800\"}, {\"customer\": \"\\ud83d\\ude00\"}, {\"customer\": \"\\ufffd\"},"
+                + " {\"customer\": \"\\ud800\"}]";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        AttributeCounter scanned = new AttributeCounter();
+        new OrderJsonScanner(List.of("customer")).scan(ByteBuffer.wrap(bytes), 0, bytes.length,
+                (index, buffer, start, end) -> scanned.increment(buffer, start, end));
+        AttributeCounter parsed = new AttributeCounter();
+        try (JsonParser parser = new JsonFactory().createParser(bytes)) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (token == JsonToken.VALUE_STRING) {
+                    parsed.increment(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                }
+            }
+        }
+
+        assertEquals(6, parsed.size());
+        assertEquals(2, parsed.get("\ud800"));
+        assertEquals(parsed.size(), scanned.size());
+        parsed.forEach((value, count) -> assertEquals(count, scanned.get(value), value));
+    }
+
+    private static List<String> scan(String json, String attribute) {
+        return scan(json, List.of(attribute)).stream()
+                .map(value -> value.substring(value.indexOf('=') + 1))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> scan(String json, String... attributes) {
+        return scan(json, List.of(attributes));
+    }
+
+    private static List<String> scan(String json, List<String> attributes) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<String> values = new ArrayList<>();
+        new OrderJsonScanner(attributes).scan(ByteBuffer.wrap(bytes), 0, bytes.length, (index, buffer, start, end) -> {
+            byte[] value = new byte[end - start];
+            buffer.get(start, value);
+            values.add(index + "=" + new String(value, StandardCharsets.UTF_8));
+        });
+        return values;
+    }
+}
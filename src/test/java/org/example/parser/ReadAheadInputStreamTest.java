@@ -0,0 +1,77 @@
+package org.example.parser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadAheadInputStreamTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("givenRead_whenStreamOfAnySize_thenSameBytes")
+    public void read_anySize_ok() throws IOException {
+        for (int size : new int[]{0, 1, 100, 1024, 1025, 10_000}) {
+            byte[] bytes = new byte[size];
+            new Random(size).nextBytes(bytes);
+
+            try (InputStream input = new ReadAheadInputStream(new ByteArrayInputStream(bytes), executor, 1024, 2)) {
+                assertArrayEquals(bytes, input.readAllBytes(), "size " + size);
+                assertEquals(-1, input.read());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenRead_whenSourceFails_thenBytesBeforeFailureReadAndExceptionThrown")
+    public void read_sourceFails_notOk() throws IOException {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        byte[] bytes = new byte[2048];
+
+        try (InputStream input = new ReadAheadInputStream(new SequenceInputStream(new ByteArrayInputStream(bytes),
+                failing), executor, 1024, 2)) {
+            assertEquals(2048, input.readNBytes(2048).length);
+            IOException exception = assertThrows(IOException.class, input::read);
+            assertEquals("broken", exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("givenClose_whenNotReadToTheEnd_thenReadingThreadStops")
+    public void close_notReadToTheEnd_ok() throws Exception {
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+        };
+
+        InputStream input = new ReadAheadInputStream(endless, executor, 1024, 2);
+        assertEquals('x', input.read());
+        input.close();
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertThrows(IOException.class, input::read);
+    }
+}
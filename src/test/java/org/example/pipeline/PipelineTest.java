@@ -0,0 +1,67 @@
+package org.example.pipeline;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineTest {
+
+    @Test
+    @DisplayName("givenRun_whenSeveralStages_thenEveryItemHandledOnce")
+    public void run_severalStages_ok() throws Exception {
+        Pipeline pipeline = new Pipeline("test");
+        StageQueue<Integer> numbers = pipeline.createSource("numbers", IntStream.rangeClosed(1, 1000).boxed().toList());
+        StageQueue<Long> squares = pipeline.createQueue("squares", 2);
+        AtomicLong sum = new AtomicLong();
+        pipeline.addStage("square", 3, numbers, number -> squares.put((long) number * number), squares);
+        pipeline.addStage("sum", 2, squares, sum::addAndGet);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::run);
+
+        assertEquals(IntStream.rangeClosed(1, 1000).mapToLong(number -> (long) number * number).sum(), sum.get());
+        assertTrue(squares.getMaxDepth() <= squares.getCapacity());
+        assertEquals(4, pipeline.summarize().size());
+        assertNotNull(pipeline.getBottleneck());
+    }
+
+    @Test
+    @DisplayName("givenRun_whenStageFails_thenAllStagesStopAndGetException")
+    public void run_failingStage_notOk() {
+        Pipeline pipeline = new Pipeline("test");
+        StageQueue<Integer> numbers = pipeline.createSource("numbers", IntStream.rangeClosed(1, 1000).boxed().toList());
+        StageQueue<Integer> checked = pipeline.createQueue("checked", 1);
+        pipeline.addStage("check", 2, numbers, number -> {
+            if (number == 500) {
+                throw new IllegalStateException("Invalid number " + number);
+            }
+            checked.put(number);
+        }, checked);
+        pipeline.addStage("wait", 1, checked, number -> Thread.sleep(1));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> assertTimeoutPreemptively(Duration.ofSeconds(10), pipeline::run));
+        assertEquals("Invalid number 500", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("givenBufferPool_whenBufferTooSmall_thenLargerBufferKept")
+    public void acquire_growingBuffer_ok() throws InterruptedException {
+        BufferPool bufferPool = new BufferPool(1, 16);
+
+        ByteBuffer buffer = bufferPool.acquire(8);
+        assertTrue(buffer.isDirect());
+        assertEquals(16, buffer.capacity());
+        bufferPool.release(buffer.limit(4));
+        ByteBuffer larger = bufferPool.acquire(64);
+        assertEquals(64, larger.capacity());
+        bufferPool.release(larger);
+        assertSame(larger, bufferPool.acquire(32));
+        assertEquals(64, larger.limit());
+    }
+}
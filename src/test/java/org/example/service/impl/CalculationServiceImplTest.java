@@ -1,24 +1,30 @@
 package org.example.service.impl;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.DateBucket;
+import org.example.aggregation.MultiValuedAttribute;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CalculationServiceImplTest {
-    @InjectMocks
-    private CalculationServiceImpl calculationService;
+    private final CalculationServiceImpl calculationService = new CalculationServiceImpl();
     @Mock
     private JsonParser mockParser;
 
@@ -31,10 +37,10 @@ class CalculationServiceImplTest {
         when(mockParser.nextToken()).thenReturn(JsonToken.FIELD_NAME, JsonToken.VALUE_STRING);
         when(mockParser.getValueAsString()).thenReturn(attributeValue);
 
-        Map<String, Integer> result = calculationService.calculateAttributes(mockParser, attribute, JsonToken.VALUE_STRING);
+        AttributeCounter result = new AttributeCounter();
+        calculationService.calculateAttributes(mockParser, Map.of(attribute, result));
 
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(attributeValue));
         assertEquals(1, result.get(attributeValue));
     }
 
@@ -45,7 +51,8 @@ class CalculationServiceImplTest {
         String invalidFieldName = "invalid";
         when(mockParser.getCurrentName()).thenReturn(invalidFieldName);
 
-        Map<String, Integer> result = calculationService.calculateAttributes(mockParser, attribute, JsonToken.VALUE_STRING);
+        AttributeCounter result = new AttributeCounter();
+        calculationService.calculateAttributes(mockParser, Map.of(attribute, result));
 
         assertTrue(result.isEmpty());
     }
@@ -58,7 +65,7 @@ class CalculationServiceImplTest {
         when(mockParser.getCurrentName()).thenThrow(expectedException);
 
         IOException thrownException = assertThrows(IOException.class,
-                () -> calculationService.calculateAttributes(mockParser, attribute, JsonToken.VALUE_STRING));
+                () -> calculationService.calculateAttributes(mockParser, Map.of(attribute, new AttributeCounter())));
 
         assertEquals(expectedException.getMessage(), thrownException.getMessage());
     }
@@ -72,14 +79,129 @@ class CalculationServiceImplTest {
         when(mockParser.nextToken()).thenReturn(JsonToken.FIELD_NAME, JsonToken.VALUE_STRING);
         when(mockParser.getValueAsString()).thenReturn(attributeValue);
 
-        Map<String, Integer> result = calculationService.calculateAttributes(mockParser, attribute, JsonToken.VALUE_STRING);
+        AttributeCounter result = new AttributeCounter();
+        calculationService.calculateAttributes(mockParser, Map.of(attribute, result));
 
         assertEquals(3, result.size());
         Arrays.stream(attributeValue.split(","))
                 .map(String::trim)
-                .forEach(value -> {
-                    assertTrue(result.containsKey(value));
-                    assertEquals(1, result.get(value));
-                });
+                .forEach(value -> assertEquals(1, result.get(value)));
+    }
+
+    @Test
+    @DisplayName("givenSortByDescendingValues_whenSeveralValuesAccumulated_thenReturnSortedByDescendingCount")
+    public void sortByDescendingValues_severalValues_ok() throws IOException {
+        String attribute = "attribute";
+        when(mockParser.getCurrentName()).thenReturn(attribute);
+        when(mockParser.getValueAsString()).thenReturn("rare", "common", "common", "frequent", "common", "frequent");
+
+        AttributeCounter statistics = new AttributeCounter();
+        for (int i = 0; i < 6; i++) {
+            calculationService.calculateAttributes(mockParser, Map.of(attribute, statistics));
+        }
+        AttributeCounter result = calculationService.sortByDescendingValues(statistics);
+
+        List<String> values = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        result.forEach((value, count) -> {
+            values.add(value);
+            counts.add(count);
+        });
+        assertEquals(List.of("common", "frequent", "rare"), values);
+        assertEquals(List.of(3L, 2L, 1L), counts);
+    }
+
+    @Test
+    @DisplayName("givenCalculateAttributes_whenSeveralAttributesRequested_thenEachFieldCountedForItsAttribute")
+    public void calculateAttributes_severalAttributes_ok() throws IOException {
+        AttributeCounter customers = new AttributeCounter();
+        AttributeCounter descriptions = new AttributeCounter();
+        Map<String, AttributeCounter> statistics = Map.of("customer", customers, "description", descriptions);
+        when(mockParser.getCurrentName()).thenReturn("customer", "description", "date");
+        when(mockParser.getValueAsString()).thenReturn("John Doe", "Socks, Brush");
+
+        for (int i = 0; i < 3; i++) {
+            calculationService.calculateAttributes(mockParser, statistics);
+        }
+
+        assertEquals(1, customers.size());
+        assertEquals(1, customers.get("John Doe"));
+        assertEquals(2, descriptions.size());
+        assertEquals(1, descriptions.get("Brush"));
+    }
+
+    @Test
+    @DisplayName("givenCalculateAttributesFromBytes_whenDescriptionAttribute_thenSplitLikeString")
+    public void calculateAttributesFromBytes_descriptionAttribute_ok() {
+        List<String> descriptions = List.of("Socks, Brush,  Zoë ", "", ",", "a,,b", "a, ", "a,,", " ,Brush");
+
+        for (String description : descriptions) {
+            AttributeCounter expected = new AttributeCounter();
+            Arrays.stream(description.split(",")).map(String::trim).forEach(expected::increment);
+            byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+
+            AttributeCounter result = new AttributeCounter();
+            calculationService.calculateAttributes(ByteBuffer.wrap(bytes), 0, bytes.length, "description", result);
+
+            assertEquals(expected.size(), result.size(), description);
+            expected.forEach((value, count) -> assertEquals(count, result.get(value), description));
+        }
+    }
+
+    @Test
+    @DisplayName("givenCalculateAttributes_whenConfiguredSeparator_thenEveryReaderSplitsLikeString")
+    public void calculateAttributes_configuredSeparator_ok() throws Exception {
+        CalculationServiceImpl calculationService = new CalculationServiceImpl(DateBucket.NONE,
+                MultiValuedAttribute.parseAll("customer=|"));
+        List<String> customers = List.of("John | Jane,  Zoë ", "", "|", "a||b", "a| ", "a||", " |Jane");
+
+        for (String customer : customers) {
+            AttributeCounter expected = new AttributeCounter();
+            Arrays.stream(customer.split("\\|")).map(String::trim).forEach(value -> {
+                for (int i = 0; i < 3; i++) {
+                    expected.increment(value);
+                }
+            });
+            byte[] bytes = customer.getBytes(StandardCharsets.UTF_8);
+
+            AttributeCounter result = new AttributeCounter();
+            calculationService.calculateAttributes(ByteBuffer.wrap(bytes), 0, bytes.length, "customer", result);
+            calculationService.calculateAttributes(customer, "customer", result);
+            try (JsonParser parser = new JsonFactory().createParser("{\"customer\": \"" + customer + "\"}")) {
+                parser.nextToken();
+                parser.nextToken();
+                calculationService.calculateAttributes(parser, Map.of("customer", result));
+            }
+
+            assertEquals(expected.size(), result.size(), customer);
+            expected.forEach((value, count) -> assertEquals(count, result.get(value), customer));
+        }
+        AttributeCounter descriptions = new AttributeCounter();
+        calculationService.calculateAttributes("Socks, Brush", "description", descriptions);
+        assertEquals(1, descriptions.get("Socks, Brush"));
+    }
+
+    @Test
+    @DisplayName("givenCalculateAttributes_whenDateBucket_thenDatesCountedByBucket")
+    public void calculateAttributes_dateBucket_ok() throws Exception {
+        CalculationServiceImpl calculationService = new CalculationServiceImpl(DateBucket.WEEK,
+                MultiValuedAttribute.parseAll(""));
+        AttributeCounter result = new AttributeCounter();
+        byte[] bytes = "2024-04-09".getBytes(StandardCharsets.US_ASCII);
+
+        calculationService.calculateAttributes(ByteBuffer.wrap(bytes), 0, bytes.length, "date", result);
+        calculationService.calculateAttributes("2024-04-14", "date", result);
+        calculationService.calculateAttributes("2024-04-15", "date", result);
+        calculationService.calculateAttributes("unknown", "date", result);
+        try (JsonParser parser = new JsonFactory().createParser("{\"date\": \"2024-04-13\"}")) {
+            parser.nextToken();
+            parser.nextToken();
+            calculationService.calculateAttributes(parser, Map.of("date", result));
+        }
+
+        assertEquals(3, result.size());
+        assertEquals(3, result.get("2024-W15"));
+        assertEquals(1, result.get("2024-W16"));
+        assertEquals(1, result.get("unknown"));
     }
 }
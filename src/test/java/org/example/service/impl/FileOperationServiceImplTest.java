@@ -1,30 +1,68 @@
 package org.example.service.impl;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import lombok.SneakyThrows;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.example.aggregation.AttributeCounter;
+import org.example.aggregation.AttributeSketch;
+import org.example.aggregation.DateBucket;
+import org.example.aggregation.MultiValuedAttribute;
+import org.example.aggregation.OrderPrice;
+import org.example.aggregation.PriceStatistics;
 import org.example.exception.CustomFileException;
 import org.example.exception.ExecutorTimeoutException;
+import org.example.filter.Condition;
+import org.example.filter.DateRange;
+import org.example.metrics.RunMetrics;
+import org.example.model.Item;
+import org.example.model.PriceSummary;
+import org.example.model.ReadFailure;
+import org.example.model.ReadFailures;
 import org.example.model.Statistics;
 import org.example.service.CalculationService;
+import org.example.service.DateIndexService;
+import org.example.service.OrderCacheService;
+import org.example.service.SnapshotService;
+import org.example.util.ErrorPolicy;
+import org.example.util.ExecutionMode;
+import org.example.util.ReaderMode;
+import org.example.util.StatisticsOptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
 
 import static org.example.util.FileConstantsUtil.*;
+import static org.example.util.SingletonObjectsUtil.getRunMetrics;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -34,103 +72,863 @@ import static org.mockito.Mockito.*;
 public class FileOperationServiceImplTest {
     private final String TEST_FOLDER_PATH = "src/test/resources/orders";
     private final String BAD_FOLDER_PATH = "bad/path";
+    private final String RESOURCES_FOLDER_PATH = "src/main/resources";
     private final String TEST_ATTRIBUTE = "customer";
-    @InjectMocks
-    private FileOperationServiceImpl fileOperationService;
-    @Mock
-    private CalculationService calculationService;
+    private final List<String> TEST_ATTRIBUTES = List.of(TEST_ATTRIBUTE);
+    private final List<String> ALL_ATTRIBUTES =
+            List.of("id", "customer", "date", "statusPayment", "description", "totalPrice");
+    private final int THREADS_NUMBER = 8;
     @Mock
     private ExecutorService executorService;
-    @Mock
+    private StatisticsOptions.StatisticsOptionsBuilder options;
     private XmlMapper xmlMapper;
+    private RunMetrics metrics;
+    private CalculationService calculationService;
+    private SnapshotService snapshotService;
+    private DateIndexService dateIndexService;
+    private OrderCacheService orderCacheService;
 
-    @SneakyThrows
     @BeforeEach
     void setUp() {
-        Field xmlMapperField = FileOperationServiceImpl.class.getDeclaredField("xmlMapper");
-        xmlMapperField.setAccessible(true);
-        xmlMapperField.set(fileOperationService, xmlMapper);
-
-        Field executorField = FileOperationServiceImpl.class.getDeclaredField("executor");
-        executorField.setAccessible(true);
-        executorField.set(fileOperationService, executorService);
+        options = StatisticsOptions.fromProperties().toBuilder();
+        xmlMapper = mock(XmlMapper.class);
+        metrics = getRunMetrics();
+        calculationService = mock(CalculationService.class);
     }
 
     @Test
     @DisplayName("givenReadStatisticsFromFile_whenValidInput_thenSuccess")
-    public void readStatisticsFromFile_validInput_ok() throws IOException, InterruptedException {
-        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
-        Map<String, Integer> expectedStatistics = new HashMap<>();
-        expectedStatistics.put("value1", 1);
-        expectedStatistics.put("value2", 2);
-
-        when(executorService.awaitTermination(anyLong(), any())).thenReturn(true);
-        when(calculationService.calculateAttributes(any(), any(), any())).thenReturn(expectedStatistics);
-        when(executorService.submit(captor.capture())).thenAnswer(invocation -> {
-            captor.getValue().run();
-            return mock(Future.class);
+    public void readStatisticsFromFile_validInput_ok() {
+        AttributeCounter expectedStatistics = new AttributeCounter();
+        expectedStatistics.add("value1", 1);
+        expectedStatistics.add("value2", 2);
+
+        when(calculationService.sortByDescendingValues(any())).thenReturn(expectedStatistics);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executorService).execute(any(Runnable.class));
+
+        Map<String, AttributeCounter> result = createService(executorService).readFromFile(TEST_FOLDER_PATH,
+                TEST_ATTRIBUTES);
+
+        assertEquals(Map.of(TEST_ATTRIBUTE, expectedStatistics), result);
+        verify(executorService, never()).shutdown();
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenReadConcurrently_thenCountsAreDeterministic")
+    public void readStatisticsFromFile_concurrentRead_deterministicCounts(@TempDir Path folder) throws Exception {
+        int filesNumber = 16;
+        int ordersPerFile = 500;
+        AttributeCounter expectedStatistics = new AttributeCounter();
+        for (int file = 0; file < filesNumber; file++) {
+            StringBuilder orders = new StringBuilder("[");
+            for (int order = 0; order < ordersPerFile; order++) {
+                String customer = "Customer " + (order * 31 + file) % 97;
+                expectedStatistics.increment(customer);
+                orders.append(order == 0 ? "" : ",").append("{\"id\":").append(order)
+                        .append(",\"customer\":\"").append(customer).append("\"}");
+            }
+            Files.writeString(folder.resolve("orders_" + file + JSON_FILE_EXTENSION), orders.append("]"));
+        }
+        calculationService = new CalculationServiceImpl();
+
+        for (int run = 0; run < 5; run++) {
+            AttributeCounter result = readFromFolder(folder.toString(), TEST_ATTRIBUTES).get(TEST_ATTRIBUTE);
+
+            assertEquals(expectedStatistics.size(), result.size());
+            expectedStatistics.forEach((customer, count) -> assertEquals(count, result.get(customer)));
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenMappedReaderMode_thenSameResultAsJackson")
+    public void readStatisticsFromFile_mappedReaderMode_ok() throws Exception {
+        calculationService = new CalculationServiceImpl();
+
+        for (String attribute : ALL_ATTRIBUTES) {
+            AttributeCounter expected = readWithRealExecutor(ReaderMode.JACKSON, attribute);
+            AttributeCounter result = readWithRealExecutor(ReaderMode.MAPPED, attribute);
+
+            assertFalse(result.isEmpty());
+            assertEquals(expected.size(), result.size());
+            expected.forEach((value, count) -> assertEquals(count, result.get(value), attribute + ": " + value));
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenFilesAreSplitIntoChunks_thenSameResultAsWholeFiles")
+    public void readStatisticsFromFile_splitFiles_ok() throws Exception {
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (String attribute : List.of("id", "customer", "description")) {
+                options.splitThreshold(Long.MAX_VALUE);
+                AttributeCounter expected = readWithRealExecutor(readerMode, attribute);
+                options.splitThreshold(1024L).chunkSize(2048L);
+                AttributeCounter result = readWithRealExecutor(readerMode, attribute);
+
+                assertEquals(expected.size(), result.size());
+                expected.forEach((value, count) -> assertEquals(count, result.get(value), attribute + ": " + value));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenVirtualExecutionMode_thenSameResultAsPool")
+    public void readStatisticsFromFile_virtualExecutionMode_ok() throws Exception {
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (long readBufferSize : List.of(1024L, 1L << 20)) {
+                options.executionMode(ExecutionMode.POOL);
+                AttributeCounter expected = readWithRealExecutor(readerMode, TEST_ATTRIBUTE);
+                options.executionMode(ExecutionMode.VIRTUAL).readBufferSize(readBufferSize).threadsNumber(2);
+                AttributeCounter result = readWithRealExecutor(readerMode, TEST_ATTRIBUTE);
+
+                assertEquals(expected.size(), result.size());
+                expected.forEach((value, count) -> assertEquals(count, result.get(value)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenPipelineExecutionMode_thenSameResultAsPool")
+    public void readStatisticsFromFile_pipelineExecutionMode_ok(@TempDir Path folder) throws Exception {
+        Map<String, AttributeCounter> expected = countResourceOrders(order -> order.get("statusPayment").equals("true"));
+        File[] files = new File(RESOURCES_FOLDER_PATH).listFiles();
+        for (int i = 0; i < files.length; i++) {
+            Path target = folder.resolve(files[i].getName() + (i % 2 == 0 ? "" : ".gz"));
+            try (OutputStream output = i % 2 == 0
+                    ? Files.newOutputStream(target)
+                    : new GZIPOutputStream(Files.newOutputStream(target))) {
+                Files.copy(files[i].toPath(), output);
+            }
+        }
+        calculationService = new CalculationServiceImpl();
+        options.filterConditions(Condition.parseAll("statusPayment == true"))
+                .executionMode(ExecutionMode.PIPELINE)
+                .chunkSize(2048L);
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (int[] threads : List.of(new int[]{1, 1, 1, 1}, new int[]{2, 3, 2, 2})) {
+                options.readerMode(readerMode)
+                        .pipelineReaders(threads[0])
+                        .pipelineParsers(threads[1])
+                        .pipelineAggregators(threads[2])
+                        .pipelineBuffers(threads[3]);
+                Map<String, AttributeCounter> result = readFromFolder(folder.toString(), ALL_ATTRIBUTES);
+
+                for (String attribute : ALL_ATTRIBUTES) {
+                    assertEquals(expected.get(attribute).size(), result.get(attribute).size(), attribute);
+                    expected.get(attribute).forEach((value, count) ->
+                            assertEquals(count, result.get(attribute).get(value), attribute + ": " + value));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenPipelineStageFails_thenGetException")
+    public void readStatisticsFromFile_pipelineExecutionMode_notOk(@TempDir Path folder) throws Exception {
+        Files.writeString(folder.resolve("orders_1.json"), "[{\"customer\":\"A\"},{\"customer\":\"B\"");
+        calculationService = new CalculationServiceImpl();
+        options.executionMode(ExecutionMode.PIPELINE);
+
+        assertThrows(CustomFileException.class,
+                () -> createService(executorService).readFromFile(folder.toString(), TEST_ATTRIBUTES));
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenTopLimit_thenOnlyTopValuesKept")
+    public void readStatisticsFromFile_topLimit_ok() throws Exception {
+        calculationService = new CalculationServiceImpl();
+        List<String> allValues = new ArrayList<>();
+        readWithRealExecutor(ReaderMode.MAPPED, "customer").forEach((value, count) -> allValues.add(value + "=" + count));
+        options.topLimit(5);
+
+        List<String> exactTop = new ArrayList<>();
+        readWithRealExecutor(ReaderMode.MAPPED, "customer").forEach((value, count) -> exactTop.add(value + "=" + count));
+        options.counterCapacity(8);
+        AttributeCounter approximateTop = readWithRealExecutor(ReaderMode.MAPPED, "customer");
+
+        assertEquals(allValues.subList(0, 5), exactTop);
+        assertTrue(approximateTop.size() <= 5);
+        approximateTop.forEach((value, count) -> {
+            long exactCount = Long.parseLong(allValues.stream().filter(entry -> entry.startsWith(value + "="))
+                    .findFirst().orElseThrow().substring(value.length() + 1));
+            assertTrue(count <= exactCount && exactCount <= count + approximateTop.getMaxError());
         });
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenSketchEnabled_thenOnlySketchKeptAndSaved")
+    public void readStatisticsFromFile_sketch_ok(@TempDir Path results) throws Exception {
+        calculationService = new CalculationServiceImpl();
+        AttributeCounter exact = readWithRealExecutor(ReaderMode.JACKSON, "customer");
+        options.sketchEnabled(true).counterCapacity(0).resultsFolder(results.toString());
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            AttributeCounter statistics = readWithRealExecutor(readerMode, "customer");
+            createService(executorService).saveToFile(statistics, "customer");
+
+            assertTrue(statistics.isEmpty());
+            assertEquals(exact.size(), statistics.getSketch().estimateDistinct(), 1);
+            exact.forEach((value, count) -> assertTrue(statistics.getSketch().estimateCount(value) >= count));
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(
+                    results.resolve("statistics_by_customer.sketch")))) {
+                assertEquals(statistics.getSketch().getFrequencies(), AttributeSketch.readFrom(input).getFrequencies());
+            }
+            assertFalse(Files.exists(results.resolve("statistics_by_customer.xml")));
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenPriceEnabled_thenPricesAggregatedByValue")
+    public void readStatisticsFromFile_price_ok() throws Exception {
+        Map<String, BigDecimal> expectedSums = new HashMap<>();
+        Map<String, BigDecimal> expectedMaxs = new HashMap<>();
+        for (File file : new File(RESOURCES_FOLDER_PATH).listFiles()) {
+            try (JsonParser parser = new JsonFactory().createParser(file)) {
+                String description = null;
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token == JsonToken.VALUE_STRING && "description".equals(parser.getCurrentName())) {
+                        description = parser.getText();
+                    } else if (token == JsonToken.VALUE_NUMBER_FLOAT && "totalPrice".equals(parser.getCurrentName())) {
+                        BigDecimal price = parser.getDecimalValue();
+                        for (String value : description.split(",")) {
+                            expectedSums.merge(value.trim(), price, BigDecimal::add);
+                            expectedMaxs.merge(value.trim(), price, BigDecimal::max);
+                        }
+                    }
+                }
+            }
+        }
+        calculationService = new CalculationServiceImpl();
+        options.priceEnabled(true);
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            AttributeCounter statistics = readWithRealExecutor(readerMode, "description");
+            PriceStatistics priceStatistics = statistics.getPriceStatistics();
+
+            assertEquals(expectedSums.size(), statistics.size());
+            statistics.forEachEntry((index, value, count) -> {
+                assertEquals(count, priceStatistics.getPricedCount(index), value);
+                assertEquals(expectedSums.get(value), priceStatistics.getSum(index), value);
+                assertEquals(expectedMaxs.get(value), priceStatistics.getMax(index), value);
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenDateRange_thenOnlyOrdersInRangeCounted")
+    public void readStatisticsFromFile_dateRange_ok(@TempDir Path results) throws Exception {
+        LocalDate from = LocalDate.of(2024, 4, 15);
+        LocalDate to = LocalDate.of(2024, 5, 2);
+        Map<String, AttributeCounter> expected = countResourceOrders(order -> {
+            LocalDate date = LocalDate.parse(order.get("date"));
+            return !date.isBefore(from) && !date.isAfter(to);
+        });
+        calculationService = new CalculationServiceImpl();
+        dateIndexService = new DateIndexServiceImpl(results.toString());
+        options.dateRange(new DateRange(from, to));
+
+        assertSameStatisticsForAllReaders(expected);
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenFilterConditions_thenOnlyMatchingOrdersCounted")
+    public void readStatisticsFromFile_filterConditions_ok() throws Exception {
+        Map<String, AttributeCounter> expected = countResourceOrders(order -> order.get("statusPayment").equals("true")
+                && new BigDecimal(order.get("totalPrice")).compareTo(BigDecimal.valueOf(100)) > 0);
+        calculationService = new CalculationServiceImpl();
+        options.filterConditions(Condition.parseAll("statusPayment == true && totalPrice > 100"));
+
+        assertSameStatisticsForAllReaders(expected);
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenMetricsEnabled_thenEveryOrderAndFieldCountedOnce")
+    public void readStatisticsFromFile_metrics_ok() throws Exception {
+        long orders = 0;
+        long fields = 0;
+        long bytes = 0;
+        File[] files = new File(RESOURCES_FOLDER_PATH).listFiles();
+        for (File file : files) {
+            bytes += file.length();
+            try (JsonParser parser = new JsonFactory().createParser(file)) {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token != JsonToken.START_OBJECT) {
+                        continue;
+                    }
+                    orders++;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        fields++;
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        metrics = new RunMetrics(true, false);
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (long splitThreshold : List.of(Long.MAX_VALUE, 1024L)) {
+                options.readerMode(readerMode).splitThreshold(splitThreshold).chunkSize(2048L);
+                metrics.reset();
+                readFromFolder(RESOURCES_FOLDER_PATH, ALL_ATTRIBUTES);
+
+                String mode = readerMode + ", split at " + splitThreshold;
+                assertEquals(orders, metrics.getOrdersParsed(), mode);
+                assertEquals(fields, metrics.getFieldsScanned(), mode);
+                if (splitThreshold == Long.MAX_VALUE) {
+                    assertEquals(bytes, metrics.getBytesRead(), mode);
+                } else {
+                    assertTrue(metrics.getBytesRead() > 0 && metrics.getBytesRead() <= bytes, mode);
+                }
+                assertEquals(metrics.getFiles(), metrics.getParseTimes().getCount(), mode);
+                assertTrue(metrics.getFiles() >= files.length, mode);
+                assertEquals(metrics.getFiles() - 1, metrics.getMergeTimes().getCount(), mode);
+                assertTrue(metrics.summarize().stream().anyMatch(line -> line.startsWith("Thread ")), mode);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenNewlineDelimitedFiles_thenSameResultAsArrays")
+    public void readStatisticsFromFile_newlineDelimitedFiles_ok(@TempDir Path folder) throws Exception {
+        Map<String, AttributeCounter> expected = countResourceOrders(order -> true);
+        File[] files = new File(RESOURCES_FOLDER_PATH).listFiles();
+        JsonFactory jsonFactory = new JsonFactory();
+        for (int i = 0; i < files.length; i++) {
+            String json = Files.readString(files[i].toPath());
+            StringBuilder lines = new StringBuilder();
+            try (JsonParser parser = jsonFactory.createParser(json)) {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token == JsonToken.START_OBJECT) {
+                        int start = (int) parser.currentTokenLocation().getCharOffset();
+                        parser.skipChildren();
+                        int end = (int) parser.currentLocation().getCharOffset();
+                        lines.append(json.substring(start, end).replaceAll("\\s*\\R\\s*", " ")).append('\n');
+                    }
+                }
+            }
+            String name = files[i].getName().replace(JSON_FILE_EXTENSION,
+                    i % 3 == 0 ? NDJSON_FILE_EXTENSION : i % 3 == 1 ? JSON_LINES_FILE_EXTENSION : JSON_FILE_EXTENSION);
+            Files.writeString(folder.resolve(name), lines);
+        }
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (long splitThreshold : List.of(Long.MAX_VALUE, 1024L)) {
+                options.readerMode(readerMode).splitThreshold(splitThreshold).chunkSize(2048L);
+                Map<String, AttributeCounter> result = readFromFolder(folder.toString(), ALL_ATTRIBUTES);
+
+                for (String attribute : ALL_ATTRIBUTES) {
+                    assertEquals(expected.get(attribute).size(), result.get(attribute).size(), attribute);
+                    expected.get(attribute).forEach((value, count) ->
+                            assertEquals(count, result.get(attribute).get(value), attribute + ": " + value));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenCompressedFiles_thenSameResultAsUncompressed")
+    public void readStatisticsFromFile_compressedFiles_ok(@TempDir Path folder) throws Exception {
+        Map<String, AttributeCounter> expected = countResourceOrders(order -> true);
+        File[] files = new File(RESOURCES_FOLDER_PATH).listFiles();
+        for (int i = 0; i < files.length; i++) {
+            Path target = folder.resolve(files[i].getName() + (i % 3 == 0 ? "" : i % 3 == 1 ? ".gz" : ".zst"));
+            try (OutputStream output = i % 3 == 0 ? Files.newOutputStream(target) : i % 3 == 1
+                    ? new GZIPOutputStream(Files.newOutputStream(target))
+                    : new ZstdOutputStream(Files.newOutputStream(target))) {
+                Files.copy(files[i].toPath(), output);
+            }
+        }
+        Files.writeString(folder.resolve("notes.txt.gz"), "not an order file");
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (boolean decompressionPipelined : List.of(true, false)) {
+                options.readerMode(readerMode)
+                        .decompressionPipelined(decompressionPipelined)
+                        .splitThreshold(1024L)
+                        .chunkSize(2048L);
+                Map<String, AttributeCounter> result = readFromFolder(folder.toString(), ALL_ATTRIBUTES);
 
-        Map<String, Integer> result = fileOperationService.readFromFile(TEST_FOLDER_PATH, TEST_ATTRIBUTE);
+                for (String attribute : ALL_ATTRIBUTES) {
+                    assertEquals(expected.get(attribute).size(), result.get(attribute).size(), attribute);
+                    expected.get(attribute).forEach((value, count) ->
+                            assertEquals(count, result.get(attribute).get(value), attribute + ": " + value));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenCompressedFileIsCorrupt_thenGetException")
+    public void readStatisticsFromFile_corruptCompressedFile_notOk(@TempDir Path folder) throws Exception {
+        byte[] compressed;
+        try (var bytes = new ByteArrayOutputStream(); var output = new GZIPOutputStream(bytes)) {
+            output.write(Files.readAllBytes(Path.of(RESOURCES_FOLDER_PATH, "orders_1.json")));
+            output.finish();
+            compressed = bytes.toByteArray();
+        }
+        Files.write(folder.resolve("orders_1.json.gz"), Arrays.copyOf(compressed, compressed.length / 2));
+        calculationService = new CalculationServiceImpl();
+
+        assertThrows(CustomFileException.class, () -> readFromFolder(folder.toString(), TEST_ATTRIBUTES));
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenOrdersMalformed_thenLeftOutByErrorPolicyAndListed")
+    public void readStatisticsFromFile_errorPolicy_ok(@TempDir Path folder, @TempDir Path validFolder,
+                                                     @TempDir Path goodFolder, @TempDir Path results) throws Exception {
+        for (Path target : List.of(folder, validFolder, goodFolder)) {
+            writeOrders(target.resolve("orders_0" + JSON_FILE_EXTENSION), 0, 200);
+            writeOrders(target.resolve("orders_1" + JSON_FILE_EXTENSION), 1, 200);
+        }
+        writeMalformedOrders(folder.resolve("orders_2" + JSON_FILE_EXTENSION), validFolder.resolve(
+                "orders_2" + JSON_FILE_EXTENSION), 200);
+        List<String> attributes = List.of("customer", "description");
+        XmlMapper realXmlMapper = new XmlMapper();
+        calculationService = new CalculationServiceImpl();
+        xmlMapper = realXmlMapper;
+        options.resultsFolder(results.toString());
+        Map<String, AttributeCounter> expectedSkipFile = readFromFolder(goodFolder.toString(), attributes);
+        Map<String, AttributeCounter> expectedSkipRecord = readFromFolder(validFolder.toString(), attributes);
+        assertFalse(Files.exists(results.resolve(FAILURES_FILE_NAME)));
+
+        for (ErrorPolicy errorPolicy : List.of(ErrorPolicy.SKIP_FILE, ErrorPolicy.SKIP_RECORD)) {
+            for (ExecutionMode executionMode : List.of(ExecutionMode.POOL, ExecutionMode.PIPELINE)) {
+                for (ReaderMode readerMode : ReaderMode.values()) {
+                    for (long splitThreshold : List.of(Long.MAX_VALUE, 1024L)) {
+                        options.errorPolicy(errorPolicy)
+                                .executionMode(executionMode)
+                                .readerMode(readerMode)
+                                .splitThreshold(splitThreshold)
+                                .chunkSize(2048L);
+                        Map<String, AttributeCounter> result = readFromFolder(folder.toString(), attributes);
+
+                        String mode = errorPolicy + ", " + executionMode + ", " + readerMode + ", split at "
+                                + splitThreshold;
+                        Map<String, AttributeCounter> expected = errorPolicy == ErrorPolicy.SKIP_FILE
+                                ? expectedSkipFile : expectedSkipRecord;
+                        for (String attribute : attributes) {
+                            assertEquals(toPricedList(expected.get(attribute)), toPricedList(result.get(attribute)),
+                                    mode);
+                        }
+                        List<ReadFailure> failures = realXmlMapper.readValue(
+                                results.resolve(FAILURES_FILE_NAME).toFile(), ReadFailures.class).getFailures();
+                        assertTrue(failures.stream().allMatch(failure -> failure.getFile().endsWith("orders_2"
+                                + JSON_FILE_EXTENSION) && !failure.getError().isEmpty()), mode);
+                        if (errorPolicy == ErrorPolicy.SKIP_RECORD) {
+                            assertEquals(2, failures.size(), mode);
+                            assertTrue(failures.stream().allMatch(failure ->
+                                    failure.getSkipped().equals(ReadFailure.SKIPPED_ORDER)), mode);
+                        } else {
+                            assertFalse(failures.isEmpty(), mode);
+                            assertTrue(failures.stream().allMatch(failure ->
+                                    failure.getSkipped().equals(ReadFailure.SKIPPED_FILE)), mode);
+                        }
+                    }
+                }
+            }
+        }
+        options.errorPolicy(ErrorPolicy.FAIL_FAST).executionMode(ExecutionMode.POOL);
+
+        assertThrows(CustomFileException.class, () -> readFromFolder(folder.toString(), attributes));
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenOrdersCantBeCountedAfterRecovery_thenFileListedOnlyAsWhole")
+    public void readStatisticsFromFile_skipRecordRecoveryFails_ok(@TempDir Path folder, @TempDir Path validFolder,
+                                                                 @TempDir Path results) throws Exception {
+        writeMalformedOrders(folder.resolve("orders_1" + JSON_FILE_EXTENSION), validFolder.resolve(
+                "orders_1" + JSON_FILE_EXTENSION), 20);
+        doThrow(new IOException("The values can't be counted")).when(calculationService)
+                .calculateAttributes(any(JsonParser.class), any(), any());
+        when(calculationService.sortByDescendingValues(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        XmlMapper realXmlMapper = new XmlMapper();
+        xmlMapper = realXmlMapper;
+        options.resultsFolder(results.toString()).errorPolicy(ErrorPolicy.SKIP_RECORD).readerMode(ReaderMode.JACKSON);
+
+        Map<String, AttributeCounter> result = readFromFolder(folder.toString(), TEST_ATTRIBUTES);
+
+        assertEquals(0, result.get(TEST_ATTRIBUTE).size());
+        List<ReadFailure> failures = realXmlMapper.readValue(results.resolve(FAILURES_FILE_NAME).toFile(),
+                ReadFailures.class).getFailures();
+        assertEquals(1, failures.size());
+        assertEquals(ReadFailure.SKIPPED_FILE, failures.get(0).getSkipped());
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenFileOutsideDateRangeIsIndexed_thenFileNotOpened")
+    public void readStatisticsFromFile_dateIndex_ok(@TempDir Path folder, @TempDir Path results) throws Exception {
+        Path oldOrders = folder.resolve("orders_2023" + JSON_FILE_EXTENSION);
+        writeDatedOrders(oldOrders, "2023-03-", 40);
+        writeDatedOrders(folder.resolve("orders_2024" + JSON_FILE_EXTENSION), "2024-03-", 50);
+        calculationService = new CalculationServiceImpl();
+        dateIndexService = new DateIndexServiceImpl(results.toString());
+        options.dateRange(new DateRange(LocalDate.of(2024, 1, 1), null));
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            options.readerMode(readerMode);
+            AttributeCounter result = readFromFolder(folder.toString(), TEST_ATTRIBUTES).get(TEST_ATTRIBUTE);
 
-        assertEquals(expectedStatistics, result);
+            assertEquals(50, result.size());
+            assertTrue(Files.exists(results.resolve(DATE_INDEX_FILE_NAME)));
+            long lastModified = oldOrders.toFile().lastModified();
+            Files.writeString(oldOrders, "\"" + "x".repeat((int) Files.size(oldOrders) - 1));
+            assertTrue(oldOrders.toFile().setLastModified(lastModified));
+        }
+        options.dateRange(new DateRange(LocalDate.of(2023, 3, 10), null));
+
+        assertThrows(CustomFileException.class, () -> readFromFolder(folder.toString(), TEST_ATTRIBUTES));
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenSeveralAttributes_thenSameResultAsSeparateRuns")
+    public void readStatisticsFromFile_severalAttributes_ok() throws Exception {
+        calculationService = new CalculationServiceImpl();
+
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            options.readerMode(readerMode);
+            Map<String, AttributeCounter> result = readFromFolder(RESOURCES_FOLDER_PATH, ALL_ATTRIBUTES);
+
+            assertEquals(ALL_ATTRIBUTES, List.copyOf(result.keySet()));
+            for (String attribute : ALL_ATTRIBUTES) {
+                AttributeCounter expected = readWithRealExecutor(readerMode, attribute);
+                assertEquals(expected.size(), result.get(attribute).size());
+                expected.forEach((value, count) -> assertEquals(count, result.get(attribute).get(value)));
+            }
+        }
     }
 
     @Test
-    @DisplayName("givenReadStatisticsFromFile_whenExecutorDidNotTerminate_thenGetTimeoutException")
-    public void readStatisticsFromFile_TimeoutException() throws InterruptedException {
-        when(executorService.awaitTermination(anyLong(), any())).thenReturn(false);
+    @DisplayName("givenReadStatisticsFromFile_whenIncrementalAfterFilesChanged_thenSameResultAsFullRun")
+    public void readStatisticsFromFile_incremental_ok(@TempDir Path folder, @TempDir Path results) throws Exception {
+        for (int file = 0; file < 4; file++) {
+            writeOrders(folder.resolve("orders_" + file + JSON_FILE_EXTENSION), file, 200);
+        }
+        snapshotService = spy(new SnapshotServiceImpl(results.toString()));
+        calculationService = new CalculationServiceImpl();
+        options.incremental(true);
+        readFromFolder(folder.toString(), List.of("customer", "description"));
+
+        writeOrders(folder.resolve("orders_0" + JSON_FILE_EXTENSION), 10, 150);
+        Files.delete(folder.resolve("orders_1" + JSON_FILE_EXTENSION));
+        File touchedFile = folder.resolve("orders_2" + JSON_FILE_EXTENSION).toFile();
+        assertTrue(touchedFile.setLastModified(touchedFile.lastModified() + 10_000));
+        writeOrders(folder.resolve("orders_4" + JSON_FILE_EXTENSION), 4, 300);
+        clearInvocations(snapshotService);
+        Map<String, AttributeCounter> result = readFromFolder(folder.toString(), List.of("customer", "description"));
 
-        assertThrows(ExecutorTimeoutException.class, () ->
-                fileOperationService.readFromFile(TEST_FOLDER_PATH, TEST_ATTRIBUTE));
+        options.incremental(false);
+        Map<String, AttributeCounter> expected = readFromFolder(folder.toString(),
+                List.of("customer", "description"));
+        verify(snapshotService, times(3)).calculateContentHash(any());
+        for (String attribute : expected.keySet()) {
+            assertEquals(toList(expected.get(attribute)), toList(result.get(attribute)), attribute);
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenIncrementalAfterSeparatorChanged_thenFilesReadAgain")
+    public void readStatisticsFromFile_incrementalSeparatorChanged_ok(@TempDir Path folder, @TempDir Path results)
+            throws Exception {
+        for (int file = 0; file < 3; file++) {
+            writeOrders(folder.resolve("orders_" + file + JSON_FILE_EXTENSION), file, 100);
+        }
+        snapshotService = spy(new SnapshotServiceImpl(results.toString()));
+        List<String> attributes = List.of("description");
+
+        List<String> runs = List.of("", "description=,", "description=,", "description=|");
+        List<Integer> readFiles = List.of(3, 3, 0, 3);
+        for (int run = 0; run < runs.size(); run++) {
+            String definitions = runs.get(run);
+            calculationService = new CalculationServiceImpl(DateBucket.NONE,
+                    MultiValuedAttribute.parseAll(definitions));
+            clearInvocations(snapshotService);
+            options.incremental(true);
+            Map<String, AttributeCounter> result = readFromFolder(folder.toString(), attributes);
+            verify(snapshotService, times(readFiles.get(run))).calculateContentHash(any());
+
+            options.incremental(false);
+            Map<String, AttributeCounter> expected = readFromFolder(folder.toString(), attributes);
+            assertEquals(toPricedList(expected.get("description")), toPricedList(result.get("description")),
+                    definitions);
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenCacheEnabled_thenSameResultAsJsonFiles")
+    public void readStatisticsFromFile_cache_ok(@TempDir Path folder, @TempDir Path results) throws Exception {
+        for (File file : new File(RESOURCES_FOLDER_PATH).listFiles()) {
+            Files.copy(file.toPath(), folder.resolve(file.getName()));
+        }
+        orderCacheService = spy(new OrderCacheServiceImpl(results.resolve(CACHE_FOLDER_NAME).toString()));
+        calculationService = new CalculationServiceImpl(DateBucket.NONE,
+                MultiValuedAttribute.parseAll("description=, date=-"));
+        dateIndexService = new DateIndexServiceImpl(results.toString());
+
+        assertSameStatisticsWithCache(folder);
+        options.priceEnabled(true);
+        assertSameStatisticsWithCache(folder);
+        options.filterConditions(Condition.parseAll("statusPayment == true && totalPrice > 100"))
+                .dateRange(new DateRange(LocalDate.of(2024, 4, 15), null));
+        assertSameStatisticsWithCache(folder);
+        verify(orderCacheService, times(1)).ingest(any(), any());
+
+        writeOrders(folder.resolve("orders_new" + JSON_FILE_EXTENSION), 3, 100);
+        options.filterConditions(List.of()).dateRange(new DateRange(null, null));
+        assertSameStatisticsWithCache(folder);
+        verify(orderCacheService, times(2)).ingest(any(), any());
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenCalledSeveralTimes_thenExecutorIsReused")
+    public void readStatisticsFromFile_severalCalls_ok() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        calculationService = new CalculationServiceImpl();
+        FileOperationServiceImpl fileOperationService = createService(executor);
+
+        try {
+            AttributeCounter expected = fileOperationService.readFromFile(RESOURCES_FOLDER_PATH, TEST_ATTRIBUTES)
+                    .get(TEST_ATTRIBUTE);
+            for (int run = 0; run < 3; run++) {
+                AttributeCounter result = fileOperationService.readFromFile(RESOURCES_FOLDER_PATH, TEST_ATTRIBUTES)
+                        .get(TEST_ATTRIBUTE);
+
+                assertFalse(executor.isShutdown());
+                assertEquals(expected.size(), result.size());
+                expected.forEach((value, count) -> assertEquals(count, result.get(value)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("givenReadStatisticsFromFile_whenWaitingIsInterrupted_thenGetTimeoutException")
+    public void readStatisticsFromFile_TimeoutException() {
+        Thread.currentThread().interrupt();
+
+        try {
+            assertThrows(ExecutorTimeoutException.class, () ->
+                    createService(executorService).readFromFile(TEST_FOLDER_PATH, TEST_ATTRIBUTES));
+        } finally {
+            Thread.interrupted();
+        }
     }
 
     @Test
     @DisplayName("givenReadStatisticsFromFile_whenInvalidInput_thenGetException")
     public void readStatisticsFromFile_invalidInput_notOk() {
         assertThrows(CustomFileException.class, () ->
-                fileOperationService.readFromFile(BAD_FOLDER_PATH, TEST_ATTRIBUTE));
+                createService(executorService).readFromFile(BAD_FOLDER_PATH, TEST_ATTRIBUTES));
     }
 
     @Test
     @DisplayName("givenSaveStatisticsToFile_whenValidInput_thenSuccess")
-    public void saveStatisticsToFile_validInput_ok() throws IOException {
-        Map<String, Integer> statistics = new HashMap<>();
-        statistics.put("value1", 1);
+    public void saveStatisticsToFile_validInput_ok(@TempDir Path results) throws Exception {
+        AttributeCounter statistics = new AttributeCounter();
+        statistics.add("value <1> & \"2\"", 3);
+        statistics.add("Привіт", 2);
+        statistics.increment("value3");
+        XmlMapper realXmlMapper = new XmlMapper();
+        xmlMapper = realXmlMapper;
+        options.resultsFolder(results.toString());
 
-        doNothing().when(xmlMapper).writeValue(any(File.class), any(Statistics.class));
-        fileOperationService.saveToFile(statistics, TEST_ATTRIBUTE);
+        createService(executorService).saveToFile(statistics, TEST_ATTRIBUTE);
 
-        verify(xmlMapper, times(1)).writeValue(
-                eq(new File(DEFAULT_PATH_FOR_RESULTS + FILE_NAME_PREFIX + TEST_ATTRIBUTE + XML_FILE_EXTENSION)),
-                any(Statistics.class)
-        );
+        String expected = realXmlMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(new Statistics(
+                List.of(new Item("value <1> & \"2\"", 3L), new Item("Привіт", 2L), new Item("value3", 1L))));
+        assertEquals(expected, Files.readString(results.resolve(FILE_NAME_PREFIX + TEST_ATTRIBUTE + XML_FILE_EXTENSION)));
     }
 
     @Test
-    @DisplayName("givenSaveStatisticsToFile_whenEmptyStatistics_thenResultNotCreatedInFolder")
-    public void saveStatisticsToFile_emptyStatistics() throws IOException {
-        Map<String, Integer> emptyStatistics = new HashMap<>();
+    @DisplayName("givenSaveStatisticsToFile_whenPriceStatistics_thenExtraElementsInItems")
+    public void saveStatisticsToFile_priceStatistics_ok(@TempDir Path results) throws Exception {
+        AttributeCounter statistics = new AttributeCounter().withPriceStatistics(new PriceStatistics());
+        OrderPrice orderPrice = new OrderPrice();
+        for (String price : new String[] {"10.00", "20.50", "1.005"}) {
+            statistics.increment("John");
+            orderPrice.parse(price.toCharArray(), 0, price.length());
+            statistics.completeOrder(orderPrice);
+        }
+        statistics.increment("Alice");
+        orderPrice.clear();
+        statistics.completeOrder(orderPrice);
+        XmlMapper realXmlMapper = new XmlMapper();
+        xmlMapper = realXmlMapper;
+        options.resultsFolder(results.toString())
+                .pricePercentiles(List.of(new BigDecimal("50"), new BigDecimal("99.9")));
 
-        assertDoesNotThrow(() -> fileOperationService.saveToFile(emptyStatistics, "empty_attribute"));
+        createService(executorService).saveToFile(statistics, TEST_ATTRIBUTE);
 
-        verify(xmlMapper, times(0)).writeValue(
-                eq(new File(DEFAULT_PATH_FOR_RESULTS + FILE_NAME_PREFIX + TEST_ATTRIBUTE + XML_FILE_EXTENSION)),
-                any(Statistics.class)
-        );
+        Map<String, BigDecimal> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", new BigDecimal("10.07"));
+        percentiles.put("p99.9", new BigDecimal("10.07"));
+        String expected = realXmlMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(new Statistics(
+                List.of(new Item("John", 3L, new PriceSummary(new BigDecimal("31.505"), new BigDecimal("1.005"),
+                                new BigDecimal("20.50"), new BigDecimal("10.502"), percentiles)),
+                        new Item("Alice", 1L))));
+        assertEquals(expected, Files.readString(results.resolve(FILE_NAME_PREFIX + TEST_ATTRIBUTE + XML_FILE_EXTENSION)));
     }
 
     @Test
-    @DisplayName("givenSaveStatisticsToFile_whenMapperWriteValue_thenGetException")
-    public void saveStatisticsToFile_validInput_mapperWriteFail_notOk() throws IOException {
-        Map<String, Integer> statistics = new HashMap<>();
-        statistics.put("value1", 1);
-        statistics.put("value2", 2);
+    @DisplayName("givenSaveStatisticsToFile_whenEmptyStatistics_thenResultNotCreatedInFolder")
+    public void saveStatisticsToFile_emptyStatistics(@TempDir Path results) throws Exception {
+        AttributeCounter emptyStatistics = new AttributeCounter();
+        options.resultsFolder(results.toString());
 
-        when(xmlMapper.enable(SerializationFeature.INDENT_OUTPUT)).thenReturn(xmlMapper);
-        doThrow(IOException.class).when(xmlMapper).writeValue(any(File.class), any(Statistics.class));
+        assertDoesNotThrow(() -> createService(executorService).saveToFile(emptyStatistics, "empty_attribute"));
+
+        assertFalse(Files.exists(results.resolve(FILE_NAME_PREFIX + "empty_attribute" + XML_FILE_EXTENSION)));
+        verifyNoInteractions(xmlMapper);
+    }
+
+    @Test
+    @DisplayName("givenSaveStatisticsToFile_whenResultsFolderIsMissing_thenGetException")
+    public void saveStatisticsToFile_validInput_writeFail_notOk(@TempDir Path results) throws Exception {
+        AttributeCounter statistics = new AttributeCounter();
+        statistics.increment("value1");
+        statistics.add("value2", 2);
+        xmlMapper = new XmlMapper();
+        options.resultsFolder(results.resolve("missing").toString());
 
         assertThrows(CustomFileException.class, () ->
-                fileOperationService.saveToFile(statistics, TEST_ATTRIBUTE));
+                createService(executorService).saveToFile(statistics, TEST_ATTRIBUTE));
+    }
+
+    private FileOperationServiceImpl createService(ExecutorService executor) {
+        FileOperationServiceImpl fileOperationService =
+                new FileOperationServiceImpl(options.build(), xmlMapper, executor, metrics);
+        fileOperationService.calculateService = calculationService;
+        fileOperationService.snapshotService = snapshotService;
+        fileOperationService.dateIndexService = dateIndexService;
+        fileOperationService.orderCacheService = orderCacheService;
+        return fileOperationService;
+    }
+
+    private Map<String, AttributeCounter> readFromFolder(String folderPath, List<String> attributes) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_NUMBER);
+        try {
+            return createService(executor).readFromFile(folderPath, attributes);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private AttributeCounter readWithRealExecutor(ReaderMode readerMode, String attribute) {
+        options.readerMode(readerMode);
+        return readFromFolder(RESOURCES_FOLDER_PATH, List.of(attribute)).get(attribute);
+    }
+
+    private static void writeOrders(Path file, int seed, int ordersNumber) throws IOException {
+        StringBuilder orders = new StringBuilder("[");
+        for (int order = 0; order < ordersNumber; order++) {
+            orders.append(order == 0 ? "" : ",").append("{\"id\":").append(order)
+                    .append(",\"customer\":\"Customer ").append((order * 31 + seed) % 53)
+                    .append("\",\"description\":\"tag").append(order % 7).append(", tag").append(seed).append("\"}");
+        }
+        Files.writeString(file, orders.append("]"));
+    }
+
+    private static void writeMalformedOrders(Path file, Path validFile, int ordersNumber) throws IOException {
+        StringBuilder orders = new StringBuilder("[");
+        StringBuilder validOrders = new StringBuilder("[");
+        for (int order = 0; order < ordersNumber; order++) {
+            String json = "{\"id\":" + order + ",\"customer\":\"Customer " + order % 17
+                    + "\",\"description\":\"tag" + order % 5 + "\"}";
+            if (order == ordersNumber / 4) {
+                json = json.substring(0, json.length() - 1);
+            } else if (order == ordersNumber / 2) {
+                json = json.replace("\"customer\"", "customer\"");
+            } else {
+                validOrders.append(validOrders.length() == 1 ? "" : ",\n").append(json);
+            }
+            orders.append(order == 0 ? "" : ",\n").append(json);
+        }
+        Files.writeString(file, orders.append("]"));
+        Files.writeString(validFile, validOrders.append("]"));
+    }
+
+    private Map<String, AttributeCounter> countResourceOrders(Predicate<Map<String, String>> filter) throws IOException {
+        Map<String, AttributeCounter> expected = new HashMap<>();
+        for (File file : new File(RESOURCES_FOLDER_PATH).listFiles()) {
+            try (JsonParser parser = new JsonFactory().createParser(file)) {
+                Map<String, String> order = new HashMap<>();
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                    if (token.isScalarValue() && parser.getCurrentName() != null) {
+                        order.put(parser.getCurrentName(), parser.getText());
+                    } else if (token == JsonToken.END_OBJECT) {
+                        if (filter.test(order)) {
+                            order.forEach((attribute, value) -> Arrays.stream(attribute.equals("description")
+                                            ? value.split(",") : new String[]{value})
+                                    .forEach(part -> expected.computeIfAbsent(attribute, key -> new AttributeCounter())
+                                            .increment(part.trim())));
+                        }
+                        order.clear();
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    private void assertSameStatisticsForAllReaders(Map<String, AttributeCounter> expected) throws Exception {
+        for (ReaderMode readerMode : ReaderMode.values()) {
+            for (long splitThreshold : List.of(Long.MAX_VALUE, 1024L)) {
+                options.readerMode(readerMode).splitThreshold(splitThreshold).chunkSize(2048L);
+                Map<String, AttributeCounter> result = readFromFolder(RESOURCES_FOLDER_PATH, ALL_ATTRIBUTES);
+
+                for (String attribute : ALL_ATTRIBUTES) {
+                    assertEquals(expected.get(attribute).size(), result.get(attribute).size(), attribute);
+                    expected.get(attribute).forEach((value, count) ->
+                            assertEquals(count, result.get(attribute).get(value), attribute + ": " + value));
+                }
+            }
+        }
+    }
+
+    private void assertSameStatisticsWithCache(Path folder) throws Exception {
+        options.cacheEnabled(false);
+        Map<String, AttributeCounter> expected = readFromFolder(folder.toString(), ALL_ATTRIBUTES);
+        options.cacheEnabled(true);
+        Map<String, AttributeCounter> result = readFromFolder(folder.toString(), ALL_ATTRIBUTES);
+
+        for (String attribute : ALL_ATTRIBUTES) {
+            assertEquals(toPricedList(expected.get(attribute)), toPricedList(result.get(attribute)), attribute);
+        }
+    }
+
+    private static void writeDatedOrders(Path file, String month, int ordersNumber) throws IOException {
+        StringBuilder orders = new StringBuilder("[");
+        for (int order = 0; order < ordersNumber; order++) {
+            orders.append(order == 0 ? "" : ",").append("{\"customer\":\"Customer ").append(order)
+                    .append("\",\"date\":\"").append(month).append(String.format("%02d", order % 28 + 1))
+                    .append("\"}");
+        }
+        Files.writeString(file, orders.append("]"));
+    }
+
+    private static List<String> toList(AttributeCounter statistics) {
+        List<String> entries = new ArrayList<>();
+        statistics.forEach((value, count) -> entries.add(value + "=" + count));
+        return entries;
+    }
+
+    private static List<String> toPricedList(AttributeCounter statistics) {
+        PriceStatistics priceStatistics = statistics.getPriceStatistics();
+        List<String> entries = new ArrayList<>();
+        statistics.forEachEntry((index, value, count) -> entries.add(value + "=" + count
+                + (priceStatistics != null ? ":" + priceStatistics.getSum(index) : "")));
+        entries.sort(null);
+        return entries;
     }
 }
@@ -1,5 +1,6 @@
 package org.example.service.impl;
 
+import org.example.aggregation.AttributeCounter;
 import org.example.service.FileOperationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,9 +14,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -37,12 +42,13 @@ class StatisticsProcessorServiceImplTest {
     public void processStatistics_invalidFolderPath_notOk() throws NoSuchFieldException, IllegalAccessException {
         String invalidFolderPath = "invalid/path" + "\n" + "src/test/resources/orders" + "\n" + "date";
         setNeededScanner(invalidFolderPath);
+        stubReadFromFile(List.of("date"));
 
         statisticsProcessorService.processStatistics();
 
         assertEquals("Please check the path to the folder is entered correctly", errContent.toString().trim());
-        verify(fileOperationService).readFromFile(anyString(), anyString());
-        verify(fileOperationService).saveToFile(anyMap(), anyString());
+        verify(fileOperationService).readFromFile(anyString(), anyList());
+        verify(fileOperationService).saveToFile(any(), anyString());
     }
 
     @Test
@@ -50,13 +56,29 @@ class StatisticsProcessorServiceImplTest {
     public void processStatistics_invalidAttribute_notOk() throws NoSuchFieldException, IllegalAccessException {
         String invalidAttribute = "src/test/resources/orders" + "\n" + "badAttribute" + "\n" + "customer";
         setNeededScanner(invalidAttribute);
+        stubReadFromFile(List.of("customer"));
 
         statisticsProcessorService.processStatistics();
 
         assertEquals("The entered attribute doesn't match the fields of the object. Please enter another one",
                 errContent.toString().trim());
-        verify(fileOperationService).readFromFile(anyString(), anyString());
-        verify(fileOperationService).saveToFile(anyMap(), anyString());
+        verify(fileOperationService).readFromFile(anyString(), anyList());
+        verify(fileOperationService).saveToFile(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("givenProcessStatistics_whenInvalidAttributeInList_thenGetErrorMessage")
+    public void processStatistics_invalidAttributeInList_notOk() throws NoSuchFieldException, IllegalAccessException {
+        String invalidAttribute = "src/test/resources/orders" + "\n" + "customer, badAttribute" + "\n" + "customer";
+        setNeededScanner(invalidAttribute);
+        stubReadFromFile(List.of("customer"));
+
+        statisticsProcessorService.processStatistics();
+
+        assertEquals("The entered attribute doesn't match the fields of the object. Please enter another one",
+                errContent.toString().trim());
+        verify(fileOperationService).readFromFile(anyString(), anyList());
+        verify(fileOperationService).saveToFile(any(), anyString());
     }
 
     @Test
@@ -64,12 +86,62 @@ class StatisticsProcessorServiceImplTest {
     public void processStatistics_validInput_ok() throws NoSuchFieldException, IllegalAccessException {
         String validInput = "src/test/resources/orders" + "\n" + "customer";
         setNeededScanner(validInput);
+        stubReadFromFile(List.of("customer"));
+
+        statisticsProcessorService.processStatistics();
+
+        assertTrue(errContent.toString().isEmpty());
+        verify(fileOperationService).readFromFile(anyString(), anyList());
+        verify(fileOperationService).saveToFile(any(), anyString());
+    }
+
+    @Test
+    @DisplayName("givenProcessStatistics_whenSeveralAttributes_thenReadOnceAndSaveEachAttribute")
+    public void processStatistics_severalAttributes_ok() throws NoSuchFieldException, IllegalAccessException {
+        String validInput = "src/test/resources/orders" + "\n" + "customer, date,statusPayment, date";
+        setNeededScanner(validInput);
+        stubReadFromFile(List.of("customer", "date", "statusPayment"));
 
         statisticsProcessorService.processStatistics();
 
         assertTrue(errContent.toString().isEmpty());
-        verify(fileOperationService).readFromFile(anyString(), anyString());
-        verify(fileOperationService).saveToFile(anyMap(), anyString());
+        verify(fileOperationService).readFromFile("src/test/resources/orders", List.of("customer", "date", "statusPayment"));
+        verify(fileOperationService).saveToFile(any(), eq("customer"));
+        verify(fileOperationService).saveToFile(any(), eq("date"));
+        verify(fileOperationService).saveToFile(any(), eq("statusPayment"));
+    }
+
+    @Test
+    @DisplayName("givenProcessStatistics_whenArguments_thenReadWithoutAskingAndSaveEachAttribute")
+    public void processStatistics_arguments_ok() {
+        stubReadFromFile(List.of("customer", "date"));
+
+        statisticsProcessorService.processStatistics("src/test/resources/orders", "customer, date,customer");
+
+        assertTrue(errContent.toString().isEmpty());
+        verify(fileOperationService).readFromFile("src/test/resources/orders", List.of("customer", "date"));
+        verify(fileOperationService).saveToFile(any(), eq("customer"));
+        verify(fileOperationService).saveToFile(any(), eq("date"));
+    }
+
+    @Test
+    @DisplayName("givenProcessStatistics_whenInvalidArguments_thenThrowException")
+    public void processStatistics_invalidArguments_notOk() {
+        IllegalArgumentException folderException = assertThrows(IllegalArgumentException.class,
+                () -> statisticsProcessorService.processStatistics("invalid/path", "customer"));
+        IllegalArgumentException attributeException = assertThrows(IllegalArgumentException.class,
+                () -> statisticsProcessorService.processStatistics("src/test/resources/orders", "customer,badAttribute"));
+
+        assertEquals("The folder invalid/path doesn't exist", folderException.getMessage());
+        assertEquals("The attribute badAttribute doesn't match the fields of the object",
+                attributeException.getMessage());
+        verifyNoInteractions(fileOperationService);
+    }
+
+    private void stubReadFromFile(List<String> attributes) {
+        Map<String, AttributeCounter> statistics = new LinkedHashMap<>();
+        attributes.forEach(attribute -> statistics.put(attribute, new AttributeCounter()));
+        when(fileOperationService.readFromFile(anyString(), anyList())).thenReturn(statistics);
     }
 
     private void setNeededScanner(String input) throws NoSuchFieldException, IllegalAccessException {